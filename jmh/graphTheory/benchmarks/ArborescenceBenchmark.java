@@ -0,0 +1,99 @@
+package graphTheory.benchmarks;
+
+import graphTheory.algorithms.steinerProblems.steinerArborescenceApproximation.SteinerArborescenceApproximationAlgorithm;
+import graphTheory.instances.steiner.classic.SteinerDirectedInstance;
+import graphTheory.steinLib.SteinLibTransformationPipeline;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmarks measuring the running time of the
+ * {@link SteinerArborescenceApproximationAlgorithm}s over
+ * {@link BenchmarkInput}s.
+ * <p>
+ * Each couple (algorithm, input) is a benchmark, and an operation is the run
+ * of the algorithm over every instance of the input. The cost and the
+ * arborescence of each run are consumed by a {@link Blackhole}, so that the
+ * JIT compiler cannot remove the runs, and the instances are read from the
+ * state, so that it cannot fold them into constants. The score is the mean
+ * time of an operation in ms.
+ * <p>
+ * The benchmarks are built with the jmh profile of the Maven build, and run
+ * from the root directory of the project, which contains the SteinLib
+ * directory. The gc profiler gives the bytes allocated by an operation and
+ * the garbage collections. For example :
+ *
+ * <pre>
+ * mvn -Pjmh package
+ * java -jar target/benchmarks.jar -prof gc -p algorithm=GFLACAlgorithm,RoosAlgorithm -p input=B-bd,random-100
+ * </pre>
+ *
+ * @author Watel Dimitri
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(2)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ArborescenceBenchmark {
+
+	/**
+	 * Name of the algorithm, as in {@link Algorithms#getAlgorithm(String)}.
+	 * The default values are {@link Algorithms#DEFAULT_ALGORITHMS}.
+	 */
+	@Param({ "GFLACAlgorithm", "GFLAC2Algorithm", "GFLAC3Algorithm",
+			"GFLACTRAlgorithm", "GFLACTR2Algorithm", "GFLACTR3Algorithm",
+			"RoosAlgorithm", "WongAlgorithm", "ShPAlgorithm", "ShP2Algorithm" })
+	public String algorithm;
+
+	/**
+	 * Name of the input, as in
+	 * {@link BenchmarkInput#load(String, String, long)}.
+	 */
+	@Param({ "B-bd", "B-ac", "B-st", "random-50", "random-100", "random-200" })
+	public String input;
+
+	/**
+	 * The SteinLib main directory, containing the subdirectory of each group
+	 * and the Results directory.
+	 */
+	@Param("SteinLib/")
+	public String steinLibMainDir;
+
+	private BenchmarkInput instances;
+	private SteinerArborescenceApproximationAlgorithm alg;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		instances = BenchmarkInput.load(input, steinLibMainDir,
+				SteinLibTransformationPipeline.DEFAULT_SEED);
+		alg = Algorithms.getAlgorithm(algorithm);
+		alg.setCheckFeasibility(false);
+	}
+
+	@Benchmark
+	public void run(Blackhole bh) {
+		for (SteinerDirectedInstance sdi : instances.getInstances()) {
+			alg.setInstance(sdi);
+			alg.compute();
+			bh.consume(alg.getCost());
+			bh.consume(alg.getArborescence());
+		}
+	}
+}
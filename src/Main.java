@@ -5,25 +5,29 @@ import graphTheory.algorithms.steinerProblems.steinerArborescenceApproximation.S
 import graphTheory.algorithms.steinerProblems.steinerArborescenceApproximation.ShPAlgorithm;
 import graphTheory.algorithms.steinerProblems.steinerArborescenceApproximation.SteinerArborescenceApproximationAlgorithm;
 import graphTheory.algorithms.steinerProblems.steinerArborescenceApproximation.WongAlgorithm;
+import graphTheory.benchmarks.CampaignRunner;
 import graphTheory.generators.RandomSteinerDirectedGraphGenerator2;
+import graphTheory.generators.steinLib.PrefetchingSTPGenerator;
 import graphTheory.generators.steinLib.STPDirectedGenerator;
 import graphTheory.generators.steinLib.STPGenerator;
-import graphTheory.generators.steinLib.STPUndirectedGenerator;
 import graphTheory.graph.Arc;
 import graphTheory.graph.DirectedGraph;
 import graphTheory.graph.UndirectedGraph;
 import graphTheory.graphDrawer.EnergyAnalogyGraphDrawer;
 import graphTheory.instances.steiner.classic.SteinerDirectedInstance;
 import graphTheory.instances.steiner.classic.SteinerUndirectedInstance;
+import graphTheory.steinLib.InstanceCache;
 import graphTheory.steinLib.STPTranslationException;
 import graphTheory.steinLib.STPTranslator;
 import graphTheory.steinLib.SteinLibInstancesGroups;
-import graphTheory.utils.FileManager;
+import graphTheory.steinLib.SteinLibTransformation;
+import graphTheory.steinLib.SteinLibTransformationPipeline;
 import graphTheory.utils.probabilities.BBernouilliLaw;
 import graphTheory.utils.probabilities.BConstantLaw;
 
 import java.awt.Color;
 import java.io.File;
+import java.util.Arrays;
 import java.util.HashSet;
 
 /**
@@ -317,47 +321,9 @@ public class Main {
 	 */
 	public static void createBidirectedInstances(String steinLibMainDir,
 			String steinLibSubDir, String steinLibTargetMainDir) {
-		File f = new File(steinLibMainDir + steinLibSubDir);
-		String name = f.listFiles()[0].getName();
-		name = name.substring(0, name.length() - 4); 
-		SteinLibInstancesGroups slig = SteinLibInstancesGroups.getGroup(name);
-
-		// File containing for each instance the  optimal solution cost
-		String resultFilePath = slig.getResultFileName();
-
-		// Make the target directories if they do not exists.
-		File mkdir = new File(steinLibTargetMainDir+steinLibSubDir);
-		mkdir.mkdirs();
-		mkdir = new File(steinLibTargetMainDir+"Results");
-		mkdir.mkdirs();
-
-		STPUndirectedGenerator gen = new STPUndirectedGenerator(steinLibMainDir
-				+ steinLibSubDir, steinLibMainDir + resultFilePath);
-
-		FileManager writeOptimalSolutionsValues = new FileManager();
-		writeOptimalSolutionsValues.openErase(steinLibTargetMainDir+resultFilePath);
-		for (int i = 0; i < gen.getNumberOfInstances(); i++) {
-			SteinerUndirectedInstance sui = gen.generate();
-			SteinerDirectedInstance sdi = SteinerDirectedInstance
-					.getSymetrizedGraphFromUndirectedInstance(sui);
-
-			String instanceName = sui.getGraph().getParam(
-					STPGenerator.OUTPUT_NAME_PARAM_NAME)
-					+ "bd";
-
-			Integer instanceOptimumValue = sui.getGraph().getParamInteger(
-					STPGenerator.OUTPUT_OPTIMUM_VALUE_PARAM_NAME);
-
-			writeOptimalSolutionsValues.writeln(instanceName+" "+instanceOptimumValue);
-
-			STPTranslator.translateSteinerGraph(
-					sdi,
-					steinLibTargetMainDir
-					+ steinLibSubDir
-					+ instanceName+".stp");
-
-		}
-		writeOptimalSolutionsValues.closeWrite();
+		new SteinLibTransformationPipeline().transform(steinLibMainDir,
+				steinLibSubDir, steinLibTargetMainDir,
+				SteinLibTransformation.BIDIRECTED);
 	}
 
 	/**
@@ -374,55 +340,9 @@ public class Main {
 	 */
 	public static void createAcyclicInstances(String steinLibMainDir,
 			String steinLibSubDir, String steinLibTargetMainDir) {
-		File f = new File(steinLibMainDir + steinLibSubDir);
-		String name = f.listFiles()[0].getName();
-		name = name.substring(0, name.length() - 4);
-		SteinLibInstancesGroups slig = SteinLibInstancesGroups.getGroup(name);
-
-		// File containing for each instance the  optimal solution cost
-		String resultFilePath = slig.getResultFileName();
-
-
-		// Make the target directories if they do not exists.
-		File mkdir = new File(steinLibTargetMainDir+steinLibSubDir);
-		mkdir.mkdirs();
-		mkdir = new File(steinLibTargetMainDir+"Results");
-		mkdir.mkdirs();
-
-		STPUndirectedGenerator gen = new STPUndirectedGenerator(steinLibMainDir
-				+ steinLibSubDir, steinLibMainDir + resultFilePath);
-
-		FileManager writeOptimalSolutionsValues = new FileManager();
-		writeOptimalSolutionsValues.openErase(steinLibTargetMainDir+resultFilePath);
-		for (int i = 0; i < gen.getNumberOfInstances(); i++) {
-			SteinerUndirectedInstance sui = gen.generate();
-
-			@SuppressWarnings("unchecked")
-			HashSet<Arc> arborescence = (HashSet<Arc>) sui.getGraph().getParam(
-					STPGenerator.OUTPUT_OPTIMUM_PARAM_NAME);
-			if(arborescence == null)
-				continue;
-
-			SteinerDirectedInstance sdi = SteinerDirectedInstance
-					.getAcyclicGraphFromUndirectedInstance(
-							sui, arborescence);
-
-			String instanceName = sui.getGraph().getParam(
-					STPGenerator.OUTPUT_NAME_PARAM_NAME)
-					+ "ac";
-
-			Integer instanceOptimumValue = sui.getGraph().getParamInteger(
-					STPGenerator.OUTPUT_OPTIMUM_VALUE_PARAM_NAME);
-
-			writeOptimalSolutionsValues.writeln(instanceName+" "+instanceOptimumValue);
-
-			STPTranslator.translateSteinerGraph(
-					sdi,
-					steinLibTargetMainDir
-					+ steinLibSubDir
-					+ instanceName+".stp");
-		}
-		writeOptimalSolutionsValues.closeWrite();
+		new SteinLibTransformationPipeline().transform(steinLibMainDir,
+				steinLibSubDir, steinLibTargetMainDir,
+				SteinLibTransformation.ACYCLIC);
 	}
 
 	/**
@@ -440,54 +360,9 @@ public class Main {
 	public static void createStronglyConnectedInstances(
 			String steinLibMainDir, String steinLibSubDir,
 			String steinLibTargetMainDir) {
-		File f = new File(steinLibMainDir + steinLibSubDir);
-		String name = f.listFiles()[0].getName();
-		name = name.substring(0, name.length() - 4);
-		SteinLibInstancesGroups slig = SteinLibInstancesGroups.getGroup(name);
-
-		// File containing for each instance the  optimal solution cost
-		String resultFilePath = slig.getResultFileName();
-
-
-		// Make the target directories if they do not exists.
-		File mkdir = new File(steinLibTargetMainDir+steinLibSubDir);
-		mkdir.mkdirs();
-		mkdir = new File(steinLibTargetMainDir+"Results");
-		mkdir.mkdirs();
-
-		STPUndirectedGenerator gen = new STPUndirectedGenerator(steinLibMainDir
-				+ steinLibSubDir, steinLibMainDir + resultFilePath);
-
-		FileManager writeOptimalSolutionsValues = new FileManager();
-		writeOptimalSolutionsValues.openErase(steinLibTargetMainDir+resultFilePath);
-		for (int i = 0; i < gen.getNumberOfInstances(); i++) {
-			SteinerUndirectedInstance sui = gen.generate();
-			@SuppressWarnings("unchecked")
-			HashSet<Arc> arborescence = (HashSet<Arc>) sui.getGraph().getParam(
-					STPGenerator.OUTPUT_OPTIMUM_PARAM_NAME);
-			if(arborescence == null)
-				continue;
-
-			SteinerDirectedInstance sdi = SteinerDirectedInstance
-					.getRandomGraphStronglyConnectedFromUndirectedInstance(
-							sui, arborescence);
-
-			String instanceName = sui.getGraph().getParam(
-					STPGenerator.OUTPUT_NAME_PARAM_NAME)
-					+ "st";
-
-			Integer instanceOptimumValue = sui.getGraph().getParamInteger(
-					STPGenerator.OUTPUT_OPTIMUM_VALUE_PARAM_NAME);
-
-			writeOptimalSolutionsValues.writeln(instanceName+" "+instanceOptimumValue);
-
-			STPTranslator.translateSteinerGraph(
-					sdi,
-					steinLibTargetMainDir
-					+ steinLibSubDir
-					+ instanceName+".stp");
-		}
-		writeOptimalSolutionsValues.closeWrite();
+		new SteinLibTransformationPipeline().transform(steinLibMainDir,
+				steinLibSubDir, steinLibTargetMainDir,
+				SteinLibTransformation.STRONGLY_CONNECTED);
 	}
 
 	/*-------------------------------------------------------------------------------
@@ -563,6 +438,22 @@ public class Main {
 		testAlgorithm(steinLibMainDir, steinLibSubDir, nbInstancesIgnored, alg);
 	}
 
+	/**
+	 * This example lauch the evaluation of several algorithms over the
+	 * instances in the B category transformed into bidirected instances, on
+	 * as many threads as there are processors. An algorithm running longer
+	 * than one minute over an instance is stopped.
+	 * 
+	 * The results are written in the csv file "campaign.csv".
+	 */
+	public static void exampleLaunchCampaign() {
+		CampaignRunner runner = new CampaignRunner(Runtime.getRuntime()
+				.availableProcessors(), 60000);
+		runner.run("SteinLibBidir/", Arrays.asList("B/"),
+				Arrays.asList("GFLACAlgorithm", "RoosAlgorithm",
+						"WongAlgorithm", "ShPAlgorithm"), "campaign.csv");
+	}
+
 	/**
 	 * Test the algorithm alg over all instances in the directory
 	 * steinLibDir/steinLibSubDir/ Ignore the nbInstancesIgnored first instances
@@ -578,6 +469,25 @@ public class Main {
 	public static void testAlgorithm(String steinLibMainDir,
 			String steinLibSubDir, int nbInstancesIgnored,
 			SteinerArborescenceApproximationAlgorithm alg) {
+		testAlgorithm(steinLibMainDir, steinLibSubDir, nbInstancesIgnored, alg,
+				null);
+	}
+
+	/**
+	 * Same as
+	 * {@link #testAlgorithm(String, String, int, SteinerArborescenceApproximationAlgorithm)}
+	 * , but read the instances from the cache if it is not null. The number of
+	 * hits and misses of the cache are then shown at the end.
+	 * 
+	 * @param steinLibMainDir
+	 * @param steinLibSubDir
+	 * @param nbInstancesIgnored
+	 * @param alg
+	 * @param cache
+	 */
+	public static void testAlgorithm(String steinLibMainDir,
+			String steinLibSubDir, int nbInstancesIgnored,
+			SteinerArborescenceApproximationAlgorithm alg, InstanceCache cache) {
 
 		// Description
 		System.out.println("# Name OptimalCost NbNodes NbArcs NbTerminals MaximumArcCost AlgorithmAnswer AlgorithRunningTime");
@@ -589,13 +499,17 @@ public class Main {
 		String path2 = slig.getResultFileName(); // File containing for each
 		// instance the optimal
 		// solution cost
-		STPDirectedGenerator gen = new STPDirectedGenerator(steinLibMainDir
-				+ steinLibSubDir, steinLibMainDir + path2);
+		PrefetchingSTPGenerator<SteinerDirectedInstance> gen = new PrefetchingSTPGenerator<SteinerDirectedInstance>(
+				new STPDirectedGenerator(steinLibMainDir + steinLibSubDir,
+						steinLibMainDir + path2));
+		gen.setCache(cache);
 
 		gen.incrIndex(nbInstancesIgnored);
 		alg.setCheckFeasibility(false);
 		for (int i = nbInstancesIgnored; i < gen.getNumberOfInstances(); i++) {
 			SteinerDirectedInstance sdi = gen.generate();
+			if (sdi == null)
+				continue;
 
 			System.out.print(sdi.getGraph().getParam(
 					STPDirectedGenerator.OUTPUT_NAME_PARAM_NAME)
@@ -614,6 +528,9 @@ public class Main {
 			System.out.print(alg.getCost() + " " + alg.getTime() + " ");
 			System.out.println();
 		}
+		gen.close();
+		if (cache != null)
+			System.out.println("# " + cache);
 	}
 
 	public static void testAlgorithmPersoInstances(String dir, int nbInstancesIgnored,
@@ -623,7 +540,8 @@ public class Main {
 		System.out.println("# Name OptimalCost NbNodes NbArcs NbTerminals MaximumArcCost AlgorithmAnswer AlgorithRunningTime");
 
 		File f = new File(dir);
-		STPDirectedGenerator gen = new STPDirectedGenerator(dir, null);
+		PrefetchingSTPGenerator<SteinerDirectedInstance> gen = new PrefetchingSTPGenerator<SteinerDirectedInstance>(
+				new STPDirectedGenerator(dir, null));
 
 		gen.incrIndex(nbInstancesIgnored);
 		alg.setCheckFeasibility(false);
@@ -646,5 +564,6 @@ public class Main {
 			System.out.print(alg.getCost() + " " + alg.getTime() + " ");
 			System.out.println();
 		}
+		gen.close();
 	}
 }
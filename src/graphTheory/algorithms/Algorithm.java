@@ -1,11 +1,35 @@
 package graphTheory.algorithms;
 
+import graphTheory.events.AlgorithmRunEvent;
+import graphTheory.generators.steinLib.STPGenerator;
+import graphTheory.instances.GraphInstance;
 import graphTheory.instances.Instance;
+import graphTheory.utils.Footprint;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.Set;
 
 /**
  * An algorithm is an object we build with inputs, then we run it, and then we
  * check the outputs.
  * 
+ * Each run is measured : its wall time, its CPU time and the bytes it
+ * allocates are given by {@link #getRunStats()}. A subclass can divide its
+ * run into named phases with {@link #beginPhase(String)} and
+ * {@link #endPhase()}, which are measured the same way.
+ * 
+ * Each run emits an {@link AlgorithmRunEvent}, recorded by the Java Flight
+ * Recorder if it is enabled.
+ * 
+ * If the footprint profiling is enabled, the memory kept by the algorithm in
+ * its fields is measured at the end of each phase and at the end of the run,
+ * and the greatest measure is given by {@link #getPeakFootprint()}.
+ * 
+ * A run can be stopped before its end by a {@link Cancellation}, checked by
+ * the subclasses in their main loops with {@link #checkCancellation()}.
+ * 
  * @author Watel Dimitri
  */
 public abstract class Algorithm<T extends Instance> {
@@ -20,6 +44,54 @@ public abstract class Algorithm<T extends Instance> {
 	 */
 	private Long time;
 
+	/**
+	 * Measures of the last run of this algorithm, and of the current run.
+	 */
+	private RunStats runStats;
+	private RunStats currentRunStats;
+
+	/**
+	 * Measures when the current run and its current phases began, and names of
+	 * those phases.
+	 */
+	private RunStats.Probe beginning;
+	private ArrayDeque<RunStats.Probe> phaseBeginnings;
+	private ArrayDeque<String> phaseNames;
+
+	/**
+	 * If true, the footprint of this algorithm is measured during the runs.
+	 */
+	private boolean footprintProfiling;
+
+	/**
+	 * Greatest footprint of the current or of the last run.
+	 */
+	private Footprint peakFootprint;
+
+	/**
+	 * Objects of the instance, walked once at the beginning of a run with
+	 * footprint profiling, and excluded from each measure of that run.
+	 */
+	private Set<Object> instanceObjects;
+
+	/**
+	 * Token given to this algorithm, and token checked by the current run,
+	 * which may be inherited from the run of another algorithm.
+	 */
+	private Cancellation cancellation;
+	private Cancellation runCancellation;
+
+	/**
+	 * Number of calls to {@link #checkCancellation()} during the current run.
+	 */
+	private int cancellationChecks;
+
+	/**
+	 * The token of a run is read once every CANCELLATION_CHECK_MASK + 1 calls
+	 * to {@link #checkCancellation()}.
+	 */
+	private static final int CANCELLATION_CHECK_MASK = 63;
+
 	protected T instance;
 
 	/**
@@ -58,9 +130,236 @@ public abstract class Algorithm<T extends Instance> {
 			return;
 		}
 		time = null;
+		runStats = null;
+		peakFootprint = null;
+		currentRunStats = new RunStats();
+		phaseBeginnings = new ArrayDeque<RunStats.Probe>();
+		phaseNames = new ArrayDeque<String>();
+		// If this algorithm has no token, it checks the token of the
+		// algorithm running it, if any.
+		Cancellation inherited = Cancellation.getCurrent();
+		runCancellation = (cancellation != null) ? cancellation : inherited;
+		boolean ownCancellation = runCancellation != inherited;
+		if (ownCancellation)
+			Cancellation.setCurrent(runCancellation);
+		cancellationChecks = 0;
+		if (footprintProfiling)
+			instanceObjects = Footprint.excluded(instance);
+		AlgorithmRunEvent event = new AlgorithmRunEvent();
+		event.begin();
 		setTimeBegin(); // Save the current timestamp
-		computeWithoutTime();
-		setTime(); // Check the current timestamp to compute the running time of the algorithm
+		try {
+			// The token is read at the beginning of each run, as a short run
+			// may never read it in checkCancellation.
+			stopIfCancelled();
+			computeWithoutTime();
+		} catch (Cancelled e) {
+			currentRunStats.setStatus(e.status);
+			// The algorithm running this one is stopped by the same token.
+			if (!ownCancellation && inherited != null)
+				throw e;
+			setNoSolution();
+		} finally {
+			if (ownCancellation)
+				Cancellation.setCurrent(inherited);
+			runCancellation = null;
+			// Close the phases the run did not end.
+			while (!phaseNames.isEmpty())
+				endPhase();
+			setTime(); // Check the current timestamp to compute the running time of the algorithm
+			event.end();
+			measureFootprint("end of the run");
+			instanceObjects = null;
+		}
+		if (event.shouldCommit()) {
+			event.algorithm = getClass();
+			event.instance = getInstanceName();
+			event.status = runStats.getStatus().name();
+			Long value = getResultValue();
+			event.cost = (value == null) ? -1 : value;
+			event.commit();
+		}
+	}
+
+	/**
+	 * @param cancellation
+	 *            : the token stopping the next runs of this algorithm, or null.
+	 *            Without token, a run of this algorithm inside the run of
+	 *            another algorithm checks the token of that algorithm.
+	 * @see RunStats#getStatus()
+	 */
+	public void setCancellation(Cancellation cancellation) {
+		this.cancellation = cancellation;
+	}
+
+	public Cancellation getCancellation() {
+		return cancellation;
+	}
+
+	/**
+	 * Stop the current run if its token asks it to. This method is meant to
+	 * be called in each iteration of the main loops of the algorithm : as it
+	 * reads the token once every 64 calls, it costs nearly nothing.
+	 * <p>
+	 * The token is also read once at the beginning of each run, by
+	 * {@link #compute()}. As the calls are counted for each run, an algorithm
+	 * running many short nested runs, such as shortest path computations
+	 * settling less than 64 nodes, is still stopped at the beginning of the
+	 * next nested run.
+	 * <p>
+	 * The run is stopped with an exception caught by {@link #compute()}, which
+	 * ends the phases and the measures of the run and defines the output as
+	 * if the instance had no solution (see {@link #setNoSolution()}). The
+	 * working fields of the algorithm keep the state of the run when it
+	 * stopped.
+	 * <p>
+	 * This method can be called by several threads at once, in the parallel
+	 * parts of a run : the calls are then counted approximately, which only
+	 * changes how often the token is read.
+	 */
+	protected final void checkCancellation() {
+		if (runCancellation != null
+				&& (++cancellationChecks & CANCELLATION_CHECK_MASK) == 0)
+			stopIfCancelled();
+	}
+
+	/**
+	 * Run algorithm as a part of the current run, possibly on another thread :
+	 * if it has no token, it checks the token of the current run, and if it is
+	 * stopped, the current run is stopped too. On the thread of the current
+	 * run, this is what {@link #compute()} does.
+	 * 
+	 * @param algorithm
+	 */
+	protected void computeNested(Algorithm<?> algorithm) {
+		Cancellation previous = Cancellation.getCurrent();
+		Cancellation.setCurrent(runCancellation);
+		try {
+			algorithm.compute();
+		} finally {
+			Cancellation.setCurrent(previous);
+		}
+	}
+
+	/**
+	 * Stop the current run with the given status, as if its token asked it
+	 * to : for instance because an algorithm run by this one was stopped by
+	 * its own token, so that this run has no result either.
+	 * 
+	 * @param status
+	 *            : {@link RunStats.Status#CANCELLED} or
+	 *            {@link RunStats.Status#TIMED_OUT}.
+	 */
+	protected final void stopRun(RunStats.Status status) {
+		throw new Cancelled(status);
+	}
+
+	private void stopIfCancelled() {
+		if (runCancellation == null)
+			return;
+		RunStats.Status status = runCancellation.getStatus();
+		if (status != null)
+			throw new Cancelled(status);
+	}
+
+	/**
+	 * Thrown to stop a run, without stack trace as it is always caught.
+	 */
+	private static class Cancelled extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		private RunStats.Status status;
+
+		private Cancelled(RunStats.Status status) {
+			super(status.toString(), null, false, false);
+			this.status = status;
+		}
+	}
+
+	/**
+	 * @return the name of the instance, given by the generator which built it
+	 *         (see {@link STPGenerator#OUTPUT_NAME_PARAM_NAME}), or null if it
+	 *         has no name.
+	 */
+	protected String getInstanceName() {
+		if (!(instance instanceof GraphInstance))
+			return null;
+		Object name = ((GraphInstance) instance).getGraph().getParam(
+				STPGenerator.OUTPUT_NAME_PARAM_NAME);
+		return (name == null) ? null : name.toString();
+	}
+
+	/**
+	 * @return the value of the solution returned by the last run, or null if
+	 *         this algorithm does not return a valued solution. The value
+	 *         describes the run in the {@link AlgorithmRunEvent}s.
+	 */
+	protected Long getResultValue() {
+		return null;
+	}
+
+	/**
+	 * Begin a phase of the current run, named name. A phase ends with
+	 * {@link #endPhase()}, or when the run ends. Phases can be nested, a
+	 * phase begun inside another one being measured in both. A phase run
+	 * several times is measured once, as the sum of its runs.
+	 * 
+	 * @param name
+	 */
+	protected void beginPhase(String name) {
+		if (phaseNames == null)
+			return;
+		phaseNames.push(name);
+		phaseBeginnings.push(new RunStats.Probe());
+	}
+
+	/**
+	 * End the last phase begun with {@link #beginPhase(String)} and not
+	 * ended.
+	 */
+	protected void endPhase() {
+		if (phaseNames == null || phaseNames.isEmpty())
+			return;
+		RunStats.Probe end = new RunStats.Probe();
+		String name = phaseNames.pop();
+		currentRunStats.addPhase(name, phaseBeginnings.pop(), end);
+		measureFootprint("end of " + name);
+	}
+
+	/**
+	 * If true, the memory kept by this algorithm in its fields is measured at
+	 * the end of each phase of a run and at the end of the run. The default
+	 * value is false. The instance is walked once, before the run time
+	 * starts, and the memory it references is excluded from the measures.
+	 * Each measure then takes a time proportional to the size of the instance
+	 * and of the fields, which is counted in the running time of the phases.
+	 * 
+	 * @param footprintProfiling
+	 * @see #getPeakFootprint()
+	 */
+	public void setFootprintProfiling(boolean footprintProfiling) {
+		this.footprintProfiling = footprintProfiling;
+	}
+
+	/**
+	 * @return the greatest footprint measured during the last run, without
+	 *         the instance, each field of this algorithm being a structure,
+	 *         or null if the footprint profiling was disabled.
+	 * @see #setFootprintProfiling(boolean)
+	 */
+	public Footprint getPeakFootprint() {
+		return peakFootprint;
+	}
+
+	private void measureFootprint(String label) {
+		if (!footprintProfiling)
+			return;
+		Footprint f = Footprint.of(label, this, 1, instanceObjects,
+				instanceObjects, time, runStats, currentRunStats, beginning,
+				phaseBeginnings, phaseNames, peakFootprint, cancellation,
+				runCancellation);
+		peakFootprint = Footprint.max(peakFootprint, f);
 	}
 
 	/**
@@ -94,26 +393,62 @@ public abstract class Algorithm<T extends Instance> {
 	 * Save the current timestamp
 	 */
 	private void setTimeBegin() {
+		enableAllocatedMemoryMeasure();
 		begginingTime = System.currentTimeMillis();
+		beginning = new RunStats.Probe();
 	}
 
 	/**
 	 * Check the current timestamp to compute the running time of the algorithm
 	 * 
-	 * @return the time from the last call of {@link #setTimeBegin()}..
+	 * @return the time in ms from the last call of {@link #setTimeBegin()}..
 	 */
 	protected long getCurrentTime() {
-		return System.currentTimeMillis() - begginingTime;
+		return (System.nanoTime() - beginning.getWallTime()) / 1000000L;
 	}
 
 	private void setTime() {
-		time = getCurrentTime();
+		RunStats.Probe end = new RunStats.Probe();
+		currentRunStats.setRun(beginning, end);
+		runStats = currentRunStats;
+		time = runStats.getWallTime() / 1000000L;
 	}
 
 	/**
-	 * @return the last running time of this algorithm. 0 if it was never run.
+	 * @return the last running time of this algorithm in ms. 0 if it was never
+	 *         run.
+	 * @see #getRunStats()
 	 */
 	public Long getTime() {
 		return time;
 	}
+
+	/**
+	 * @return the measures of the last run of this algorithm, or null if it
+	 *         was never run.
+	 */
+	public RunStats getRunStats() {
+		return runStats;
+	}
+
+	private static volatile boolean allocatedMemoryMeasureEnabled = false;
+
+	/**
+	 * Ask the JVM, once, to measure the bytes allocated by each thread.
+	 */
+	private static void enableAllocatedMemoryMeasure() {
+		if (allocatedMemoryMeasureEnabled)
+			return;
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+			try {
+				if (sunBean.isThreadAllocatedMemorySupported()
+						&& !sunBean.isThreadAllocatedMemoryEnabled())
+					sunBean.setThreadAllocatedMemoryEnabled(true);
+			} catch (UnsupportedOperationException e) {
+			}
+		}
+		allocatedMemoryMeasureEnabled = true;
+	}
 }
@@ -0,0 +1,99 @@
+package graphTheory.algorithms;
+
+/**
+ * A token asking the runs of {@link Algorithm}s to stop : either because
+ * {@link #cancel()} was called, possibly by another thread, or because its
+ * deadline is reached.
+ * <p>
+ * An algorithm given a token with {@link Algorithm#setCancellation(Cancellation)}
+ * checks it regularly in its main loops. When the token asks it to stop, the
+ * run ends as soon as possible, without solution, and its
+ * {@link RunStats#getStatus()} is {@link RunStats.Status#CANCELLED} or
+ * {@link RunStats.Status#TIMED_OUT}. The algorithms run by that algorithm,
+ * such as the shortest path algorithms, check the same token.
+ * <p>
+ * A token can be shared by several algorithms and several threads. As the
+ * deadline is fixed when the token is built, a new token is needed for each
+ * run which must last at most a given time.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class Cancellation {
+
+	private volatile boolean cancelled;
+
+	/**
+	 * Time, given by {@link System#nanoTime()}, after which the runs time out,
+	 * if hasDeadline is true.
+	 */
+	private final long deadline;
+	private final boolean hasDeadline;
+
+	/**
+	 * Create a token without deadline, which only stops the runs if it is
+	 * cancelled.
+	 */
+	public Cancellation() {
+		this.deadline = 0;
+		this.hasDeadline = false;
+	}
+
+	/**
+	 * Create a token stopping the runs timeout ms after it is built, or
+	 * before if it is cancelled.
+	 *
+	 * @param timeout
+	 *            : in ms.
+	 */
+	public Cancellation(long timeout) {
+		this.deadline = System.nanoTime() + timeout * 1000000L;
+		this.hasDeadline = true;
+	}
+
+	/**
+	 * Ask the runs checking this token to stop.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * @return true if this token has a deadline and that deadline is reached.
+	 */
+	public boolean isExpired() {
+		return hasDeadline && System.nanoTime() - deadline >= 0;
+	}
+
+	/**
+	 * @return the reason why the runs should stop, or null if they can go on.
+	 */
+	RunStats.Status getStatus() {
+		if (cancelled)
+			return RunStats.Status.CANCELLED;
+		if (isExpired())
+			return RunStats.Status.TIMED_OUT;
+		return null;
+	}
+
+	/**
+	 * Token of the run of an algorithm on each thread, inherited by the
+	 * algorithms it runs.
+	 */
+	private static final ThreadLocal<Cancellation> current = new ThreadLocal<Cancellation>();
+
+	static Cancellation getCurrent() {
+		return current.get();
+	}
+
+	static void setCurrent(Cancellation c) {
+		if (c == null)
+			current.remove();
+		else
+			current.set(c);
+	}
+}
@@ -0,0 +1,283 @@
+package graphTheory.algorithms;
+
+import graphTheory.utils.Counter;
+import graphTheory.utils.Counters;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The measures of the last run of an {@link Algorithm} : its wall time,
+ * measured with {@link System#nanoTime()}, the CPU time of the thread running
+ * it and the number of bytes allocated by that thread. The same measures are
+ * given for each named phase of the run (see
+ * {@link Algorithm#beginPhase(String)}), summed over every time the phase was
+ * run.
+ * <p>
+ * The CPU time and the allocated bytes are measured with the
+ * {@link ThreadMXBean} of the JVM. If the JVM cannot measure them, they are
+ * -1. The work done by other threads than the one running the algorithm is not
+ * counted in them.
+ * <p>
+ * If the {@link Counters} are enabled, the work of the run is also given by
+ * the counters of its thread.
+ * <p>
+ * A run stopped by a {@link Cancellation} has the measures of the work done
+ * until it stopped, and its status tells why it stopped.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class RunStats {
+
+	/**
+	 * How a run ended.
+	 */
+	public enum Status {
+		/**
+		 * The algorithm ended normally, or threw an exception.
+		 */
+		COMPLETED,
+		/**
+		 * The algorithm was stopped by the deadline of its
+		 * {@link Cancellation}.
+		 */
+		TIMED_OUT,
+		/**
+		 * The algorithm was stopped by {@link Cancellation#cancel()}.
+		 */
+		CANCELLED
+	}
+
+	/**
+	 * The measures of a phase, or of a whole run.
+	 */
+	public static class Phase {
+
+		private String name;
+		private int count;
+		private long wallTime;
+		private long cpuTime;
+		private long allocatedBytes;
+
+		private Phase(String name) {
+			this.name = name;
+			this.count = 0;
+			this.wallTime = 0;
+			this.cpuTime = 0;
+			this.allocatedBytes = 0;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the number of times the phase was run.
+		 */
+		public int getCount() {
+			return count;
+		}
+
+		/**
+		 * @return the wall time of the phase, in ns.
+		 */
+		public long getWallTime() {
+			return wallTime;
+		}
+
+		/**
+		 * @return the CPU time of the phase, in ns, or -1 if it is unknown.
+		 */
+		public long getCpuTime() {
+			return cpuTime;
+		}
+
+		/**
+		 * @return the number of bytes allocated during the phase, or -1 if it
+		 *         is unknown.
+		 */
+		public long getAllocatedBytes() {
+			return allocatedBytes;
+		}
+
+		private void add(Probe begin, Probe end) {
+			count++;
+			wallTime += end.wallTime - begin.wallTime;
+			cpuTime = (begin.cpuTime < 0 || cpuTime < 0) ? -1 : cpuTime
+					+ end.cpuTime - begin.cpuTime;
+			allocatedBytes = (begin.allocatedBytes < 0 || allocatedBytes < 0) ? -1
+					: allocatedBytes + end.allocatedBytes
+							- begin.allocatedBytes;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder(name);
+			if (count > 1)
+				sb.append(" x").append(count);
+			sb.append(String.format(Locale.US, " : %.3f ms wall", wallTime / 1e6));
+			if (cpuTime >= 0)
+				sb.append(String.format(Locale.US, ", %.3f ms cpu", cpuTime / 1e6));
+			if (allocatedBytes >= 0)
+				sb.append(", ").append(allocatedBytes).append(" B");
+			return sb.toString();
+		}
+	}
+
+	/**
+	 * The measures of the current thread at a given time.
+	 */
+	static class Probe {
+
+		private long wallTime;
+		private long cpuTime;
+		private long allocatedBytes;
+		private long[] counters;
+
+		Probe() {
+			counters = Counters.snapshot();
+			ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			cpuTime = bean.isCurrentThreadCpuTimeSupported() ? bean
+					.getCurrentThreadCpuTime() : -1;
+			allocatedBytes = getAllocatedBytes(bean);
+			// Last, so that the wall time does not count the probe.
+			wallTime = System.nanoTime();
+		}
+
+		long getWallTime() {
+			return wallTime;
+		}
+
+		private static long getAllocatedBytes(ThreadMXBean bean) {
+			if (!(bean instanceof com.sun.management.ThreadMXBean))
+				return -1;
+			com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+			if (!sunBean.isThreadAllocatedMemorySupported()
+					|| !sunBean.isThreadAllocatedMemoryEnabled())
+				return -1;
+			return sunBean.getThreadAllocatedBytes(Thread.currentThread()
+					.getId());
+		}
+	}
+
+	private Phase run;
+	private LinkedHashMap<String, Phase> phases;
+	private EnumMap<Counter, Long> counters;
+	private Status status;
+
+	RunStats() {
+		status = Status.COMPLETED;
+		run = new Phase("run");
+		phases = new LinkedHashMap<String, Phase>();
+		counters = new EnumMap<Counter, Long>(Counter.class);
+	}
+
+	void setRun(Probe begin, Probe end) {
+		run.add(begin, end);
+		if (begin.counters == null || end.counters == null)
+			return;
+		for (Counter c : Counter.values()) {
+			long n = end.counters[c.ordinal()] - begin.counters[c.ordinal()];
+			if (n != 0)
+				counters.put(c, n);
+		}
+	}
+
+	void addPhase(String name, Probe begin, Probe end) {
+		Phase p = phases.get(name);
+		if (p == null) {
+			p = new Phase(name);
+			phases.put(name, p);
+		}
+		p.add(begin, end);
+	}
+
+	void setStatus(Status status) {
+		this.status = status;
+	}
+
+	/**
+	 * @return how the run ended.
+	 */
+	public Status getStatus() {
+		return status;
+	}
+
+	/**
+	 * @return the wall time of the run, in ns.
+	 */
+	public long getWallTime() {
+		return run.getWallTime();
+	}
+
+	/**
+	 * @return the CPU time of the run, in ns, or -1 if it is unknown.
+	 */
+	public long getCpuTime() {
+		return run.getCpuTime();
+	}
+
+	/**
+	 * @return the number of bytes allocated during the run, or -1 if it is
+	 *         unknown.
+	 */
+	public long getAllocatedBytes() {
+		return run.getAllocatedBytes();
+	}
+
+	/**
+	 * @return the phases of the run, in the order in which they were first
+	 *         begun.
+	 */
+	public Collection<Phase> getPhases() {
+		return Collections.unmodifiableCollection(new ArrayList<Phase>(phases
+				.values()));
+	}
+
+	/**
+	 * @param name
+	 * @return the phase with that name, or null if no such phase was run.
+	 */
+	public Phase getPhase(String name) {
+		return phases.get(name);
+	}
+
+	/**
+	 * @return the counters which were modified during the run, with the work
+	 *         they counted. The map is empty if the {@link Counters} are
+	 *         disabled.
+	 */
+	public Map<Counter, Long> getCounters() {
+		return Collections.unmodifiableMap(counters);
+	}
+
+	/**
+	 * @param c
+	 * @return the work counted by c during the run.
+	 */
+	public long getCounter(Counter c) {
+		Long n = counters.get(c);
+		return (n == null) ? 0 : n;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(run.toString());
+		if (status != Status.COMPLETED)
+			sb.append(" (").append(status).append(")");
+		for (Phase p : phases.values())
+			sb.append("\n  ").append(p);
+		for (Map.Entry<Counter, Long> e : counters.entrySet())
+			sb.append("\n  ").append(e.getKey()).append(" = ")
+					.append(e.getValue());
+		return sb.toString();
+	}
+}
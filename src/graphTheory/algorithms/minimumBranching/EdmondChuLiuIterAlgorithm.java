@@ -2,6 +2,8 @@ package graphTheory.algorithms.minimumBranching;
 
 import graphTheory.graph.Arc;
 import graphTheory.graph.Graph;
+import graphTheory.utils.Counter;
+import graphTheory.utils.Counters;
 import graphTheory.utils.Couple;
 
 import java.util.ArrayList;
@@ -101,16 +103,27 @@ public class EdmondChuLiuIterAlgorithm extends MinimumBranchingAlgorithm {
 		HashSet<Arc> h = new HashSet<Arc>();
 		markEdges(h);
 		HashSet<Integer> cycle;
-		while (true) {
+		boolean contracted = false;
+		try {
+			while (true) {
 
-			cycle = findCycle(h);
-			if (cycle == null)
-				break;
+				cycle = findCycle(h);
+				if (cycle == null)
+					break;
 
-			contractCycle(cycle);
+				// Checked between two contractions, as a stopped contraction
+				// could not be undone.
+				checkCancellation();
+				contractCycle(cycle);
 
-			h.clear();
-			markEdges(h);
+				h.clear();
+				markEdges(h);
+			}
+			contracted = true;
+		} finally {
+			// If the run is stopped, the graph of the instance is given back.
+			if (!contracted)
+				removeContractions();
 		}
 
 		returnCyclesBack(h);
@@ -184,6 +197,7 @@ public class EdmondChuLiuIterAlgorithm extends MinimumBranchingAlgorithm {
 	 * copied as an arc ingoing or outgoing this new node.
 	 */
 	private void contractCycle(HashSet<Integer> cycle) {
+		Counters.increment(Counter.CONTRACTIONS);
 		instance.getGraph().addVertice(maxId);
 		int contractNode = maxId;
 		maxId++;
@@ -340,4 +354,17 @@ public class EdmondChuLiuIterAlgorithm extends MinimumBranchingAlgorithm {
 		}
 	}
 
+	/**
+	 * Remove every added contraction node and put every contracted cycle
+	 * back, without building the arborescence, if the computation stops
+	 * before its end.
+	 */
+	private void removeContractions() {
+		for (Couple<Integer, HashSet<Integer>> contraction : contractions) {
+			instance.getGraph().removeVertice(contraction.first);
+			for (Integer n : contraction.second)
+				instance.getGraph().cancelVirtuallyRemoveVertice(n);
+		}
+	}
+
 }
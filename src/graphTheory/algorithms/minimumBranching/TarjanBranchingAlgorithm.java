@@ -0,0 +1,227 @@
+package graphTheory.algorithms.minimumBranching;
+
+import graphTheory.graph.Arc;
+import graphTheory.graph.Graph;
+import graphTheory.utils.SkewHeap;
+import graphTheory.utils.SkewHeap.SkewHeapNode;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+
+/**
+ * The Tarjan algorithm computes the same minimum branching tree as the Edmond
+ * Chu Liu algorithm, in O(m log n) time. Source : R. E. Tarjan,
+ * "Finding optimum branchings", with the correction of P. M. Camerini, L.
+ * Fratta and F. Maffioli, "A note on finding optimum branchings".
+ *
+ * Each node, or contracted cycle, keeps its input arcs in a skew heap. From a
+ * node not yet in the tree, the algorithm follows the minimum cost input arcs
+ * backward until it reaches the tree, or a node already seen in that search.
+ * In the second case, a cycle is found : the cycle is contracted with an
+ * union-find structure, and the heaps of its nodes are melded. The costs of
+ * the input arcs of a node are relative to the cost of its chosen input arc:
+ * that cost is subtracted from all the keys of its heap with one lazy offset.
+ *
+ * Once every node is in the tree, the cycles are expanded in the reverse order
+ * of their contractions : the union-find structure is rolled back to the state
+ * preceding each contraction, and the input arc of the contracted cycle
+ * replaces the input arc of the node of the cycle it enters.
+ *
+ * Contrary to {@link EdmondChuLiuIterAlgorithm}, this algorithm does not
+ * modify the graph of the instance.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class TarjanBranchingAlgorithm extends MinimumBranchingAlgorithm {
+
+	/**
+	 * For each arc of index a, arcs[a] is the arc, and arcTails[a] and
+	 * arcHeads[a] are the indexes of its input and output.
+	 */
+	private Arc[] arcs;
+	private int[] arcTails;
+	private int[] arcHeads;
+
+	/**
+	 * Union-find structure of the contracted cycles, with union by size and
+	 * without path compression, so that the unions can be rolled back.
+	 * unions contains the roots which were attached to another root, in
+	 * the order of the unions.
+	 */
+	private int[] parents;
+	private int[] sizes;
+	private int[] unions;
+	private int numberOfUnions;
+
+	private int find(int i) {
+		while (parents[i] != i)
+			i = parents[i];
+		return i;
+	}
+
+	/**
+	 * Merge the sets containing i and j.
+	 *
+	 * @return false if i and j were already in the same set.
+	 */
+	private boolean union(int i, int j) {
+		i = find(i);
+		j = find(j);
+		if (i == j)
+			return false;
+		if (sizes[i] < sizes[j]) {
+			int k = i;
+			i = j;
+			j = k;
+		}
+		parents[j] = i;
+		sizes[i] += sizes[j];
+		unions[numberOfUnions++] = j;
+		return true;
+	}
+
+	/**
+	 * Cancel the last unions until there are numberOfUnions unions left.
+	 */
+	private void rollback(int numberOfUnions) {
+		while (this.numberOfUnions > numberOfUnions) {
+			int j = unions[--this.numberOfUnions];
+			sizes[parents[j]] -= sizes[j];
+			parents[j] = j;
+		}
+	}
+
+	@Override
+	protected void computeWithoutTime() {
+		Graph g = instance.getGraph();
+		int n = g.getNumberOfVertices();
+		int m = g.getNumberOfEdges();
+
+		HashMap<Integer, Integer> nodeIndexes = new HashMap<Integer, Integer>();
+		Iterator<Integer> it = g.getVerticesIterator();
+		int index = 0;
+		while (it.hasNext())
+			nodeIndexes.put(it.next(), index++);
+		int root = nodeIndexes.get(instance.getRoot());
+
+		arcs = new Arc[m];
+		arcTails = new int[m];
+		arcHeads = new int[m];
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		SkewHeap<Integer>[] heaps = new SkewHeap[n];
+		for (int i = 0; i < n; i++)
+			heaps[i] = new SkewHeap<Integer>();
+
+		Iterator<Arc> it2 = g.getEdgesIterator();
+		index = 0;
+		while (it2.hasNext()) {
+			Arc a = it2.next();
+			arcs[index] = a;
+			arcTails[index] = nodeIndexes.get(a.getInput());
+			arcHeads[index] = nodeIndexes.get(a.getOutput());
+			if (arcTails[index] != arcHeads[index] && arcHeads[index] != root)
+				heaps[arcHeads[index]].insert(index, instance.getIntCost(a));
+			index++;
+		}
+
+		parents = new int[n];
+		sizes = new int[n];
+		unions = new int[n];
+		numberOfUnions = 0;
+		for (int i = 0; i < n; i++) {
+			parents[i] = i;
+			sizes[i] = 1;
+		}
+
+		// seen[u] is the node from which the search reached u, or -1
+		int[] seen = new int[n];
+		Arrays.fill(seen, -1);
+		seen[root] = root;
+
+		// Chosen input arcs and their outputs along the current search
+		int[] chosen = new int[n];
+		int[] path = new int[n];
+
+		// Input arc of each node, or of each contracted cycle
+		int[] inputs = new int[n];
+
+		// Contracted cycles: the contraction node, the number of unions
+		// before the contraction, and the chosen arcs of the cycle.
+		int[] cycleNodes = new int[n];
+		int[] cycleUnions = new int[n];
+		int[][] cycleArcs = new int[n][];
+		int numberOfCycles = 0;
+
+		for (int s = 0; s < n; s++) {
+			int u = s;
+			int length = 0;
+			while (seen[u] < 0) {
+				checkCancellation();
+				SkewHeapNode<Integer> min;
+				do {
+					min = heaps[u].removeMin();
+				} while (min != null && find(arcTails[min.getData()]) == u);
+
+				if (min == null) {
+					// u cannot be reached from the root
+					setNoSolution();
+					return;
+				}
+
+				int a = min.getData();
+				heaps[u].addToAllKeys(-min.getKey());
+				chosen[length] = a;
+				path[length++] = u;
+				seen[u] = s;
+				u = find(arcTails[a]);
+
+				if (seen[u] == s) {
+					// Contract the cycle
+					SkewHeap<Integer> cycleHeap = new SkewHeap<Integer>();
+					int end = length;
+					int unionsBefore = numberOfUnions;
+					int w;
+					do {
+						w = path[--length];
+						cycleHeap.meld(heaps[w]);
+					} while (union(u, w));
+					u = find(u);
+					heaps[u] = cycleHeap;
+					seen[u] = -1;
+
+					cycleNodes[numberOfCycles] = u;
+					cycleUnions[numberOfCycles] = unionsBefore;
+					cycleArcs[numberOfCycles++] = Arrays.copyOfRange(chosen,
+							length, end);
+				}
+			}
+			for (int i = 0; i < length; i++)
+				inputs[find(arcHeads[chosen[i]])] = chosen[i];
+		}
+
+		// Expand the cycles
+		for (int c = numberOfCycles - 1; c >= 0; c--) {
+			int u = cycleNodes[c];
+			rollback(cycleUnions[c]);
+			int input = inputs[u];
+			for (int a : cycleArcs[c])
+				inputs[find(arcHeads[a])] = a;
+			inputs[find(arcHeads[input])] = input;
+		}
+
+		arborescence = new HashSet<Arc>();
+		cost = 0;
+		for (int v = 0; v < n; v++) {
+			if (v == root)
+				continue;
+			Arc a = arcs[inputs[v]];
+			arborescence.add(a);
+			cost += instance.getIntCost(a);
+		}
+	}
+
+}
@@ -3,6 +3,8 @@ package graphTheory.algorithms.shortestDistance.arcCost;
 import graphTheory.algorithms.Algorithm;
 import graphTheory.graph.Arc;
 import graphTheory.instances.shortestPath.ArcShortestPathOneDestinationInstance;
+import graphTheory.utils.Counter;
+import graphTheory.utils.Counters;
 import graphTheory.utils.FibonacciHeap;
 
 import java.util.HashMap;
@@ -140,6 +142,8 @@ public class ArcDijkstraOneDestinationAlgorithm extends Algorithm<ArcShortestPat
 		Integer distanceToDestination = this.distanceToDestination.get(n);
 		if (distanceToDestination == null) // Infinite distance from the source.
 			return;
+		Counters.increment(Counter.DIJKSTRA_SETTLED);
+		checkCancellation();
 
 		Integer input;
 		Arc a;
@@ -169,6 +173,7 @@ public class ArcDijkstraOneDestinationAlgorithm extends Algorithm<ArcShortestPat
 	 * @param input
 	 */
 	private void expand(Integer distanceToDestination, Arc a, Integer input) {
+		Counters.increment(Counter.DIJKSTRA_RELAXATIONS);
 		Integer dist = distanceToDestination + instance.getIntCost(a);
 		Integer nndN = this.distanceToDestination.get(input);
 		if ((nndN == null || nndN > dist)) {
@@ -3,6 +3,8 @@ package graphTheory.algorithms.shortestDistance.arcCost;
 import graphTheory.algorithms.Algorithm;
 import graphTheory.graph.Arc;
 import graphTheory.instances.shortestPath.ArcShortestPathOneSourceInstance;
+import graphTheory.utils.Counter;
+import graphTheory.utils.Counters;
 import graphTheory.utils.FibonacciHeap;
 
 import java.util.HashMap;
@@ -139,6 +141,8 @@ public class ArcDijkstraOneSourceAlgorithm extends Algorithm<ArcShortestPathOneS
 		Integer distanceFromSource = this.distanceFromSource.get(n);
 		if (distanceFromSource == null) // Infinite distance from the source.
 			return;
+		Counters.increment(Counter.DIJKSTRA_SETTLED);
+		checkCancellation();
 
 		Integer output;
 		Arc a;
@@ -166,6 +170,7 @@ public class ArcDijkstraOneSourceAlgorithm extends Algorithm<ArcShortestPathOneS
 	 * @param output
 	 */
 	private void expand(Integer distanceFromSource, Arc a, Integer output) {
+		Counters.increment(Counter.DIJKSTRA_RELAXATIONS);
 		Integer dist = distanceFromSource + instance.getIntCost(a);
 		Integer nndN = this.distanceFromSource.get(output);
 		if ((nndN == null || nndN > dist)) {
@@ -74,6 +74,7 @@ public class RoyWarshallFloydAlgorithm extends Algorithm<ArcShortestPathsInstanc
 				it3 = instance.getGraph().getVerticesIterator();
 				while(it3.hasNext()){
 					w = it3.next();
+					checkCancellation();
 					update(csts,shortestPaths,u,v,w);
 				}
 			}
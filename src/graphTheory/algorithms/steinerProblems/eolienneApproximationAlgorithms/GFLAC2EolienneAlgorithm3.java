@@ -217,6 +217,7 @@ public class GFLAC2EolienneAlgorithm3 extends EolienneApproximationAlgorithm {
 //		System.out.println(">>>>>>>>>>>>>");
 
 		while (true) {
+			checkCancellation();
 
 			Integer v = nextSaturatedNode();
 
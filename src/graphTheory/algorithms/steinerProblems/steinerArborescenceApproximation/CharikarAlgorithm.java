@@ -0,0 +1,652 @@
+package graphTheory.algorithms.steinerProblems.steinerArborescenceApproximation;
+
+import graphTheory.algorithms.shortestDistance.arcCost.ArcDijkstraOneSourceAlgorithm;
+import graphTheory.graph.Arc;
+import graphTheory.graph.Graph;
+import graphTheory.instances.shortestPath.ArcShortestPathOneSourceInstance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *
+ * Implementation of the Charikar and Al. algorithm from
+ * "Approximation Algorithms for Directed Steiner Tree Problems", for any
+ * height parameter i.
+ * <p>
+ * Let A_i(k, r, X) be the tree of height at most i rooted in r and spanning k
+ * terminals of X returned by the algorithm. A_1(k, r, X) is the union of the
+ * shortest paths from r to the k closest terminals of X. A_i(k, r, X), for i
+ * greater than 1, is computed greedily: the algorithm searches, for every
+ * node v and every number k' of terminals lower than k, for the tree (r,v) U
+ * A_(i-1)(k', v, X) of minimum density (cost divided by the number of
+ * terminals), adds it to the current tree, removes its terminals from X, and
+ * repeats until k terminals are spanned.
+ * <p>
+ * As {@link RoosAlgorithm}, this algorithm works in the shortest path graph :
+ * the complete directed graph where the weight of the arc is the shortest path
+ * cost in the original graph. The returned solution is the union of the
+ * shortest paths corresponding to the arcs of A_i(|X|, root, X).
+ * <p>
+ * The trees A_(i-1)(k', v, X) are memoised for each node v, level i-1,
+ * remaining number of terminals k' and set X, as the same trees are searched
+ * by many calls of upper levels. The candidates of each greedy step are
+ * evaluated in parallel.
+ * <p>
+ * The running time is O(n^i k^(2i)). One can define a budget, as a maximum
+ * number of computed trees or as a maximum running time. When the budget is
+ * exhausted, the trees which are not computed yet are computed as if i was
+ * equal to 1, so that the algorithm quickly returns a feasible solution.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class CharikarAlgorithm extends SteinerArborescenceApproximationAlgorithm {
+
+	/**
+	 * Value of a distance in {@link #distances} when there is no path between
+	 * the two nodes.
+	 */
+	private static final int NO_PATH = -1;
+
+	/**
+	 * Under this number of nodes, the candidates of a greedy step are evaluated
+	 * sequentially.
+	 */
+	private static final int SEQUENTIAL_THRESHOLD = 64;
+
+	/**
+	 * Height parameter of the algorithm.
+	 */
+	private int level = 3;
+
+	/**
+	 * Maximum number of trees computed before the budget is exhausted.
+	 */
+	private long maxComputedTrees = Long.MAX_VALUE;
+
+	/**
+	 * Maximum running time in ms before the budget is exhausted.
+	 */
+	private long maxTime = Long.MAX_VALUE;
+
+	/**
+	 * If true, the candidates of each greedy step are evaluated in parallel.
+	 */
+	private boolean parallel = true;
+
+	/**
+	 * Set the height parameter i of the algorithm. The default value is 3.
+	 * With i equals to 2, this algorithm is the Charikar algorithm implemented
+	 * faster by {@link RoosAlgorithm}.
+	 *
+	 * @param level
+	 */
+	public void setLevel(int level) {
+		if (level < 1)
+			throw new IllegalArgumentException("The height must be positive : "
+					+ level);
+		this.level = level;
+	}
+
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * Set the maximum number of trees computed by the algorithm before the
+	 * budget is exhausted. There is no limit by default.
+	 *
+	 * @param maxComputedTrees
+	 */
+	public void setMaxComputedTrees(long maxComputedTrees) {
+		this.maxComputedTrees = maxComputedTrees;
+	}
+
+	/**
+	 * Set the maximum running time in ms of the algorithm before the budget is
+	 * exhausted. There is no limit by default.
+	 *
+	 * @param maxTime
+	 */
+	public void setMaxTime(long maxTime) {
+		this.maxTime = maxTime;
+	}
+
+	/**
+	 * If true, the candidates of each greedy step are evaluated in parallel.
+	 * The default value is true.
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 * @return true if the budget was exhausted during the last run of this
+	 *         algorithm.
+	 */
+	public boolean isBudgetExhausted() {
+		return budgetExhausted;
+	}
+
+	/**
+	 * @return the number of trees computed during the last run of this
+	 *         algorithm.
+	 */
+	public long getComputedTrees() {
+		return computedTrees.get();
+	}
+
+	/**
+	 * Nodes of the instance. The index of a node in this array is used in every
+	 * other array of this algorithm.
+	 */
+	private Integer[] vertices;
+
+	/**
+	 * Terminals of the instance, sorted by id.
+	 */
+	private Integer[] terminals;
+
+	/**
+	 * For each terminal of index j in {@link #terminals},
+	 * terminalVertexIndexes[j] is the index of that terminal in
+	 * {@link #vertices}.
+	 */
+	private int[] terminalVertexIndexes;
+
+	/**
+	 * distances[u][v] is the cost of the shortest path from the node of index u
+	 * to the node of index v, or {@link #NO_PATH}.
+	 */
+	private int[][] distances;
+
+	/**
+	 * For each node of index i, sortedTerminals[i] contains the indexes of the
+	 * terminals that node can reach, sorted by distance from that node.
+	 */
+	private int[][] sortedTerminals;
+
+	/**
+	 * Trees already computed, for each node, level, remaining number of
+	 * terminals and set of terminals.
+	 */
+	private ConcurrentHashMap<SubTreeKey, SubTree> memo;
+
+	/**
+	 * Number of trees computed during the current run.
+	 */
+	private AtomicLong computedTrees = new AtomicLong();
+
+	/**
+	 * True when the budget is exhausted.
+	 */
+	private volatile boolean budgetExhausted;
+
+	@Override
+	protected void computeWithoutTime() {
+		memo = new ConcurrentHashMap<SubTreeKey, SubTree>();
+		computedTrees.set(0);
+		budgetExhausted = false;
+
+		if (!initDistances()) {
+			// The root or a terminal is not a node of the graph.
+			setNoSolution();
+			memo = null;
+			return;
+		}
+		sortRequiredVertices();
+
+		// The terminals the root can reach
+		int rootIndex = indexOf(instance.getRoot());
+		BitSet x = new BitSet(terminals.length);
+		for (int j : sortedTerminals[rootIndex])
+			x.set(j);
+
+		SubTree tree = getTree(level, rootIndex, x.cardinality(), x);
+		setSolution(tree);
+
+		memo = null;
+	}
+
+	/**
+	 * @return the index of v in {@link #vertices}.
+	 */
+	private int indexOf(Integer v) {
+		for (int i = 0; i < vertices.length; i++)
+			if (vertices[i].equals(v))
+				return i;
+		return -1;
+	}
+
+	/**
+	 * Compute the shortest paths costs between every couple of nodes: the
+	 * metric closure of the graph. The dijkstra algorithms run in parallel.
+	 * 
+	 * @return false, without computing the distances, if the root or a
+	 *         terminal is not a node of the graph.
+	 */
+	private boolean initDistances() {
+		final Graph g = instance.getGraph();
+		int s = g.getNumberOfVertices();
+		vertices = new Integer[s];
+		final HashMap<Integer, Integer> vertexIndexes = new HashMap<Integer, Integer>();
+		Iterator<Integer> it = g.getVerticesIterator();
+		int index = 0;
+		while (it.hasNext()) {
+			Integer v = it.next();
+			vertices[index] = v;
+			vertexIndexes.put(v, index++);
+		}
+
+		ArrayList<Integer> req = instance.getRequiredVertices();
+		terminals = req.toArray(new Integer[req.size()]);
+		Arrays.sort(terminals);
+		terminalVertexIndexes = new int[terminals.length];
+		for (int j = 0; j < terminals.length; j++) {
+			Integer i = vertexIndexes.get(terminals[j]);
+			if (i == null)
+				return false;
+			terminalVertexIndexes[j] = i;
+		}
+		if (!vertexIndexes.containsKey(instance.getRoot()))
+			return false;
+
+		distances = new int[s][];
+		final HashMap<Arc, Number> costs = instance.getCosts();
+
+		ArrayList<RecursiveAction> tasks = new ArrayList<RecursiveAction>();
+		for (int u = 0; u < s; u++) {
+			final int source = u;
+			tasks.add(new RecursiveAction() {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					ArcShortestPathOneSourceInstance ash = new ArcShortestPathOneSourceInstance(
+							g);
+					ash.setCosts(costs);
+					ash.setSource(vertices[source]);
+
+					ArcDijkstraOneSourceAlgorithm adij = new ArcDijkstraOneSourceAlgorithm();
+					adij.setInstance(ash);
+					adij.setComputeOnlyCosts(true);
+					// The tasks may run on other threads.
+					computeNested(adij);
+
+					HashMap<Integer, Integer> aDijCosts = adij.getCosts();
+					int[] d = new int[vertices.length];
+					for (int v = 0; v < vertices.length; v++) {
+						Integer c = aDijCosts.get(vertices[v]);
+						d[v] = (c == null) ? NO_PATH : c;
+					}
+					distances[source] = d;
+				}
+			});
+		}
+		if (parallel)
+			ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					invokeAll(tasks);
+				}
+			});
+		else
+			for (RecursiveAction task : tasks)
+				task.invoke();
+		return true;
+	}
+
+	/**
+	 * For each node v, sort the list of terminals v can reach by distance from
+	 * v. Two terminals at the same distance are sorted by id.
+	 */
+	private void sortRequiredVertices() {
+		int k = terminals.length;
+		sortedTerminals = new int[vertices.length][];
+		long[] keys = new long[k];
+		for (int v = 0; v < vertices.length; v++) {
+			int size = 0;
+			for (int j = 0; j < k; j++) {
+				int d = distances[v][terminalVertexIndexes[j]];
+				if (d != NO_PATH)
+					keys[size++] = (((long) d) << 32) | j;
+			}
+			Arrays.sort(keys, 0, size);
+			int[] order = new int[size];
+			for (int p = 0; p < size; p++)
+				order[p] = (int) keys[p];
+			sortedTerminals[v] = order;
+		}
+	}
+
+	/**
+	 * Check if the budget is exhausted. If it is, every tree which is not
+	 * already computed is computed as if its level was 1.
+	 */
+	private boolean checkBudget() {
+		if (budgetExhausted)
+			return true;
+		if (computedTrees.incrementAndGet() > maxComputedTrees
+				|| (maxTime != Long.MAX_VALUE && getCurrentTime() > maxTime))
+			budgetExhausted = true;
+		return budgetExhausted;
+	}
+
+	/**
+	 * @return the tree A_level(k, r, x), using the memoised trees if possible.
+	 */
+	private SubTree getTree(int level, int r, int k, BitSet x) {
+		if (level == 1)
+			return getStar(r, k, x);
+
+		SubTreeKey key = new SubTreeKey(level, r, k, x);
+		SubTree tree = memo.get(key);
+		if (tree != null)
+			return tree;
+
+		if (checkBudget())
+			tree = getStar(r, k, x);
+		else
+			tree = computeTree(level, r, k, x);
+
+		SubTree previous = memo.putIfAbsent(key, tree);
+		return (previous == null) ? tree : previous;
+	}
+
+	/**
+	 * @return the tree A_1(k, r, x): the union of the shortest paths from r to
+	 *         the k closest terminals in x. If r can reach less than k
+	 *         terminals in x, the tree spans all the terminals r can reach.
+	 */
+	private SubTree getStar(int r, int k, BitSet x) {
+		SubTree tree = new SubTree();
+		int[] order = sortedTerminals[r];
+		for (int p = 0; p < order.length && tree.count < k; p++) {
+			int j = order[p];
+			if (!x.get(j))
+				continue;
+			int t = terminalVertexIndexes[j];
+			if (t != r)
+				tree.addArc(r, t, distances[r][t]);
+			tree.terminals.set(j);
+			tree.count++;
+		}
+		return tree;
+	}
+
+	/**
+	 * @return the tree A_level(k, r, x), computed greedily.
+	 */
+	private SubTree computeTree(int level, int r, int k, BitSet x) {
+		SubTree tree = new SubTree();
+		x = (BitSet) x.clone();
+		while (k > 0) {
+			Candidate best = getBestCandidate(level, r, k, x);
+			if (best == null)
+				break;
+
+			SubTree sub = best.tree;
+			if (sub == null)
+				sub = getStar(best.vertex, best.count, x);
+			if (best.vertex != r)
+				tree.addArc(r, best.vertex, distances[r][best.vertex]);
+			tree.addAll(sub);
+
+			k -= sub.count;
+
+			// x must not be modified as it may be a key of the memo
+			x = (BitSet) x.clone();
+			x.andNot(sub.terminals);
+		}
+		return tree;
+	}
+
+	/**
+	 * @return the tree (r,v) U A_(level-1)(k', v, x) of minimum density among
+	 *         all the nodes v and all k' lower than k, or null if no such tree
+	 *         spans a terminal.
+	 */
+	private Candidate getBestCandidate(int level, int r, int k, BitSet x) {
+		if (parallel && vertices.length > SEQUENTIAL_THRESHOLD) {
+			CandidateTask task = new CandidateTask(level, r, k, x, 0,
+					vertices.length);
+			if (ForkJoinTask.inForkJoinPool())
+				return task.invoke();
+			else
+				return ForkJoinPool.commonPool().invoke(task);
+		} else
+			return getBestCandidate(level, r, k, x, 0, vertices.length);
+	}
+
+	/**
+	 * @return the tree (r,v) U A_(level-1)(k', v, x) of minimum density among
+	 *         all the nodes v of index from begin (inclusive) to end
+	 *         (exclusive) and all k' lower than k, or null if no such tree
+	 *         spans a terminal.
+	 */
+	private Candidate getBestCandidate(int level, int r, int k, BitSet x,
+			int begin, int end) {
+		Candidate best = null;
+		for (int v = begin; v < end; v++) {
+			checkCancellation();
+			int crv = (v == r) ? 0 : distances[r][v];
+			if (crv == NO_PATH)
+				continue;
+
+			if (level == 2) {
+				// A_1(k', v, x) is a prefix of the terminals sorted by
+				// distance from v: all the k' are evaluated with one scan and
+				// only the best star is built.
+				long c = crv;
+				int kp = 0;
+				int[] order = sortedTerminals[v];
+				for (int p = 0; p < order.length && kp < k; p++) {
+					int j = order[p];
+					if (!x.get(j))
+						continue;
+					c += distances[v][terminalVertexIndexes[j]];
+					kp++;
+					double d = ((double) c) / kp;
+					if (best == null || d < best.density)
+						best = new Candidate(v, kp, null, d);
+				}
+				continue;
+			}
+
+			for (int kp = 1; kp <= k; kp++) {
+				SubTree sub = getTree(level - 1, v, kp, x);
+				if (sub.count == 0)
+					break;
+				double d = ((double) crv + sub.cost) / sub.count;
+				if (best == null || d < best.density)
+					best = new Candidate(v, sub.count, sub, d);
+
+				// v cannot span more terminals
+				if (sub.count < kp)
+					break;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Task evaluating the candidates (r,v) U A_(level-1)(k', v, x) for the
+	 * nodes v of index from begin (inclusive) to end (exclusive).
+	 */
+	private class CandidateTask extends RecursiveTask<Candidate> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int level, r, k, begin, end;
+		private final BitSet x;
+
+		CandidateTask(int level, int r, int k, BitSet x, int begin, int end) {
+			this.level = level;
+			this.r = r;
+			this.k = k;
+			this.x = x;
+			this.begin = begin;
+			this.end = end;
+		}
+
+		@Override
+		protected Candidate compute() {
+			if (end - begin <= SEQUENTIAL_THRESHOLD)
+				return getBestCandidate(level, r, k, x, begin, end);
+			int middle = (begin + end) >>> 1;
+			CandidateTask left = new CandidateTask(level, r, k, x, begin,
+					middle);
+			CandidateTask right = new CandidateTask(level, r, k, x, middle,
+					end);
+			right.fork();
+			Candidate c1 = left.compute();
+			Candidate c2 = right.join();
+			if (c1 == null)
+				return c2;
+			if (c2 == null)
+				return c1;
+			// In case of equality, the node with lowest index is kept, as in
+			// the sequential evaluation
+			return (c2.density < c1.density) ? c2 : c1;
+		}
+	}
+
+	/**
+	 * Set the solution to the union of the shortest paths corresponding to the
+	 * arcs of tree.
+	 *
+	 * @param tree
+	 */
+	private void setSolution(SubTree tree) {
+
+		// Group the arcs of the tree by input to compute one dijkstra per input
+		HashMap<Integer, List<Integer>> outputs = new HashMap<Integer, List<Integer>>();
+		for (int p = 0; p < tree.size; p++) {
+			Integer u = vertices[(int) (tree.arcs[p] >>> 32)];
+			Integer v = vertices[(int) tree.arcs[p]];
+			List<Integer> l = outputs.get(u);
+			if (l == null) {
+				l = new ArrayList<Integer>();
+				outputs.put(u, l);
+			}
+			l.add(v);
+		}
+
+		arborescence = new HashSet<Arc>();
+		ArcShortestPathOneSourceInstance ash = new ArcShortestPathOneSourceInstance(
+				instance.getGraph());
+		ash.setCosts(instance.getCosts());
+		ArcDijkstraOneSourceAlgorithm adij = new ArcDijkstraOneSourceAlgorithm();
+		adij.setInstance(ash);
+		adij.setComputeOnlyCosts(false);
+		for (Integer u : outputs.keySet()) {
+			ash.setSource(u);
+			adij.compute();
+			HashMap<Integer, List<Arc>> paths = adij.getShortestPaths();
+			for (Integer v : outputs.get(u))
+				arborescence.addAll(paths.get(v));
+		}
+
+		int c = 0;
+		for (Arc a : arborescence)
+			c += instance.getIntCost(a);
+		cost = c;
+	}
+
+	/**
+	 * Tree in the shortest path graph. Each arc (u,v) is represented by a long
+	 * containing the index of u in the 32 high bits and the index of v in the
+	 * 32 low bits.
+	 */
+	private static class SubTree {
+		long[] arcs = new long[4];
+		int size;
+		long cost;
+		BitSet terminals = new BitSet();
+		int count;
+
+		void addArc(int u, int v, int c) {
+			if (size == arcs.length)
+				arcs = Arrays.copyOf(arcs, 2 * size);
+			arcs[size++] = (((long) u) << 32) | v;
+			cost += c;
+		}
+
+		void addAll(SubTree t) {
+			if (size + t.size > arcs.length)
+				arcs = Arrays.copyOf(arcs, 2 * (size + t.size));
+			System.arraycopy(t.arcs, 0, arcs, size, t.size);
+			size += t.size;
+			cost += t.cost;
+			terminals.or(t.terminals);
+			count += t.count;
+		}
+	}
+
+	/**
+	 * Tree (r,v) U A_(i-1)(k', v, X) evaluated during a greedy step. The tree
+	 * A_(i-1)(k', v, X) is null if i - 1 is 1, it is then built only if this
+	 * candidate is chosen.
+	 */
+	private static class Candidate {
+		final int vertex;
+		final int count;
+		final SubTree tree;
+		final double density;
+
+		Candidate(int vertex, int count, SubTree tree, double density) {
+			this.vertex = vertex;
+			this.count = count;
+			this.tree = tree;
+			this.density = density;
+		}
+	}
+
+	/**
+	 * Key of the memoised tree A_level(k, r, x).
+	 */
+	private static class SubTreeKey {
+		final int level, r, k;
+		final BitSet x;
+		final int hash;
+
+		SubTreeKey(int level, int r, int k, BitSet x) {
+			this.level = level;
+			this.r = r;
+			this.k = k;
+			this.x = x;
+			this.hash = ((level * 31 + r) * 31 + k) * 31 + x.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof SubTreeKey))
+				return false;
+			SubTreeKey key = (SubTreeKey) o;
+			return hash == key.hash && level == key.level && r == key.r
+					&& k == key.k && x.equals(key.x);
+		}
+	}
+
+}
@@ -1,6 +1,9 @@
 package graphTheory.algorithms.steinerProblems.steinerArborescenceApproximation;
 
+import graphTheory.events.FlacRoundEvent;
 import graphTheory.graph.Arc;
+import graphTheory.utils.Counter;
+import graphTheory.utils.Counters;
 import graphTheory.utils.CustomFibonacciHeap;
 import graphTheory.utils.CustomFibonacciHeapNode;
 import graphTheory.utils.DoubleBoolean;
@@ -102,10 +105,16 @@ public class GFLAC2Algorithm extends SteinerArborescenceApproximationAlgorithm {
 
 		// Until all the terminals are reached
 		
+		int round = 0;
 		while (requiredVertices.size() > 0) {
+			FlacRoundEvent event = new FlacRoundEvent();
+			event.begin();
+			round++;
 			Triplet<HashSet<Arc>, HashSet<Integer>, HashSet<Integer>> result = applyFLAC(); // Search a low Density Directed Steiner Tree with the FLAC algorithm
 			
 			if (result == null) {
+				event.end(getClass(), getInstanceName(), round, instance,
+						null, 0, requiredVertices.size());
 				this.arborescence = null;
 				this.cost = null;
 				return;
@@ -130,6 +139,8 @@ public class GFLAC2Algorithm extends SteinerArborescenceApproximationAlgorithm {
 			currentSol.addAll(tbest);
 			reached.addAll(reachedNodes);
 			requiredVertices.removeAll(reachedTerminals); // Remove the reached terminals from the required vertices of the instance
+			event.end(getClass(), getInstanceName(), round, instance, tbest,
+					reachedTerminals.size(), requiredVertices.size());
 		}
 
 		// Set the output of this algorithm : the returned tree and its cost
@@ -207,6 +218,8 @@ public class GFLAC2Algorithm extends SteinerArborescenceApproximationAlgorithm {
 
 			// Check which arc will be the next saturated one
 			Arc a = nextSaturatedArc();
+			Counters.increment(Counter.SATURATIONS);
+			checkCancellation();
 
 			Integer u = a.getInput();
 			Integer v = a.getOutput();
@@ -219,6 +232,8 @@ public class GFLAC2Algorithm extends SteinerArborescenceApproximationAlgorithm {
 
 			// We now check if a node is linked to the root with two paths of saturated arcs: it is called a conflict
 			boolean conflict = findConflict(u, v);
+			if (conflict)
+				Counters.increment(Counter.CONFLICTS);
 
 			// Whatever the case, we have to check which arc of v will be its next saturated entering arc, and when
 			// it will be saturated
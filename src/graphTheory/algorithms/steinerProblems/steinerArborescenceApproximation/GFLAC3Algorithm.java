@@ -1,5 +1,6 @@
 package graphTheory.algorithms.steinerProblems.steinerArborescenceApproximation;
 
+import graphTheory.events.FlacRoundEvent;
 import graphTheory.graph.Arc;
 import graphTheory.utils.*;
 
@@ -93,11 +94,17 @@ public class GFLAC3Algorithm extends SteinerArborescenceApproximationAlgorithm {
 
 		// Until all the terminals are reached
 		
+		int round = 0;
 		while (requiredVertices.size() > 0) {
+			FlacRoundEvent event = new FlacRoundEvent();
+			event.begin();
+			round++;
 
 			Triplet<HashSet<Arc>, HashSet<Integer>, HashSet<Integer>> result = applyFLAC(); // Search a low Density Directed Steiner Tree with the FLAC algorithm
 			
 			if (result == null) {
+				event.end(getClass(), getInstanceName(), round, instance,
+						null, 0, requiredVertices.size());
 				this.arborescence = null;
 				this.cost = null;
 				return;
@@ -122,6 +129,8 @@ public class GFLAC3Algorithm extends SteinerArborescenceApproximationAlgorithm {
 			currentSol.addAll(tbest);
 			reached.addAll(reachedNodes);
 			requiredVertices.removeAll(reachedTerminals); // Remove the reached terminals from the required vertices of the instance
+			event.end(getClass(), getInstanceName(), round, instance, tbest,
+					reachedTerminals.size(), requiredVertices.size());
 		}
 
 		// Set the output of this algorithm : the returned tree and its cost
@@ -198,6 +207,8 @@ public class GFLAC3Algorithm extends SteinerArborescenceApproximationAlgorithm {
 
 			// Check which arc will be the next saturated one
 			Arc a = nextSaturatedArc();
+			Counters.increment(Counter.SATURATIONS);
+			checkCancellation();
 //            System.out.print(a+" ");
 
 			Integer u = a.getInput();
@@ -211,6 +222,8 @@ public class GFLAC3Algorithm extends SteinerArborescenceApproximationAlgorithm {
 
 			// We now check if a node is linked to the root with two paths of saturated arcs: it is called a conflict
 			boolean conflict = findConflict(u, v);
+			if (conflict)
+				Counters.increment(Counter.CONFLICTS);
 //            System.out.println(conflict);
 
 			// Whatever the case, we have to check which arc of v will be its next saturated entering arc, and when
@@ -441,6 +454,8 @@ public class GFLAC3Algorithm extends SteinerArborescenceApproximationAlgorithm {
 
 		while (!toList.isEmpty()) {
             Integer w = toList.pollFirst();
+            Counters.increment(Counter.CONFLICT_NODES_VISITED);
+            checkCancellation();
 
             // If the sources reaching w intersect the sources reaching v there is a conflict
             if (nonEmptyIntersection(getAncestorSources(w), vsrcs)) {
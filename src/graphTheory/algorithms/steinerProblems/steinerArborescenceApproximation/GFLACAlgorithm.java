@@ -1,5 +1,6 @@
 package graphTheory.algorithms.steinerProblems.steinerArborescenceApproximation;
 
+import graphTheory.events.FlacRoundEvent;
 import graphTheory.graph.Arc;
 import graphTheory.utils.*;
 
@@ -94,14 +95,24 @@ public class GFLACAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 		sortedInputArcs = new HashMap<Integer, TreeSet<Arc>>();
 
 		// Initialize parameters
+		beginPhase("init");
 		this.init();
+		endPhase();
 
 		// Until all the terminals are reached
 		
+		int round = 0;
 		while (requiredVertices.size() > 0) {
+			FlacRoundEvent event = new FlacRoundEvent();
+			event.begin();
+			round++;
+			beginPhase("FLAC round");
 			Triplet<HashSet<Arc>, HashSet<Integer>, HashSet<Integer>> result = applyFLAC(); // Search a low Density Directed Steiner Tree with the FLAC algorithm
+			endPhase();
 
 			if (result == null) {
+				event.end(getClass(), getInstanceName(), round, instance,
+						null, 0, requiredVertices.size());
 				this.arborescence = null;
 				this.cost = null;
 				return;
@@ -125,10 +136,13 @@ public class GFLACAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 			currentSol.addAll(tbest);
 			reached.addAll(reachedNodes);
 			requiredVertices.removeAll(reachedTerminals); // Remove the reached terminals from the required vertices of the instance
+			event.end(getClass(), getInstanceName(), round, instance, tbest,
+					reachedTerminals.size(), requiredVertices.size());
 		}
 
 		// Set the output of this algorithm : the returned tree and its cost
 
+		beginPhase("tree build");
 		arborescence = currentSol;
 		int c = 0;
 		if (arborescence != null)
@@ -136,6 +150,7 @@ public class GFLACAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 				c += instance.getIntCost(a);
 
 		cost = c;
+		endPhase();
 	}
 
 	private Comparator<Arc> getArcsComparator() {
@@ -202,6 +217,8 @@ public class GFLACAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 
 			// Check which arc will be the next saturated one
 			Arc a = nextSaturatedArc();
+			Counters.increment(Counter.SATURATIONS);
+			checkCancellation();
 //			System.out.print(a+" ");
 
 			Integer u = a.getInput();
@@ -215,6 +232,8 @@ public class GFLACAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 
 			// We now check if a node is linked to the root with two paths of saturated arcs: it is called a conflict
 			boolean conflict = findConflict(u, v);
+			if (conflict)
+				Counters.increment(Counter.CONFLICTS);
 //			System.out.println(conflict);
 
 			// Whatever the case, we have to check which arc of v will be its next saturated entering arc, and when
@@ -418,6 +437,8 @@ public class GFLACAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 
 		while (!toList.isEmpty()) {
 			Integer w = toList.pollFirst();
+			Counters.increment(Counter.CONFLICT_NODES_VISITED);
+			checkCancellation();
 
 			// If the sources reaching w intersect the sources reaching v there is a conflict
 			if (nonEmptyIntersection(getSources(w), vsrcs))
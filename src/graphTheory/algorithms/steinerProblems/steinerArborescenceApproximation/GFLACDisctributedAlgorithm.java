@@ -204,6 +204,7 @@ public class GFLACDisctributedAlgorithm extends SteinerArborescenceApproximation
 		reinit();
 
 		while(true){
+			checkCancellation();
 			//			System.out.println("==>");
 			Integer saturatingNode = getNextSaturatingNode();
 			//			System.out.println(saturatingNode +" "+flowTimeArrivals);
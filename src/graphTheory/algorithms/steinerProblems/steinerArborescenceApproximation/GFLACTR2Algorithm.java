@@ -1,6 +1,8 @@
 package graphTheory.algorithms.steinerProblems.steinerArborescenceApproximation;
 
 import graphTheory.graph.Arc;
+import graphTheory.utils.Counter;
+import graphTheory.utils.Counters;
 import graphTheory.utils.Couple;
 import graphTheory.utils.CustomFibonacciHeap;
 import graphTheory.utils.CustomFibonacciHeapNode;
@@ -288,6 +290,8 @@ public class GFLACTR2Algorithm extends SteinerArborescenceApproximationAlgorithm
 		while (true) {
 			// Check which arc will be the next saturated one
 			Couple<Integer,Integer> a = nextSaturatedArc();
+			Counters.increment(Counter.SATURATIONS);
+			checkCancellation();
 
 			Integer u = a.first;
 			Integer v = a.second;
@@ -300,6 +304,8 @@ public class GFLACTR2Algorithm extends SteinerArborescenceApproximationAlgorithm
 
 			// We now check if a node is linked to the root with two paths of saturated arcs: it is called a conflict
 			boolean conflict = findConflict(u, v);
+			if (conflict)
+				Counters.increment(Counter.CONFLICTS);
 
 			// Whatever the case,
 			// we first have to update the costs of all non saturated arcs entering v if possible except (u,v)
@@ -565,6 +571,7 @@ public class GFLACTR2Algorithm extends SteinerArborescenceApproximationAlgorithm
 		Iterator<Integer> it = instance.getGraph().getVerticesIterator();
 
 		while (it.hasNext()) {
+			checkCancellation();
 			Integer w = it.next();
 			if(w.equals(v))
 				continue;
@@ -720,6 +727,8 @@ public class GFLACTR2Algorithm extends SteinerArborescenceApproximationAlgorithm
 
 		while (!toList.isEmpty()) {
 			Integer w = toList.pollFirst();
+			Counters.increment(Counter.CONFLICT_NODES_VISITED);
+			checkCancellation();
 
 			// If the sources reaching w intersect the sources reaching v there is a conflict
 			if (nonEmptyIntersection(getSources(w), vsrcs))
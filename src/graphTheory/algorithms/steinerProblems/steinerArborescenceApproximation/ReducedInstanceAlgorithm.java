@@ -0,0 +1,91 @@
+package graphTheory.algorithms.steinerProblems.steinerArborescenceApproximation;
+
+import graphTheory.algorithms.RunStats;
+import graphTheory.graph.Arc;
+
+import java.util.HashSet;
+
+/**
+ * Run another algorithm over the instance reduced by a
+ * {@link SteinerDirectedReduction}, and expand the returned tree into a tree of
+ * the instance.
+ * <p>
+ * As the reduced instance contains at least one optimal solution of the
+ * instance, the approximation ratio of the algorithm is kept, and it runs
+ * faster as the reduced instance is smaller. The running time includes the
+ * time of the reduction, and the token of the run stops the reduction too. If
+ * the algorithm is stopped, by the same token or by its own one, the run is
+ * stopped with the same status.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class ReducedInstanceAlgorithm extends
+		SteinerArborescenceApproximationAlgorithm {
+
+	private SteinerArborescenceApproximationAlgorithm algorithm;
+
+	private SteinerDirectedReduction reduction;
+
+	private boolean reducedCostFixing;
+
+	public ReducedInstanceAlgorithm(
+			SteinerArborescenceApproximationAlgorithm algorithm) {
+		super();
+		this.algorithm = algorithm;
+		this.reducedCostFixing = true;
+	}
+
+	public SteinerArborescenceApproximationAlgorithm getAlgorithm() {
+		return algorithm;
+	}
+
+	/**
+	 * Enable or disable the reduced cost fixing test, which runs the
+	 * {@link WongAlgorithm} over the instance.
+	 */
+	public void setReducedCostFixing(boolean reducedCostFixing) {
+		this.reducedCostFixing = reducedCostFixing;
+	}
+
+	/**
+	 * @return the reduction applied to the last instance, in order to get the
+	 *         reduced instance or the number of nodes and arcs removed by each
+	 *         test.
+	 */
+	public SteinerDirectedReduction getReduction() {
+		return reduction;
+	}
+
+	@Override
+	protected void computeWithoutTime() {
+		reduction = new SteinerDirectedReduction(instance);
+		reduction.setReducedCostFixing(reducedCostFixing);
+		reduction.setCancellationCheck(new Runnable() {
+			@Override
+			public void run() {
+				checkCancellation();
+			}
+		});
+		reduction.reduce();
+
+		algorithm.setInstance(reduction.getReducedInstance());
+		computeNested(algorithm);
+		// The algorithm may be stopped by its own token
+		RunStats stats = algorithm.getRunStats();
+		if (stats != null && stats.getStatus() != RunStats.Status.COMPLETED)
+			stopRun(stats.getStatus());
+
+		HashSet<Arc> tree = algorithm.getArborescence();
+		if (tree == null) {
+			setNoSolution();
+			return;
+		}
+
+		arborescence = reduction.expand(tree);
+		cost = 0;
+		for (Arc a : arborescence)
+			cost += instance.getIntCost(a);
+	}
+
+}
@@ -2,18 +2,21 @@ package graphTheory.algorithms.steinerProblems.steinerArborescenceApproximation;
 
 import graphTheory.algorithms.shortestDistance.arcCost.ArcDijkstraOneDestinationAlgorithm;
 import graphTheory.algorithms.shortestDistance.arcCost.ArcDijkstraOneSourceAlgorithm;
+import graphTheory.events.ShortestPathBatchEvent;
 import graphTheory.graph.Arc;
 import graphTheory.instances.shortestPath.ArcShortestPathOneDestinationInstance;
 import graphTheory.instances.shortestPath.ArcShortestPathOneSourceInstance;
-import graphTheory.utils.Couple;
+import graphTheory.utils.Counter;
+import graphTheory.utils.Counters;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * 
@@ -41,6 +44,11 @@ import java.util.TreeSet;
  * complete directed graph where the wieght of the arc is the shortest path cost
  * in the original graph.
  * <p>
+ * For each node v, the terminals sorted by distance from v and the costs of
+ * the corresponding shortest paths are stored in two primitive arrays, so that
+ * the minimum density tree going through v is found with one linear scan.
+ * Each turn of CH2 evaluates the nodes in parallel and keeps the best one.
+ * <p>
  * 
  * @author Watel Dimitri
  * 
@@ -48,10 +56,15 @@ import java.util.TreeSet;
 public class RoosAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 
 	/**
-	 * Copy of the costs of the instance. It let the algorithm modify the costs
-	 * withouth modifying the instance it self.
+	 * Value of a cost in {@link #rootCosts} or {@link #sortedCosts} when there
+	 * is no path between the two nodes.
+	 */
+	private static final int NO_PATH = -1;
+
+	/**
+	 * Under this number of nodes, CH2 evaluates the nodes sequentially.
 	 */
-	private HashMap<Arc, Integer> costs;
+	private static final int SEQUENTIAL_THRESHOLD = 256;
 
 	/**
 	 * This map associates each couple of node (represented by an arc in the
@@ -65,44 +78,107 @@ public class RoosAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 	private HashMap<Arc, List<Arc>> shortestPaths;
 
 	/**
-	 * This map associates for each node v the list of terminals sortest by
-	 * distance from v : the cost of the shortest path from v to that terminal.
+	 * Nodes of the instance. The index of a node in this array is used in every
+	 * other array of this algorithm.
+	 */
+	private Integer[] vertices;
+
+	/**
+	 * Index of the root in {@link #vertices}.
+	 */
+	private int rootIndex;
+
+	/**
+	 * Terminals of the instance, sorted by id.
+	 */
+	private Integer[] terminals;
+
+	/**
+	 * For each terminal of index j in {@link #terminals},
+	 * terminalVertexIndexes[j] is the index of that terminal in
+	 * {@link #vertices}, or -1 if it is not a node of the graph.
+	 */
+	private int[] terminalVertexIndexes;
+
+	/**
+	 * For each node of index i, rootCosts[i] is the cost of the shortest path
+	 * from the root to that node, or {@link #NO_PATH}. As this algorithm can
+	 * set costs to 0, the costs are a copy of the instance costs.
+	 */
+	private int[] rootCosts;
+
+	/**
+	 * For each node of index i, sortedTerminals[i] contains the indexes of the
+	 * terminals sorted by distance from that node.
+	 */
+	private int[][] sortedTerminals;
+
+	/**
+	 * For each node of index i, sortedCosts[i][p] is the cost of the shortest
+	 * path from that node to the terminal of index sortedTerminals[i][p], or
+	 * {@link #NO_PATH}.
+	 */
+	private int[][] sortedCosts;
+
+	/**
+	 * For each terminal of index j, rootTerminalPositions[j] is the position of
+	 * that terminal in sortedTerminals[rootIndex].
+	 */
+	private int[] rootTerminalPositions;
+
+	/**
+	 * reached[j] is true if the terminal of index j is already spanned by the
+	 * current solution.
+	 */
+	private boolean[] reached;
+
+	/**
+	 * If true, CH2 evaluates the nodes in parallel.
+	 */
+	private boolean parallel = true;
+
+	/**
+	 * If true, CH2 evaluates the nodes in parallel. The default value is true.
 	 */
-	private HashMap<Integer, TreeSet<Integer>> sortedRequiredVertices;
-	
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
 	@Override
-	protected void computeWithoutTime() {	
-		
+	protected void computeWithoutTime() {
+
 		// We first compute all the shortest paths
+		beginPhase("shortest paths");
 		initShortestPaths();
+		endPhase();
 
 		// Then we sort for each node v the list of terminals by the distance from v
-		sortedRequiredVertices = new HashMap<Integer, TreeSet<Integer>>();
+		beginPhase("sort terminals");
 		sortRequiredVertices();
-		
-		// Copy of the terminals
-		HashSet<Integer> req = new HashSet<Integer>(
-				instance.getRequiredVertices());
+		endPhase();
+
+		int remaining = terminals.length;
 
 		// Union of all the solutions returned by the subalgorithm CH2
 		HashSet<Arc> currentSol = new HashSet<Arc>();
 
 		// Until all terminals are reached
-		while (req.size() > 0) {
+		while (remaining > 0) {
 
 			// We apply CH2 to reach some of the non reached terminals
-			Couple<HashSet<Arc>, HashSet<Integer>> tree = applyCH2(req);
-
-			// tree.first the tree returned by CH2
-			// tree.second is the terminals of that tree
-
-			currentSol.addAll(tree.first);
-			for (Arc a : tree.first)
-				costs.put(a, 0); // Set the cost of the arc to 0, as this arc is already used in the solution, it does not cost anything to use it again.
-			req.removeAll(tree.second);
+			beginPhase("CH2");
+			Density best = applyCH2();
+			endPhase();
+
+			// best.vertex is the middle node of the tree returned by CH2
+			// best.count is the number of terminals of that tree
+			beginPhase("tree build");
+			remaining -= addTree(best, currentSol);
+			endPhase();
 		}
 
 		// Compute the returned solution and its cost.
+		beginPhase("tree build");
 		arborescence = new HashSet<Arc>();
 		int c = 0;
 		for (Arc a : currentSol) {
@@ -115,15 +191,37 @@ public class RoosAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 			}
 		}
 		cost = c;
+		endPhase();
 	}
 
 	/**
 	 * Compute all the shortest paths from the root and to all terminals.
 	 */
 	private void initShortestPaths() {
-		costs = new HashMap<Arc, Integer>();
 		shortestPaths = new HashMap<Arc, List<Arc>>();
 
+		int s = instance.getGraph().getNumberOfVertices();
+		vertices = new Integer[s];
+		HashMap<Integer, Integer> vertexIndexes = new HashMap<Integer, Integer>();
+		Iterator<Integer> it = instance.getGraph().getVerticesIterator();
+		int index = 0;
+		while (it.hasNext()) {
+			Integer v = it.next();
+			vertices[index] = v;
+			vertexIndexes.put(v, index++);
+		}
+		rootIndex = vertexIndexes.get(instance.getRoot());
+
+		ArrayList<Integer> req = instance.getRequiredVertices();
+		terminals = req.toArray(new Integer[req.size()]);
+		Arrays.sort(terminals);
+		terminalVertexIndexes = new int[terminals.length];
+		for (int j = 0; j < terminals.length; j++) {
+			Integer i = vertexIndexes.get(terminals[j]);
+			terminalVertexIndexes[j] = (i == null) ? -1 : i;
+		}
+		reached = new boolean[terminals.length];
+
 		initShortestPathsFromRoot();
 		initShortestPathsToRequiredVertices();
 	}
@@ -131,9 +229,11 @@ public class RoosAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 	/**
 	 * Compute all the shortest paths from the root and registered them in the
 	 * {@link #shortestPaths} map. Register also their cost in the
-	 * {@link #costs} map.
+	 * {@link #rootCosts} array.
 	 */
 	private void initShortestPathsFromRoot() {
+		ShortestPathBatchEvent event = new ShortestPathBatchEvent();
+		event.begin();
 
 		Integer root = instance.getRoot();
 
@@ -154,22 +254,26 @@ public class RoosAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 		HashMap<Integer, List<Arc>> aDijPaths = adij.getShortestPaths();
 
 		// Register all the shortest paths and their cost.
-		Iterator<Integer> it = instance.getGraph().getVerticesIterator();
-		while (it.hasNext()) {
-			Integer v = it.next();
-			Arc a = new Arc(root, v, true);
-			costs.put(a, aDijCosts.get(v));
-			shortestPaths.put(a, aDijPaths.get(v));
-
+		rootCosts = new int[vertices.length];
+		for (int i = 0; i < vertices.length; i++) {
+			Integer v = vertices[i];
+			Integer c = aDijCosts.get(v);
+			rootCosts[i] = (c == null) ? NO_PATH : c;
+			shortestPaths.put(new Arc(root, v, true), aDijPaths.get(v));
 		}
+		event.end(getClass(), getInstanceName(),
+				ShortestPathBatchEvent.FROM_SOURCE, 1);
 	}
 
 	/**
 	 * Compute all the shortest paths to all terminals and registered them in
 	 * the {@link #shortestPaths} map. Register also their cost in the
-	 * {@link #costs} map.
+	 * {@link #sortedCosts} array, not sorted yet.
 	 */
 	private void initShortestPathsToRequiredVertices() {
+		ShortestPathBatchEvent event = new ShortestPathBatchEvent();
+		event.begin();
+
 		// Create an instance searching for all the shortest path to a single destination
 		ArcShortestPathOneDestinationInstance ash = new ArcShortestPathOneDestinationInstance(
 				instance.getGraph());
@@ -181,11 +285,11 @@ public class RoosAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 		adij.setInstance(ash);
 		adij.setComputeOnlyCosts(false);
 
-		
+		sortedCosts = new int[vertices.length][terminals.length];
+
 		// For each terminal...
-		Iterator<Integer> it = instance.getRequiredVerticesIterator();
-		while (it.hasNext()) {
-			Integer term = it.next();
+		for (int j = 0; j < terminals.length; j++) {
+			Integer term = terminals[j];
 
 			// ... adapt the instance so that the single destination is that instance
 			ash.setDestination(term);
@@ -196,132 +300,167 @@ public class RoosAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 			HashMap<Integer, List<Arc>> aDijPaths = adij.getShortestPaths();
 
 			// Register all the shortest paths and their cost.
-			Iterator<Integer> it2 = instance.getGraph().getVerticesIterator();
-			while (it2.hasNext()) {
-				Integer v = it2.next();
-				Arc a = new Arc(v, term, true);
-				costs.put(a, aDijCosts.get(v));
-				shortestPaths.put(a, aDijPaths.get(v));
+			for (int i = 0; i < vertices.length; i++) {
+				Integer v = vertices[i];
+				Integer c = aDijCosts.get(v);
+				sortedCosts[i][j] = (c == null) ? NO_PATH : c;
+				shortestPaths.put(new Arc(v, term, true), aDijPaths.get(v));
 			}
-
 		}
+		event.end(getClass(), getInstanceName(),
+				ShortestPathBatchEvent.TO_DESTINATION, terminals.length);
 	}
 
 	/**
-	 * For each node v, sort the list of terminals by distance from v
+	 * For each node v, sort the list of terminals by distance from v: the
+	 * closest terminal to v is the first one. The terminals that v cannot
+	 * reach come before all the others, and two terminals at the same distance
+	 * are sorted by id.
 	 */
 	private void sortRequiredVertices() {
-		Iterator<Integer> it = instance.getGraph().getVerticesIterator();
-		while (it.hasNext())
-			sortRequiredVertices(it.next());
+		int k = terminals.length;
+		sortedTerminals = new int[vertices.length][k];
+		long[] keys = new long[k];
+
+		for (int i = 0; i < vertices.length; i++) {
+			int[] costs = sortedCosts[i];
+
+			// As the terminals are sorted by id, the lower part of the key is
+			// the terminal index, which breaks the ties.
+			for (int j = 0; j < k; j++)
+				keys[j] = (((long) costs[j] + 1) << 32) | j;
+			Arrays.sort(keys);
+
+			int[] order = sortedTerminals[i];
+			int[] sorted = new int[k];
+			for (int p = 0; p < k; p++) {
+				order[p] = (int) keys[p];
+				sorted[p] = costs[order[p]];
+			}
+			sortedCosts[i] = sorted;
+		}
+
+		rootTerminalPositions = new int[k];
+		for (int p = 0; p < k; p++)
+			rootTerminalPositions[sortedTerminals[rootIndex][p]] = p;
 	}
 
 	/**
-	 * Sort the list of terminals by distance from v
-	 * 
-	 * @param v
+	 * Minimum density tree going through a node: the tree contains the shortest
+	 * path from the root to {@link #vertex} and from {@link #vertex} to the
+	 * {@link #count} first non reached terminals sorted by distance from
+	 * {@link #vertex}.
 	 */
-	private void sortRequiredVertices(Integer v) {
-		Iterator<Integer> it = instance.getRequiredVerticesIterator();
+	private static class Density {
+		int vertex;
+		int count;
+		double density;
+
+		Density(int vertex, int count, double density) {
+			this.vertex = vertex;
+			this.count = count;
+			this.density = density;
+		}
 
-		// We represent the list as a TreeSet, with a specific comparator to compare to distance from v
-		// of each terminal
-		TreeSet<Integer> ts = new TreeSet<Integer>(
-				getRequiredVerticesComparator(v));
-		while (it.hasNext()) {
-			Integer t = it.next();
-			ts.add(t);
+		/**
+		 * @return the tree of lowest density between this and d. If both have
+		 *         the same density, the one going through the node with the
+		 *         lowest index is returned.
+		 */
+		Density min(Density d) {
+			if (d == null)
+				return this;
+			if (d.density < density
+					|| (d.density == density && d.vertex < vertex))
+				return d;
+			return this;
+		}
+	}
+
+	/**
+	 * Task evaluating the minimum density tree going through the nodes of index
+	 * from begin (inclusive) to end (exclusive).
+	 */
+	private class CH2Task extends RecursiveTask<Density> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int begin, end;
+
+		CH2Task(int begin, int end) {
+			this.begin = begin;
+			this.end = end;
 		}
 
-		// Register the list
-		sortedRequiredVertices.put(v, ts);
+		@Override
+		protected Density compute() {
+			if (end - begin <= SEQUENTIAL_THRESHOLD)
+				return applyCH2(begin, end);
+			int middle = (begin + end) >>> 1;
+			CH2Task left = new CH2Task(begin, middle);
+			CH2Task right = new CH2Task(middle, end);
+			right.fork();
+			Density d = left.compute();
+			Density d2 = right.join();
+			return (d == null) ? d2 : d.min(d2);
+		}
 	}
 
 	/**
-	 * 
-	 * @param v
-	 * @return a comparator which compares two terminals by distance from v: the
-	 *         closest terminals to v is the lowest.
+	 * @return the minimum density tree rooted in the root of the instance
+	 *         spanning a part of the non reached terminals.
 	 */
-	private Comparator<Integer> getRequiredVerticesComparator(final Integer v) {
-		return new Comparator<Integer>() {
-
-			@Override
-			public int compare(Integer t1, Integer t2) {
-				Integer i1 = costs.get(new Arc(v, t1, true));
-				Integer i2 = costs.get(new Arc(v, t2, true));
-				if (i1 == i2)
-					return t1.compareTo(t2);
-				else if (i1 == null)
-					return -1;
-				else if (i2 == null)
-					return 1;
-
-				int comp = i1.compareTo(i2);
-				if (comp != 0)
-					return comp;
-				else
-					return t1.compareTo(t2);
-			}
-		};
+	private Density applyCH2() {
+		if (parallel && vertices.length > SEQUENTIAL_THRESHOLD)
+			return ForkJoinPool.commonPool().invoke(
+					new CH2Task(0, vertices.length));
+		else
+			return applyCH2(0, vertices.length);
 	}
 
 	/**
-	 * @param
-	 * @return a tree rooted in the root of the instance spanning a part of the
-	 *         terminals in req, and the set of those terminals.
+	 * @return the minimum density tree rooted in the root of the instance
+	 *         spanning a part of the non reached terminals, among the trees
+	 *         going through the nodes of index from begin (inclusive) to end
+	 *         (exclusive). Return null if no such tree exists.
 	 */
-	private Couple<HashSet<Arc>, HashSet<Integer>> applyCH2(HashSet<Integer> req) {
+	private Density applyCH2(int begin, int end) {
 
-		// tBest contains the current best tree
-		HashSet<Arc> tBest = null, t;
+		// vBest is the node the current best tree goes through
+		int vBest = -1;
 
-		// dBest contains the density of the tree tBest (cost divided by number of terminals
-		Double dBest = Double.POSITIVE_INFINITY;
+		// dBest contains the density of the best tree (cost divided by number of terminals)
+		double dBest = Double.POSITIVE_INFINITY;
 
-		// xBest contains all the temrinals reached by tBest.
-		HashSet<Integer> xBest = null;
+		// kBest is the number of terminals reached by the best tree
+		int kBest = 0;
 
-		Iterator<Integer> it = instance.getGraph().getVerticesIterator();
-		Integer root = instance.getRoot();
+		// Number of nodes for which we test the trees
+		int candidates = 0;
 
 		// For each node, we test the trees (root,v) U (v,X') for X' a subset of terminals.
 		// Notice we do not test all the sets X', but only a usefull part so that the tree
 		// is the minimum density tree among the list of all trees going through v
-		while (it.hasNext()) {
-			Integer v = it.next();
-
-			// The possibly returned tree
-			t = new HashSet<Arc>();
-			Arc rv;
-			Integer c;
-
-			// The first part of the root : the arc (root,v)
-			if (root.equals(v)) {
-				// if v is the root, then the arc (root,v) is empty and costs 0
-				c = 0;
-			} else {
-				// if not, we add the arc to the current tested solution
-				// and register its cost
-				rv = new Arc(instance.getRoot(), v, true);
-				t.add(rv);
-				Integer crv = costs.get(rv);
-				if (crv == null)
+		for (int v = begin; v < end; v++) {
+			checkCancellation();
+
+			// The first part of the tree : the path from the root to v.
+			// If v is the root, then that path is empty and costs 0
+			int c = 0;
+			if (v != rootIndex) {
+				c = rootCosts[v];
+				if (c == NO_PATH)
 					continue;
-				else
-					c = crv;
 			}
+			candidates++;
 
-			// d will contain the current density of t
-			// while d decreases we continue, and when d stops decreasing, we 
+			// d will contain the current density of the tree
+			// while d decreases we continue, and when d stops decreasing, we
 			// immediately stops the loop : we found the minimum density tree
 			// going thourgh v
 			double d = Double.POSITIVE_INFINITY;
 
-			// x is the set of terminals of the current tree t
-			HashSet<Integer> x = new HashSet<Integer>();
-
-			// kp is the size of x
+			// kp is the number of terminals of the current tree
 			int kp = 0;
 
 			// We look at the terminals term_1, term_2, term_3, ... ordered by distances from v
@@ -329,46 +468,86 @@ public class RoosAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 			// we continue until the density of the tree decreases
 			// because we know that when the density starts to increase, the previous tree was the best density tree
 			// going through v
-			for (Integer term : sortedRequiredVertices.get(v)) {
-				if (!req.contains(term))
+			int[] order = sortedTerminals[v];
+			int[] costs = sortedCosts[v];
+			for (int p = 0; p < order.length; p++) {
+				int j = order[p];
+				if (reached[j])
 					continue;
 
-				kp++;
-
-				Arc a = null;
-				boolean b;
-				if (b = !term.equals(v)) {
-					// If v is term, then the arc (v, term) is empty
-					a = new Arc(v, term, true);
-					Integer ca = costs.get(a);
-					if (ca == null)
+				// If v is the terminal, then the path (v, term) is empty
+				if (terminalVertexIndexes[j] != v) {
+					int ca = costs[p];
+					if (ca == NO_PATH)
 						break;
-					else
-						c += ca;
+					c += ca;
 				}
 
 				// density of the current tree
-				double d2 = ((double) c) / kp;
+				double d2 = ((double) c) / (kp + 1);
 				if (d2 >= d)
 					// if the density of the current tree is greater than the density of the previous tree, we stop
 					break;
 				// else we continue, with this tree as the lowest density tree
 				d = d2;
-				x.add(term);
-				if (b)
-					t.add(a);
+				kp++;
 			}
 
-			// we registrer the best tree going through v if this tree has a better density than tBest.
+			// we registrer the best tree going through v if this tree has a better density than the best tree.
 			if (d < dBest) {
-				tBest = t;
-				xBest = x;
+				vBest = v;
+				kBest = kp;
 				dBest = d;
 			}
 		}
-		if (tBest == null)
+		Counters.add(Counter.CH2_CANDIDATES, candidates);
+		if (vBest == -1)
 			return null;
-		return new Couple<HashSet<Arc>, HashSet<Integer>>(tBest, xBest);
+		return new Density(vBest, kBest, dBest);
+	}
+
+	/**
+	 * Add to currentSol the arcs of the tree described by best, each arc
+	 * representing a shortest path. Set the cost of those arcs to 0, as those
+	 * arcs are already used in the solution, it does not cost anything to use
+	 * them again. Mark the terminals of the tree as reached.
+	 * 
+	 * @param best
+	 * @param currentSol
+	 * @return the number of terminals reached by that tree.
+	 */
+	private int addTree(Density best, HashSet<Arc> currentSol) {
+		int v = best.vertex;
+		Integer root = instance.getRoot();
+
+		if (v != rootIndex) {
+			currentSol.add(new Arc(root, vertices[v], true));
+			rootCosts[v] = 0;
+			// The path (root, v) is also the path from the root to the terminal v
+			for (int j = 0; j < terminals.length; j++)
+				if (terminalVertexIndexes[j] == v)
+					sortedCosts[rootIndex][rootTerminalPositions[j]] = 0;
+		}
+
+		int[] order = sortedTerminals[v];
+		int kp = 0;
+		for (int p = 0; p < order.length && kp < best.count; p++) {
+			int j = order[p];
+			if (reached[j])
+				continue;
+			reached[j] = true;
+			kp++;
+
+			int t = terminalVertexIndexes[j];
+			if (t == v)
+				continue;
+			currentSol.add(new Arc(vertices[v], terminals[j], true));
+			sortedCosts[v][p] = 0;
+			// The path (root, term) is also the path from the root to the node term
+			if (v == rootIndex)
+				rootCosts[t] = 0;
+		}
+		return kp;
 	}
 
 }
@@ -1,6 +1,7 @@
 package graphTheory.algorithms.steinerProblems.steinerArborescenceApproximation;
 
 import graphTheory.algorithms.shortestDistance.arcCost.ArcDijkstraOneSourceAlgorithm;
+import graphTheory.events.ShortestPathBatchEvent;
 import graphTheory.graph.Arc;
 import graphTheory.instances.shortestPath.ArcShortestPathOneSourceInstance;
 
@@ -32,6 +33,9 @@ public class ShPAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 		Integer v;
 
 		// Create a shortest path instance
+		beginPhase("shortest paths");
+		ShortestPathBatchEvent event = new ShortestPathBatchEvent();
+		event.begin();
 		ArcShortestPathOneSourceInstance aspi = new ArcShortestPathOneSourceInstance(
 				instance.getGraph());
 		aspi.setCosts(instance.getCosts());
@@ -45,7 +49,11 @@ public class ShPAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 		alg.compute();
 
 		HashMap<Integer, List<Arc>> shp = alg.getShortestPaths();
+		event.end(getClass(), getInstanceName(),
+				ShortestPathBatchEvent.FROM_SOURCE, 1);
+		endPhase();
 
+		beginPhase("tree build");
 		// Merge the shortest paths from root to terminals
 		Iterator<Integer> it = instance.getRequiredVerticesIterator();
 		while (it.hasNext()) {
@@ -60,6 +68,7 @@ public class ShPAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 
 		arborescence = h;
 		cost = c;
+		endPhase();
 	}
 
 }
@@ -34,5 +34,10 @@ public abstract class SteinerArborescenceApproximationAlgorithm extends
 		cost = -1;
 	}
 
+	@Override
+	protected Long getResultValue() {
+		return (cost == null) ? null : cost.longValue();
+	}
+
 
 }
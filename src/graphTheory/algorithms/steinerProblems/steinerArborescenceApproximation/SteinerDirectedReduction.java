@@ -0,0 +1,765 @@
+package graphTheory.algorithms.steinerProblems.steinerArborescenceApproximation;
+
+import graphTheory.graph.Arc;
+import graphTheory.graph.DirectedGraph;
+import graphTheory.instances.steiner.classic.SteinerDirectedInstance;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+
+/**
+ * Reduction tests for the Directed Steiner Tree problem : given an instance,
+ * build a smaller instance containing at least one optimal solution of the
+ * first one, and map the solutions of the smaller instance back to the first
+ * one.
+ * <p>
+ * The tests are :
+ * <ul>
+ * <li>the removal of the nodes the root cannot reach, or which cannot reach
+ * any terminal, and of the arcs entering the root;</li>
+ * <li>the contraction of the non terminal nodes with one input arc (u,v) and
+ * one output arc (v,w) into one arc (u,w) whose cost is the sum of the two
+ * costs;</li>
+ * <li>the shortest path elimination : an arc (u,v) is removed if there is a
+ * path from u to v with a cost strictly lower than the cost of the arc;</li>
+ * <li>the reduced cost fixing : the {@link WongAlgorithm} returns a lower
+ * bound LB, a solution of cost UB, and a reduced cost c' for each arc. An arc
+ * (u,v) is removed if LB + d'(r,u) + c'(u,v) + d'(v,T) > UB where d' is the
+ * distance with the reduced costs and T is the set of terminals : that arc
+ * cannot belong to an optimal solution.</li>
+ * </ul>
+ * The tests are applied until almost no arc is removed. The reduced instance is
+ * returned by {@link #getReducedInstance()} and a solution of that instance
+ * is expanded into a solution of the first instance by
+ * {@link #expand(HashSet)}.
+ * <p>
+ * The reduction can be stopped by a hook given to
+ * {@link #setCancellationCheck(Runnable)}, called in each round, in the
+ * loops of the tests and at each node settled by their Dijkstra algorithms.
+ * The reduced cost fixing runs the {@link WongAlgorithm} without token : it
+ * checks the token of the algorithm running the reduction, if any.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class SteinerDirectedReduction {
+
+	/**
+	 * Maximum number of nodes settled by each bounded Dijkstra of the
+	 * shortest path elimination.
+	 */
+	private static final int SHORTEST_PATH_SETTLE_LIMIT = 256;
+
+	/**
+	 * Maximum number of rounds of the tests.
+	 */
+	private static final int MAX_ROUNDS = 10;
+
+	/**
+	 * The rounds stop when one round removes less than that fraction of the
+	 * remaining arcs.
+	 */
+	private static final double MIN_ROUND_REDUCTION = 0.01;
+
+	private SteinerDirectedInstance instance;
+
+	private boolean unreachableRemoval;
+	private boolean pathContraction;
+	private boolean shortestPathElimination;
+	private boolean reducedCostFixing;
+
+	/**
+	 * Nodes of the instance, and status of each node of index i.
+	 */
+	private Integer[] nodes;
+	private HashMap<Integer, Integer> nodeIndexes;
+	private int root;
+	private boolean[] terminals;
+	private boolean[] removedNodes;
+
+	/**
+	 * Arcs of the instance, followed by the arcs added by the contractions.
+	 * For each arc of index a, originalArcs[a] contains the indexes of the
+	 * arcs of the instance it replaces, or is null if it is an arc of the
+	 * instance.
+	 */
+	private Arc[] arcs;
+	private int[] arcTails;
+	private int[] arcHeads;
+	private int[] arcCosts;
+	private int[][] originalArcs;
+	private boolean[] removedArcs;
+	private int numberOfArcs;
+
+	/**
+	 * For each node of index i, inArcs[i] contains the indexes of the input
+	 * arcs of that node, some of them may be removed. inDegrees[i] is the
+	 * number of input arcs which are not removed. Same for outArcs.
+	 */
+	private int[][] inArcs;
+	private int[] inSizes;
+	private int[] inDegrees;
+	private int[][] outArcs;
+	private int[] outSizes;
+	private int[] outDegrees;
+
+	/**
+	 * Nodes whose degrees changed and which must be checked again by the
+	 * contraction.
+	 */
+	private LinkedList<Integer> toCheck;
+
+	private int removedByReachability;
+	private int removedByContraction;
+	private int removedByShortestPath;
+	private int removedByReducedCost;
+	private Double lowerBound;
+	private Integer upperBound;
+
+	private SteinerDirectedInstance reducedInstance;
+
+	/**
+	 * Hook stopping the reduction by throwing an exception, or null.
+	 */
+	private Runnable cancellationCheck;
+
+	/**
+	 * For each arc of the reduced instance, its index.
+	 */
+	private HashMap<Arc, Integer> reducedArcIndexes;
+
+	public SteinerDirectedReduction(SteinerDirectedInstance instance) {
+		this.instance = instance;
+		unreachableRemoval = true;
+		pathContraction = true;
+		shortestPathElimination = true;
+		reducedCostFixing = true;
+	}
+
+	public void setUnreachableRemoval(boolean unreachableRemoval) {
+		this.unreachableRemoval = unreachableRemoval;
+	}
+
+	public void setPathContraction(boolean pathContraction) {
+		this.pathContraction = pathContraction;
+	}
+
+	public void setShortestPathElimination(boolean shortestPathElimination) {
+		this.shortestPathElimination = shortestPathElimination;
+	}
+
+	public void setReducedCostFixing(boolean reducedCostFixing) {
+		this.reducedCostFixing = reducedCostFixing;
+	}
+
+	/**
+	 * @param cancellationCheck
+	 *            : called regularly during the reduction, it stops the
+	 *            reduction by throwing an exception, as
+	 *            {@link graphTheory.algorithms.Algorithm#checkCancellation()}
+	 *            does. If it is null, the reduction cannot be stopped.
+	 */
+	public void setCancellationCheck(Runnable cancellationCheck) {
+		this.cancellationCheck = cancellationCheck;
+	}
+
+	private void checkCancellation() {
+		if (cancellationCheck != null)
+			cancellationCheck.run();
+	}
+
+	public SteinerDirectedInstance getReducedInstance() {
+		return reducedInstance;
+	}
+
+	/**
+	 * @return the number of arcs removed because they were useless to link the
+	 *         root to the terminals.
+	 */
+	public int getRemovedByReachability() {
+		return removedByReachability;
+	}
+
+	/**
+	 * @return the number of nodes removed by the contraction.
+	 */
+	public int getRemovedByContraction() {
+		return removedByContraction;
+	}
+
+	/**
+	 * @return the number of arcs removed by the shortest path elimination.
+	 */
+	public int getRemovedByShortestPath() {
+		return removedByShortestPath;
+	}
+
+	/**
+	 * @return the number of arcs removed by the reduced cost fixing.
+	 */
+	public int getRemovedByReducedCost() {
+		return removedByReducedCost;
+	}
+
+	/**
+	 * @return the last lower bound returned by the {@link WongAlgorithm} during
+	 *         the reduced cost fixing, or null if that test was not applied.
+	 */
+	public Double getLowerBound() {
+		return lowerBound;
+	}
+
+	/**
+	 * @return the cost of the best solution returned by the
+	 *         {@link WongAlgorithm} during the reduced cost fixing, or null if
+	 *         that test was not applied.
+	 */
+	public Integer getUpperBound() {
+		return upperBound;
+	}
+
+	/**
+	 * Apply the tests and build the reduced instance.
+	 */
+	public void reduce() {
+		init();
+
+		for (int round = 0; round < MAX_ROUNDS; round++) {
+			checkCancellation();
+			int before = getNumberOfRemainingArcs();
+
+			if (unreachableRemoval)
+				removeUnreachable();
+			if (pathContraction)
+				contract();
+			if (shortestPathElimination)
+				eliminateByShortestPaths();
+			if (unreachableRemoval)
+				removeUnreachable();
+			if (pathContraction)
+				contract();
+			if (reducedCostFixing)
+				fixByReducedCosts();
+
+			int after = getNumberOfRemainingArcs();
+			if (before - after <= MIN_ROUND_REDUCTION * before)
+				break;
+		}
+
+		reducedInstance = buildInstance();
+	}
+
+	/**
+	 * @return the arcs of the instance replaced by the arcs of solution, a
+	 *         solution of the reduced instance.
+	 */
+	public HashSet<Arc> expand(HashSet<Arc> solution) {
+		HashSet<Arc> expanded = new HashSet<Arc>();
+		for (Arc a : solution) {
+			int index = reducedArcIndexes.get(a);
+			if (originalArcs[index] == null)
+				expanded.add(arcs[index]);
+			else
+				for (int b : originalArcs[index])
+					expanded.add(arcs[b]);
+		}
+		return expanded;
+	}
+
+	private void init() {
+		DirectedGraph g = instance.getGraph();
+		int n = g.getNumberOfVertices();
+		int m = g.getNumberOfEdges();
+
+		nodes = new Integer[n];
+		nodeIndexes = new HashMap<Integer, Integer>();
+		terminals = new boolean[n];
+		removedNodes = new boolean[n];
+		Iterator<Integer> it = g.getVerticesIterator();
+		int index = 0;
+		while (it.hasNext()) {
+			Integer v = it.next();
+			nodes[index] = v;
+			terminals[index] = instance.isRequired(v);
+			nodeIndexes.put(v, index++);
+		}
+		root = nodeIndexes.get(instance.getRoot());
+		terminals[root] = false;
+
+		// Each contraction removes one node and adds at most one arc
+		int capacity = m + n;
+		arcs = new Arc[m];
+		arcTails = new int[capacity];
+		arcHeads = new int[capacity];
+		arcCosts = new int[capacity];
+		originalArcs = new int[capacity][];
+		removedArcs = new boolean[capacity];
+		numberOfArcs = 0;
+
+		inArcs = new int[n][];
+		inSizes = new int[n];
+		inDegrees = new int[n];
+		outArcs = new int[n][];
+		outSizes = new int[n];
+		outDegrees = new int[n];
+		for (int i = 0; i < n; i++) {
+			inArcs[i] = new int[g.getInputSize(nodes[i])];
+			outArcs[i] = new int[g.getOutputSize(nodes[i])];
+		}
+
+		Iterator<Arc> it2 = g.getEdgesIterator();
+		while (it2.hasNext()) {
+			Arc a = it2.next();
+			arcs[numberOfArcs] = a;
+			addArc(nodeIndexes.get(a.getInput()),
+					nodeIndexes.get(a.getOutput()), instance.getIntCost(a),
+					null);
+		}
+
+		toCheck = new LinkedList<Integer>();
+		removedByReachability = 0;
+		removedByContraction = 0;
+		removedByShortestPath = 0;
+		removedByReducedCost = 0;
+		lowerBound = null;
+		upperBound = null;
+	}
+
+	private int getNumberOfRemainingArcs() {
+		int count = 0;
+		for (int a = 0; a < numberOfArcs; a++)
+			if (!removedArcs[a])
+				count++;
+		return count;
+	}
+
+	/**
+	 * Add an arc from u to v with cost cost, replacing the arcs of the
+	 * instance of indexes originals.
+	 *
+	 * @return the index of the arc.
+	 */
+	private int addArc(int u, int v, int cost, int[] originals) {
+		int a = numberOfArcs++;
+		arcTails[a] = u;
+		arcHeads[a] = v;
+		arcCosts[a] = cost;
+		originalArcs[a] = originals;
+
+		if (outSizes[u] == outArcs[u].length)
+			outArcs[u] = Arrays.copyOf(outArcs[u], 2 * outSizes[u] + 1);
+		outArcs[u][outSizes[u]++] = a;
+		outDegrees[u]++;
+		if (inSizes[v] == inArcs[v].length)
+			inArcs[v] = Arrays.copyOf(inArcs[v], 2 * inSizes[v] + 1);
+		inArcs[v][inSizes[v]++] = a;
+		inDegrees[v]++;
+		return a;
+	}
+
+	private void removeArc(int a) {
+		if (removedArcs[a])
+			return;
+		removedArcs[a] = true;
+		outDegrees[arcTails[a]]--;
+		inDegrees[arcHeads[a]]--;
+		toCheck.add(arcTails[a]);
+		toCheck.add(arcHeads[a]);
+	}
+
+	private void removeNode(int v) {
+		removedNodes[v] = true;
+		for (int i = 0; i < inSizes[v]; i++)
+			removeArc(inArcs[v][i]);
+		for (int i = 0; i < outSizes[v]; i++)
+			removeArc(outArcs[v][i]);
+	}
+
+	/**
+	 * @return the indexes of the instance arcs replaced by the arc of index
+	 *         a.
+	 */
+	private int[] getOriginalArcs(int a) {
+		if (originalArcs[a] == null)
+			return new int[] { a };
+		return originalArcs[a];
+	}
+
+	/**
+	 * Remove the arcs entering the root, and the nodes the root cannot reach
+	 * or which cannot reach any terminal.
+	 */
+	private void removeUnreachable() {
+		int n = nodes.length;
+		int before = getNumberOfRemainingArcs();
+
+		for (int i = 0; i < inSizes[root]; i++)
+			removeArc(inArcs[root][i]);
+
+		boolean[] reached = new boolean[n];
+		LinkedList<Integer> toSee = new LinkedList<Integer>();
+		reached[root] = true;
+		toSee.add(root);
+		while (!toSee.isEmpty()) {
+			checkCancellation();
+			int u = toSee.pollFirst();
+			for (int i = 0; i < outSizes[u]; i++) {
+				int a = outArcs[u][i];
+				if (!removedArcs[a] && !reached[arcHeads[a]]) {
+					reached[arcHeads[a]] = true;
+					toSee.add(arcHeads[a]);
+				}
+			}
+		}
+
+		boolean[] reaching = new boolean[n];
+		for (int v = 0; v < n; v++)
+			if (terminals[v] && !removedNodes[v]) {
+				reaching[v] = true;
+				toSee.add(v);
+			}
+		while (!toSee.isEmpty()) {
+			checkCancellation();
+			int v = toSee.pollFirst();
+			for (int i = 0; i < inSizes[v]; i++) {
+				int a = inArcs[v][i];
+				if (!removedArcs[a] && !reaching[arcTails[a]]) {
+					reaching[arcTails[a]] = true;
+					toSee.add(arcTails[a]);
+				}
+			}
+		}
+
+		for (int v = 0; v < n; v++) {
+			if (removedNodes[v] || v == root || terminals[v])
+				continue;
+			if (!reached[v] || !reaching[v])
+				removeNode(v);
+		}
+		toCheck.clear();
+
+		removedByReachability += before - getNumberOfRemainingArcs();
+	}
+
+	/**
+	 * Contract the non terminal nodes with one input and one output arcs, and
+	 * remove the non terminal nodes with no input or no output arc.
+	 */
+	private void contract() {
+		for (int v = 0; v < nodes.length; v++)
+			toCheck.add(v);
+
+		while (!toCheck.isEmpty()) {
+			checkCancellation();
+			int v = toCheck.pollFirst();
+			if (removedNodes[v] || v == root || terminals[v])
+				continue;
+
+			if (inDegrees[v] == 0 || outDegrees[v] == 0) {
+				removeNode(v);
+				removedByContraction++;
+				continue;
+			}
+			if (inDegrees[v] != 1 || outDegrees[v] != 1)
+				continue;
+
+			int a = getFirstArc(inArcs[v], inSizes[v]);
+			int b = getFirstArc(outArcs[v], outSizes[v]);
+			int u = arcTails[a];
+			int w = arcHeads[b];
+			int cost = arcCosts[a] + arcCosts[b];
+			int[] originals = concat(getOriginalArcs(a), getOriginalArcs(b));
+			removeNode(v);
+			removedByContraction++;
+
+			if (u == w)
+				continue;
+
+			int c = getArc(u, w);
+			if (c != -1) {
+				if (arcCosts[c] <= cost)
+					continue;
+				removeArc(c);
+			}
+			addArc(u, w, cost, originals);
+		}
+	}
+
+	private int getFirstArc(int[] arcsOfNode, int size) {
+		for (int i = 0; i < size; i++)
+			if (!removedArcs[arcsOfNode[i]])
+				return arcsOfNode[i];
+		return -1;
+	}
+
+	/**
+	 * @return the index of the arc from u to w, or -1 if there is no such arc.
+	 */
+	private int getArc(int u, int w) {
+		for (int i = 0; i < outSizes[u]; i++) {
+			int a = outArcs[u][i];
+			if (!removedArcs[a] && arcHeads[a] == w)
+				return a;
+		}
+		return -1;
+	}
+
+	private static int[] concat(int[] t1, int[] t2) {
+		int[] t = Arrays.copyOf(t1, t1.length + t2.length);
+		System.arraycopy(t2, 0, t, t1.length, t2.length);
+		return t;
+	}
+
+	/**
+	 * Remove each arc (u,v) such that there is a path from u to v with a
+	 * strictly lower cost. Every arc of a shortest path cannot be removed, so
+	 * all the arcs can be removed simultaneously.
+	 */
+	private void eliminateByShortestPaths() {
+		int n = nodes.length;
+		double[] costs = new double[numberOfArcs];
+		for (int a = 0; a < numberOfArcs; a++)
+			costs[a] = arcCosts[a];
+		double[] distances = new double[n];
+		Arrays.fill(distances, Double.POSITIVE_INFINITY);
+		DistanceHeap heap = new DistanceHeap(n);
+		int[] touched = new int[n];
+
+		LinkedList<Integer> toRemove = new LinkedList<Integer>();
+		for (int u = 0; u < n; u++) {
+			if (removedNodes[u] || outDegrees[u] < 1)
+				continue;
+
+			double cutoff = 0;
+			for (int i = 0; i < outSizes[u]; i++) {
+				int a = outArcs[u][i];
+				if (!removedArcs[a])
+					cutoff = Math.max(cutoff, arcCosts[a]);
+			}
+
+			heap.clear();
+			heap.push(u, 0D);
+			int numberOfTouched = dijkstra(heap, costs, distances, touched,
+					false, cutoff, SHORTEST_PATH_SETTLE_LIMIT);
+
+			for (int i = 0; i < outSizes[u]; i++) {
+				int a = outArcs[u][i];
+				if (!removedArcs[a] && distances[arcHeads[a]] < arcCosts[a])
+					toRemove.add(a);
+			}
+
+			for (int i = 0; i < numberOfTouched; i++)
+				distances[touched[i]] = Double.POSITIVE_INFINITY;
+		}
+
+		for (int a : toRemove)
+			removeArc(a);
+		removedByShortestPath += toRemove.size();
+		toCheck.clear();
+	}
+
+	/**
+	 * Run the Wong algorithm over the current instance and remove every arc
+	 * (u,v) such that LB + d'(r,u) + c'(u,v) + d'(v,T) > UB.
+	 */
+	private void fixByReducedCosts() {
+		SteinerDirectedInstance current = buildInstance();
+		WongAlgorithm wong = new WongAlgorithm();
+		wong.setCheckFeasibility(false);
+		wong.setInstance(current);
+		wong.compute();
+		if (wong.getArborescence() == null
+				|| !current.isFeasibleSolution(wong.getArborescence()))
+			return;
+
+		lowerBound = wong.getDualcost();
+		upperBound = wong.getCost();
+		double gap = upperBound - lowerBound;
+
+		double[] reducedCosts = new double[numberOfArcs];
+		Arrays.fill(reducedCosts, Double.POSITIVE_INFINITY);
+		HashMap<Arc, Double> rc = wong.getReducedCosts();
+		for (Arc b : rc.keySet())
+			reducedCosts[reducedArcIndexes.get(b)] = Math.max(0D, rc.get(b));
+
+		int n = nodes.length;
+		DistanceHeap heap = new DistanceHeap(n);
+		int[] touched = new int[n];
+
+		double[] fromRoot = new double[n];
+		Arrays.fill(fromRoot, Double.POSITIVE_INFINITY);
+		heap.push(root, 0D);
+		dijkstra(heap, reducedCosts, fromRoot, touched, false,
+				Double.POSITIVE_INFINITY, Integer.MAX_VALUE);
+
+		double[] toTerminals = new double[n];
+		Arrays.fill(toTerminals, Double.POSITIVE_INFINITY);
+		heap.clear();
+		for (int v = 0; v < n; v++)
+			if (terminals[v] && !removedNodes[v])
+				heap.push(v, 0D);
+		dijkstra(heap, reducedCosts, toTerminals, touched, true,
+				Double.POSITIVE_INFINITY, Integer.MAX_VALUE);
+
+		// The costs are integers : the tolerance only absorbs rounding errors
+		double limit = gap + 1e-6;
+		int before = getNumberOfRemainingArcs();
+		for (int a = 0; a < numberOfArcs; a++) {
+			if (removedArcs[a])
+				continue;
+			double bound = fromRoot[arcTails[a]] + reducedCosts[a]
+					+ toTerminals[arcHeads[a]];
+			if (bound > limit)
+				removeArc(a);
+		}
+		toCheck.clear();
+		removedByReducedCost += before - getNumberOfRemainingArcs();
+	}
+
+	/**
+	 * Dijkstra algorithm from the nodes in heap, over the arcs which are not
+	 * removed, following them backward if reverse is true. The nodes at a
+	 * distance greater than cutoff are not settled, and the search stops after
+	 * settleLimit nodes are settled.
+	 *
+	 * @param distances
+	 *            must contain positive infinity for every node. Contains at
+	 *            the end an upper bound of the distance of each node, exact
+	 *            for the settled nodes.
+	 * @param touched
+	 *            filled with the nodes whose distance was modified.
+	 * @return the number of nodes in touched.
+	 */
+	private int dijkstra(DistanceHeap heap, double[] costs,
+			double[] distances, int[] touched, boolean reverse, double cutoff,
+			int settleLimit) {
+		int numberOfTouched = 0;
+		for (int i = 0; i < heap.size; i++) {
+			int v = heap.nodes[i];
+			distances[v] = 0D;
+			touched[numberOfTouched++] = v;
+		}
+
+		int settled = 0;
+		while (heap.size > 0 && settled < settleLimit) {
+			checkCancellation();
+			double d = heap.minKey();
+			int u = heap.pop();
+			if (d > distances[u])
+				continue;
+			if (d > cutoff)
+				break;
+			settled++;
+
+			int[] arcsOfNode = reverse ? inArcs[u] : outArcs[u];
+			int size = reverse ? inSizes[u] : outSizes[u];
+			for (int i = 0; i < size; i++) {
+				int a = arcsOfNode[i];
+				if (removedArcs[a])
+					continue;
+				int v = reverse ? arcTails[a] : arcHeads[a];
+				double dv = d + costs[a];
+				if (dv < distances[v]) {
+					if (distances[v] == Double.POSITIVE_INFINITY)
+						touched[numberOfTouched++] = v;
+					distances[v] = dv;
+					heap.push(v, dv);
+				}
+			}
+		}
+		return numberOfTouched;
+	}
+
+	/**
+	 * Binary heap of nodes keyed by distances. A node may be pushed many
+	 * times, the out of date entries are skipped by the Dijkstra algorithm.
+	 */
+	private static class DistanceHeap {
+		private int[] nodes;
+		private double[] keys;
+		private int size;
+
+		private DistanceHeap(int capacity) {
+			nodes = new int[Math.max(capacity, 1)];
+			keys = new double[Math.max(capacity, 1)];
+			size = 0;
+		}
+
+		private void clear() {
+			size = 0;
+		}
+
+		private double minKey() {
+			return keys[0];
+		}
+
+		private void push(int node, double key) {
+			if (size == nodes.length) {
+				nodes = Arrays.copyOf(nodes, 2 * size);
+				keys = Arrays.copyOf(keys, 2 * size);
+			}
+			int i = size++;
+			while (i > 0) {
+				int parent = (i - 1) / 2;
+				if (keys[parent] <= key)
+					break;
+				nodes[i] = nodes[parent];
+				keys[i] = keys[parent];
+				i = parent;
+			}
+			nodes[i] = node;
+			keys[i] = key;
+		}
+
+		private int pop() {
+			int min = nodes[0];
+			int node = nodes[--size];
+			double key = keys[size];
+			int i = 0;
+			while (2 * i + 1 < size) {
+				int child = 2 * i + 1;
+				if (child + 1 < size && keys[child + 1] < keys[child])
+					child++;
+				if (key <= keys[child])
+					break;
+				nodes[i] = nodes[child];
+				keys[i] = keys[child];
+				i = child;
+			}
+			nodes[i] = node;
+			keys[i] = key;
+			return min;
+		}
+	}
+
+	/**
+	 * @return the instance containing the nodes and arcs which are not
+	 *         removed. reducedArcIndexes is updated.
+	 */
+	private SteinerDirectedInstance buildInstance() {
+		DirectedGraph g = new DirectedGraph();
+		SteinerDirectedInstance sdi = new SteinerDirectedInstance(g);
+		for (int v = 0; v < nodes.length; v++)
+			if (!removedNodes[v])
+				g.addVertice(nodes[v]);
+		sdi.setRoot(nodes[root]);
+
+		// The terminals are kept in the same order
+		for (Integer t : instance.getRequiredVertices())
+			if (!removedNodes[nodeIndexes.get(t)])
+				sdi.setRequired(t);
+
+		reducedArcIndexes = new HashMap<Arc, Integer>();
+		for (int a = 0; a < numberOfArcs; a++) {
+			if (removedArcs[a])
+				continue;
+			Arc b = g.addDirectedEdge(nodes[arcTails[a]], nodes[arcHeads[a]]);
+			sdi.setCost(b, arcCosts[a]);
+			reducedArcIndexes.put(b, a);
+		}
+		return sdi;
+	}
+}
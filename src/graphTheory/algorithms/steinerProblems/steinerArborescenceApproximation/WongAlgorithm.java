@@ -1,24 +1,31 @@
 package graphTheory.algorithms.steinerProblems.steinerArborescenceApproximation;
 
-import graphTheory.algorithms.minimumBranching.EdmondChuLiuIterAlgorithm;
+import graphTheory.algorithms.minimumBranching.TarjanBranchingAlgorithm;
 import graphTheory.graph.Arc;
 import graphTheory.graph.DirectedGraph;
 import graphTheory.instances.spanningTree.MinimumBranchingArborescenceInstance;
+import graphTheory.utils.Counter;
+import graphTheory.utils.Counters;
+import graphTheory.utils.SkewHeap;
+import graphTheory.utils.SkewHeap.SkewHeapNode;
+import graphTheory.utils.WeightedQuickUnionPathCompressionUF;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedList;
 
 /**
  * Heuristic for Steiner Directed Tree problem with no performance guarantee.
- * 
+ *
  * Source : The algorithm is described in R. Wong,
  * "A dual ascent approach for Steiner Tree Problems on a directed graph". But
  * the source used was the description in M. P. de Aragao :
  * "Dual Heuristics on the Exact Solution of Large Steiner problems".
- * 
+ *
  * The algorithm search, from the terminals, for a path to the root by
  * saturating arcs. Each arc is associated with a reduced cost initiated to the
  * steiner cost of the arc. An arc with a 0 reduced cost is saturated. A
@@ -26,7 +33,7 @@ import java.util.Iterator;
  * component reaching one or more terminals with saturated arcs. At the
  * begining, if the graph do not contains arcs with cost 0, the first components
  * are the singletons containing each terminals.
- * 
+ *
  * Each turn, we consider every components not containing the root. If there is
  * no, we build a tree with the saturated arcs. If there are some, we compute
  * the minimum reduced cost C over all the entering arcs over all the components
@@ -35,23 +42,43 @@ import java.util.Iterator;
  * cost of every of the comp entering arcs by C (at least one arc become
  * saturated). And we continue with the new components until each terminals is
  * reached by the root with saturated arcs.
- * 
+ *
  * Notice that each turn, we add in fact C to the dual solution of this steiner
  * problem. As a consequence, we easily get a lower bound to the Steiner
  * problem. This lower bound is registered as an output of the algorithm. The
  * dual solution is also registered.
- * 
+ *
  * Finally one can initiate the dual solution to get an other solution.
- * 
- * 
- * 
+ * <p>
+ * The reachability in the auxilliary graph is maintained incrementally: the
+ * strongly connected components are merged with a union-find structure, and
+ * only the components with at least one output arc in the auxilliary graph
+ * store the set of nodes they can reach. The memory used is then proportional
+ * to the part of the graph explored by the algorithm.
+ * <p>
+ * The component of each terminal (the nodes reaching it in the auxilliary
+ * graph) is maintained incrementally too, with a skew heap of its entering
+ * arcs keyed by their reduced costs. The reduction of the costs of the arcs
+ * entering a component is a lazy offset added to its heap, and finding the
+ * minimum entering arc is a look at the minimum of that heap. As a node may
+ * belong to many components, the arcs entering such a shared node are not
+ * stored in the heaps: their reduced costs are edited and scanned explicitly
+ * at each iteration of the component. The components overlap instead of
+ * being merged, so their heaps are never melded: when a node stops being
+ * shared, its entering arcs are inserted again in the heap of its last
+ * component.
+ * <p>
+ * The root components are maintained incrementally as well: only the
+ * components whose nodes or whose reachable nodes changed since the last
+ * iteration are checked again.
+ *
  * @author Watel Dimitri
- * 
+ *
  */
 public class WongAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 
-	protected HashMap<HashSet<Integer>, Double> dualInitialization;
-	protected HashMap<HashSet<Integer>, Double> cut;
+	protected WongDualSolution dualInitialization;
+	protected WongDualSolution cut;
 
 	protected Double dualCost;
 
@@ -61,6 +88,20 @@ public class WongAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 
 	public void setDualInitialization(
 			HashMap<HashSet<Integer>, Double> dualInitialization) {
+		if (dualInitialization == null)
+			this.dualInitialization = null;
+		else
+			this.dualInitialization = WongDualSolution
+					.fromMap(dualInitialization);
+	}
+
+	/**
+	 * Initialize the dual solution with a dual solution previously computed,
+	 * for instance by {@link #getDualSolution()} and saved with
+	 * {@link WongDualSolution#save(String)}. The nodes of the cuts which are
+	 * not in the instance are ignored.
+	 */
+	public void setDualInitialization(WongDualSolution dualInitialization) {
 		this.dualInitialization = dualInitialization;
 	}
 
@@ -69,68 +110,284 @@ public class WongAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 	}
 
 	public HashMap<HashSet<Integer>, Double> getCut() {
+		if (this.cut == null)
+			return null;
+		return this.cut.toMap();
+	}
+
+	/**
+	 * @return the dual solution computed by the algorithm : the cuts and their
+	 *         dual values.
+	 */
+	public WongDualSolution getDualSolution() {
 		return this.cut;
 	}
 
 	/**
-	 * Comparator to compare arc costs.
+	 * @return the reduced cost of each arc of the instance at the end of the
+	 *         algorithm : its cost minus the dual values of the cuts it
+	 *         enters. Every arc of the returned tree has a null reduced cost.
 	 */
-	private Comparator<Arc> comp = new Comparator<Arc>() {
+	public HashMap<Arc, Double> getReducedCosts() {
+		if (arcs == null)
+			return null;
+		HashMap<Arc, Double> reducedCost = new HashMap<Arc, Double>();
+		for (int a = 0; a < arcs.length; a++)
+			reducedCost.put(arcs[a], reducedCosts[a]);
+		return reducedCost;
+	}
 
-		@Override
-		public int compare(Arc o1, Arc o2) {
-			Double i1 = reducedCost.get(o1);
-			Double i2 = reducedCost.get(o2);
-			if (i1 == i2)
-				return 0;
-			if (i1 == null)
-				return -1;
-			else if (i2 == null)
-				return 1;
-			else
-				return i1.compareTo(i2);
-		}
+	/**
+	 * For each arc of index a, arcs[a] is the arc, and arcTails[a] and
+	 * arcHeads[a] are the indexes of its input and its output.
+	 */
+	private Arc[] arcs;
+	private int[] arcTails;
+	private int[] arcHeads;
 
-	};
+	/**
+	 * For each node of index i, inArcs[i] and outArcs[i] are the indexes of
+	 * its input and output arcs.
+	 */
+	private int[][] inArcs;
+	private int[][] outArcs;
 
 	/**
 	 * Costs of the arcs described by the variable "d" in Wong
-	 * "A dual ascent approach for Steiner Tree problems on a directed Graph"
+	 * "A dual ascent approach for Steiner Tree problems on a directed Graph".
+	 * The reductions of the arcs entering a node belonging to one component
+	 * only are not included, see {@link #getReducedCost(int)}.
+	 */
+	private double[] reducedCosts;
+
+	/**
+	 * Component of one terminal : the set of the nodes reaching that terminal
+	 * in the auxilliary graph.
+	 */
+	private static class Component {
+
+		/**
+		 * Position of the terminal in the list of the terminals.
+		 */
+		private int position;
+
+		/**
+		 * Index of the terminal.
+		 */
+		private int terminal;
+
+		/**
+		 * Indexes of the nodes of the component.
+		 */
+		private BitSet members;
+
+		/**
+		 * Indexes of the nodes of the component which belong to another
+		 * component.
+		 */
+		private BitSet sharedMembers;
+
+		/**
+		 * Sum of the reductions of the costs of the arcs entering this
+		 * component.
+		 */
+		private double dual;
+
+		/**
+		 * For each node belonging to this component only, value of dual when
+		 * the node became such a node. The arcs entering the component through
+		 * that node were reduced by dual - joinDuals(node) since then.
+		 */
+		private HashMap<Integer, Double> joinDuals;
+
+		/**
+		 * Arcs entering this component through a node belonging to no other
+		 * component, keyed by their reduced cost.
+		 */
+		private SkewHeap<EnteringArc> heap;
+
+		private Component(int position, int terminal) {
+			this.position = position;
+			this.terminal = terminal;
+			this.members = new BitSet();
+			this.sharedMembers = new BitSet();
+			this.dual = 0D;
+			this.joinDuals = new HashMap<Integer, Double>();
+			this.heap = new SkewHeap<EnteringArc>();
+		}
+	}
+
+	/**
+	 * Entry of a component heap. The entry is out of date if the arc does not
+	 * enter the component anymore, or if its output belongs to many
+	 * components, or if the arcs entering its output were inserted again since
+	 * (its epoch changed).
+	 */
+	private static class EnteringArc {
+		private int arc;
+		private int epoch;
+
+		private EnteringArc(int arc, int epoch) {
+			this.arc = arc;
+			this.epoch = epoch;
+		}
+	}
+
+	/**
+	 * For each node of index i, owners[i] contains the components, not yet
+	 * settled, containing that node.
+	 */
+	private ArrayList<Component>[] owners;
+
+	/**
+	 * For each node of index i, epochs[i] is incremented each time the arcs
+	 * entering that node are inserted in a component heap.
+	 */
+	private int[] epochs;
+
+	/**
+	 * For each position p in the list of the terminals, terminalComponents[p]
+	 * is the component of that terminal.
+	 */
+	private Component[] terminalComponents;
+
+	/**
+	 * For each node of index i, nodeComponents[i] is the component of that
+	 * node if it is a terminal other than the root, and null otherwise.
+	 */
+	private Component[] nodeComponents;
+
+	/**
+	 * Positions of the terminals whose components are not settled: the root
+	 * does not reach them and they are not a copy of another component.
 	 */
-	private HashMap<Arc, Double> reducedCost;
+	private BitSet activeComponents;
 
 	/**
-	 * For each couple of nodes of index i and j, connections[i](j] is true if
-	 * there is a path from the first to the second node in the auxilliary
-	 * graph.
+	 * Positions of the active components which are root components, see
+	 * {@link #findRootComp()}. It is up to date for every component except
+	 * the ones of {@link #changedComponents}.
 	 */
-	private boolean[][] connections;
+	private BitSet rootComponents;
+
+	/**
+	 * Positions of the active components whose nodes, or whose reachable
+	 * nodes, changed since they were last checked.
+	 */
+	private BitSet changedComponents;
+
+	/**
+	 * Indexes of the terminals, except the root.
+	 */
+	private BitSet terminalIndexes;
+
+	/**
+	 * Is an arc of index a in the auxilliary graph.
+	 */
+	private boolean[] inAuxilliaryGraph;
+
+	/**
+	 * Strongly connected components of the auxilliary graph: two nodes of
+	 * index i and j are in the same component if there is a path from the
+	 * first to the second node and from the second to the first node in the
+	 * auxilliary graph.
+	 */
+	private WeightedQuickUnionPathCompressionUF components;
+
+	/**
+	 * For each component of root index c, descendants[c] contains the indexes
+	 * of the nodes reachable from that component in the auxilliary graph,
+	 * including the nodes of the component. If that component has no output
+	 * arc in the auxilliary graph, it can only reach itself, it is then a
+	 * singleton and descendants[c] is null.
+	 */
+	private BitSet[] descendants;
 
 	private HashMap<Integer, Integer> nodeIndexes;
 
+	/**
+	 * For each index i, nodes[i] is the node of index i.
+	 */
+	private Integer[] nodes;
+
+	/**
+	 * @return true if there is a path from the node of index i1 to the node of
+	 *         index i2 in the auxilliary graph.
+	 */
 	private boolean areConnected(int i1, int i2) {
-		return connections[i1][i2];
+		int c = components.find(i1);
+		if (c == components.find(i2))
+			return true;
+		BitSet row = descendants[c];
+		return row != null && row.get(i2);
+	}
+
+	/**
+	 * @return the indexes of the nodes reachable from the component of root
+	 *         index c in the auxilliary graph. The returned set must not be
+	 *         modified.
+	 */
+	private BitSet getDescendants(int c) {
+		BitSet row = descendants[c];
+		if (row == null) {
+			row = new BitSet();
+			row.set(c);
+		}
+		return row;
+	}
+
+	/**
+	 * @return the indexes of the nodes of gp which can reach the node of index
+	 *         i, including i.
+	 */
+	private BitSet getAncestors(DirectedGraph gp, int i) {
+		BitSet ancestors = new BitSet();
+		LinkedList<Integer> toSee = new LinkedList<Integer>();
+		ancestors.set(i);
+		toSee.add(i);
+		while (!toSee.isEmpty()) {
+			Iterator<Arc> it = gp.getInputArcsIterator(nodes[toSee.pollFirst()]);
+			while (it.hasNext()) {
+				int j = nodeIndexes.get(it.next().getInput());
+				if (!ancestors.get(j)) {
+					ancestors.set(j);
+					toSee.add(j);
+				}
+			}
+		}
+		return ancestors;
 	}
 
 	private Double tempDualCost;
-	private HashMap<HashSet<Integer>, Double> tempCut;
+	private WongDualSolution tempCut;
+
+	/**
+	 * Components chosen at step 1, and the values added to the dual solution
+	 * for them, added to tempCut at the end of the algorithm.
+	 */
+	private LinkedList<BitSet> tempCutComponents;
+	private LinkedList<Double> tempCutValues;
 
 	@Override
+	@SuppressWarnings({ "unchecked", "rawtypes" })
 	protected void computeWithoutTime() {
 
 		// Step 0
 		DirectedGraph gp = new DirectedGraph(); // Auxilliary graph G'
-		reducedCost = new HashMap<Arc, Double>(); // S
 
 		tempDualCost = 0D;
-		tempCut = new HashMap<HashSet<Integer>, Double>();
+		tempCut = new WongDualSolution();
+		tempCutComponents = new LinkedList<BitSet>();
+		tempCutValues = new LinkedList<Double>();
 		// init auxilliary graph and connections
 
 		nodeIndexes = new HashMap<Integer, Integer>();
 		int s = instance.getGraph().getNumberOfVertices();
-		connections = new boolean[s][s];
-		for (int i = 0; i < s; i++)
-			Arrays.fill(connections[i], false);
+		components = new WeightedQuickUnionPathCompressionUF(s);
+		descendants = new BitSet[s];
+		nodes = new Integer[s];
+		owners = new ArrayList[s];
+		epochs = new int[s];
 
 		Iterator<Integer> it = instance.getGraph().getVerticesIterator();
 		int index = 0;
@@ -138,27 +395,62 @@ public class WongAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 			Integer n = it.next();
 			gp.addVertice(n);
 
-			connections[index][index] = true;
+			nodes[index] = n;
+			owners[index] = new ArrayList<Component>(1);
 			nodeIndexes.put(n, index++);
 		}
 
+		int m = instance.getGraph().getNumberOfEdges();
+		arcs = new Arc[m];
+		arcTails = new int[m];
+		arcHeads = new int[m];
+		reducedCosts = new double[m];
+		inAuxilliaryGraph = new boolean[m];
+		int[] inDegrees = new int[s];
+		int[] outDegrees = new int[s];
+
 		Iterator<Arc> it2 = instance.getGraph().getEdgesIterator();
+		index = 0;
 		while (it2.hasNext()) {
 			Arc a = it2.next();
-			reducedCost.put(a, (double) instance.getIntCost(a));
+			arcs[index] = a;
+			arcTails[index] = nodeIndexes.get(a.getInput());
+			arcHeads[index] = nodeIndexes.get(a.getOutput());
+			reducedCosts[index] = instance.getIntCost(a);
+			outDegrees[arcTails[index]]++;
+			inDegrees[arcHeads[index]]++;
+			index++;
+		}
+
+		inArcs = new int[s][];
+		outArcs = new int[s][];
+		for (int i = 0; i < s; i++) {
+			inArcs[i] = new int[inDegrees[i]];
+			outArcs[i] = new int[outDegrees[i]];
+		}
+		for (int a = 0; a < m; a++) {
+			int u = arcTails[a];
+			int v = arcHeads[a];
+			inArcs[v][inArcs[v].length - inDegrees[v]--] = a;
+			outArcs[u][outArcs[u].length - outDegrees[u]--] = a;
 		}
 
 		initWithDualInit();
+		initComponents();
 
 		// Step 1
-		HashSet<Integer> h = findRootComp(gp);
+		Component h = findRootComp();
 		while (h != null) {
-			Arc a = findMinArc(gp, h); // (i*,j*)
-			editCosts(gp, h, a); // Step 2
+			int a = findMinArc(h); // (i*,j*)
+			if (a == -1)
+				break;
+			Counters.increment(Counter.DUAL_ASCENT_ITERATIONS);
+			checkCancellation();
+			editCosts(h, a); // Step 2
 			addArc(gp, a); // step 3
 
 			// Back to step 1
-			h = findRootComp(gp);
+			h = findRootComp();
 		}
 
 		setSolution(gp);
@@ -168,49 +460,260 @@ public class WongAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 		if (dualInitialization == null)
 			return;
 
-		for (HashSet<Integer> comp : dualInitialization.keySet()) {
-			Double dualValue = dualInitialization.get(comp);
+		BitSet comp = new BitSet();
+		for (int c = 0; c < dualInitialization.getNumberOfCuts(); c++) {
+			double dualValue = dualInitialization.getValue(c);
 			tempDualCost += dualValue;
-			for (Integer n : comp) {
-				Iterator<Arc> it = instance.getGraph().getInputArcsIterator(n);
-				while (it.hasNext()) {
-					Arc a = it.next();
-					if (comp.contains(a.getInput()))
-						continue;
-					reducedCost.put(a, reducedCost.get(a) - dualValue);
-				}
+			tempCut.add(dualInitialization.getNodes(c), dualValue);
+
+			comp.clear();
+			for (int n : dualInitialization.getNodes(c)) {
+				Integer i = nodeIndexes.get(n);
+				if (i != null)
+					comp.set(i);
+			}
+			for (int i = comp.nextSetBit(0); i >= 0; i = comp.nextSetBit(i + 1))
+				for (int a : inArcs[i])
+					if (!comp.get(arcTails[a]))
+						reducedCosts[a] -= dualValue;
+		}
+	}
+
+	/**
+	 * Build the component of each terminal, except the root. At the begining,
+	 * the auxilliary graph has no arc and each component is a singleton.
+	 */
+	private void initComponents() {
+		int ir = nodeIndexes.get(instance.getRoot());
+		int k = instance.getRequiredVertices().size();
+
+		terminalComponents = new Component[k];
+		nodeComponents = new Component[nodes.length];
+		activeComponents = new BitSet(k);
+		rootComponents = new BitSet(k);
+		changedComponents = new BitSet(k);
+		terminalIndexes = new BitSet();
+
+		Iterator<Integer> it = instance.getRequiredVerticesIterator();
+		int position = 0;
+		while (it.hasNext()) {
+			int i = nodeIndexes.get(it.next());
+			if (i != ir) {
+				Component c = new Component(position, i);
+				terminalComponents[position] = c;
+				nodeComponents[i] = c;
+				activeComponents.set(position);
+				changedComponents.set(position);
+				terminalIndexes.set(i);
+				join(c, i);
+			}
+			position++;
+		}
+	}
+
+	/**
+	 * @return the reduced cost of the arc of index a, including the reductions
+	 *         of every component it enters.
+	 */
+	private double getReducedCost(int a) {
+		int w = arcHeads[a];
+		ArrayList<Component> own = owners[w];
+		if (own.size() != 1)
+			return reducedCosts[a];
+		Component o = own.get(0);
+		if (o.members.get(arcTails[a]))
+			return reducedCosts[a];
+		return reducedCosts[a] - (o.dual - o.joinDuals.get(w));
+	}
+
+	/**
+	 * Apply to the arcs entering c through the node of index i the reductions
+	 * of c not yet applied. That node must belong to c only.
+	 */
+	private void settleEnteringArcs(Component c, int i) {
+		double reduction = c.dual - c.joinDuals.remove(i);
+		if (reduction == 0D)
+			return;
+		for (int a : inArcs[i])
+			if (!c.members.get(arcTails[a]))
+				reducedCosts[a] -= reduction;
+	}
+
+	/**
+	 * Insert in the heap of c the arcs entering c through the node of index
+	 * i. That node must belong to c only.
+	 */
+	private void insertEnteringArcs(Component c, int i) {
+		c.joinDuals.put(i, c.dual);
+		int epoch = ++epochs[i];
+		for (int a : inArcs[i])
+			if (!c.members.get(arcTails[a]))
+				c.heap.insert(new EnteringArc(a, epoch), getReducedCost(a));
+	}
+
+	/**
+	 * Add the node of index i to the component c.
+	 */
+	private void join(Component c, int i) {
+		c.members.set(i);
+
+		// The arcs from i to c do not enter c anymore: their reductions are
+		// settled.
+		for (int a : outArcs[i]) {
+			int w = arcHeads[a];
+			if (w != i && c.members.get(w) && owners[w].size() == 1)
+				reducedCosts[a] -= c.dual - c.joinDuals.get(w);
+		}
+
+		ArrayList<Component> own = owners[i];
+		own.add(c);
+		if (own.size() == 1)
+			insertEnteringArcs(c, i);
+		else {
+			if (own.size() == 2) {
+				Component o = own.get(0);
+				settleEnteringArcs(o, i);
+				o.sharedMembers.set(i);
+			}
+			c.sharedMembers.set(i);
+		}
+	}
+
+	/**
+	 * Settle the component c : its reductions are applied to the arcs
+	 * entering it and it is not maintained anymore.
+	 */
+	private void retire(Component c) {
+		activeComponents.clear(c.position);
+		rootComponents.clear(c.position);
+		changedComponents.clear(c.position);
+		BitSet members = c.members;
+		for (int i = members.nextSetBit(0); i >= 0; i = members
+				.nextSetBit(i + 1)) {
+			ArrayList<Component> own = owners[i];
+			if (own.size() == 1)
+				settleEnteringArcs(c, i);
+			own.remove(c);
+			if (own.size() == 1) {
+				Component o = own.get(0);
+				o.sharedMembers.clear(i);
+				insertEnteringArcs(o, i);
 			}
 		}
+		c.heap.clear();
+		c.joinDuals = null;
+	}
 
-		tempCut.putAll(dualInitialization);
+	/**
+	 * @return the minimum entry of the heap of c, after removing the out of
+	 *         date entries, or null if there is no entry.
+	 */
+	private SkewHeapNode<EnteringArc> getHeapMin(Component c) {
+		SkewHeapNode<EnteringArc> node;
+		while ((node = c.heap.min()) != null) {
+			EnteringArc e = node.getData();
+			int w = arcHeads[e.arc];
+			if (!c.members.get(arcTails[e.arc]) && owners[w].size() == 1
+					&& epochs[w] == e.epoch)
+				return node;
+			c.heap.removeMin();
+		}
+		return null;
 	}
 
 	/**
-	 * Step 3, add arc a = (i*,j*) to gp. Edit connections.
-	 * 
+	 * Step 3, add arc of index a = (i*,j*) to gp. Edit connections and
+	 * components.
+	 *
 	 * @param gp
 	 * @param a
 	 */
-	private void addArc(DirectedGraph gp, Arc a) {
-		Integer u = a.getInput();
-		Integer v = a.getOutput();
+	private void addArc(DirectedGraph gp, int a) {
+		int iu = arcTails[a];
+		int iv = arcHeads[a];
+
+		gp.addDirectedEdge(nodes[iu], nodes[iv]);
+		inAuxilliaryGraph[a] = true;
+
+		// Every node reaching u now belongs to the components of v
+		ArrayList<Component> own = new ArrayList<Component>(owners[iv]);
+		for (Component c : own) {
+			if (c.members.get(iu))
+				continue;
+			changedComponents.set(c.position);
+			LinkedList<Integer> toSee = new LinkedList<Integer>();
+			join(c, iu);
+			toSee.add(iu);
+			while (!toSee.isEmpty()) {
+				for (int b : inArcs[toSee.pollFirst()]) {
+					int j = arcTails[b];
+					if (inAuxilliaryGraph[b] && !c.members.get(j)) {
+						join(c, j);
+						toSee.add(j);
+					}
+				}
+			}
+		}
 
-		gp.addDirectedEdge(u, v);
+		int cu = components.find(iu);
+		int cv = components.find(iv);
+		if (cu == cv)
+			return;
 
-		int iu = nodeIndexes.get(u);
-		int iv = nodeIndexes.get(v);
+		BitSet reached = getDescendants(cv);
+		BitSet ancestors = getAncestors(gp, iu);
+
+		// The terminals reaching u now reach more nodes
+		BitSet reaching = (BitSet) ancestors.clone();
+		reaching.and(terminalIndexes);
+		for (int i = reaching.nextSetBit(0); i >= 0; i = reaching
+				.nextSetBit(i + 1)) {
+			Component c = nodeComponents[i];
+			if (activeComponents.get(c.position))
+				changedComponents.set(c.position);
+		}
 
-		int s = instance.getGraph().getNumberOfVertices();
-		for (int i = 0; i < s; i++)
-			for (int j = 0; j < s; j++)
-				if (areConnected(i, iu) && areConnected(iv, j))
-					connections[i][j] = true;
+		if (reached.get(iu)) {
+			// The arc closes a cycle: every component both reachable from v
+			// and reaching u is merged with the components of u and v.
+			BitSet merged = new BitSet();
+			merged.or(reached);
+			for (int i = ancestors.nextSetBit(0); i >= 0; i = ancestors
+					.nextSetBit(i + 1)) {
+				if (!reached.get(i))
+					continue;
+				int c = components.find(i);
+				if (descendants[c] != null) {
+					merged.or(descendants[c]);
+					descendants[c] = null;
+				}
+				components.union(cu, c);
+			}
+			cv = components.find(iv);
+			descendants[cv] = merged;
+			reached = merged;
+		}
+
+		// Every component reaching u now reaches every node reached by v
+		for (int i = ancestors.nextSetBit(0); i >= 0; i = ancestors
+				.nextSetBit(i + 1)) {
+			int c = components.find(i);
+			if (c == cv)
+				continue;
+			BitSet row = descendants[c];
+			if (row == null) {
+				row = new BitSet();
+				row.set(c);
+				descendants[c] = row;
+			}
+			row.or(reached);
+		}
 	}
 
 	/**
 	 * Set the solution to any directed spanning tree of gp rooted in the
 	 * instance root.
-	 * 
+	 *
 	 * @param gp
 	 */
 	private void setSolution(DirectedGraph gp) {
@@ -235,7 +738,9 @@ public class WongAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 		mbai.setRoot(instance.getRoot());
 		mbai.setCosts(instance.getCosts());
 
-		EdmondChuLiuIterAlgorithm ecl = new EdmondChuLiuIterAlgorithm();
+		// Every node of gp is reached by the root
+		TarjanBranchingAlgorithm ecl = new TarjanBranchingAlgorithm();
+		ecl.setCheckFeasibility(false);
 		ecl.setInstance(mbai);
 		ecl.compute();
 
@@ -248,6 +753,17 @@ public class WongAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 		for (Arc a : arborescence)
 			cost += instance.getIntCost(a);
 
+		Iterator<Double> itValues = tempCutValues.iterator();
+		for (BitSet members : tempCutComponents) {
+			int[] h = new int[members.cardinality()];
+			int j = 0;
+			for (int i = members.nextSetBit(0); i >= 0; i = members
+					.nextSetBit(i + 1))
+				h[j++] = nodes[i];
+			Arrays.sort(h);
+			tempCut.add(h, itValues.next());
+		}
+
 		dualCost = tempDualCost;
 		cut = tempCut;
 	}
@@ -286,51 +802,57 @@ public class WongAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 	/**
 	 * Step 2 in Wong
 	 * "A dual ascent approach for Steiner Tree problems on a directed Graph".
-	 * Edit gp. h is a root component of gp. a = (i*,j*) is the minimum cost arc
-	 * entering h. gp contains a path from j* to i*.
-	 * 
-	 * @param gp
+	 * h is a root component of gp. a = (i*,j*) is the minimum cost arc
+	 * entering h. The costs of the arcs entering h are reduced with the offset
+	 * of h.
+	 *
 	 * @param h
 	 * @param a
 	 */
-	private void editCosts(DirectedGraph gp, HashSet<Integer> h, Arc a) {
+	private void editCosts(Component h, int a) {
 
-		double minCost = reducedCost.get(a);
+		double minCost = getReducedCost(a);
 		tempDualCost += minCost;
-		tempCut.put(h, minCost);
+		tempCutComponents.add((BitSet) h.members.clone());
+		tempCutValues.add(minCost);
 
-		for (Integer n : h) {
+		h.dual += minCost;
+		h.heap.addToAllKeys(-minCost);
 
-			Iterator<Arc> it = instance.getGraph().getInputArcsIterator(n);
-			while (it.hasNext()) {
-				Arc b = it.next();
-				if (h.contains(b.getInput()))
-					continue;
-				double cost = reducedCost.get(b);
-				reducedCost.put(b, cost - minCost);
-			}
-		}
+		BitSet shared = h.sharedMembers;
+		for (int i = shared.nextSetBit(0); i >= 0; i = shared.nextSetBit(i + 1))
+			for (int b : inArcs[i])
+				if (!h.members.get(arcTails[b]))
+					reducedCosts[b] -= minCost;
 	}
 
 	/**
 	 * Find the minimum cost arc entering h which is not in gp.
-	 * 
-	 * @param gp
+	 *
 	 * @param h
-	 * @return
+	 * @return the index of that arc, or -1 if there is no such arc.
 	 */
-	private Arc findMinArc(DirectedGraph gp, HashSet<Integer> h) {
+	private int findMinArc(Component h) {
 
-		Arc aMin = null;
+		int aMin = -1;
+		double costMin = 0D;
 
-		for (Integer n : h) {
-			Iterator<Arc> it = instance.getGraph().getInputArcsIterator(n);
-			while (it.hasNext()) {
-				Arc a = it.next();
-				if (gp.contains(a))
+		SkewHeapNode<EnteringArc> node = getHeapMin(h);
+		if (node != null) {
+			aMin = node.getData().arc;
+			costMin = node.getKey();
+		}
+
+		BitSet shared = h.sharedMembers;
+		for (int i = shared.nextSetBit(0); i >= 0; i = shared.nextSetBit(i + 1)) {
+			for (int a : inArcs[i]) {
+				if (h.members.get(arcTails[a]))
 					continue;
-				if (aMin == null || comp.compare(aMin, a) > 0)
+				double cost = reducedCosts[a];
+				if (aMin == -1 || cost < costMin) {
 					aMin = a;
+					costMin = cost;
+				}
 			}
 		}
 
@@ -343,64 +865,53 @@ public class WongAlgorithm extends SteinerArborescenceApproximationAlgorithm {
 	 * is not is that component. There cannot be any node n which can reach the
 	 * component such that no node of the component can reach n. That component
 	 * do not contains the root.
-	 * 
-	 * 
-	 * @param gp
+	 *
+	 * The changed components are checked again: the ones reached by the root
+	 * are settled, and the other ones are added to or removed from the root
+	 * components. The root component of the first terminal is returned, and
+	 * its copies are settled.
+	 *
 	 * @return
 	 */
-	private HashSet<Integer> findRootComp(DirectedGraph gp) {
-		Iterator<Integer> it = instance.getRequiredVerticesIterator();
-		Integer n = null;
-
-		HashSet<Integer> rootComponent = new HashSet<Integer>();
-
+	private Component findRootComp() {
 		int ir = nodeIndexes.get(instance.getRoot());
-		// Find node for which neither root nor any other node dangles from.
-		boucle1: while (it.hasNext()) {
-			rootComponent.clear();
-			Integer n1 = it.next();
-			if (n1.equals(instance.getRoot()))
-				continue;
-
-			int i1 = nodeIndexes.get(n1);
-			if (areConnected(ir, i1))
+		BitSet ancestorTerminals = new BitSet();
+
+		for (int p = changedComponents.nextSetBit(0); p >= 0; p = changedComponents
+				.nextSetBit(p + 1)) {
+			Component c = terminalComponents[p];
+			int i1 = c.terminal;
+			if (areConnected(ir, i1)) {
+				retire(c);
 				continue;
-
-			rootComponent.add(n1);
-			Iterator<Integer> it2 = instance.getRequiredVerticesIterator();
-
-			while (it2.hasNext()) {
-				Integer n2 = it2.next();
-				if (n2.equals(instance.getRoot()) || n2.equals(n1))
-					continue;
-
-				int i2 = nodeIndexes.get(n2);
-				boolean con21 = areConnected(i2, i1);
-				boolean con12 = areConnected(i1, i2);
-				if (con21 && !con12)
-					continue boucle1;
-				else if (!con21)
-					continue;
-				rootComponent.add(n2);
 			}
 
-			it2 = gp.getVerticesIterator();
-			while (it2.hasNext()) {
-				Integer n2 = it2.next();
-				if (n2.equals(instance.getRoot()) || rootComponent.contains(n2))
-					continue;
-				int i2 = nodeIndexes.get(n2);
-				if (areConnected(i2, i1))
-					rootComponent.add(n2);
-			}
-
-			n = n1;
-			break;
+			// Every terminal reaching n1 must be reached by n1
+			ancestorTerminals.clear();
+			ancestorTerminals.or(terminalIndexes);
+			ancestorTerminals.and(c.members);
+			ancestorTerminals.andNot(getDescendants(components.find(i1)));
+			rootComponents.set(p, ancestorTerminals.isEmpty());
 		}
-		if (n == null)
+		changedComponents.clear();
+
+		int p = rootComponents.nextSetBit(0);
+		if (p < 0)
 			return null;
 
-		return rootComponent;
+		// The other terminals reaching n1 are in the strongly connected
+		// component of n1: their components are copies of c
+		Component c = terminalComponents[p];
+		ancestorTerminals.clear();
+		ancestorTerminals.or(terminalIndexes);
+		ancestorTerminals.and(c.members);
+		for (int i = ancestorTerminals.nextSetBit(0); i >= 0; i = ancestorTerminals
+				.nextSetBit(i + 1)) {
+			Component d = nodeComponents[i];
+			if (d != c && activeComponents.get(d.position))
+				retire(d);
+		}
+		return c;
 	}
 
 	@Override
@@ -0,0 +1,314 @@
+package graphTheory.algorithms.steinerProblems.steinerArborescenceApproximation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Dual solution of the Steiner arborescence problem computed by the
+ * {@link WongAlgorithm}: a set of cuts, each associated with a dual value.
+ * <p>
+ * Each cut is identified by an id, from 0 to the number of cuts minus one. The
+ * nodes of all the cuts are stored, sorted, in one shared array, and each cut
+ * is hashed with a 64-bit fingerprint computed once, so that finding a cut
+ * does not hash a whole node set.
+ * <p>
+ * A dual solution can be saved in a compact binary file with
+ * {@link #save(String)} and loaded with {@link #load(String)}, in order to
+ * initialize later runs with {@link WongAlgorithm#setDualInitialization(WongDualSolution)}.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class WongDualSolution {
+
+	/**
+	 * First int of a saved dual solution file : "WDS1".
+	 */
+	private static final int MAGIC = 0x57445331;
+
+	/**
+	 * Version of the format of a saved dual solution file.
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * Nodes of the cuts. The nodes of the cut of id c are
+	 * nodes[offsets[c]] to nodes[offsets[c + 1] - 1], sorted.
+	 */
+	private int[] nodes;
+	private int[] offsets;
+
+	private double[] values;
+	private long[] fingerprints;
+
+	private int numberOfCuts;
+	private int numberOfNodes;
+
+	/**
+	 * For each fingerprint, id of the first cut with that fingerprint. The
+	 * next cuts with the same fingerprint are linked with nextSameFingerprint.
+	 */
+	private HashMap<Long, Integer> ids;
+	private int[] nextSameFingerprint;
+
+	private double dualCost;
+
+	public WongDualSolution() {
+		nodes = new int[16];
+		offsets = new int[9];
+		values = new double[8];
+		fingerprints = new long[8];
+		nextSameFingerprint = new int[8];
+		ids = new HashMap<Long, Integer>();
+		numberOfCuts = 0;
+		numberOfNodes = 0;
+		dualCost = 0D;
+	}
+
+	public int getNumberOfCuts() {
+		return numberOfCuts;
+	}
+
+	/**
+	 * @return the sum of the dual values of the cuts.
+	 */
+	public double getDualCost() {
+		return dualCost;
+	}
+
+	public double getValue(int cut) {
+		return values[cut];
+	}
+
+	public long getFingerprint(int cut) {
+		return fingerprints[cut];
+	}
+
+	public int getSize(int cut) {
+		return offsets[cut + 1] - offsets[cut];
+	}
+
+	/**
+	 * @return the nodes of the cut of id cut, sorted.
+	 */
+	public int[] getNodes(int cut) {
+		return Arrays.copyOfRange(nodes, offsets[cut], offsets[cut + 1]);
+	}
+
+	/**
+	 * @return true if node belongs to the cut of id cut.
+	 */
+	public boolean contains(int cut, int node) {
+		return Arrays.binarySearch(nodes, offsets[cut], offsets[cut + 1], node) >= 0;
+	}
+
+	/**
+	 * @return the id of the cut containing exactly the nodes of sortedNodes,
+	 *         or -1 if there is no such cut.
+	 */
+	public int indexOf(int[] sortedNodes) {
+		Integer c = ids.get(fingerprint(sortedNodes, sortedNodes.length));
+		if (c == null)
+			return -1;
+		for (int cut = c; cut != -1; cut = nextSameFingerprint[cut])
+			if (equals(cut, sortedNodes, sortedNodes.length))
+				return cut;
+		return -1;
+	}
+
+	/**
+	 * Add value to the dual value of the cut containing the nodes of
+	 * sortedNodes. If there is no such cut, it is created.
+	 *
+	 * @param sortedNodes
+	 *            nodes of the cut, sorted in increasing order. The array is
+	 *            copied.
+	 * @return the id of the cut.
+	 */
+	public int add(int[] sortedNodes, double value) {
+		return add(sortedNodes, sortedNodes.length, value);
+	}
+
+	private int add(int[] sortedNodes, int size, double value) {
+		dualCost += value;
+
+		long fingerprint = fingerprint(sortedNodes, size);
+		Integer first = ids.get(fingerprint);
+		if (first != null)
+			for (int cut = first; cut != -1; cut = nextSameFingerprint[cut])
+				if (equals(cut, sortedNodes, size)) {
+					values[cut] += value;
+					return cut;
+				}
+
+		int cut = numberOfCuts++;
+		if (cut == values.length) {
+			int capacity = 2 * cut;
+			offsets = Arrays.copyOf(offsets, capacity + 1);
+			values = Arrays.copyOf(values, capacity);
+			fingerprints = Arrays.copyOf(fingerprints, capacity);
+			nextSameFingerprint = Arrays.copyOf(nextSameFingerprint, capacity);
+		}
+		if (numberOfNodes + size > nodes.length)
+			nodes = Arrays.copyOf(nodes,
+					Math.max(2 * nodes.length, numberOfNodes + size));
+
+		System.arraycopy(sortedNodes, 0, nodes, numberOfNodes, size);
+		numberOfNodes += size;
+		offsets[cut + 1] = numberOfNodes;
+		values[cut] = value;
+		fingerprints[cut] = fingerprint;
+		nextSameFingerprint[cut] = (first == null) ? -1 : first;
+		ids.put(fingerprint, cut);
+		return cut;
+	}
+
+	private boolean equals(int cut, int[] sortedNodes, int size) {
+		int offset = offsets[cut];
+		if (offsets[cut + 1] - offset != size)
+			return false;
+		for (int i = 0; i < size; i++)
+			if (nodes[offset + i] != sortedNodes[i])
+				return false;
+		return true;
+	}
+
+	/**
+	 * @return a 64-bit hash of the first size nodes of sortedNodes.
+	 */
+	private static long fingerprint(int[] sortedNodes, int size) {
+		long h = size;
+		for (int i = 0; i < size; i++) {
+			// SplitMix64 finalizer
+			long z = h + sortedNodes[i] + 0x9E3779B97F4A7C15L;
+			z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+			z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+			h = z ^ (z >>> 31);
+		}
+		return h;
+	}
+
+	/**
+	 * @return this dual solution as a map associating each cut with its value.
+	 */
+	public HashMap<HashSet<Integer>, Double> toMap() {
+		HashMap<HashSet<Integer>, Double> map = new HashMap<HashSet<Integer>, Double>();
+		for (int cut = 0; cut < numberOfCuts; cut++) {
+			HashSet<Integer> h = new HashSet<Integer>();
+			for (int i = offsets[cut]; i < offsets[cut + 1]; i++)
+				h.add(nodes[i]);
+			map.put(h, values[cut]);
+		}
+		return map;
+	}
+
+	/**
+	 * @return the dual solution associating each cut of map with its value.
+	 */
+	public static WongDualSolution fromMap(HashMap<HashSet<Integer>, Double> map) {
+		WongDualSolution dual = new WongDualSolution();
+		for (HashSet<Integer> h : map.keySet()) {
+			int[] sortedNodes = new int[h.size()];
+			int i = 0;
+			for (Integer n : h)
+				sortedNodes[i++] = n;
+			Arrays.sort(sortedNodes);
+			dual.add(sortedNodes, map.get(h));
+		}
+		return dual;
+	}
+
+	/**
+	 * Save this dual solution in the file path. The nodes of each cut are
+	 * written as variable length differences between consecutive nodes.
+	 *
+	 * @throws IOException
+	 */
+	public void save(String path) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(path)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(numberOfCuts);
+			for (int cut = 0; cut < numberOfCuts; cut++) {
+				out.writeDouble(values[cut]);
+				writeVarInt(out, offsets[cut + 1] - offsets[cut]);
+				int previous = 0;
+				for (int i = offsets[cut]; i < offsets[cut + 1]; i++) {
+					writeVarInt(out, nodes[i] - previous);
+					previous = nodes[i];
+				}
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * @return the dual solution saved in the file path with
+	 *         {@link #save(String)}.
+	 * @throws IOException
+	 *             if the file cannot be read or was not written by
+	 *             {@link #save(String)}.
+	 */
+	public static WongDualSolution load(String path) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(path)));
+		try {
+			if (in.readInt() != MAGIC)
+				throw new IOException(path + " is not a dual solution file");
+			int version = in.readInt();
+			if (version != VERSION)
+				throw new IOException(path
+						+ " : unsupported dual solution version " + version);
+
+			WongDualSolution dual = new WongDualSolution();
+			int numberOfCuts = in.readInt();
+			int[] sortedNodes = new int[16];
+			for (int cut = 0; cut < numberOfCuts; cut++) {
+				double value = in.readDouble();
+				int size = readVarInt(in);
+				if (size > sortedNodes.length)
+					sortedNodes = new int[Math.max(size, 2 * sortedNodes.length)];
+				int previous = 0;
+				for (int i = 0; i < size; i++) {
+					previous += readVarInt(in);
+					sortedNodes[i] = previous;
+				}
+				dual.add(sortedNodes, size, value);
+			}
+			return dual;
+		} finally {
+			in.close();
+		}
+	}
+
+	private static void writeVarInt(DataOutputStream out, int v)
+			throws IOException {
+		while ((v & ~0x7F) != 0) {
+			out.writeByte((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+		out.writeByte(v);
+	}
+
+	private static int readVarInt(DataInputStream in) throws IOException {
+		int v = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = in.readUnsignedByte();
+			v |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return v;
+		}
+		throw new IOException("Malformed variable length integer");
+	}
+}
@@ -0,0 +1,67 @@
+package graphTheory.benchmarks;
+
+import graphTheory.algorithms.steinerProblems.steinerArborescenceApproximation.SteinerArborescenceApproximationAlgorithm;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * This class contains static methods to build the
+ * {@link SteinerArborescenceApproximationAlgorithm}s run by the benchmarks
+ * from their names.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class Algorithms {
+
+	/**
+	 * Package of the algorithms which can be given by their simple name.
+	 */
+	public static final String ALGORITHMS_PACKAGE = SteinerArborescenceApproximationAlgorithm.class
+			.getPackage().getName();
+
+	public static final String[] DEFAULT_ALGORITHMS = { "GFLACAlgorithm",
+			"GFLAC2Algorithm", "GFLAC3Algorithm", "GFLACTRAlgorithm",
+			"GFLACTR2Algorithm", "GFLACTR3Algorithm", "RoosAlgorithm",
+			"WongAlgorithm", "ShPAlgorithm", "ShP2Algorithm" };
+
+	/**
+	 * @param name
+	 *            : the name of a class extending
+	 *            {@link SteinerArborescenceApproximationAlgorithm}, simple if
+	 *            the class is in {@link #ALGORITHMS_PACKAGE}.
+	 * @return a new algorithm of that class.
+	 * @throws IllegalArgumentException
+	 *             if there is no such algorithm.
+	 */
+	public static SteinerArborescenceApproximationAlgorithm getAlgorithm(
+			String name) {
+		Class<?> c;
+		try {
+			c = Class.forName(name.contains(".") ? name : ALGORITHMS_PACKAGE
+					+ "." + name);
+		} catch (ClassNotFoundException e) {
+			throw new IllegalArgumentException("Unknown algorithm " + name, e);
+		}
+		if (!SteinerArborescenceApproximationAlgorithm.class
+				.isAssignableFrom(c))
+			throw new IllegalArgumentException(name
+					+ " is not a Steiner arborescence algorithm");
+		try {
+			return (SteinerArborescenceApproximationAlgorithm) c
+					.getDeclaredConstructor().newInstance();
+		} catch (InvocationTargetException e) {
+			// The constructor threw an exception
+			Throwable cause = e.getCause();
+			throw new IllegalArgumentException("Cannot create " + name + " : "
+					+ cause, cause);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalArgumentException(name
+					+ " has no constructor without parameter", e);
+		} catch (InstantiationException e) {
+			throw new IllegalArgumentException("Cannot create " + name, e);
+		} catch (IllegalAccessException e) {
+			throw new IllegalArgumentException("Cannot create " + name, e);
+		}
+	}
+}
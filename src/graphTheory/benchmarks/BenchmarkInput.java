@@ -0,0 +1,199 @@
+package graphTheory.benchmarks;
+
+import graphTheory.generators.RandomSteinerDirectedGraphGenerator2;
+import graphTheory.generators.steinLib.STPGenerator;
+import graphTheory.generators.steinLib.STPUndirectedGenerator;
+import graphTheory.instances.steiner.classic.SteinerDirectedInstance;
+import graphTheory.instances.steiner.classic.SteinerUndirectedInstance;
+import graphTheory.steinLib.SteinLibInstancesGroups;
+import graphTheory.steinLib.SteinLibTransformation;
+import graphTheory.steinLib.SteinLibTransformationPipeline;
+import graphTheory.utils.CompressedFiles;
+import graphTheory.utils.Math2;
+import graphTheory.utils.probabilities.BBernouilliLaw;
+import graphTheory.utils.probabilities.DUniformLaw;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A set of directed Steiner instances over which the JMH benchmarks of the
+ * jmh directory run the algorithms. An input is described by its name :
+ * <ul>
+ * <li>"G-t", where G is a subdirectory of the SteinLib main directory, and t
+ * the name or the suffix of a {@link SteinLibTransformation}, as in "B-bd" :
+ * the instances of G, transformed with t in memory. The transformed instances
+ * are the ones written by a {@link SteinLibTransformationPipeline} with the
+ * same seed;</li>
+ * <li>"random-n", as in "random-100" : {@link #NUMBER_OF_RANDOM_INSTANCES}
+ * instances with n nodes built by a
+ * {@link RandomSteinerDirectedGraphGenerator2}, seeded.</li>
+ * </ul>
+ * Every instance is built on the current thread, which random methods are
+ * seeded during the building.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class BenchmarkInput {
+
+	public static final String RANDOM_PREFIX = "random-";
+
+	/**
+	 * Number of instances of a "random-n" input.
+	 */
+	public static final int NUMBER_OF_RANDOM_INSTANCES = 5;
+
+	/**
+	 * Expected output degree of a node of a random instance.
+	 */
+	public static final double RANDOM_DEGREE = 5.0;
+
+	/**
+	 * Maximum cost of an arc of a random instance, the minimum being 1.
+	 */
+	public static final int RANDOM_MAX_COST = 10;
+
+	private String name;
+	private List<SteinerDirectedInstance> instances;
+
+	private BenchmarkInput(String name, List<SteinerDirectedInstance> instances) {
+		this.name = name;
+		this.instances = Collections.unmodifiableList(instances);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public List<SteinerDirectedInstance> getInstances() {
+		return instances;
+	}
+
+	/**
+	 * @return the total number of arcs of the instances.
+	 */
+	public long getNumberOfArcs() {
+		long n = 0;
+		for (SteinerDirectedInstance sdi : instances)
+			n += sdi.getGraph().getNumberOfEdges();
+		return n;
+	}
+
+	/**
+	 * Build the input described by name.
+	 *
+	 * @param name
+	 * @param steinLibMainDir
+	 *            : the SteinLib main directory, containing the subdirectory
+	 *            of each group and the Results directory.
+	 * @param seed
+	 * @return
+	 * @throws IllegalArgumentException
+	 *             if name describes no input, or an input without instances.
+	 */
+	public static BenchmarkInput load(String name, String steinLibMainDir,
+			long seed) {
+		List<SteinerDirectedInstance> instances;
+		if (name.startsWith(RANDOM_PREFIX)) {
+			int n;
+			try {
+				n = Integer.valueOf(name.substring(RANDOM_PREFIX.length()));
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Bad input name " + name, e);
+			}
+			instances = random(n, seed);
+		} else {
+			int dash = name.lastIndexOf('-');
+			SteinLibTransformation t = (dash < 0) ? null
+					: SteinLibTransformation.getTransformation(name
+							.substring(dash + 1));
+			if (t == null)
+				throw new IllegalArgumentException("Bad input name " + name);
+			instances = steinLib(steinLibMainDir, name.substring(0, dash), t,
+					seed);
+		}
+		if (instances.isEmpty())
+			throw new IllegalArgumentException("The input " + name
+					+ " contains no instance");
+		return new BenchmarkInput(name, instances);
+	}
+
+	private static List<SteinerDirectedInstance> random(int n, long seed) {
+		RandomSteinerDirectedGraphGenerator2 gen = new RandomSteinerDirectedGraphGenerator2();
+		gen.setNumberOfVerticesLaw(n);
+		gen.setNumberOfRequiredVerticesLaw(Math.max(2, n / 10));
+		gen.setProbabilityOfLinkLaw(new BBernouilliLaw(Math.min(1.0,
+				RANDOM_DEGREE / n)));
+		gen.setCostLaw(new DUniformLaw(1, RANDOM_MAX_COST));
+
+		List<SteinerDirectedInstance> instances = new ArrayList<SteinerDirectedInstance>();
+		Math2.setSeed(seed * 0x9E3779B97F4A7C15L + n);
+		try {
+			for (int i = 0; i < NUMBER_OF_RANDOM_INSTANCES; i++)
+				instances.add(gen.generate());
+		} finally {
+			Math2.clearSeed();
+		}
+		return instances;
+	}
+
+	private static List<SteinerDirectedInstance> steinLib(
+			String steinLibMainDir, String group, SteinLibTransformation t,
+			long seed) {
+		File dir = new File(steinLibMainDir, group);
+		File[] files = CompressedFiles.listFiles(dir.getPath());
+		if (files == null)
+			throw new IllegalArgumentException(dir + " cannot be read");
+		String resultFileName = null;
+		for (File f : files) {
+			String instanceName = CompressedFiles.getUncompressedName(f
+					.getPath());
+			if (!instanceName.endsWith(".stp"))
+				continue;
+			SteinLibInstancesGroups slig = SteinLibInstancesGroups
+					.getGroup(instanceName.substring(0,
+							instanceName.length() - 4));
+			if (slig != null) {
+				resultFileName = slig.getResultFileName();
+				break;
+			}
+		}
+		if (resultFileName == null)
+			throw new IllegalArgumentException(dir
+					+ " contains no instance of a known group");
+
+		STPUndirectedGenerator gen = new STPUndirectedGenerator(dir.getPath(),
+				new File(steinLibMainDir, resultFileName).getPath());
+		SteinLibTransformationPipeline pipeline = new SteinLibTransformationPipeline(
+				1, seed);
+		List<SteinerDirectedInstance> instances = new ArrayList<SteinerDirectedInstance>();
+		for (int i = 0; i < gen.getNumberOfInstances(); i++) {
+			if (!gen.isInstanceFile(i))
+				continue;
+			SteinerUndirectedInstance sui = gen.generate(i);
+			if (sui == null)
+				continue;
+			String instanceName = (String) sui.getGraph().getParam(
+					STPGenerator.OUTPUT_NAME_PARAM_NAME);
+			SteinerDirectedInstance sdi;
+			Math2.setSeed(pipeline.getSeed(t, instanceName));
+			try {
+				sdi = t.transform(sui);
+			} finally {
+				Math2.clearSeed();
+			}
+			if (sdi != null)
+				instances.add(sdi);
+		}
+		return instances;
+	}
+
+	@Override
+	public String toString() {
+		return name + " (" + instances.size() + " instances, "
+				+ getNumberOfArcs() + " arcs)";
+	}
+}
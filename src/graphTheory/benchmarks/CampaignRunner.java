@@ -0,0 +1,1190 @@
+package graphTheory.benchmarks;
+
+import graphTheory.algorithms.Algorithm;
+import graphTheory.algorithms.Cancellation;
+import graphTheory.algorithms.RunStats;
+import graphTheory.algorithms.steinerProblems.steinerArborescenceApproximation.SteinerArborescenceApproximationAlgorithm;
+import graphTheory.generators.steinLib.STPDirectedGenerator;
+import graphTheory.generators.steinLib.STPGenerator;
+import graphTheory.instances.steiner.classic.SteinerDirectedInstance;
+import graphTheory.steinLib.InstanceCache;
+import graphTheory.steinLib.InstanceCatalog;
+import graphTheory.steinLib.InstanceDescription;
+import graphTheory.steinLib.SteinLibInstancesGroups;
+import graphTheory.steinLib.SteinLibTransformation;
+import graphTheory.utils.CompressedFiles;
+import graphTheory.utils.FileManager;
+import graphTheory.utils.Footprint;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Run a list of algorithms over the instances of a list of directories, as
+ * Main.testAlgorithm does for one algorithm and one directory, on a pool of
+ * threads.
+ * <p>
+ * Each couple (algorithm, instance) is a task, run with a new algorithm, as
+ * the algorithms keep the state of a run in their fields. Each run is given a
+ * {@link Cancellation} with the timeout as deadline : a run longer than the
+ * timeout stops itself, and the task is recorded with the status
+ * {@link Status#TIMEOUT} and the measures of the stopped run. If the run has
+ * not stopped {@link #CANCELLATION_GRACE} ms after the deadline, the task is
+ * recorded the same way without measures, and its thread is interrupted. As
+ * a thread cannot be stopped, the algorithm may go on until it ends; the pool
+ * is then given one more thread meanwhile, so that the other tasks are not
+ * delayed.
+ * <p>
+ * In order to measure the running times reliably, a task can run the
+ * algorithm several times over the instance : {@link #getWarmupRuns()} runs,
+ * letting the JIT compiler compile the algorithm, which are not measured, and
+ * then {@link #getRepetitions()} measured runs. The row of the task gives the
+ * median, the minimum, the 90th percentile and a bootstrap confidence
+ * interval of the median of the measured times (see {@link Statistics}), and
+ * the number of measured runs during which a garbage collection occurred.
+ * The timeout applies to each run.
+ * <p>
+ * If a footprint file is given (see {@link #setFootprintPath(String)}), each
+ * task measures the memory footprint of its instance, and runs the algorithm
+ * once more, without measuring its time, with the footprint profiling of
+ * {@link Algorithm#setFootprintProfiling(boolean)}. The row gives the total
+ * of both footprints, and the footprint file gives the bytes of each
+ * structure of the instance and of the algorithm at its peak.
+ * <p>
+ * The result of each task is a {@link Row}, with the columns printed by
+ * Main.testAlgorithm, the algorithm, the directory and the status. The rows
+ * are written in the order of the tasks, as soon as the previous tasks are
+ * ended, in a csv file or in a JSON file.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class CampaignRunner {
+
+	/**
+	 * Default timeout of a task, in ms : 10 minutes.
+	 */
+	public static final long DEFAULT_TIMEOUT = 600000;
+
+	/**
+	 * Time, in ms, given to a run to stop itself after its deadline, before it
+	 * is abandoned.
+	 */
+	public static final long CANCELLATION_GRACE = 1000;
+
+	public static final int DEFAULT_WARMUP_RUNS = 0;
+	public static final int DEFAULT_REPETITIONS = 1;
+
+	public static final String JSON_EXTENSION = ".json";
+
+	/**
+	 * Names of the columns of a footprint file.
+	 */
+	public static final String[] FOOTPRINT_COLUMNS = { "algorithm",
+			"directory", "name", "nodes", "arcs", "terminals", "owner",
+			"label", "structure", "bytes" };
+
+	/**
+	 * The status of a task.
+	 */
+	public enum Status {
+		/**
+		 * The algorithm returned a solution.
+		 */
+		OK,
+		/**
+		 * The algorithm ran longer than the timeout.
+		 */
+		TIMEOUT,
+		/**
+		 * The instance could not be read, or the algorithm threw an
+		 * exception.
+		 */
+		ERROR
+	}
+
+	/*
+	 * --------------------------------------------- Rows
+	 * ---------------------------------------------
+	 */
+
+	/**
+	 * The result of a task. The values which are not known are null.
+	 */
+	public static class Row {
+
+		/**
+		 * Names of the columns of a csv file.
+		 */
+		public static final String[] COLUMNS = { "algorithm", "directory",
+				"name", "optimum", "nodes", "arcs", "terminals", "maxcost",
+				"answer", "time", "cputime", "allocated", "runs", "median",
+				"min", "p90", "cilow", "cihigh", "gcruns", "instancefootprint",
+				"peakfootprint", "status", "message" };
+
+		private String algorithm;
+		private String directory;
+		private String name;
+		private Integer optimumValue;
+		private Integer numberOfNodes;
+		private Integer numberOfArcs;
+		private Integer numberOfTerminals;
+		private Integer maxCost;
+		private Integer answer;
+		private Long time;
+		private Long cpuTime;
+		private Long allocatedBytes;
+		private Integer runs;
+		private Double medianTime;
+		private Double minTime;
+		private Double p90Time;
+		private Double ciLow;
+		private Double ciHigh;
+		private Integer gcRuns;
+		private Long instanceFootprint;
+		private Long peakFootprint;
+		private Status status;
+		private String message;
+
+		private Row(String algorithm, String directory, String name) {
+			this.algorithm = algorithm;
+			this.directory = directory;
+			this.name = name;
+		}
+
+		public String getAlgorithm() {
+			return algorithm;
+		}
+
+		public String getDirectory() {
+			return directory;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Integer getOptimumValue() {
+			return optimumValue;
+		}
+
+		public Integer getNumberOfNodes() {
+			return numberOfNodes;
+		}
+
+		public Integer getNumberOfArcs() {
+			return numberOfArcs;
+		}
+
+		public Integer getNumberOfTerminals() {
+			return numberOfTerminals;
+		}
+
+		public Integer getMaxCost() {
+			return maxCost;
+		}
+
+		/**
+		 * @return the cost of the solution returned by the algorithm.
+		 */
+		public Integer getAnswer() {
+			return answer;
+		}
+
+		/**
+		 * @return the running time of the algorithm in ms, the median of the
+		 *         measured runs, or the timeout if the task timed out.
+		 */
+		public Long getTime() {
+			return time;
+		}
+
+		/**
+		 * @return the CPU time of the last run of the algorithm in ms, or null
+		 *         if it is unknown.
+		 * @see RunStats
+		 */
+		public Long getCpuTime() {
+			return cpuTime;
+		}
+
+		/**
+		 * @return the number of bytes allocated by the last run of the
+		 *         algorithm, or null if it is unknown.
+		 * @see RunStats
+		 */
+		public Long getAllocatedBytes() {
+			return allocatedBytes;
+		}
+
+		/**
+		 * @return the number of measured runs.
+		 */
+		public Integer getRuns() {
+			return runs;
+		}
+
+		/**
+		 * @return the median running time of the measured runs, in ms.
+		 */
+		public Double getMedianTime() {
+			return medianTime;
+		}
+
+		/**
+		 * @return the minimum running time of the measured runs, in ms.
+		 */
+		public Double getMinTime() {
+			return minTime;
+		}
+
+		/**
+		 * @return the 90th percentile of the running times of the measured
+		 *         runs, in ms.
+		 */
+		public Double getP90Time() {
+			return p90Time;
+		}
+
+		/**
+		 * @return the lower bound of the bootstrap confidence interval of the
+		 *         median running time, in ms, or null if there is only one
+		 *         measured run.
+		 */
+		public Double getCiLow() {
+			return ciLow;
+		}
+
+		/**
+		 * @return the upper bound of the bootstrap confidence interval of the
+		 *         median running time, in ms, or null if there is only one
+		 *         measured run.
+		 */
+		public Double getCiHigh() {
+			return ciHigh;
+		}
+
+		/**
+		 * @return the number of measured runs during which a garbage
+		 *         collection occurred.
+		 */
+		public Integer getGcRuns() {
+			return gcRuns;
+		}
+
+		/**
+		 * @return the estimated number of bytes of the instance, or null if
+		 *         the footprints were not measured.
+		 * @see Footprint
+		 */
+		public Long getInstanceFootprint() {
+			return instanceFootprint;
+		}
+
+		/**
+		 * @return the estimated number of bytes kept by the algorithm in
+		 *         addition to the instance, at the peak of its profiled run,
+		 *         or null if the footprints were not measured.
+		 * @see Algorithm#getPeakFootprint()
+		 */
+		public Long getPeakFootprint() {
+			return peakFootprint;
+		}
+
+		public Status getStatus() {
+			return status;
+		}
+
+		/**
+		 * @return the description of the error, if the status is
+		 *         {@link Status#ERROR}.
+		 */
+		public String getMessage() {
+			return message;
+		}
+
+		private Object[] values() {
+			return new Object[] { algorithm, directory, name, optimumValue,
+					numberOfNodes, numberOfArcs, numberOfTerminals, maxCost,
+					answer, time, cpuTime, allocatedBytes, runs, medianTime,
+					minTime, p90Time, ciLow, ciHigh, gcRuns, instanceFootprint,
+					peakFootprint, status, message };
+		}
+
+		/**
+		 * @return the line of a csv file describing this row, an unknown
+		 *         value being empty.
+		 */
+		public String toCsv() {
+			return CampaignRunner.toCsv(values());
+		}
+
+		/**
+		 * @return the JSON object describing this row.
+		 */
+		public String toJson() {
+			return CampaignRunner.toJson(COLUMNS, values());
+		}
+
+		@Override
+		public String toString() {
+			return toCsv();
+		}
+	}
+
+	/**
+	 * @return the line of a csv file containing the values, an unknown value
+	 *         being empty.
+	 */
+	static String toCsv(Object[] values) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0)
+				sb.append(',');
+			if (values[i] == null)
+				continue;
+			String s = values[i].toString();
+			if (s.indexOf(',') >= 0 || s.indexOf('"') >= 0
+					|| s.indexOf('\n') >= 0)
+				s = "\"" + s.replace("\"", "\"\"") + "\"";
+			sb.append(s);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @return the JSON object associating each column with its value. As
+	 *         JSON has no NaN nor infinity, such a value is null, as an
+	 *         unknown value.
+	 */
+	static String toJson(String[] columns, Object[] values) {
+		StringBuilder sb = new StringBuilder("{");
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0)
+				sb.append(", ");
+			sb.append('"').append(columns[i]).append("\": ");
+			Object v = values[i];
+			if (v instanceof Number && !isFinite((Number) v))
+				sb.append("null");
+			else if (v == null || v instanceof Number)
+				sb.append(v);
+			else
+				jsonString(sb, v.toString());
+		}
+		return sb.append('}').toString();
+	}
+
+	private static boolean isFinite(Number n) {
+		if (n instanceof Double || n instanceof Float) {
+			double d = n.doubleValue();
+			return !Double.isNaN(d) && !Double.isInfinite(d);
+		}
+		return true;
+	}
+
+	private static void jsonString(StringBuilder sb, String s) {
+		sb.append('"');
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == '"' || c == '\\')
+				sb.append('\\').append(c);
+			else if (c < ' ')
+				sb.append(String.format("\\u%04x", (int) c));
+			else
+				sb.append(c);
+		}
+		sb.append('"');
+	}
+
+	/*
+	 * --------------------------------------------- Campaign
+	 * ---------------------------------------------
+	 */
+
+	private int numberOfThreads;
+	private long timeout;
+	private int warmupRuns;
+	private int repetitions;
+	private InstanceCache cache;
+	private String footprintPath;
+	private HashSet<String> selection;
+
+	private ThreadPoolExecutor pool;
+	private final Object poolLock = new Object();
+	private ScheduledExecutorService watchdog;
+	private BlockingQueue<Task> ended;
+
+	public CampaignRunner() {
+		this(Runtime.getRuntime().availableProcessors(), DEFAULT_TIMEOUT);
+	}
+
+	/**
+	 * @param numberOfThreads
+	 *            : number of tasks run at the same time.
+	 * @param timeout
+	 *            : maximum running time of an algorithm over an instance, in
+	 *            ms.
+	 */
+	public CampaignRunner(int numberOfThreads, long timeout) {
+		this.numberOfThreads = numberOfThreads;
+		this.timeout = timeout;
+		this.warmupRuns = DEFAULT_WARMUP_RUNS;
+		this.repetitions = DEFAULT_REPETITIONS;
+	}
+
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	public long getTimeout() {
+		return timeout;
+	}
+
+	public int getWarmupRuns() {
+		return warmupRuns;
+	}
+
+	/**
+	 * @param warmupRuns
+	 *            : number of runs of each task which are not measured.
+	 */
+	public void setWarmupRuns(int warmupRuns) {
+		this.warmupRuns = Math.max(0, warmupRuns);
+	}
+
+	public int getRepetitions() {
+		return repetitions;
+	}
+
+	/**
+	 * @param repetitions
+	 *            : number of measured runs of each task, at least 1.
+	 */
+	public void setRepetitions(int repetitions) {
+		this.repetitions = Math.max(1, repetitions);
+	}
+
+	public InstanceCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * @param cache
+	 *            : a cache from which the instances are read if possible, or
+	 *            null.
+	 */
+	public void setCache(InstanceCache cache) {
+		this.cache = cache;
+	}
+
+	public String getFootprintPath() {
+		return footprintPath;
+	}
+
+	/**
+	 * @param footprintPath
+	 *            : the file in which the footprints of the instances and of
+	 *            the algorithms are written, a JSON array if its name ends
+	 *            with {@link #JSON_EXTENSION} and a csv file otherwise, or
+	 *            null if the footprints are not measured.
+	 */
+	public void setFootprintPath(String footprintPath) {
+		this.footprintPath = footprintPath;
+	}
+
+	/**
+	 * Run the algorithms over the selected instances only. The instances are
+	 * selected with their descriptions, for instance with
+	 * {@link InstanceCatalog#select(String)}, without reading their files.
+	 * An instance file is identified by its path, so the catalog must
+	 * describe the files of the campaign directories.
+	 *
+	 * @param selection
+	 *            : the descriptions of the instances to run, or null to run
+	 *            every instance.
+	 */
+	public void setSelection(List<InstanceDescription> selection) {
+		if (selection == null) {
+			this.selection = null;
+			return;
+		}
+		this.selection = new HashSet<String>();
+		for (InstanceDescription d : selection)
+			this.selection.add(getCanonicalPath(d.getFile()));
+	}
+
+	/**
+	 * @return true if the instance file f was selected with
+	 *         {@link #setSelection(List)}.
+	 */
+	private boolean isSelected(File f) {
+		return selection == null || selection.contains(getCanonicalPath(f));
+	}
+
+	private static String getCanonicalPath(File f) {
+		try {
+			return f.getCanonicalPath();
+		} catch (IOException e) {
+			return f.getAbsolutePath();
+		}
+	}
+
+	/**
+	 * Run an algorithm over an instance.
+	 */
+	private class Task implements Runnable {
+
+		private String algorithm;
+		private String directory;
+		private STPDirectedGenerator gen;
+		private int index;
+
+		private Row row;
+		private Footprint instanceFootprint;
+		private Footprint peakFootprint;
+		private Thread thread;
+		private ScheduledFuture<?> timer;
+		/**
+		 * True during the profiled run, once the row holds the result of the
+		 * measured runs.
+		 */
+		private boolean profiling;
+
+		private Task(String algorithm, String directory,
+				STPDirectedGenerator gen, int index) {
+			this.algorithm = algorithm;
+			this.directory = directory;
+			this.gen = gen;
+			this.index = index;
+		}
+
+		@Override
+		public void run() {
+			String name = CompressedFiles.getUncompressedName(gen
+					.getInstanceFile(index).getPath());
+			Row r = new Row(algorithm, directory, name.substring(0,
+					name.length() - 4));
+			SteinerDirectedInstance sdi;
+			SteinerArborescenceApproximationAlgorithm alg;
+			try {
+				sdi = gen.generate(index);
+				if (sdi == null) {
+					error(r, "The instance cannot be read");
+					return;
+				}
+				alg = Algorithms.getAlgorithm(algorithm);
+			} catch (RuntimeException e) {
+				error(r, e.toString());
+				return;
+			}
+			r.optimumValue = sdi.getGraph().getParamInteger(
+					STPGenerator.OUTPUT_OPTIMUM_VALUE_PARAM_NAME);
+			r.numberOfNodes = sdi.getGraph().getNumberOfVertices();
+			r.numberOfArcs = sdi.getGraph().getNumberOfEdges();
+			r.numberOfTerminals = sdi.getNumberOfRequiredVertices();
+			r.maxCost = sdi.maxCost();
+			boolean profiled = footprintPath != null;
+			if (profiled) {
+				instanceFootprint = Footprint.of("instance", sdi, 2);
+				r.instanceFootprint = instanceFootprint.getTotal();
+			}
+
+			alg.setCheckFeasibility(false);
+			alg.setInstance(sdi);
+			final Row timedOut = r;
+			synchronized (this) {
+				thread = Thread.currentThread();
+			}
+
+			// Running times of the measured runs, in ms
+			double[] times = new double[repetitions];
+			int gcRuns = 0;
+			// Statistics of the last measured run, or of the run stopped at
+			// its deadline
+			RunStats stats = null;
+			boolean stopped = false;
+			Throwable error = null;
+			int runs = warmupRuns + repetitions + (profiled ? 1 : 0);
+			for (int k = 0; k < runs && error == null && !stopped; k++) {
+				// The profiled run is the last one, as the measures of the
+				// footprint slow it down.
+				boolean profiledRun = k == warmupRuns + repetitions;
+				if (profiledRun) {
+					// Whatever happens to the profiled run, the result is the
+					// one of the measured runs.
+					setMeasures(r, alg, times, gcRuns, stats);
+					synchronized (this) {
+						profiling = true;
+					}
+				}
+				alg.setFootprintProfiling(profiledRun);
+				synchronized (this) {
+					try {
+						timer = watchdog.schedule(new Runnable() {
+							@Override
+							public void run() {
+								timeout(timedOut);
+							}
+						}, timeout + CANCELLATION_GRACE,
+								TimeUnit.MILLISECONDS);
+					} catch (RejectedExecutionException e) {
+						// The campaign was stopped
+						thread = null;
+						return;
+					}
+				}
+
+				long gcs = getGcCount();
+				alg.setCancellation(new Cancellation(timeout));
+				try {
+					alg.compute();
+				} catch (Throwable t) {
+					error = t;
+				}
+				boolean gc = getGcCount() != gcs;
+
+				synchronized (this) {
+					// If the watchdog already started, it is about to abandon
+					// the run : the run is abandoned now, so that the
+					// watchdog does nothing.
+					if (row == null && !timer.cancel(false))
+						timeout(timedOut);
+					if (row != null) {
+						// The task timed out, this thread is not needed
+						// anymore.
+						thread = null;
+						Thread.interrupted();
+						resizePool(-1);
+						return;
+					}
+				}
+				if (profiledRun) {
+					if (error != null)
+						r.message = "The footprint run failed : " + error;
+					else if (alg.getRunStats().getStatus() != RunStats.Status.COMPLETED)
+						// It still measured the footprint until its deadline.
+						r.message = "The footprint run was stopped at the deadline";
+					error = null;
+				} else if (error == null
+						&& alg.getRunStats().getStatus() != RunStats.Status.COMPLETED) {
+					stats = alg.getRunStats();
+					stopped = true;
+				} else if (error == null && k >= warmupRuns) {
+					stats = alg.getRunStats();
+					times[k - warmupRuns] = stats.getWallTime() / 1e6;
+					if (gc)
+						gcRuns++;
+				}
+			}
+			synchronized (this) {
+				thread = null;
+			}
+			if (error != null) {
+				error(r, error.toString());
+				return;
+			}
+			if (stopped) {
+				r.time = stats.getWallTime() / 1000000L;
+				setResources(r, stats);
+				r.status = Status.TIMEOUT;
+				r.message = "Stopped at the deadline";
+				end(r);
+				return;
+			}
+			if (profiled) {
+				peakFootprint = alg.getPeakFootprint();
+				if (peakFootprint != null)
+					r.peakFootprint = peakFootprint.getTotal();
+			} else
+				setMeasures(r, alg, times, gcRuns, stats);
+			end(r);
+		}
+
+		/**
+		 * Fill r with the result of the measured runs.
+		 */
+		private void setMeasures(Row r,
+				SteinerArborescenceApproximationAlgorithm alg, double[] times,
+				int gcRuns, RunStats stats) {
+			r.answer = alg.getCost();
+			double median = Statistics.median(times);
+			r.time = (long) median;
+			r.runs = repetitions;
+			r.medianTime = round(median);
+			r.minTime = round(Statistics.min(times));
+			r.p90Time = round(Statistics.percentile(times, 90));
+			double[] ci = Statistics.bootstrapMedianInterval(times);
+			if (ci != null) {
+				r.ciLow = round(ci[0]);
+				r.ciHigh = round(ci[1]);
+			}
+			r.gcRuns = gcRuns;
+			setResources(r, stats);
+			r.status = Status.OK;
+		}
+
+		private void setResources(Row r, RunStats stats) {
+			if (stats.getCpuTime() >= 0)
+				r.cpuTime = stats.getCpuTime() / 1000000L;
+			if (stats.getAllocatedBytes() >= 0)
+				r.allocatedBytes = stats.getAllocatedBytes();
+		}
+
+		/**
+		 * Called by the watchdog when the run did not stop itself at its
+		 * deadline.
+		 */
+		private synchronized void timeout(Row r) {
+			if (row != null || thread == null)
+				return;
+			if (profiling)
+				// Only the footprint of the algorithm is lost.
+				r.message = "The footprint run was abandoned after the deadline";
+			else {
+				r.time = timeout;
+				r.status = Status.TIMEOUT;
+				r.message = "Abandoned after the deadline";
+			}
+			end(r);
+			thread.interrupt();
+			resizePool(1);
+		}
+
+		private void error(Row r, String message) {
+			r.status = Status.ERROR;
+			r.message = message;
+			end(r);
+		}
+
+		private synchronized void end(Row r) {
+			row = r;
+			ended.add(this);
+		}
+
+		private synchronized Row getRow() {
+			return row;
+		}
+
+		/**
+		 * Write the footprints of the instance and of the algorithm, once the
+		 * task is ended.
+		 *
+		 * @return the number of written lines.
+		 */
+		private int writeFootprints(FileManager fm, boolean json, int lines) {
+			int written = 0;
+			written += writeFootprint(fm, json, lines + written, "instance",
+					instanceFootprint);
+			written += writeFootprint(fm, json, lines + written, "algorithm",
+					peakFootprint);
+			return written;
+		}
+
+		private int writeFootprint(FileManager fm, boolean json, int lines,
+				String owner, Footprint footprint) {
+			if (footprint == null)
+				return 0;
+			int written = 0;
+			for (Map.Entry<String, Long> e : footprint.getStructures()
+					.entrySet()) {
+				Object[] values = { row.algorithm, row.directory, row.name,
+						row.numberOfNodes, row.numberOfArcs,
+						row.numberOfTerminals, owner, footprint.getLabel(),
+						e.getKey(), e.getValue() };
+				if (json)
+					fm.write((lines + written == 0 ? "  " : ",\n  ")
+							+ toJson(FOOTPRINT_COLUMNS, values));
+				else
+					fm.writeln(toCsv(values));
+				written++;
+			}
+			return written;
+		}
+	}
+
+	/**
+	 * Add delta threads to the pool.
+	 */
+	private void resizePool(int delta) {
+		synchronized (poolLock) {
+			if (delta > 0) {
+				pool.setMaximumPoolSize(pool.getMaximumPoolSize() + delta);
+				pool.setCorePoolSize(pool.getCorePoolSize() + delta);
+			} else {
+				pool.setCorePoolSize(pool.getCorePoolSize() + delta);
+				pool.setMaximumPoolSize(pool.getMaximumPoolSize() + delta);
+			}
+		}
+	}
+
+	/**
+	 * @return d rounded to the microsecond, if d is a time in ms.
+	 */
+	private static double round(double d) {
+		return Math.round(d * 1000) / 1000.0;
+	}
+
+	/**
+	 * @return the number of garbage collections since the JVM started.
+	 */
+	private static long getGcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory
+				.getGarbageCollectorMXBeans())
+			count += Math.max(gc.getCollectionCount(), 0);
+		return count;
+	}
+
+	private static ThreadFactory daemonFactory(final String name) {
+		return new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, name);
+				t.setDaemon(true);
+				return t;
+			}
+		};
+	}
+
+	/**
+	 * @param dir
+	 * @return the path, relative to the main directory, of the results file of
+	 *         the group of the instances in dir, or null if dir contains no
+	 *         instance of a known group. The name of a directed instance may
+	 *         end with the suffix of a {@link SteinLibTransformation}.
+	 */
+	public static String getResultFileName(File dir) {
+		File[] files = CompressedFiles.listFiles(dir.getPath());
+		if (files == null)
+			return null;
+		Arrays.sort(files);
+		for (File f : files) {
+			String name = CompressedFiles.getUncompressedName(f.getPath());
+			if (!name.endsWith(".stp"))
+				continue;
+			name = name.substring(0, name.length() - 4);
+			SteinLibInstancesGroups slig = SteinLibInstancesGroups
+					.getGroup(name);
+			for (SteinLibTransformation t : SteinLibTransformation.values())
+				if (slig == null && name.endsWith(t.getSuffix()))
+					slig = SteinLibInstancesGroups.getGroup(name.substring(0,
+							name.length() - t.getSuffix().length()));
+			if (slig != null)
+				return slig.getResultFileName();
+		}
+		return null;
+	}
+
+	/**
+	 * Run each algorithm over each instance of the directory
+	 * "steinLibMainDir/s", for each s in steinLibSubDirs. The optimal costs
+	 * are read in the results file of the group of the instances (see
+	 * {@link #getResultFileName(File)}), if it exists.
+	 * <p>
+	 * Each row is written in the file outputPath, or printed if it is null, as
+	 * soon as the previous ones are. The file is a JSON array if its name ends
+	 * with {@link #JSON_EXTENSION}, and a csv file otherwise. The footprints
+	 * are written the same way in the footprint file, if it is not null. Only
+	 * the instances selected with {@link #setSelection(List)} are run.
+	 *
+	 * @param steinLibMainDir
+	 * @param steinLibSubDirs
+	 * @param algorithms
+	 *            : names of the algorithms, as in
+	 *            {@link Algorithms#getAlgorithm(String)}.
+	 * @param outputPath
+	 * @return the rows, in the order of the tasks : by directory, then by
+	 *         algorithm, then by instance.
+	 */
+	public synchronized List<Row> run(String steinLibMainDir,
+			List<String> steinLibSubDirs, List<String> algorithms,
+			String outputPath) {
+		pool = new ThreadPoolExecutor(numberOfThreads, numberOfThreads, 1,
+				TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+				daemonFactory("Campaign task"));
+		watchdog = Executors.newSingleThreadScheduledExecutor(daemonFactory("Campaign watchdog"));
+		ended = new LinkedBlockingQueue<Task>();
+
+		boolean json = outputPath != null
+				&& outputPath.endsWith(JSON_EXTENSION);
+		FileManager fm = null;
+		int lines = 0;
+		if (outputPath != null) {
+			fm = new FileManager();
+			fm.openErase(outputPath);
+			fm.writeln(json ? "[" : join(Row.COLUMNS));
+		} else
+			System.out.println("# " + join(Row.COLUMNS));
+		boolean footprintJson = footprintPath != null
+				&& footprintPath.endsWith(JSON_EXTENSION);
+		FileManager footprintFm = null;
+		int footprintLines = 0;
+		if (footprintPath != null) {
+			footprintFm = new FileManager();
+			footprintFm.openErase(footprintPath);
+			footprintFm.writeln(footprintJson ? "[" : join(FOOTPRINT_COLUMNS));
+		}
+
+		List<Row> rows = new ArrayList<Row>();
+		try {
+			List<Task> tasks = new ArrayList<Task>();
+			for (String subDir : steinLibSubDirs) {
+				File dir = new File(steinLibMainDir, subDir);
+				String resultFileName = getResultFileName(dir);
+				STPDirectedGenerator gen = new STPDirectedGenerator(
+						dir.getPath(), (resultFileName == null) ? null
+								: new File(steinLibMainDir, resultFileName)
+										.getPath());
+				gen.setCache(cache);
+				for (String algorithm : algorithms)
+					for (int i = 0; i < gen.getNumberOfInstances(); i++)
+						if (gen.isInstanceFile(i)
+								&& isSelected(gen.getInstanceFile(i)))
+							tasks.add(new Task(algorithm, subDir, gen, i));
+			}
+			for (Task task : tasks)
+				pool.execute(task);
+
+			int next = 0;
+			while (next < tasks.size()) {
+				try {
+					ended.take();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+				Row row;
+				while (next < tasks.size()
+						&& (row = tasks.get(next).getRow()) != null) {
+					if (fm == null)
+						System.out.println(row.toCsv());
+					else if (json)
+						fm.write((lines == 0 ? "  " : ",\n  ")
+								+ row.toJson());
+					else
+						fm.writeln(row.toCsv());
+					lines++;
+					if (fm != null)
+						fm.flush();
+					if (footprintFm != null) {
+						footprintLines += tasks.get(next).writeFootprints(
+								footprintFm, footprintJson, footprintLines);
+						footprintFm.flush();
+					}
+					rows.add(row);
+					next++;
+				}
+			}
+		} finally {
+			pool.shutdownNow();
+			watchdog.shutdownNow();
+			if (fm != null) {
+				if (json)
+					fm.writeln((lines == 0 ? "" : "\n") + "]");
+				fm.closeWrite();
+			}
+			if (footprintFm != null) {
+				if (footprintJson)
+					footprintFm.writeln((footprintLines == 0 ? "" : "\n") + "]");
+				footprintFm.closeWrite();
+			}
+		}
+		return rows;
+	}
+
+	private static String join(String[] values) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0)
+				sb.append(',');
+			sb.append(values[i]);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Run a campaign.
+	 * <p>
+	 * Usage : CampaignRunner [-threads k] [-timeout ms] [-warmup runs]
+	 * [-repetitions runs] [-cache dir] [-output file] [-footprint file]
+	 * [-catalog file -where predicate] -a algorithm1,algorithm2,... &lt;main
+	 * directory&gt; [&lt;subdirectory&gt; ...]
+	 * <p>
+	 * If no subdirectory is given, every subdirectory of the main directory
+	 * except Results is used. If a predicate is given, only the instances of
+	 * the catalog file (see {@link InstanceCatalog}) satisfying the predicate
+	 * (see {@link InstanceCatalog#getPredicate(String)}) are run. The rows are printed if no output file is
+	 * given, and the number of rows of each status is printed at the end. If
+	 * a footprint file is given, the greatest footprints of the instances and
+	 * of each algorithm are printed for each size class, the instances with
+	 * 10^k to 10^(k+1)-1 nodes.
+	 *
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		int numberOfThreads = Runtime.getRuntime().availableProcessors();
+		long timeout = DEFAULT_TIMEOUT;
+		int warmupRuns = DEFAULT_WARMUP_RUNS;
+		int repetitions = DEFAULT_REPETITIONS;
+		String cacheDir = null;
+		String output = null;
+		String footprint = null;
+		String catalog = null;
+		String where = null;
+		List<String> algorithms = null;
+		ArrayList<String> positional = new ArrayList<String>();
+		try {
+			for (int i = 0; i < args.length; i++) {
+				if (args[i].equals("-threads"))
+					numberOfThreads = Integer.valueOf(args[++i]);
+				else if (args[i].equals("-timeout"))
+					timeout = Long.valueOf(args[++i]);
+				else if (args[i].equals("-warmup"))
+					warmupRuns = Integer.valueOf(args[++i]);
+				else if (args[i].equals("-repetitions"))
+					repetitions = Integer.valueOf(args[++i]);
+				else if (args[i].equals("-cache"))
+					cacheDir = args[++i];
+				else if (args[i].equals("-output"))
+					output = args[++i];
+				else if (args[i].equals("-footprint"))
+					footprint = args[++i];
+				else if (args[i].equals("-catalog"))
+					catalog = args[++i];
+				else if (args[i].equals("-where"))
+					where = args[++i];
+				else if (args[i].equals("-a"))
+					algorithms = Arrays.asList(args[++i].split(","));
+				else
+					positional.add(args[i]);
+			}
+		} catch (RuntimeException e) {
+			positional.clear();
+			System.err.println(e.getMessage());
+		}
+		if (positional.isEmpty() || algorithms == null
+				|| (where != null && catalog == null)) {
+			System.err.println("Usage : CampaignRunner [-threads k]"
+					+ " [-timeout ms] [-warmup runs] [-repetitions runs]"
+					+ " [-cache dir] [-output file] [-footprint file]"
+					+ " [-catalog file -where predicate]"
+					+ " -a algorithm1,algorithm2,..."
+					+ " <main directory> [<subdirectory> ...]");
+			System.exit(1);
+		}
+		List<InstanceDescription> selection = null;
+		if (where != null) {
+			try {
+				selection = InstanceCatalog.read(catalog).select(where);
+			} catch (IllegalArgumentException e) {
+				System.err.println(e.getMessage());
+				System.exit(1);
+				return;
+			}
+			System.out.println("# " + selection.size()
+					+ " instances of the catalog selected");
+		}
+
+		String mainDir = positional.get(0);
+		List<String> subDirs = positional.subList(1, positional.size());
+		if (subDirs.isEmpty()) {
+			subDirs = new ArrayList<String>();
+			File[] files = new File(mainDir).listFiles();
+			if (files != null) {
+				Arrays.sort(files);
+				for (File f : files)
+					if ((f.isDirectory() || CompressedFiles.isZipArchive(f
+							.getPath())) && !f.getName().equals("Results"))
+						subDirs.add(f.getName());
+			}
+		}
+
+		CampaignRunner runner = new CampaignRunner(numberOfThreads, timeout);
+		runner.setWarmupRuns(warmupRuns);
+		runner.setRepetitions(repetitions);
+		runner.setFootprintPath(footprint);
+		runner.setSelection(selection);
+		if (cacheDir != null)
+			runner.setCache(new InstanceCache(cacheDir));
+		long start = System.currentTimeMillis();
+		List<Row> rows = runner.run(mainDir, subDirs, algorithms, output);
+
+		int[] counts = new int[Status.values().length];
+		int gcRows = 0;
+		for (Row row : rows) {
+			counts[row.getStatus().ordinal()]++;
+			if (row.getGcRuns() != null && row.getGcRuns() > 0)
+				gcRows++;
+		}
+		StringBuilder sb = new StringBuilder("# " + rows.size() + " tasks in "
+				+ (System.currentTimeMillis() - start) + " ms :");
+		for (Status s : Status.values())
+			sb.append(" ").append(counts[s.ordinal()]).append(" ").append(s);
+		System.out.println(sb);
+		if (gcRows > 0)
+			System.out.println("# " + gcRows
+					+ " tasks with a garbage collection during a measured run"
+					+ " (see the gcruns column)");
+		if (runner.getCache() != null)
+			System.out.println("# " + runner.getCache());
+		if (footprint != null)
+			printFootprintBudgets(rows);
+	}
+
+	/**
+	 * Print, for each size class of the instances, the greatest footprint of
+	 * the instances and of each algorithm among the rows.
+	 */
+	private static void printFootprintBudgets(List<Row> rows) {
+		// Greatest instance and algorithm footprints by size class, then by
+		// algorithm
+		TreeMap<Integer, TreeMap<String, long[]>> budgets = new TreeMap<Integer, TreeMap<String, long[]>>();
+		for (Row row : rows) {
+			if (row.getInstanceFootprint() == null
+					|| row.getNumberOfNodes() == null)
+				continue;
+			int sizeClass = (int) Math.log10(Math.max(1,
+					row.getNumberOfNodes()));
+			TreeMap<String, long[]> byAlgorithm = budgets.get(sizeClass);
+			if (byAlgorithm == null) {
+				byAlgorithm = new TreeMap<String, long[]>();
+				budgets.put(sizeClass, byAlgorithm);
+			}
+			long[] budget = byAlgorithm.get(row.getAlgorithm());
+			if (budget == null) {
+				budget = new long[2];
+				byAlgorithm.put(row.getAlgorithm(), budget);
+			}
+			budget[0] = Math.max(budget[0], row.getInstanceFootprint());
+			if (row.getPeakFootprint() != null)
+				budget[1] = Math.max(budget[1], row.getPeakFootprint());
+		}
+		System.out.println("# Greatest footprints (bytes) : nodes, algorithm,"
+				+ " instance, algorithm peak");
+		for (Map.Entry<Integer, TreeMap<String, long[]>> e : budgets
+				.entrySet()) {
+			long low = (long) Math.pow(10, e.getKey());
+			for (Map.Entry<String, long[]> f : e.getValue().entrySet())
+				System.out.println("# " + low + "-" + (10 * low - 1) + " "
+						+ f.getKey() + " " + f.getValue()[0] + " "
+						+ f.getValue()[1]);
+		}
+	}
+}
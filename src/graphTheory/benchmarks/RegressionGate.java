@@ -0,0 +1,834 @@
+package graphTheory.benchmarks;
+
+import graphTheory.steinLib.SteinLibInstancesGroups;
+import graphTheory.utils.FileManager;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compare the results of a campaign with the results of a baseline, in order
+ * to detect the slowdowns and the cost regressions of the algorithms.
+ * <p>
+ * A results file may be
+ * <ul>
+ * <li>a table of the numericalResults directory : a header "# Name ..." and
+ * one line per instance, with two columns "XValue" and "XTime" for each
+ * algorithm X,</li>
+ * <li>a csv file or a JSON file written by {@link CampaignRunner}, or its
+ * printed rows.</li>
+ * </ul>
+ * The results are aligned by instance name and algorithm. The name of an
+ * algorithm is compared without its package, without the "Algorithm" suffix
+ * and ignoring case : "SHP" in a table is the algorithm ShPAlgorithm of a
+ * campaign.
+ * <p>
+ * For each instance, the ratio of the costs and the ratio of the running
+ * times (the median time, if the campaign measured several runs) are
+ * computed. The times below {@link #getMinTime()} are too noisy to be
+ * compared : they are rounded up to it. An instance is a
+ * {@link Status#COST_REGRESSION} if its cost ratio is greater than 1 +
+ * {@link #getCostThreshold()}. An instance is a {@link Status#SLOWDOWN} if the
+ * campaign gives a confidence interval of its median time and if the lower
+ * bound of that interval, divided by the baseline time (or by the upper bound
+ * of its interval, if the baseline is also a campaign with several runs), is
+ * greater than 1 + {@link #getTimeThreshold()}. An instance which timed out
+ * or failed in the campaign is {@link Status#FAILED}.
+ * <p>
+ * The instances are then grouped by algorithm and by SteinLib group (or by
+ * name without its last "-" part, for the generated instances). The time
+ * ratio of a group is the geometric mean of the time ratios of its instances,
+ * with a bootstrap confidence interval (see {@link Statistics}); a group is a
+ * slowdown if the lower bound of that interval is greater than 1 +
+ * {@link #getTimeThreshold()}. A group is a cost regression if its total cost
+ * is greater than its total baseline cost times 1 +
+ * {@link #getCostThreshold()}.
+ * <p>
+ * The slowdown of a single instance is often due to the noise of the machine
+ * (the compilation of the JIT compiler of another JVM, for instance) : the
+ * slowdowns of the instances are reported, but only the slowdowns of the
+ * groups are regressions (see {@link #isRegression(Comparison)}).
+ * <p>
+ * The running times can only be compared if the baseline and the campaign
+ * were run on the same machine : the numericalResults tables are mainly
+ * useful to check the costs.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class RegressionGate {
+
+	/**
+	 * Default maximum accepted slowdown : 10%.
+	 */
+	public static final double DEFAULT_TIME_THRESHOLD = 0.1;
+
+	/**
+	 * Default maximum accepted cost increase : none.
+	 */
+	public static final double DEFAULT_COST_THRESHOLD = 0;
+
+	/**
+	 * Default minimum compared time, in ms.
+	 */
+	public static final double DEFAULT_MIN_TIME = 5;
+
+	/**
+	 * The status of a comparison.
+	 */
+	public enum Status {
+		OK,
+		/**
+		 * The running time significantly increased more than the threshold.
+		 */
+		SLOWDOWN,
+		/**
+		 * The cost increased more than the threshold.
+		 */
+		COST_REGRESSION,
+		/**
+		 * The campaign timed out or failed over an instance the baseline
+		 * solved.
+		 */
+		FAILED
+	}
+
+	/*
+	 * --------------------------------------------- Results
+	 * ---------------------------------------------
+	 */
+
+	/**
+	 * The result of an algorithm over an instance, read in a results file.
+	 */
+	public static class Result {
+
+		private String algorithm;
+		private String name;
+		private Integer cost;
+		private Double time;
+		private Double timeLow;
+		private Double timeHigh;
+		private boolean failed;
+
+		private Result(String algorithm, String name) {
+			this.algorithm = algorithm;
+			this.name = name;
+		}
+
+		public String getAlgorithm() {
+			return algorithm;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the cost of the returned solution, or null if it is unknown.
+		 */
+		public Integer getCost() {
+			return cost;
+		}
+
+		/**
+		 * @return the running time in ms, or null if it is unknown.
+		 */
+		public Double getTime() {
+			return time;
+		}
+
+		/**
+		 * @return the lower bound of the confidence interval of the running
+		 *         time in ms, or null if it is unknown.
+		 */
+		public Double getTimeLow() {
+			return timeLow;
+		}
+
+		/**
+		 * @return the upper bound of the confidence interval of the running
+		 *         time in ms, or null if it is unknown.
+		 */
+		public Double getTimeHigh() {
+			return timeHigh;
+		}
+
+		/**
+		 * @return true if the algorithm timed out or failed.
+		 */
+		public boolean isFailed() {
+			return failed;
+		}
+
+		private String getKey() {
+			return getKey(algorithm, name);
+		}
+
+		private static String getKey(String algorithm, String name) {
+			String a = algorithm.substring(algorithm.lastIndexOf('.') + 1)
+					.toLowerCase(Locale.US);
+			if (a.endsWith("algorithm"))
+				a = a.substring(0, a.length() - 9);
+			return a + " " + name;
+		}
+	}
+
+	private static final Pattern JSON_FIELD = Pattern
+			.compile("\"([^\"]*)\"\\s*:\\s*(null|\"((?:[^\"\\\\]|\\\\.)*)\"|[^,}\\s]+)");
+
+	/**
+	 * @param path
+	 * @return the results of the file, in the order of the file.
+	 * @throws IllegalArgumentException
+	 *             if the file does not exist or if a line cannot be read.
+	 */
+	public static List<Result> readResults(String path) {
+		if (!new File(path).exists())
+			throw new IllegalArgumentException("No file " + path);
+		List<Result> results = new ArrayList<Result>();
+		String[] table = null;
+		String[] csv = null;
+		FileManager fm = new FileManager();
+		fm.openRead(path);
+		try {
+			String line;
+			int n = 0;
+			while ((line = fm.readLine()) != null) {
+				n++;
+				line = line.trim();
+				try {
+					if (line.isEmpty() || line.equals("[")
+							|| line.equals("]"))
+						continue;
+					if (line.startsWith("#")) {
+						String header = line.substring(1).trim();
+						if (header.startsWith("Name ")) {
+							table = header.split("\\s+");
+							csv = null;
+						} else if (header.startsWith("algorithm,")) {
+							csv = header.split(",");
+							table = null;
+						}
+					} else if (line.startsWith("{"))
+						results.add(readRow(readJson(line)));
+					else if (line.startsWith("algorithm,")) {
+						csv = line.split(",");
+						table = null;
+					} else if (csv != null)
+						results.add(readRow(readCsv(csv, line)));
+					else if (table != null)
+						readTable(table, line.split("\\s+"), results);
+					else
+						throw new IllegalArgumentException("no header");
+				} catch (RuntimeException e) {
+					throw new IllegalArgumentException("Cannot read line " + n
+							+ " of " + path + " : " + e.getMessage(), e);
+				}
+			}
+		} finally {
+			fm.closeRead();
+		}
+		return results;
+	}
+
+	/**
+	 * Read a line of a numericalResults table.
+	 */
+	private static void readTable(String[] header, String[] values,
+			List<Result> results) {
+		for (int i = 1; i < header.length && i < values.length; i++) {
+			if (!header[i].endsWith("Value"))
+				continue;
+			String algorithm = header[i].substring(0, header[i].length() - 5);
+			Result r = new Result(algorithm, values[0]);
+			r.cost = Integer.valueOf(values[i]);
+			for (int j = 1; j < header.length && j < values.length; j++)
+				if (header[j].equals(algorithm + "Time"))
+					r.time = Double.valueOf(values[j]);
+			results.add(r);
+		}
+	}
+
+	/**
+	 * @return the values of a row of a {@link CampaignRunner} csv file, by
+	 *         column.
+	 */
+	private static Map<String, String> readCsv(String[] header, String line) {
+		Map<String, String> row = new HashMap<String, String>();
+		StringBuilder sb = new StringBuilder();
+		boolean quoted = false;
+		int column = 0;
+		for (int i = 0; i <= line.length(); i++) {
+			char c = (i < line.length()) ? line.charAt(i) : ',';
+			if (quoted) {
+				if (c != '"')
+					sb.append(c);
+				else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					sb.append(c);
+					i++;
+				} else
+					quoted = false;
+			} else if (c == '"')
+				quoted = true;
+			else if (c == ',') {
+				if (column < header.length && sb.length() > 0)
+					row.put(header[column], sb.toString());
+				sb.setLength(0);
+				column++;
+			} else
+				sb.append(c);
+		}
+		return row;
+	}
+
+	/**
+	 * @return the values of a row of a {@link CampaignRunner} JSON file, by
+	 *         column.
+	 */
+	private static Map<String, String> readJson(String line) {
+		Map<String, String> row = new HashMap<String, String>();
+		Matcher m = JSON_FIELD.matcher(line);
+		while (m.find()) {
+			if (m.group(2).equals("null"))
+				continue;
+			if (m.group(3) == null) {
+				row.put(m.group(1), m.group(2));
+				continue;
+			}
+			String s = m.group(3);
+			StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < s.length(); i++) {
+				char c = s.charAt(i);
+				if (c == '\\' && i + 1 < s.length()) {
+					c = s.charAt(++i);
+					if (c == 'u' && i + 4 < s.length()) {
+						c = (char) Integer.parseInt(s.substring(i + 1, i + 5),
+								16);
+						i += 4;
+					}
+				}
+				sb.append(c);
+			}
+			row.put(m.group(1), sb.toString());
+		}
+		return row;
+	}
+
+	/**
+	 * @return the result described by a row of {@link CampaignRunner}.
+	 */
+	private static Result readRow(Map<String, String> row) {
+		String algorithm = row.get("algorithm");
+		String name = row.get("name");
+		if (algorithm == null || name == null)
+			throw new IllegalArgumentException("no algorithm or no name");
+		Result r = new Result(algorithm, name);
+		String status = row.get("status");
+		r.failed = status != null
+				&& !status.equals(CampaignRunner.Status.OK.toString());
+		if (row.get("answer") != null)
+			r.cost = Integer.valueOf(row.get("answer"));
+		String time = row.get("median");
+		if (time == null)
+			time = row.get("time");
+		if (time != null)
+			r.time = Double.valueOf(time);
+		if (row.get("cilow") != null)
+			r.timeLow = Double.valueOf(row.get("cilow"));
+		if (row.get("cihigh") != null)
+			r.timeHigh = Double.valueOf(row.get("cihigh"));
+		return r;
+	}
+
+	/*
+	 * --------------------------------------------- Comparisons
+	 * ---------------------------------------------
+	 */
+
+	/**
+	 * The comparison of the campaign with the baseline, over an instance or
+	 * over a group of instances. The values which are not known are null.
+	 */
+	public static class Comparison {
+
+		/**
+		 * Names of the columns of a csv file.
+		 */
+		public static final String[] COLUMNS = { "level", "algorithm",
+				"group", "name", "instances", "baselinecost", "cost",
+				"costratio", "baselinetime", "time", "timeratio",
+				"timeratiolow", "timeratiohigh", "status" };
+
+		public static final String INSTANCE = "instance";
+		public static final String GROUP = "group";
+
+		private String level;
+		private String algorithm;
+		private String group;
+		private String name;
+		private int instances;
+		private Long baselineCost;
+		private Long cost;
+		private Double costRatio;
+		private Double baselineTime;
+		private Double time;
+		private Double timeRatio;
+		private Double timeRatioLow;
+		private Double timeRatioHigh;
+		private Status status;
+
+		private Comparison(String level, String algorithm, String group,
+				String name) {
+			this.level = level;
+			this.algorithm = algorithm;
+			this.group = group;
+			this.name = name;
+			this.status = Status.OK;
+		}
+
+		/**
+		 * @return {@link #INSTANCE} or {@link #GROUP}.
+		 */
+		public String getLevel() {
+			return level;
+		}
+
+		public String getAlgorithm() {
+			return algorithm;
+		}
+
+		public String getGroup() {
+			return group;
+		}
+
+		/**
+		 * @return the name of the instance, or null for a group.
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return the number of compared instances.
+		 */
+		public int getInstances() {
+			return instances;
+		}
+
+		/**
+		 * @return the cost of the baseline, summed over the instances.
+		 */
+		public Long getBaselineCost() {
+			return baselineCost;
+		}
+
+		/**
+		 * @return the cost of the campaign, summed over the instances.
+		 */
+		public Long getCost() {
+			return cost;
+		}
+
+		/**
+		 * @return the cost of the campaign divided by the cost of the
+		 *         baseline.
+		 */
+		public Double getCostRatio() {
+			return costRatio;
+		}
+
+		/**
+		 * @return the running time of the baseline in ms, summed over the
+		 *         instances.
+		 */
+		public Double getBaselineTime() {
+			return baselineTime;
+		}
+
+		/**
+		 * @return the running time of the campaign in ms, summed over the
+		 *         instances.
+		 */
+		public Double getTime() {
+			return time;
+		}
+
+		/**
+		 * @return the running time of the campaign divided by the running time
+		 *         of the baseline, or the geometric mean of the ratios of the
+		 *         instances for a group. It is null if the times are too small
+		 *         to be compared.
+		 */
+		public Double getTimeRatio() {
+			return timeRatio;
+		}
+
+		/**
+		 * @return the lower bound of the confidence interval of the time
+		 *         ratio, or null if it is unknown.
+		 */
+		public Double getTimeRatioLow() {
+			return timeRatioLow;
+		}
+
+		/**
+		 * @return the upper bound of the confidence interval of the time
+		 *         ratio, or null if it is unknown.
+		 */
+		public Double getTimeRatioHigh() {
+			return timeRatioHigh;
+		}
+
+		public Status getStatus() {
+			return status;
+		}
+
+		private Object[] values() {
+			return new Object[] { level, algorithm, group, name, instances,
+					baselineCost, cost, round(costRatio), round(baselineTime),
+					round(time), round(timeRatio), round(timeRatioLow),
+					round(timeRatioHigh), status };
+		}
+
+		/**
+		 * @return the line of a csv file describing this comparison, an
+		 *         unknown value being empty.
+		 */
+		public String toCsv() {
+			return CampaignRunner.toCsv(values());
+		}
+
+		/**
+		 * @return the JSON object describing this comparison.
+		 */
+		public String toJson() {
+			return CampaignRunner.toJson(COLUMNS, values());
+		}
+
+		@Override
+		public String toString() {
+			return toCsv();
+		}
+
+		private static Double round(Double d) {
+			return (d == null) ? null : Math.round(d * 1000) / 1000.0;
+		}
+	}
+
+	private double timeThreshold;
+	private double costThreshold;
+	private double minTime;
+
+	public RegressionGate() {
+		this(DEFAULT_TIME_THRESHOLD, DEFAULT_COST_THRESHOLD, DEFAULT_MIN_TIME);
+	}
+
+	/**
+	 * @param timeThreshold
+	 *            : maximum accepted relative increase of the running time.
+	 * @param costThreshold
+	 *            : maximum accepted relative increase of the cost.
+	 * @param minTime
+	 *            : running time, in ms, below which the times are not
+	 *            distinguished.
+	 */
+	public RegressionGate(double timeThreshold, double costThreshold,
+			double minTime) {
+		this.timeThreshold = timeThreshold;
+		this.costThreshold = costThreshold;
+		this.minTime = minTime;
+	}
+
+	public double getTimeThreshold() {
+		return timeThreshold;
+	}
+
+	public double getCostThreshold() {
+		return costThreshold;
+	}
+
+	public double getMinTime() {
+		return minTime;
+	}
+
+	/**
+	 * @param name
+	 * @return the group of the instance with that name : its SteinLib group,
+	 *         or its name without its last "-" part, or its name.
+	 */
+	public static String getGroup(String name) {
+		SteinLibInstancesGroups slig = SteinLibInstancesGroups.getGroup(name);
+		if (slig != null)
+			return slig.toString();
+		int i = name.lastIndexOf('-');
+		return (i > 0) ? name.substring(0, i) : name;
+	}
+
+	/**
+	 * Compare the results of a campaign with the results of a baseline.
+	 *
+	 * @param baseline
+	 * @param campaign
+	 * @return the comparison of each instance of the campaign solved by the
+	 *         baseline, in the order of the campaign, then the comparison of
+	 *         each group of those instances.
+	 */
+	public List<Comparison> compare(List<Result> baseline,
+			List<Result> campaign) {
+		Map<String, Result> baselines = new HashMap<String, Result>();
+		for (Result r : baseline)
+			if (!r.failed)
+				baselines.put(r.getKey(), r);
+
+		List<Comparison> comparisons = new ArrayList<Comparison>();
+		LinkedHashMap<String, List<Comparison>> groups = new LinkedHashMap<String, List<Comparison>>();
+		for (Result r : campaign) {
+			Result b = baselines.get(r.getKey());
+			if (b == null)
+				continue;
+			Comparison c = compare(b, r);
+			comparisons.add(c);
+			String key = r.algorithm + " " + c.group;
+			List<Comparison> group = groups.get(key);
+			if (group == null) {
+				group = new ArrayList<Comparison>();
+				groups.put(key, group);
+			}
+			group.add(c);
+		}
+		for (List<Comparison> group : groups.values())
+			comparisons.add(compareGroup(group));
+		return comparisons;
+	}
+
+	private Comparison compare(Result b, Result r) {
+		Comparison c = new Comparison(Comparison.INSTANCE, r.algorithm,
+				getGroup(r.name), r.name);
+		c.instances = 1;
+		if (b.cost != null)
+			c.baselineCost = (long) b.cost;
+		c.baselineTime = b.time;
+		if (r.failed) {
+			c.status = Status.FAILED;
+			return c;
+		}
+		if (r.cost != null)
+			c.cost = (long) r.cost;
+		c.time = r.time;
+		if (c.cost != null && c.baselineCost != null) {
+			if (c.baselineCost != 0)
+				c.costRatio = (double) c.cost / c.baselineCost;
+			if (c.cost > c.baselineCost * (1 + costThreshold))
+				c.status = Status.COST_REGRESSION;
+		}
+		if (c.time != null && c.baselineTime != null
+				&& Math.max(c.time, c.baselineTime) >= minTime) {
+			double base = Math.max(c.baselineTime, minTime);
+			c.timeRatio = Math.max(c.time, minTime) / base;
+			if (r.timeLow != null && r.timeHigh != null) {
+				// The widest ratio of the two intervals, if the baseline has one.
+				double high = (b.timeHigh == null) ? base : Math.max(
+						b.timeHigh, minTime);
+				double low = (b.timeLow == null) ? base : Math.max(b.timeLow,
+						minTime);
+				c.timeRatioLow = Math.max(r.timeLow, minTime) / high;
+				c.timeRatioHigh = Math.max(r.timeHigh, minTime) / low;
+				if (c.status == Status.OK
+						&& c.timeRatioLow > 1 + timeThreshold)
+					c.status = Status.SLOWDOWN;
+			}
+		}
+		return c;
+	}
+
+	private Comparison compareGroup(List<Comparison> instances) {
+		Comparison first = instances.get(0);
+		Comparison g = new Comparison(Comparison.GROUP, first.algorithm,
+				first.group, null);
+		long baselineCost = 0, cost = 0;
+		double baselineTime = 0, time = 0;
+		boolean failed = false;
+		ArrayList<Double> logRatios = new ArrayList<Double>();
+		for (Comparison c : instances) {
+			if (c.status == Status.FAILED) {
+				failed = true;
+				continue;
+			}
+			g.instances++;
+			if (c.cost != null && c.baselineCost != null) {
+				cost += c.cost;
+				baselineCost += c.baselineCost;
+			}
+			if (c.time != null && c.baselineTime != null) {
+				time += c.time;
+				baselineTime += c.baselineTime;
+			}
+			if (c.timeRatio != null)
+				logRatios.add(Math.log(c.timeRatio));
+		}
+		g.baselineCost = baselineCost;
+		g.cost = cost;
+		if (baselineCost != 0)
+			g.costRatio = (double) cost / baselineCost;
+		g.baselineTime = baselineTime;
+		g.time = time;
+
+		double[] logs = new double[logRatios.size()];
+		for (int i = 0; i < logs.length; i++)
+			logs[i] = logRatios.get(i);
+		if (logs.length > 0)
+			g.timeRatio = Math.exp(Statistics.mean(logs));
+		double[] ci = Statistics.bootstrapMeanInterval(logs);
+		if (ci != null) {
+			g.timeRatioLow = Math.exp(ci[0]);
+			g.timeRatioHigh = Math.exp(ci[1]);
+		}
+
+		if (failed)
+			g.status = Status.FAILED;
+		else if (cost > baselineCost * (1 + costThreshold))
+			g.status = Status.COST_REGRESSION;
+		else if (g.timeRatioLow != null && g.timeRatioLow > 1 + timeThreshold)
+			g.status = Status.SLOWDOWN;
+		return g;
+	}
+
+	/**
+	 * @param c
+	 * @return true if c is a failure or a cost regression, or a slowdown of a
+	 *         group.
+	 */
+	public static boolean isRegression(Comparison c) {
+		return c.getStatus() != Status.OK
+				&& !(c.getStatus() == Status.SLOWDOWN && c.getLevel().equals(
+						Comparison.INSTANCE));
+	}
+
+	/**
+	 * Write the comparisons in the file outputPath, or print them if it is
+	 * null. The file is a JSON array if its name ends with
+	 * {@link CampaignRunner#JSON_EXTENSION}, and a csv file otherwise.
+	 *
+	 * @param comparisons
+	 * @param outputPath
+	 */
+	public static void write(List<Comparison> comparisons, String outputPath) {
+		StringBuilder header = new StringBuilder();
+		for (int i = 0; i < Comparison.COLUMNS.length; i++)
+			header.append(i > 0 ? "," : "").append(Comparison.COLUMNS[i]);
+		if (outputPath == null) {
+			System.out.println("# " + header);
+			for (Comparison c : comparisons)
+				System.out.println(c.toCsv());
+			return;
+		}
+		boolean json = outputPath.endsWith(CampaignRunner.JSON_EXTENSION);
+		FileManager fm = new FileManager();
+		fm.openErase(outputPath);
+		fm.writeln(json ? "[" : header.toString());
+		for (int i = 0; i < comparisons.size(); i++) {
+			Comparison c = comparisons.get(i);
+			if (json)
+				fm.writeln("  " + c.toJson()
+						+ (i < comparisons.size() - 1 ? "," : ""));
+			else
+				fm.writeln(c.toCsv());
+		}
+		if (json)
+			fm.writeln("]");
+		fm.closeWrite();
+	}
+
+	/**
+	 * Compare a campaign with a baseline, and exit with the status 1 if a
+	 * regression is found (see {@link #isRegression(Comparison)}), 2 if the
+	 * files cannot be read, and 0 otherwise.
+	 * <p>
+	 * Usage : RegressionGate [-slowdown ratio] [-costincrease ratio]
+	 * [-mintime ms] [-output file] &lt;baseline file&gt; [&lt;baseline file&gt;
+	 * ...] &lt;campaign file&gt;
+	 * <p>
+	 * The ratios are the thresholds : 0.1 accepts a slowdown of 10%. The
+	 * comparisons are printed if no output file is given, and the number of
+	 * comparisons of each status is printed at the end, with the regressions.
+	 *
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		double timeThreshold = DEFAULT_TIME_THRESHOLD;
+		double costThreshold = DEFAULT_COST_THRESHOLD;
+		double minTime = DEFAULT_MIN_TIME;
+		String output = null;
+		ArrayList<String> positional = new ArrayList<String>();
+		try {
+			for (int i = 0; i < args.length; i++) {
+				if (args[i].equals("-slowdown"))
+					timeThreshold = Double.valueOf(args[++i]);
+				else if (args[i].equals("-costincrease"))
+					costThreshold = Double.valueOf(args[++i]);
+				else if (args[i].equals("-mintime"))
+					minTime = Double.valueOf(args[++i]);
+				else if (args[i].equals("-output"))
+					output = args[++i];
+				else
+					positional.add(args[i]);
+			}
+		} catch (RuntimeException e) {
+			positional.clear();
+			System.err.println(e.getMessage());
+		}
+		if (positional.size() < 2) {
+			System.err.println("Usage : RegressionGate [-slowdown ratio]"
+					+ " [-costincrease ratio] [-mintime ms] [-output file]"
+					+ " <baseline file> [<baseline file> ...]"
+					+ " <campaign file>");
+			System.exit(2);
+		}
+
+		List<Result> baseline = new ArrayList<Result>();
+		List<Result> campaign;
+		try {
+			for (String path : positional.subList(0, positional.size() - 1))
+				baseline.addAll(readResults(path));
+			campaign = readResults(positional.get(positional.size() - 1));
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.exit(2);
+			return;
+		}
+
+		RegressionGate gate = new RegressionGate(timeThreshold,
+				costThreshold, minTime);
+		List<Comparison> comparisons = gate.compare(baseline, campaign);
+		write(comparisons, output);
+
+		int[] counts = new int[Status.values().length];
+		int instances = 0;
+		for (Comparison c : comparisons)
+			if (c.getLevel().equals(Comparison.INSTANCE)) {
+				counts[c.getStatus().ordinal()]++;
+				instances++;
+			}
+		StringBuilder sb = new StringBuilder("# " + instances + " of "
+				+ campaign.size() + " results compared :");
+		for (Status s : Status.values())
+			sb.append(" ").append(counts[s.ordinal()]).append(" ").append(s);
+		System.out.println(sb);
+		int regressions = 0;
+		for (Comparison c : comparisons)
+			if (isRegression(c)) {
+				if (regressions++ == 0)
+					System.out.println("# Regressions :");
+				System.out.println("# " + c.toCsv());
+			}
+		System.exit(regressions == 0 ? 0 : 1);
+	}
+}
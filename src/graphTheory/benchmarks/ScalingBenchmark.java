@@ -0,0 +1,982 @@
+package graphTheory.benchmarks;
+
+import graphTheory.algorithms.Cancellation;
+import graphTheory.algorithms.RunStats;
+import graphTheory.algorithms.steinerProblems.steinerArborescenceApproximation.SteinerArborescenceApproximationAlgorithm;
+import graphTheory.generators.RandomSparseSteinerDirectedGraphGenerator;
+import graphTheory.generators.steinLib.STPGenerator;
+import graphTheory.instances.steiner.classic.SteinerDirectedInstance;
+import graphTheory.steinLib.SteinLibTransformationPipeline;
+import graphTheory.utils.FileManager;
+import graphTheory.utils.Math2;
+import graphTheory.utils.probabilities.DUniformLaw;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A benchmark measuring how the running time and the memory of the
+ * {@link SteinerArborescenceApproximationAlgorithm}s grow with the size of the
+ * instances, over the sparse random instances of a
+ * {@link RandomSparseSteinerDirectedGraphGenerator}.
+ * <p>
+ * A point of the benchmark is a number of nodes, a mean output degree and a
+ * number of terminals. For each point, {@link #getInstances()} instances are
+ * built, seeded by the point and the index of the instance, so that every
+ * algorithm runs over the same instances. Each algorithm runs once over each
+ * instance, in a new JVM, so that the memory of an instance and of a run do
+ * not depend on the previous runs. Before the measured run, the algorithm
+ * runs {@link #getWarmupRuns()} times over a small instance of the same
+ * degree, letting the JIT compiler compile it.
+ * <p>
+ * The measures of a run are its wall time and CPU time (see {@link RunStats}),
+ * the heap used by the instance, and the peak heap used during the run (the
+ * instance, the working set of the algorithm and its garbage), both without
+ * the heap used by the JVM before the instance is built. The peak heap is the
+ * sum of the peaks of the memory pools of the heap, which may be reached at
+ * different times : it is an upper bound of the peak heap. A run, or a
+ * warm-up run, longer than {@link #getTimeout()} is stopped by a
+ * {@link Cancellation}, or abandoned if it does not stop itself; the
+ * algorithm is then not run over the bigger instances with the same degree
+ * and the same number of terminals. A JVM which does not end after
+ * {@link #getGenerationTimeout()} ms, plus the timeout of each run, is
+ * stopped. A run may also end with an {@link OutOfMemoryError}, which depends
+ * on the options of the JVM (see {@link #getJvmArgs()}).
+ * <p>
+ * For each algorithm, degree and number of terminals, the growth exponents of
+ * the median time and of the median peak memory with the number of nodes are
+ * fitted with {@link Statistics#fitPowerLaw(double[], double[])}, over the
+ * numbers of nodes for which every run ended.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class ScalingBenchmark {
+
+	public static final int[] DEFAULT_NODES = { 1000, 10000, 100000, 1000000 };
+	public static final double[] DEFAULT_DEGREES = { 5 };
+	public static final int[] DEFAULT_TERMINALS = { 10, 100 };
+	public static final int DEFAULT_INSTANCES = 3;
+	public static final int DEFAULT_WARMUP_RUNS = 3;
+
+	/**
+	 * Default maximum running time of a run, in ms : 1 minute.
+	 */
+	public static final long DEFAULT_TIMEOUT = 60000;
+
+	/**
+	 * Default maximum time given to a JVM to build its instances, in ms : 10
+	 * minutes.
+	 */
+	public static final long DEFAULT_GENERATION_TIMEOUT = 600000;
+
+	/**
+	 * Number of nodes of the instance of the warm-up runs.
+	 */
+	public static final int WARMUP_NODES = 1000;
+
+	/**
+	 * Prefix of the line printed by a fork describing its run.
+	 */
+	private static final String RUN_LINE = "RUN ";
+
+	/**
+	 * The status of a run.
+	 */
+	public enum Status {
+		OK,
+		/**
+		 * The run was longer than the timeout.
+		 */
+		TIMEOUT,
+		/**
+		 * The JVM ran out of memory during the building of the instance or
+		 * during the run.
+		 */
+		OUT_OF_MEMORY,
+		/**
+		 * The algorithm threw an exception, or the fork failed.
+		 */
+		ERROR,
+		/**
+		 * The algorithm timed out or ran out of memory over a smaller
+		 * instance.
+		 */
+		SKIPPED
+	}
+
+	/*
+	 * --------------------------------------------- Runs
+	 * ---------------------------------------------
+	 */
+
+	/**
+	 * The measures of the run of an algorithm over an instance. The values
+	 * which are not known are -1.
+	 */
+	public static class Run {
+
+		/**
+		 * Names of the columns of a csv file.
+		 */
+		public static final String[] COLUMNS = { "algorithm", "nodes",
+				"degree", "terminals", "instance", "arcs", "status", "time",
+				"cputime", "instancememory", "peakmemory", "cost", "message" };
+
+		private String algorithm;
+		private int nodes;
+		private double degree;
+		private int terminals;
+		private int instance;
+		private long arcs;
+		private Status status;
+		private double time;
+		private double cpuTime;
+		private long instanceMemory;
+		private long peakMemory;
+		private long cost;
+		private String message;
+
+		private Run(String algorithm, int nodes, double degree, int terminals,
+				int instance) {
+			this.algorithm = algorithm;
+			this.nodes = nodes;
+			this.degree = degree;
+			this.terminals = terminals;
+			this.instance = instance;
+			this.arcs = -1;
+			this.time = -1;
+			this.cpuTime = -1;
+			this.instanceMemory = -1;
+			this.peakMemory = -1;
+			this.cost = -1;
+		}
+
+		public String getAlgorithm() {
+			return algorithm;
+		}
+
+		public int getNodes() {
+			return nodes;
+		}
+
+		public double getDegree() {
+			return degree;
+		}
+
+		public int getTerminals() {
+			return terminals;
+		}
+
+		public int getInstance() {
+			return instance;
+		}
+
+		public long getArcs() {
+			return arcs;
+		}
+
+		public Status getStatus() {
+			return status;
+		}
+
+		/**
+		 * @return the wall time of the run, in ms.
+		 */
+		public double getTime() {
+			return time;
+		}
+
+		/**
+		 * @return the CPU time of the run, in ms.
+		 */
+		public double getCpuTime() {
+			return cpuTime;
+		}
+
+		/**
+		 * @return the heap used by the instance, in bytes.
+		 */
+		public long getInstanceMemory() {
+			return instanceMemory;
+		}
+
+		/**
+		 * @return an upper bound of the peak heap used during the run, the
+		 *         instance included, in bytes : the sum of the peaks of the
+		 *         memory pools.
+		 */
+		public long getPeakMemory() {
+			return peakMemory;
+		}
+
+		public long getCost() {
+			return cost;
+		}
+
+		public String getMessage() {
+			return message;
+		}
+
+		/**
+		 * @return true if r has the same algorithm, degree and number of
+		 *         terminals as this.
+		 */
+		private boolean isSameSeries(Run r) {
+			return algorithm.equals(r.algorithm) && degree == r.degree
+					&& terminals == r.terminals;
+		}
+
+		/**
+		 * @return true if r has the same algorithm and point as this.
+		 */
+		private boolean isSamePoint(Run r) {
+			return isSameSeries(r) && nodes == r.nodes;
+		}
+
+		/**
+		 * @return the line of a csv file describing this run.
+		 */
+		public String toCsv() {
+			return algorithm + "," + nodes + "," + format(degree) + ","
+					+ terminals + "," + instance + "," + arcs + "," + status
+					+ "," + format(time) + "," + format(cpuTime) + ","
+					+ instanceMemory + "," + peakMemory + "," + cost + ","
+					+ ((message == null) ? "" : "\""
+							+ message.replace("\"", "\"\"") + "\"");
+		}
+
+		/**
+		 * @return the line printed by a fork describing this run.
+		 */
+		private String toRunLine() {
+			return RUN_LINE + status + " " + arcs + " " + time + " " + cpuTime
+					+ " " + instanceMemory + " " + peakMemory + " " + cost
+					+ ((message == null) ? "" : " "
+							+ message.replace('\n', ' '));
+		}
+
+		/**
+		 * Read the line printed by a fork.
+		 */
+		private void readRunLine(String line) {
+			String[] values = line.substring(RUN_LINE.length()).split(" ", 8);
+			status = Status.valueOf(values[0]);
+			arcs = Long.valueOf(values[1]);
+			time = Double.valueOf(values[2]);
+			cpuTime = Double.valueOf(values[3]);
+			instanceMemory = Long.valueOf(values[4]);
+			peakMemory = Long.valueOf(values[5]);
+			cost = Long.valueOf(values[6]);
+			message = (values.length > 7) ? values[7] : null;
+		}
+	}
+
+	/**
+	 * The growth of the running time and of the memory of an algorithm, for a
+	 * degree and a number of terminals.
+	 */
+	public static class Fit {
+
+		/**
+		 * Names of the columns of a csv file.
+		 */
+		public static final String[] COLUMNS = { "algorithm", "degree",
+				"terminals", "sizes", "maxnodes", "timeexponent", "timer2",
+				"memoryexponent", "memoryr2" };
+
+		private String algorithm;
+		private double degree;
+		private int terminals;
+		private int sizes;
+		private int maxNodes;
+		private double[] time;
+		private double[] memory;
+
+		private Fit(String algorithm, double degree, int terminals) {
+			this.algorithm = algorithm;
+			this.degree = degree;
+			this.terminals = terminals;
+		}
+
+		public String getAlgorithm() {
+			return algorithm;
+		}
+
+		public double getDegree() {
+			return degree;
+		}
+
+		public int getTerminals() {
+			return terminals;
+		}
+
+		/**
+		 * @return the number of numbers of nodes of the fit.
+		 */
+		public int getSizes() {
+			return sizes;
+		}
+
+		/**
+		 * @return the biggest number of nodes for which every run ended, or
+		 *         0.
+		 */
+		public int getMaxNodes() {
+			return maxNodes;
+		}
+
+		/**
+		 * @return the growth exponent of the running time, or NaN if there
+		 *         are less than two sizes.
+		 */
+		public double getTimeExponent() {
+			return (time == null) ? Double.NaN : time[0];
+		}
+
+		public double getTimeR2() {
+			return (time == null) ? Double.NaN : time[2];
+		}
+
+		/**
+		 * @return the growth exponent of the peak memory, or NaN if there are
+		 *         less than two sizes.
+		 */
+		public double getMemoryExponent() {
+			return (memory == null) ? Double.NaN : memory[0];
+		}
+
+		public double getMemoryR2() {
+			return (memory == null) ? Double.NaN : memory[2];
+		}
+
+		/**
+		 * @return the line of a csv file describing this fit.
+		 */
+		public String toCsv() {
+			return algorithm + "," + format(degree) + "," + terminals + ","
+					+ sizes + "," + maxNodes + ","
+					+ format(getTimeExponent()) + "," + format(getTimeR2())
+					+ "," + format(getMemoryExponent()) + ","
+					+ format(getMemoryR2());
+		}
+	}
+
+	/*
+	 * --------------------------------------------- Benchmark
+	 * ---------------------------------------------
+	 */
+
+	private int instances;
+	private int warmupRuns;
+	private long timeout;
+	private long generationTimeout;
+	private long seed;
+	private List<String> jvmArgs;
+
+	public ScalingBenchmark() {
+		instances = DEFAULT_INSTANCES;
+		warmupRuns = DEFAULT_WARMUP_RUNS;
+		timeout = DEFAULT_TIMEOUT;
+		generationTimeout = DEFAULT_GENERATION_TIMEOUT;
+		seed = SteinLibTransformationPipeline.DEFAULT_SEED;
+		jvmArgs = new ArrayList<String>();
+	}
+
+	/**
+	 * @return the number of instances of each point.
+	 */
+	public int getInstances() {
+		return instances;
+	}
+
+	public void setInstances(int instances) {
+		this.instances = Math.max(1, instances);
+	}
+
+	public int getWarmupRuns() {
+		return warmupRuns;
+	}
+
+	public void setWarmupRuns(int warmupRuns) {
+		this.warmupRuns = Math.max(0, warmupRuns);
+	}
+
+	/**
+	 * @return the maximum running time of a run, in ms.
+	 */
+	public long getTimeout() {
+		return timeout;
+	}
+
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * @return the maximum time given to a JVM to build the instance of its
+	 *         run and the instance of its warm-up runs, in ms. The JVM is
+	 *         stopped if it does not end after that time plus the timeout
+	 *         and the {@link CampaignRunner#CANCELLATION_GRACE} of each run.
+	 */
+	public long getGenerationTimeout() {
+		return generationTimeout;
+	}
+
+	public void setGenerationTimeout(long generationTimeout) {
+		this.generationTimeout = generationTimeout;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * @return the options of the JVMs running the algorithms, as "-Xmx8g".
+	 */
+	public List<String> getJvmArgs() {
+		return jvmArgs;
+	}
+
+	/**
+	 * @return the instance of index instance of the point (nodes, degree,
+	 *         terminals), built with the given seed.
+	 */
+	public static SteinerDirectedInstance generate(int nodes, double degree,
+			int terminals, int instance, long seed) {
+		RandomSparseSteinerDirectedGraphGenerator gen = new RandomSparseSteinerDirectedGraphGenerator();
+		gen.setNumberOfVerticesLaw(nodes);
+		gen.setDegree(degree);
+		gen.setNumberOfRequiredVerticesLaw(terminals);
+		gen.setCostLaw(new DUniformLaw(1, BenchmarkInput.RANDOM_MAX_COST));
+
+		long h = ((nodes * 31L + Double.doubleToLongBits(degree)) * 31L + terminals)
+				* 31L + instance;
+		Math2.setSeed(seed * 0x9E3779B97F4A7C15L + h);
+		SteinerDirectedInstance sdi;
+		try {
+			sdi = gen.generate();
+		} finally {
+			Math2.clearSeed();
+		}
+		sdi.getGraph().defineParam(STPGenerator.OUTPUT_NAME_PARAM_NAME,
+				"sparse-" + nodes + "-" + format(degree) + "-" + terminals
+						+ "-" + instance);
+		return sdi;
+	}
+
+	/**
+	 * @return the heap currently used, in bytes.
+	 */
+	private static long getUsedHeap() {
+		long used = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if (pool.getType() == MemoryType.HEAP)
+				used += pool.getUsage().getUsed();
+		return used;
+	}
+
+	/**
+	 * @return the sum of the peak heaps used by the memory pools since their
+	 *         last reset, in bytes. As the pools may reach their peaks at
+	 *         different times, it is an upper bound of the peak heap.
+	 */
+	private static long getPeakHeap() {
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if (pool.getType() == MemoryType.HEAP)
+				peak += pool.getPeakUsage().getUsed();
+		return peak;
+	}
+
+	private static void resetPeakHeap() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if (pool.getType() == MemoryType.HEAP)
+				pool.resetPeakUsage();
+	}
+
+	private static long collectAndGetUsedHeap() {
+		System.gc();
+		System.gc();
+		return getUsedHeap();
+	}
+
+	/**
+	 * Run {@link #getWarmupRuns()} times a new algorithm over a small
+	 * instance, which is not referenced anymore at the end, so that its state
+	 * is not measured. Each run stops itself at the timeout, and the next
+	 * runs are then not done.
+	 */
+	private void warmup(String algorithm, int nodes, double degree,
+			int terminals) {
+		if (warmupRuns == 0)
+			return;
+		SteinerArborescenceApproximationAlgorithm alg = Algorithms
+				.getAlgorithm(algorithm);
+		alg.setCheckFeasibility(false);
+		alg.setInstance(generate(Math.min(nodes, WARMUP_NODES), degree,
+				Math.min(terminals, WARMUP_NODES / 10), -1, seed));
+		for (int i = 0; i < warmupRuns; i++) {
+			alg.setCancellation(new Cancellation(timeout));
+			alg.compute();
+			if (alg.getRunStats().getStatus() != RunStats.Status.COMPLETED)
+				break;
+		}
+	}
+
+	/**
+	 * Run the algorithm over the instance of index instance of the point
+	 * (nodes, degree, terminals) in the current JVM. The run is done by
+	 * another thread, and stops itself at the timeout. If it does not stop
+	 * {@link CampaignRunner#CANCELLATION_GRACE} ms after the timeout, the
+	 * thread is abandoned : this JVM should then be stopped.
+	 */
+	public Run runInProcess(String algorithm, int nodes, double degree,
+			int terminals, int instance) {
+		Run run = new Run(algorithm, nodes, degree, terminals, instance);
+		final SteinerArborescenceApproximationAlgorithm alg;
+		try {
+			long jvmHeap = collectAndGetUsedHeap();
+			SteinerDirectedInstance sdi = generate(nodes, degree, terminals,
+					instance, seed);
+			run.arcs = sdi.getGraph().getNumberOfEdges();
+			run.instanceMemory = collectAndGetUsedHeap() - jvmHeap;
+
+			// After the measure of the instance, as some algorithms keep
+			// memory after their first runs (the threads of their pools).
+			warmup(algorithm, nodes, degree, terminals);
+			alg = Algorithms.getAlgorithm(algorithm);
+			alg.setCheckFeasibility(false);
+			alg.setInstance(sdi);
+			sdi = null;
+			collectAndGetUsedHeap();
+
+			final Throwable[] error = new Throwable[1];
+			Thread t = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						alg.compute();
+					} catch (Throwable e) {
+						error[0] = e;
+					}
+				}
+			}, "Scaling run");
+			t.setDaemon(true);
+			alg.setCancellation(new Cancellation(timeout));
+			resetPeakHeap();
+			t.start();
+			t.join(timeout + CampaignRunner.CANCELLATION_GRACE);
+			if (t.isAlive()) {
+				run.status = Status.TIMEOUT;
+				run.time = timeout;
+				return run;
+			}
+			run.peakMemory = getPeakHeap() - jvmHeap;
+			if (error[0] != null)
+				throw error[0];
+		} catch (OutOfMemoryError e) {
+			run.status = Status.OUT_OF_MEMORY;
+			return run;
+		} catch (Throwable e) {
+			run.status = Status.ERROR;
+			run.message = e.toString();
+			return run;
+		}
+		RunStats stats = alg.getRunStats();
+		run.time = stats.getWallTime() / 1e6;
+		if (stats.getCpuTime() >= 0)
+			run.cpuTime = stats.getCpuTime() / 1e6;
+		if (stats.getStatus() != RunStats.Status.COMPLETED) {
+			run.status = Status.TIMEOUT;
+			return run;
+		}
+		if (alg.getCost() != null)
+			run.cost = alg.getCost();
+		run.status = Status.OK;
+		return run;
+	}
+
+	/**
+	 * Run the algorithm over the instance of index instance of the point
+	 * (nodes, degree, terminals) in a new JVM, with the class path of the
+	 * current JVM. The JVM is stopped if it does not end in time (see
+	 * {@link #getGenerationTimeout()}).
+	 */
+	public Run runForked(String algorithm, int nodes, double degree,
+			int terminals, int instance) {
+		Run run = new Run(algorithm, nodes, degree, terminals, instance);
+		List<String> command = new ArrayList<String>();
+		command.add(new File(new File(System.getProperty("java.home"), "bin"),
+				"java").getPath());
+		command.addAll(jvmArgs);
+		command.add("-cp");
+		command.add(System.getProperty("java.class.path"));
+		command.add(ScalingBenchmark.class.getName());
+		command.addAll(Arrays.asList("-a", algorithm, "-n",
+				String.valueOf(nodes), "-d", format(degree), "-k",
+				String.valueOf(terminals), "-instance",
+				String.valueOf(instance), "-warmup",
+				String.valueOf(warmupRuns), "-timeout",
+				String.valueOf(timeout), "-seed", String.valueOf(seed),
+				"-fork"));
+
+		ProcessBuilder pb = new ProcessBuilder(command);
+		pb.redirectErrorStream(true);
+		Process p = null;
+		final long budget = generationTimeout + (warmupRuns + 1)
+				* (timeout + CampaignRunner.CANCELLATION_GRACE);
+		final AtomicBoolean destroyed = new AtomicBoolean(false);
+		Timer timer = new Timer("Scaling fork watchdog", true);
+		try {
+			p = pb.start();
+			final Process fork = p;
+			timer.schedule(new TimerTask() {
+				@Override
+				public void run() {
+					destroyed.set(true);
+					fork.destroy();
+				}
+			}, budget);
+			BufferedReader br = new BufferedReader(new InputStreamReader(
+					p.getInputStream()));
+			try {
+				String line;
+				while ((line = br.readLine()) != null) {
+					if (line.startsWith(RUN_LINE))
+						run.readRunLine(line);
+					else {
+						System.err.println(line);
+						if (line.contains(OutOfMemoryError.class.getName()))
+							run.status = Status.OUT_OF_MEMORY;
+					}
+				}
+			} finally {
+				br.close();
+			}
+			int exitValue = p.waitFor();
+			if (run.status == null && destroyed.get()) {
+				run.status = Status.TIMEOUT;
+				run.time = timeout;
+				run.message = "The fork was stopped after " + budget + " ms";
+			} else if (run.status == null) {
+				run.status = Status.ERROR;
+				run.message = "The fork exited with " + exitValue;
+			}
+		} catch (IOException e) {
+			run.status = Status.ERROR;
+			run.message = e.getMessage();
+		} catch (InterruptedException e) {
+			p.destroy();
+			Thread.currentThread().interrupt();
+			run.status = Status.ERROR;
+			run.message = "Interrupted";
+		} finally {
+			timer.cancel();
+		}
+		return run;
+	}
+
+	/**
+	 * Run each algorithm over the instances of each point (n, d, k), for each
+	 * n in nodes, d in degrees and k in terminals, and print each run as soon
+	 * as it ends.
+	 *
+	 * @return the runs, by algorithm, degree, number of terminals, number of
+	 *         nodes and instance.
+	 */
+	public List<Run> run(List<String> algorithms, int[] nodes,
+			double[] degrees, int[] terminals) {
+		int[] sortedNodes = nodes.clone();
+		Arrays.sort(sortedNodes);
+		List<Run> runs = new ArrayList<Run>();
+		System.out.println("# " + join(Run.COLUMNS));
+		for (String algorithm : algorithms)
+			for (double d : degrees)
+				for (int k : terminals) {
+					boolean skip = false;
+					for (int n : sortedNodes) {
+						for (int i = 0; i < instances; i++) {
+							Run run;
+							if (skip) {
+								run = new Run(algorithm, n, d, k, i);
+								run.status = Status.SKIPPED;
+							} else
+								run = runForked(algorithm, n, d, k, i);
+							// The bigger instances would also be too long or
+							// too big.
+							skip |= run.status == Status.TIMEOUT
+									|| run.status == Status.OUT_OF_MEMORY;
+							runs.add(run);
+							System.out.println(run.toCsv());
+						}
+					}
+				}
+		return runs;
+	}
+
+	/**
+	 * @return the growth exponents of each algorithm, for each degree and
+	 *         number of terminals of the runs.
+	 */
+	public static List<Fit> fit(List<Run> runs) {
+		List<Fit> fits = new ArrayList<Fit>();
+		int i = 0;
+		while (i < runs.size()) {
+			Run first = runs.get(i);
+			Fit fit = new Fit(first.algorithm, first.degree, first.terminals);
+			List<Double> sizes = new ArrayList<Double>();
+			List<Double> times = new ArrayList<Double>();
+			List<Double> memories = new ArrayList<Double>();
+			// The runs of the fit are consecutive, and sorted by nodes.
+			while (i < runs.size() && first.isSameSeries(runs.get(i))) {
+				Run firstOfPoint = runs.get(i);
+				List<Run> point = new ArrayList<Run>();
+				while (i < runs.size() && firstOfPoint.isSamePoint(runs.get(i)))
+					point.add(runs.get(i++));
+				double[] t = new double[point.size()];
+				double[] m = new double[point.size()];
+				boolean ended = true;
+				for (int j = 0; j < t.length; j++) {
+					ended &= point.get(j).status == Status.OK;
+					t[j] = point.get(j).time;
+					m[j] = point.get(j).peakMemory;
+				}
+				if (!ended)
+					continue;
+				fit.maxNodes = firstOfPoint.nodes;
+				sizes.add((double) firstOfPoint.nodes);
+				times.add(Statistics.median(t));
+				memories.add(Statistics.median(m));
+			}
+			fit.sizes = sizes.size();
+			double[] x = toArray(sizes);
+			fit.time = Statistics.fitPowerLaw(x, toArray(times));
+			fit.memory = Statistics.fitPowerLaw(x, toArray(memories));
+			fits.add(fit);
+		}
+		return fits;
+	}
+
+	private static double[] toArray(List<Double> values) {
+		double[] array = new double[values.size()];
+		for (int i = 0; i < array.length; i++)
+			array[i] = values.get(i);
+		return array;
+	}
+
+	/**
+	 * Print a table of the median measures of each point, and a table of the
+	 * fits.
+	 */
+	public static void printResults(List<Run> runs, List<Fit> fits) {
+		System.out.println(String.format(Locale.US,
+				"%-20s %9s %6s %6s %10s %4s %12s %14s %14s",
+				"Algorithm", "Nodes", "Degree", "Terms", "Arcs", "Ok",
+				"Time(ms)", "Instance(B)", "Peak(B)"));
+		int i = 0;
+		while (i < runs.size()) {
+			Run first = runs.get(i);
+			List<Run> point = new ArrayList<Run>();
+			while (i < runs.size() && first.isSamePoint(runs.get(i)))
+				point.add(runs.get(i++));
+			List<Double> arcs = new ArrayList<Double>();
+			List<Double> times = new ArrayList<Double>();
+			List<Double> instances = new ArrayList<Double>();
+			List<Double> peaks = new ArrayList<Double>();
+			for (Run r : point)
+				if (r.status == Status.OK) {
+					arcs.add((double) r.arcs);
+					times.add(r.time);
+					instances.add((double) r.instanceMemory);
+					peaks.add((double) r.peakMemory);
+				}
+			System.out.println(String.format(Locale.US,
+					"%-20s %9d %6s %6d %10.0f %4s %12.3f %14.0f %14.0f",
+					first.algorithm, first.nodes, format(first.degree),
+					first.terminals, Statistics.median(toArray(arcs)),
+					times.size() + "/" + point.size(),
+					Statistics.median(toArray(times)),
+					Statistics.median(toArray(instances)),
+					Statistics.median(toArray(peaks))));
+		}
+
+		System.out.println();
+		System.out.println(String.format(Locale.US,
+				"%-20s %6s %6s %5s %9s %9s %6s %9s %6s", "Algorithm",
+				"Degree", "Terms", "Sizes", "MaxNodes", "TimeExp", "R2",
+				"MemExp", "R2"));
+		for (Fit f : fits)
+			System.out.println(String.format(Locale.US,
+					"%-20s %6s %6d %5d %9d %9.3f %6.3f %9.3f %6.3f",
+					f.algorithm, format(f.degree), f.terminals, f.sizes,
+					f.maxNodes, f.getTimeExponent(), f.getTimeR2(),
+					f.getMemoryExponent(), f.getMemoryR2()));
+	}
+
+	/**
+	 * Write the runs in the csv file path.
+	 */
+	public static void writeRuns(List<Run> runs, String path) {
+		FileManager fm = new FileManager();
+		fm.openErase(path);
+		fm.writeln(join(Run.COLUMNS));
+		for (Run r : runs)
+			fm.writeln(r.toCsv());
+		fm.closeWrite();
+	}
+
+	/**
+	 * Write the fits in the csv file path.
+	 */
+	public static void writeFits(List<Fit> fits, String path) {
+		FileManager fm = new FileManager();
+		fm.openErase(path);
+		fm.writeln(join(Fit.COLUMNS));
+		for (Fit f : fits)
+			fm.writeln(f.toCsv());
+		fm.closeWrite();
+	}
+
+	private static String join(String[] values) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0)
+				sb.append(',');
+			sb.append(values[i]);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @return d without its decimal part if it is an integer.
+	 */
+	private static String format(double d) {
+		if (d == Math.rint(d) && !Double.isInfinite(d))
+			return String.valueOf((long) d);
+		return String.format(Locale.US, "%.3f", d);
+	}
+
+	private static int[] parseInts(String s) {
+		String[] values = s.split(",");
+		int[] ints = new int[values.length];
+		for (int i = 0; i < values.length; i++)
+			ints[i] = (int) Double.parseDouble(values[i]);
+		return ints;
+	}
+
+	private static double[] parseDoubles(String s) {
+		String[] values = s.split(",");
+		double[] doubles = new double[values.length];
+		for (int i = 0; i < values.length; i++)
+			doubles[i] = Double.parseDouble(values[i]);
+		return doubles;
+	}
+
+	/**
+	 * Run the benchmark.
+	 * <p>
+	 * Usage : ScalingBenchmark [-a algorithm1,algorithm2,...] [-n
+	 * nodes1,nodes2,...] [-d degree1,degree2,...] [-k
+	 * terminals1,terminals2,...] [-instances c] [-warmup runs] [-timeout ms]
+	 * [-generationtimeout ms] [-seed s] [-jvmArgs "options of the forks"]
+	 * [-csv file] [-fitcsv file]
+	 * <p>
+	 * The numbers of nodes may be written as 1e3. The algorithms are by
+	 * default {@link Algorithms#DEFAULT_ALGORITHMS}. The runs are
+	 * written in the csv file, and the fits in the fitcsv file.
+	 *
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		ScalingBenchmark benchmark = new ScalingBenchmark();
+		List<String> algorithms = Arrays
+				.asList(Algorithms.DEFAULT_ALGORITHMS);
+		int[] nodes = DEFAULT_NODES;
+		double[] degrees = DEFAULT_DEGREES;
+		int[] terminals = DEFAULT_TERMINALS;
+		int instance = 0;
+		String csv = null;
+		String fitCsv = null;
+		boolean fork = false;
+
+		int i = 0;
+		try {
+			for (; i < args.length; i++) {
+				String arg = args[i];
+				if (arg.equals("-fork"))
+					fork = true;
+				else if (i + 1 >= args.length)
+					throw new IllegalArgumentException();
+				else if (arg.equals("-a"))
+					algorithms = Arrays.asList(args[++i].split(","));
+				else if (arg.equals("-n"))
+					nodes = parseInts(args[++i]);
+				else if (arg.equals("-d"))
+					degrees = parseDoubles(args[++i]);
+				else if (arg.equals("-k"))
+					terminals = parseInts(args[++i]);
+				else if (arg.equals("-instances"))
+					benchmark.setInstances(Integer.valueOf(args[++i]));
+				else if (arg.equals("-instance"))
+					instance = Integer.valueOf(args[++i]);
+				else if (arg.equals("-warmup"))
+					benchmark.setWarmupRuns(Integer.valueOf(args[++i]));
+				else if (arg.equals("-timeout"))
+					benchmark.setTimeout(Long.valueOf(args[++i]));
+				else if (arg.equals("-generationtimeout"))
+					benchmark.setGenerationTimeout(Long.valueOf(args[++i]));
+				else if (arg.equals("-seed"))
+					benchmark.setSeed(Long.valueOf(args[++i]));
+				else if (arg.equals("-jvmArgs"))
+					benchmark.getJvmArgs().addAll(
+							Arrays.asList(args[++i].trim().split("\\s+")));
+				else if (arg.equals("-csv"))
+					csv = args[++i];
+				else if (arg.equals("-fitcsv"))
+					fitCsv = args[++i];
+				else
+					throw new IllegalArgumentException();
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println("Bad argument "
+					+ (i < args.length ? args[i] : ""));
+			System.err.println("Usage : ScalingBenchmark [-a algorithm1,...] [-n nodes1,...] [-d degree1,...] [-k terminals1,...] [-instances c] [-warmup runs] [-timeout ms] [-generationtimeout ms] [-seed s] [-jvmArgs \"options\"] [-csv file] [-fitcsv file]");
+			System.exit(1);
+		}
+
+		if (fork) {
+			// Run one algorithm over one instance for the parent JVM, which
+			// is stopped at the end, even if the run timed out.
+			Run run = benchmark.runInProcess(algorithms.get(0), nodes[0],
+					degrees[0], terminals[0], instance);
+			System.out.println(run.toRunLine());
+			System.exit(0);
+		}
+
+		List<Run> runs = benchmark.run(algorithms, nodes, degrees, terminals);
+		List<Fit> fits = fit(runs);
+		System.out.println();
+		printResults(runs, fits);
+		if (csv != null)
+			writeRuns(runs, csv);
+		if (fitCsv != null)
+			writeFits(fits, fitCsv);
+	}
+}
@@ -0,0 +1,208 @@
+package graphTheory.benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This class contains static methods computing robust statistics over
+ * repeated measures : the minimum, the median, the percentiles, and
+ * bootstrap confidence intervals of the median and of the mean; and a fit of
+ * the growth of a measure with the size of the instances.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class Statistics {
+
+	/**
+	 * Default number of resamples of a bootstrap.
+	 */
+	public static final int BOOTSTRAP_RESAMPLES = 1000;
+
+	/**
+	 * Default confidence of a bootstrap interval.
+	 */
+	public static final double BOOTSTRAP_CONFIDENCE = 0.95;
+
+	/**
+	 * Seed of the bootstraps, so that the same measures always give the same
+	 * interval.
+	 */
+	public static final long BOOTSTRAP_SEED = 0x5EED;
+
+	/**
+	 * @param values
+	 * @return the minimum of values, or NaN if there is no value.
+	 */
+	public static double min(double[] values) {
+		if (values.length == 0)
+			return Double.NaN;
+		double min = values[0];
+		for (double v : values)
+			min = Math.min(min, v);
+		return min;
+	}
+
+	/**
+	 * @param values
+	 * @return the mean of values, or NaN if there is no value.
+	 */
+	public static double mean(double[] values) {
+		if (values.length == 0)
+			return Double.NaN;
+		double s = 0;
+		for (double v : values)
+			s += v;
+		return s / values.length;
+	}
+
+	/**
+	 * @param values
+	 * @return the median of values, or NaN if there is no value.
+	 */
+	public static double median(double[] values) {
+		return percentile(values, 50);
+	}
+
+	/**
+	 * @param values
+	 * @param p
+	 *            : between 0 and 100.
+	 * @return the p-th percentile of values, interpolated linearly between the
+	 *         two closest values, or NaN if there is no value.
+	 */
+	public static double percentile(double[] values, double p) {
+		if (values.length == 0)
+			return Double.NaN;
+		double[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return sortedPercentile(sorted, p);
+	}
+
+	private static double sortedPercentile(double[] sorted, double p) {
+		double rank = p / 100 * (sorted.length - 1);
+		int i = (int) Math.floor(rank);
+		if (i >= sorted.length - 1)
+			return sorted[sorted.length - 1];
+		return sorted[i] + (rank - i) * (sorted[i + 1] - sorted[i]);
+	}
+
+	/**
+	 * Same as {@link #bootstrapMedianInterval(double[], double, int, long)},
+	 * with {@link #BOOTSTRAP_CONFIDENCE}, {@link #BOOTSTRAP_RESAMPLES} and
+	 * {@link #BOOTSTRAP_SEED}.
+	 */
+	public static double[] bootstrapMedianInterval(double[] values) {
+		return bootstrapMedianInterval(values, BOOTSTRAP_CONFIDENCE,
+				BOOTSTRAP_RESAMPLES, BOOTSTRAP_SEED);
+	}
+
+	/**
+	 * Compute a confidence interval of the median of values with the
+	 * percentile bootstrap : values are resampled with replacement resamples
+	 * times, and the interval contains the given proportion of the medians of
+	 * the resamples.
+	 *
+	 * @param values
+	 * @param confidence
+	 *            : between 0 and 1.
+	 * @param resamples
+	 * @param seed
+	 * @return the lower and the upper bounds of the interval, or null if there
+	 *         are less than two values.
+	 */
+	public static double[] bootstrapMedianInterval(double[] values,
+			double confidence, int resamples, long seed) {
+		return bootstrapInterval(values, confidence, resamples, seed, true);
+	}
+
+	/**
+	 * Same as {@link #bootstrapMeanInterval(double[], double, int, long)},
+	 * with {@link #BOOTSTRAP_CONFIDENCE}, {@link #BOOTSTRAP_RESAMPLES} and
+	 * {@link #BOOTSTRAP_SEED}.
+	 */
+	public static double[] bootstrapMeanInterval(double[] values) {
+		return bootstrapMeanInterval(values, BOOTSTRAP_CONFIDENCE,
+				BOOTSTRAP_RESAMPLES, BOOTSTRAP_SEED);
+	}
+
+	/**
+	 * Compute a confidence interval of the mean of values with the percentile
+	 * bootstrap, as {@link #bootstrapMedianInterval(double[], double, int, long)}
+	 * does for the median.
+	 *
+	 * @param values
+	 * @param confidence
+	 *            : between 0 and 1.
+	 * @param resamples
+	 * @param seed
+	 * @return the lower and the upper bounds of the interval, or null if there
+	 *         are less than two values.
+	 */
+	public static double[] bootstrapMeanInterval(double[] values,
+			double confidence, int resamples, long seed) {
+		return bootstrapInterval(values, confidence, resamples, seed, false);
+	}
+
+	private static double[] bootstrapInterval(double[] values,
+			double confidence, int resamples, long seed, boolean median) {
+		int n = values.length;
+		if (n < 2)
+			return null;
+		Random random = new Random(seed);
+		double[] estimates = new double[resamples];
+		double[] resample = new double[n];
+		for (int r = 0; r < resamples; r++) {
+			for (int i = 0; i < n; i++)
+				resample[i] = values[random.nextInt(n)];
+			if (median) {
+				Arrays.sort(resample);
+				estimates[r] = sortedPercentile(resample, 50);
+			} else
+				estimates[r] = mean(resample);
+		}
+		Arrays.sort(estimates);
+		double alpha = (1 - confidence) / 2 * 100;
+		return new double[] { sortedPercentile(estimates, alpha),
+				sortedPercentile(estimates, 100 - alpha) };
+	}
+
+	/**
+	 * Fit y = coefficient * x^exponent with the least squares method over the
+	 * logarithms of x and y : the exponent is the empirical growth exponent of
+	 * y. The couples in which x or y is not positive are ignored.
+	 *
+	 * @param x
+	 * @param y
+	 * @return the exponent, the coefficient and the coefficient of
+	 *         determination R^2 of the fit (1 if the points are aligned), or
+	 *         null if there are less than two distinct values of x.
+	 */
+	public static double[] fitPowerLaw(double[] x, double[] y) {
+		int n = 0;
+		double sx = 0, sy = 0;
+		for (int i = 0; i < x.length; i++)
+			if (x[i] > 0 && y[i] > 0) {
+				n++;
+				sx += Math.log(x[i]);
+				sy += Math.log(y[i]);
+			}
+		if (n < 2)
+			return null;
+		double mx = sx / n, my = sy / n;
+		double sxx = 0, sxy = 0, syy = 0;
+		for (int i = 0; i < x.length; i++)
+			if (x[i] > 0 && y[i] > 0) {
+				double dx = Math.log(x[i]) - mx;
+				double dy = Math.log(y[i]) - my;
+				sxx += dx * dx;
+				sxy += dx * dy;
+				syy += dy * dy;
+			}
+		if (sxx == 0)
+			return null;
+		double exponent = sxy / sxx;
+		double r2 = (syy == 0) ? 1 : sxy * sxy / (sxx * syy);
+		return new double[] { exponent, Math.exp(my - exponent * mx), r2 };
+	}
+}
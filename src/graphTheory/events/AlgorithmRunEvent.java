@@ -0,0 +1,36 @@
+package graphTheory.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event : a run of an algorithm over an instance.
+ *
+ * @author Watel Dimitri
+ *
+ */
+@Name("graphTheory.AlgorithmRun")
+@Label("Algorithm Run")
+@Category({ "graphTheory", "Algorithms" })
+@Description("Run of an algorithm over an instance")
+@StackTrace(false)
+public class AlgorithmRunEvent extends Event {
+
+	@Label("Algorithm")
+	public Class<?> algorithm;
+
+	@Label("Instance")
+	public String instance;
+
+	@Label("Cost")
+	@Description("Cost of the returned solution, -1 if there is none")
+	public long cost;
+
+	@Label("Status")
+	@Description("How the run ended : COMPLETED, TIMED_OUT or CANCELLED")
+	public String status;
+}
@@ -0,0 +1,87 @@
+package graphTheory.events;
+
+import graphTheory.graph.Arc;
+import graphTheory.instances.steiner.classic.SteinerDirectedInstance;
+
+import java.util.Collection;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event : a round of the FLAC algorithm, searching a low
+ * density tree, in a GFLAC algorithm.
+ *
+ * @author Watel Dimitri
+ *
+ */
+@Name("graphTheory.FlacRound")
+@Label("FLAC Round")
+@Category({ "graphTheory", "Algorithms" })
+@Description("Search of a low density tree by FLAC in a GFLAC algorithm")
+@StackTrace(false)
+public class FlacRoundEvent extends Event {
+
+	@Label("Algorithm")
+	public Class<?> algorithm;
+
+	@Label("Instance")
+	public String instance;
+
+	@Label("Round")
+	@Description("Index of the round in the run, from 1")
+	public int round;
+
+	@Label("Terminals Reached")
+	@Description("Terminals reached by the tree returned by the round")
+	public int terminalsReached;
+
+	@Label("Remaining Terminals")
+	@Description("Terminals not reached after the round")
+	public int remainingTerminals;
+
+	@Label("Density")
+	@Description("Cost of the returned tree divided by its number of terminals, NaN if no tree is returned")
+	public double density;
+
+	/**
+	 * End this event and, if it is recorded, commit it.
+	 *
+	 * @param algorithm
+	 * @param instance
+	 *            : the name of the instance.
+	 * @param round
+	 * @param sdi
+	 *            : the instance, giving the costs of the arcs of tree.
+	 * @param tree
+	 *            : the tree returned by the round, or null if no tree was
+	 *            found.
+	 * @param terminalsReached
+	 * @param remainingTerminals
+	 */
+	public void end(Class<?> algorithm, String instance, int round,
+			SteinerDirectedInstance sdi, Collection<Arc> tree,
+			int terminalsReached, int remainingTerminals) {
+		end();
+		if (!shouldCommit())
+			return;
+		this.algorithm = algorithm;
+		this.instance = instance;
+		this.round = round;
+		this.terminalsReached = terminalsReached;
+		this.remainingTerminals = remainingTerminals;
+		if (tree == null || terminalsReached == 0)
+			density = Double.NaN;
+		else {
+			long c = 0;
+			for (Arc a : tree)
+				c += sdi.getIntCost(a);
+			density = ((double) c) / terminalsReached;
+		}
+		commit();
+	}
+}
@@ -0,0 +1,64 @@
+package graphTheory.events;
+
+import graphTheory.instances.steiner.classic.SteinerInstance;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event : the loading of an instance from a file. The
+ * duration of the event is the time needed to read and parse the file.
+ *
+ * @author Watel Dimitri
+ *
+ */
+@Name("graphTheory.InstanceLoad")
+@Label("Instance Load")
+@Category({ "graphTheory", "Instances" })
+@Description("Reading and parsing of an instance file")
+@StackTrace(false)
+public class InstanceLoadEvent extends Event {
+
+	@Label("File")
+	public String file;
+
+	@Label("Format")
+	@Description("stp, mapped stp or binary")
+	public String format;
+
+	@Label("Nodes")
+	public int nodes;
+
+	@Label("Arcs")
+	public int arcs;
+
+	@Label("Terminals")
+	public int terminals;
+
+	/**
+	 * End this event and, if it is recorded, commit it, describing the
+	 * instance g loaded from file.
+	 *
+	 * @param file
+	 * @param format
+	 * @param g
+	 *            : the loaded instance, or null if the file contains no
+	 *            instance of the expected kind.
+	 */
+	public void end(String file, String format, SteinerInstance g) {
+		end();
+		if (!shouldCommit())
+			return;
+		this.file = file;
+		this.format = format;
+		if (g != null) {
+			nodes = g.getGraph().getNumberOfVertices();
+			arcs = g.getGraph().getNumberOfEdges();
+			terminals = g.getNumberOfRequiredVertices();
+		}
+		commit();
+	}
+}
@@ -0,0 +1,62 @@
+package graphTheory.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event : the computation of a batch of shortest paths
+ * by an algorithm, with one Dijkstra algorithm by source or by destination.
+ *
+ * @author Watel Dimitri
+ *
+ */
+@Name("graphTheory.ShortestPathBatch")
+@Label("Shortest Path Batch")
+@Category({ "graphTheory", "Algorithms" })
+@Description("Shortest paths computed by an algorithm")
+@StackTrace(false)
+public class ShortestPathBatchEvent extends Event {
+
+	public static final String FROM_SOURCE = "from source";
+	public static final String TO_DESTINATION = "to destination";
+
+	@Label("Algorithm")
+	public Class<?> algorithm;
+
+	@Label("Instance")
+	public String instance;
+
+	@Label("Direction")
+	@Description("The paths are from a source, or to a destination")
+	public String direction;
+
+	@Label("Searches")
+	@Description("Number of Dijkstra algorithms run")
+	public int searches;
+
+	/**
+	 * End this event and, if it is recorded, commit it.
+	 *
+	 * @param algorithm
+	 * @param instance
+	 *            : the name of the instance.
+	 * @param direction
+	 *            : {@link #FROM_SOURCE} or {@link #TO_DESTINATION}.
+	 * @param searches
+	 */
+	public void end(Class<?> algorithm, String instance, String direction,
+			int searches) {
+		end();
+		if (!shouldCommit())
+			return;
+		this.algorithm = algorithm;
+		this.instance = instance;
+		this.direction = direction;
+		this.searches = searches;
+		commit();
+	}
+}
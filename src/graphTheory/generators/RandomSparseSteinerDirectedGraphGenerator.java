@@ -0,0 +1,173 @@
+package graphTheory.generators;
+
+import graphTheory.graph.Arc;
+import graphTheory.graph.DirectedGraph;
+import graphTheory.instances.steiner.classic.SteinerDirectedInstance;
+import graphTheory.utils.Math2;
+import graphTheory.utils.probabilities.DConstantLaw;
+import graphTheory.utils.probabilities.DiscreteProbabilityLaw;
+
+import java.util.Random;
+
+/**
+ * Generate sparse random directed Steiner instances, in a time linear in the
+ * number of arcs, so that instances with millions of nodes can be built. The
+ * random values are drawn with {@link Math2}, and are seeded if the current
+ * thread is (see {@link Math2#setSeed(long)}).
+ * <p>
+ * The root is the node 0. Every other node is first linked to the root by a
+ * random arborescence : the nodes are shuffled and each of them is the output
+ * of an arc from a node placed before it. Then random arcs (u, v), with v
+ * different from u and from the root, are added until the mean output degree
+ * reaches the given degree. The terminals are distinct random nodes other than
+ * the root, so that every instance has a solution.
+ * <p>
+ * Contrary to {@link RandomSteinerDirectedGraphGenerator2}, which draws each
+ * of the n(n-1) possible arcs and maintains a transitive closure, the degree
+ * does not depend on the number of nodes.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class RandomSparseSteinerDirectedGraphGenerator extends
+		GraphGenerator<SteinerDirectedInstance> {
+
+	private static final String INPUT_NUMBER_OF_VERTICES_LAW = "RandomSparseSteinerDirectedGraphGenerator_numberOfVerticesLaw";
+	private static final String INPUT_DEGREE = "RandomSparseSteinerDirectedGraphGenerator_degree";
+	private static final String INPUT_NUMBER_OF_REQUIRED_VERTICES_LAW = "RandomSparseSteinerDirectedGraphGenerator_numberOfRequiredVerticesLaw";
+	private static final String INPUT_COST_LAW = "RandomSparseSteinerDirectedGraphGenerator_costLaw";
+
+	protected DiscreteProbabilityLaw numberOfVerticesLaw;
+	protected double degree;
+	protected DiscreteProbabilityLaw numberOfRequiredVerticesLaw;
+	protected DiscreteProbabilityLaw costLaw;
+
+	public RandomSparseSteinerDirectedGraphGenerator() {
+		super();
+
+		inputNames.add(INPUT_NUMBER_OF_VERTICES_LAW);
+		inputNames.add(INPUT_DEGREE);
+		inputNames.add(INPUT_NUMBER_OF_REQUIRED_VERTICES_LAW);
+		inputNames.add(INPUT_COST_LAW);
+
+		degree = 1;
+		costLaw = new DConstantLaw(1);
+	}
+
+	@Override
+	public void setInput(String name, Object o) {
+		if (name.equals(INPUT_NUMBER_OF_VERTICES_LAW)) {
+			if (o instanceof DiscreteProbabilityLaw)
+				setNumberOfVerticesLaw((DiscreteProbabilityLaw) o);
+			else if (o instanceof Integer)
+				setNumberOfVerticesLaw((Integer) o);
+		} else if (name.equals(INPUT_DEGREE)) {
+			if (o instanceof Number)
+				setDegree(((Number) o).doubleValue());
+		} else if (name.equals(INPUT_NUMBER_OF_REQUIRED_VERTICES_LAW)) {
+			if (o instanceof DiscreteProbabilityLaw)
+				setNumberOfRequiredVerticesLaw((DiscreteProbabilityLaw) o);
+			else if (o instanceof Integer)
+				setNumberOfRequiredVerticesLaw((Integer) o);
+		} else if (name.equals(INPUT_COST_LAW)) {
+			if (o instanceof DiscreteProbabilityLaw)
+				setCostLaw((DiscreteProbabilityLaw) o);
+			else if (o instanceof Integer)
+				setCostLaw((Integer) o);
+		}
+	}
+
+	public void setNumberOfVerticesLaw(DiscreteProbabilityLaw novl) {
+		numberOfVerticesLaw = novl;
+	}
+
+	public void setNumberOfVerticesLaw(int nov) {
+		numberOfVerticesLaw = new DConstantLaw(nov);
+	}
+
+	/**
+	 * @param degree
+	 *            : the mean output degree of the nodes, at least 1 (the
+	 *            degree of the arborescence).
+	 */
+	public void setDegree(double degree) {
+		this.degree = Math.max(1, degree);
+	}
+
+	public void setNumberOfRequiredVerticesLaw(DiscreteProbabilityLaw norvl) {
+		numberOfRequiredVerticesLaw = norvl;
+	}
+
+	public void setNumberOfRequiredVerticesLaw(int norv) {
+		numberOfRequiredVerticesLaw = new DConstantLaw(norv);
+	}
+
+	public void setCostLaw(DiscreteProbabilityLaw cl) {
+		costLaw = cl;
+	}
+
+	public void setCostLaw(int cost) {
+		costLaw = new DConstantLaw(cost);
+	}
+
+	@Override
+	public SteinerDirectedInstance generate() {
+		int nov = Math.max(1, numberOfVerticesLaw.simulate());
+		int norv = Math.min(numberOfRequiredVerticesLaw.simulate(), nov - 1);
+		Random random = Math2.getRandom();
+
+		DirectedGraph dg = new DirectedGraph(nov);
+		SteinerDirectedInstance sdi = new SteinerDirectedInstance(dg);
+		for (int i = 0; i < nov; i++)
+			dg.addVertice(i);
+		sdi.setRoot(0);
+
+		// Arborescence rooted at 0 : the nodes 1..nov-1 are shuffled and
+		// linked from a node placed before them.
+		int[] order = shuffledNodes(nov, random);
+		Arc a;
+		for (int i = 1; i < nov; i++) {
+			a = dg.addDirectedEdge(order[random.nextInt(i)], order[i]);
+			sdi.setCost(a, costLaw.simulate());
+		}
+
+		long arcs = nov - 1;
+		long maxArcs = (long) (nov - 1) * (nov - 1);
+		long targetArcs = Math.min(maxArcs, Math.round(degree * nov));
+		long attempts = 0;
+		while (arcs < targetArcs && attempts++ < 10 * targetArcs) {
+			int u = random.nextInt(nov);
+			int v = 1 + random.nextInt(nov - 1);
+			if (u == v)
+				continue;
+			a = dg.addDirectedEdge(u, v);
+			if (a == null)
+				continue;
+			sdi.setCost(a, costLaw.simulate());
+			arcs++;
+		}
+
+		int[] terminals = shuffledNodes(nov, random);
+		for (int i = 1; i <= norv; i++)
+			sdi.setRequired(terminals[i]);
+
+		return sdi;
+	}
+
+	/**
+	 * @return the nodes 0..nov-1, 0 being first and the other nodes being
+	 *         shuffled.
+	 */
+	private static int[] shuffledNodes(int nov, Random random) {
+		int[] nodes = new int[nov];
+		for (int i = 0; i < nov; i++)
+			nodes[i] = i;
+		for (int i = nov - 1; i > 1; i--) {
+			int j = 1 + random.nextInt(i);
+			int swap = nodes[i];
+			nodes[i] = nodes[j];
+			nodes[j] = swap;
+		}
+		return nodes;
+	}
+}
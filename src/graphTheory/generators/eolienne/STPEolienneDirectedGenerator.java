@@ -10,7 +10,6 @@ import graphTheory.steinLib.STPTranslator;
 
 import java.io.File;
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * 
@@ -27,28 +26,26 @@ public class STPEolienneDirectedGenerator extends STPGenerator<EolienneInstance>
 	}
 
 	@Override
-	public EolienneInstance generate() {
-		File f = instanceFiles[index];
-		Pattern p = Pattern.compile("((\\w|-)+)\\.stp");
-		Matcher m = p.matcher(f.getName());
-		if (m.matches()) {
-			String name = m.group(1);
-
-            EolienneInstance eol;
-			try {
+	public EolienneInstance generate(int i) {
+		File f = instanceFiles[i];
+		Matcher m = INSTANCE_FILE_PATTERN.matcher(f.getName());
+		if (!m.matches())
+			return null;
+		String name = m.group(1);
+
+		EolienneInstance eol;
+		try {
+			if (cache == null)
 				eol = STPEolienneTranslator.translateFile(f.getPath());
-				incrIndex();
-			} catch (STPTranslationException | STPTranslationEolienneException e) {
-				e.printStackTrace();
-				incrIndex();
-				return null;
-			}
-
-			eol.getGraph().defineParam(OUTPUT_NAME_PARAM_NAME, name);
-            return eol;
-        } else {
+			else
+				eol = cache.translateEolienneFile(f.getPath());
+		} catch (STPTranslationException | STPTranslationEolienneException e) {
+			e.printStackTrace();
 			return null;
 		}
+
+		eol.getGraph().defineParam(OUTPUT_NAME_PARAM_NAME, name);
+		return eol;
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,44 @@
+package graphTheory.generators.steinLib;
+
+import graphTheory.instances.steiner.classic.SteinerDirectedInstance;
+import graphTheory.steinLib.BinaryInstanceTranslator;
+
+import java.io.IOException;
+
+/**
+ *
+ * This generator generates Directed Steiner Instances from the binary files
+ * written by {@link BinaryInstanceTranslator}. The name, the optimum value
+ * and the optimal solution of each instance are read from the file itself.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class BinaryDirectedGenerator extends
+		STPGenerator<SteinerDirectedInstance> {
+
+	public BinaryDirectedGenerator(String instancesDirectoryName) {
+		super(instancesDirectoryName, null);
+	}
+
+	@Override
+	public boolean isInstanceFile(int i) {
+		return instanceFiles[i].getName().endsWith(
+				BinaryInstanceTranslator.EXTENSION);
+	}
+
+	@Override
+	public SteinerDirectedInstance generate(int i) {
+		if (!isInstanceFile(i))
+			return null;
+		try {
+			return BinaryInstanceTranslator.translateFile(instanceFiles[i]
+					.getPath());
+		} catch (IOException e) {
+			System.err.println(e.getMessage());
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+}
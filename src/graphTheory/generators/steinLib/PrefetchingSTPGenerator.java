@@ -0,0 +1,269 @@
+package graphTheory.generators.steinLib;
+
+import graphTheory.instances.steiner.classic.SteinerInstance;
+import graphTheory.steinLib.InstanceCache;
+import graphTheory.utils.CompressedFiles;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ *
+ * This generator returns the same instances, in the same order, as another
+ * {@link STPGenerator}, but translates the next instances in the background
+ * while the current one is used. Benchmark loops can then solve an instance
+ * while the next ones are read.
+ * <p>
+ * The instances pointed by the index and by the following indexes are
+ * submitted to a pool of threads, which translate them with
+ * {@link STPGenerator#generate(int)}. At most
+ * {@link #getNumberOfPrefetchedInstances()} instances are prefetched. Their
+ * memory is estimated from the size of their file, and no instance is
+ * submitted while the estimated memory of the prefetched instances would
+ * exceed {@link #getMaxMemory()}, unless no instance is prefetched at all.
+ * <p>
+ * {@link #incrIndex(int)} keeps its meaning : the prefetched instances that
+ * are skipped are dropped, and the instances following the new index are
+ * prefetched instead.
+ * <p>
+ * The pool threads are daemon threads. The pool should be shut down with
+ * {@link #close()} when the generator is not used anymore.
+ *
+ * @author Watel Dimitri
+ *
+ * @param <T>
+ */
+public class PrefetchingSTPGenerator<T extends SteinerInstance> extends
+		STPGenerator<T> {
+
+	public static final int DEFAULT_NUMBER_OF_PREFETCHED_INSTANCES = 4;
+
+	/**
+	 * Estimation of the number of bytes used in memory by an instance, for
+	 * each byte of its file. An arc is described with about 15 bytes in a
+	 * .stp file, and uses about 300 bytes in a {@link SteinerInstance} : the
+	 * arc, its cost and the entries of the hash sets containing it. The size
+	 * of a compressed file is its decompressed size.
+	 */
+	public static final long ESTIMATED_BYTES_PER_FILE_BYTE = 20;
+
+	private STPGenerator<T> generator;
+
+	private int numberOfPrefetchedInstances;
+	private long maxMemory;
+
+	private ExecutorService pool;
+
+	/**
+	 * Translations of the prefetched instances, and their estimated memory,
+	 * by index.
+	 */
+	private HashMap<Integer, Future<T>> prefetched;
+	private HashMap<Integer, Long> prefetchedMemory;
+	private long usedMemory;
+
+	/**
+	 * Prefetch the instances of generator with one thread, at most
+	 * {@link #DEFAULT_NUMBER_OF_PREFETCHED_INSTANCES} instances, using at
+	 * most a quarter of the maximum memory of the JVM.
+	 *
+	 * @param generator
+	 */
+	public PrefetchingSTPGenerator(STPGenerator<T> generator) {
+		this(generator, 1, DEFAULT_NUMBER_OF_PREFETCHED_INSTANCES, Runtime
+				.getRuntime().maxMemory() / 4);
+	}
+
+	/**
+	 *
+	 * @param generator
+	 *            : the generator translating the instances. Its index is
+	 *            not modified by this generator.
+	 * @param numberOfThreads
+	 *            : number of threads translating the instances.
+	 * @param numberOfPrefetchedInstances
+	 *            : maximum number of instances translated in advance,
+	 *            including the one pointed by the index.
+	 * @param maxMemory
+	 *            : maximum estimated memory, in bytes, of the instances
+	 *            translated in advance.
+	 */
+	public PrefetchingSTPGenerator(STPGenerator<T> generator,
+			int numberOfThreads, int numberOfPrefetchedInstances,
+			long maxMemory) {
+		super(generator.instancesDirectoryName, generator.resultsFileName);
+		this.generator = generator;
+		this.index = generator.getIndex();
+		this.cache = generator.getCache();
+		this.numberOfPrefetchedInstances = Math.max(1,
+				numberOfPrefetchedInstances);
+		this.maxMemory = maxMemory;
+		this.prefetched = new HashMap<Integer, Future<T>>();
+		this.prefetchedMemory = new HashMap<Integer, Long>();
+		this.usedMemory = 0;
+
+		this.pool = Executors.newFixedThreadPool(Math.max(1, numberOfThreads),
+				new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread t = new Thread(r, "STPGenerator prefetching");
+						t.setDaemon(true);
+						return t;
+					}
+				});
+		prefetch();
+	}
+
+	public int getNumberOfPrefetchedInstances() {
+		return numberOfPrefetchedInstances;
+	}
+
+	public long getMaxMemory() {
+		return maxMemory;
+	}
+
+	/**
+	 * @return the estimated memory of the instances currently prefetched.
+	 */
+	public long getUsedMemory() {
+		return usedMemory;
+	}
+
+	@Override
+	public boolean isInstanceFile(int i) {
+		return generator.isInstanceFile(i);
+	}
+
+	@Override
+	public T generate(int i) {
+		return generator.generate(i);
+	}
+
+	@Override
+	public T generate() {
+		if (!isInstanceFile(index))
+			return null;
+
+		int i = index;
+		Future<T> future = prefetched.remove(i);
+		if (future != null)
+			usedMemory -= prefetchedMemory.remove(i);
+
+		// Move the index before waiting, so that the next instances are
+		// translated meanwhile.
+		incrIndex();
+
+		if (future == null)
+			return generate(i);
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new RuntimeException(cause);
+		}
+	}
+
+	@Override
+	public void incrIndex(int value) {
+		super.incrIndex(value);
+		if (prefetched != null)
+			prefetch();
+	}
+
+	@Override
+	public void setInstancesDirectoryName(String iDN) {
+		super.setInstancesDirectoryName(iDN);
+		generator.setInstancesDirectoryName(iDN);
+		index = 0;
+		clear();
+	}
+
+	@Override
+	public void setResultsFileName(String rFN) {
+		super.setResultsFileName(rFN);
+		generator.setResultsFileName(rFN);
+		clear();
+	}
+
+	@Override
+	public void setCache(InstanceCache cache) {
+		super.setCache(cache);
+		generator.setCache(cache);
+		clear();
+	}
+
+	/**
+	 * Drop the prefetched instances which do not follow the index anymore, and
+	 * submit the translation of the next instances.
+	 */
+	private void prefetch() {
+		if (pool.isShutdown())
+			return;
+		int n = instanceFiles.length;
+		int window = Math.min(numberOfPrefetchedInstances, n);
+
+		Iterator<Integer> it = prefetched.keySet().iterator();
+		while (it.hasNext()) {
+			int i = it.next();
+			if ((i - index + n) % n >= window) {
+				prefetched.get(i).cancel(false);
+				usedMemory -= prefetchedMemory.remove(i);
+				it.remove();
+			}
+		}
+
+		for (int k = 0; k < window; k++) {
+			final int i = (index + k) % n;
+			// generate() does not move past a file which is not an instance.
+			if (!isInstanceFile(i))
+				break;
+			if (prefetched.containsKey(i))
+				continue;
+			long memory = CompressedFiles.length(instanceFiles[i])
+					* ESTIMATED_BYTES_PER_FILE_BYTE;
+			if (!prefetched.isEmpty() && usedMemory + memory > maxMemory)
+				break;
+			prefetched.put(i, pool.submit(new Callable<T>() {
+				@Override
+				public T call() {
+					return generator.generate(i);
+				}
+			}));
+			prefetchedMemory.put(i, memory);
+			usedMemory += memory;
+		}
+	}
+
+	private void clear() {
+		for (Future<T> future : prefetched.values())
+			future.cancel(false);
+		prefetched.clear();
+		prefetchedMemory.clear();
+		usedMemory = 0;
+		prefetch();
+	}
+
+	/**
+	 * Stop the threads translating the instances and drop the prefetched
+	 * instances.
+	 */
+	public void close() {
+		pool.shutdownNow();
+		prefetched.clear();
+		prefetchedMemory.clear();
+		usedMemory = 0;
+	}
+}
@@ -2,7 +2,7 @@ package graphTheory.generators.steinLib;
 
 import graphTheory.instances.steiner.classic.SteinerDirectedInstance;
 import graphTheory.steinLib.STPTranslationException;
-import graphTheory.steinLib.STPTranslator;
+import graphTheory.steinLib.STPMappedTranslator;
 import graphTheory.utils.FileManager;
 
 import java.io.File;
@@ -29,51 +29,50 @@ public class STPDirectedGenerator extends STPGenerator<SteinerDirectedInstance>
 	}
 
 	@Override
-	public SteinerDirectedInstance generate() {
-		File f = instanceFiles[index];
-		Pattern p = Pattern.compile("((\\w|-)+)\\.stp");
-		Matcher m = p.matcher(f.getName());
-		if (m.matches()) {
-			String name = m.group(1);
+	public SteinerDirectedInstance generate(int i) {
+		File f = instanceFiles[i];
+		Matcher m = INSTANCE_FILE_PATTERN.matcher(f.getName());
+		if (!m.matches())
+			return null;
+		String name = m.group(1);
 
-			Integer optValue = 0;
-			if (resultsFileName != null) {
-				FileManager fm = new FileManager();
-				fm.openRead(resultsFileName);
-				String opt;
+		Integer optValue = 0;
+		if (resultsFileName != null) {
+			FileManager fm = new FileManager();
+			fm.openRead(resultsFileName);
+			String opt;
 
-				for (int i = 0; i <= index; i++) {
-					opt = fm.readLine();
-					p = Pattern.compile("((\\w|-)+) (\\d+)(.*)");
-					m = p.matcher(opt);
-					if (m.matches()) {
-						if (m.group(1).equals(name)) {
-							optValue = Integer.valueOf(m.group(3));
-							break;
-						}
-					} else
-						return null;
+			Pattern p = Pattern.compile("((\\w|-)+) (\\d+)(.*)");
+			for (int j = 0; j <= i; j++) {
+				opt = fm.readLine();
+				if (opt == null)
+					break;
+				m = p.matcher(opt);
+				if (!m.matches())
+					break;
+				if (m.group(1).equals(name)) {
+					optValue = Integer.valueOf(m.group(3));
+					break;
 				}
 			}
+			fm.closeRead();
+		}
 
-			SteinerDirectedInstance sdg = null;
-			try {
-				sdg = STPTranslator.translateDirectedFile(f.getPath());
-				sdg.getGraph().defineParam(OUTPUT_NAME_PARAM_NAME, name);
-				sdg.getGraph().defineParam(OUTPUT_OPTIMUM_VALUE_PARAM_NAME,
-						optValue);
-				incrIndex();
-
-			} catch (STPTranslationException e) {
-				System.err.println(e.getMessage());
-				e.printStackTrace();
-				incrIndex();
-				return null;
-			}
-			return sdg;
-		} else {
+		SteinerDirectedInstance sdg = null;
+		try {
+			if (cache == null)
+				sdg = STPMappedTranslator.translateDirectedFile(f.getPath());
+			else
+				sdg = cache.translateDirectedFile(f.getPath());
+			sdg.getGraph().defineParam(OUTPUT_NAME_PARAM_NAME, name);
+			sdg.getGraph().defineParam(OUTPUT_OPTIMUM_VALUE_PARAM_NAME,
+					optValue);
+		} catch (STPTranslationException e) {
+			System.err.println(e.getMessage());
+			e.printStackTrace();
 			return null;
 		}
+		return sdg;
 	}
 
-}
\ No newline at end of file
+}
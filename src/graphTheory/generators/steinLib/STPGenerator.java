@@ -2,10 +2,13 @@ package graphTheory.generators.steinLib;
 
 import graphTheory.generators.InstanceGenerator;
 import graphTheory.instances.steiner.classic.SteinerInstance;
+import graphTheory.steinLib.InstanceCache;
+import graphTheory.utils.CompressedFiles;
 
 import java.io.File;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.regex.Pattern;
 
 /**
  * 
@@ -40,6 +43,14 @@ public abstract class STPGenerator<T extends SteinerInstance> extends
 	 */
 	public static final String OUTPUT_OPTIMUM_PARAM_NAME = "STPGenerator_outputOptimumParamName";
 
+	/**
+	 * Names of the files this generator can translate, the first group is the
+	 * name of the instance. The files compressed with gzip are read without
+	 * being unpacked.
+	 */
+	protected static final Pattern INSTANCE_FILE_PATTERN = Pattern
+			.compile("((\\w|-)+)\\.stp(\\.gz)?");
+
 	public STPGenerator() {
 		this(null, null);
 	}
@@ -47,7 +58,8 @@ public abstract class STPGenerator<T extends SteinerInstance> extends
 	/**
 	 * 
 	 * @param instancesDirectoryName
-	 *            : a directory containing stp files
+	 *            : a directory containing stp files, or a ZIP archive of stp
+	 *            files (see {@link CompressedFiles})
 	 * @param resultsFileName
 	 *            : a file containing for each instance the cost of an optimal solution and/or an optimal solution
 	 */
@@ -56,7 +68,7 @@ public abstract class STPGenerator<T extends SteinerInstance> extends
 		this.instancesDirectoryName = instancesDirectoryName;
 		this.resultsFileName = resultsFileName;
 
-		instanceFiles = new File(instancesDirectoryName).listFiles();
+		instanceFiles = CompressedFiles.listFiles(instancesDirectoryName);
 		Arrays.sort(instanceFiles, new Comparator<File>() {
 
 			@Override
@@ -68,12 +80,12 @@ public abstract class STPGenerator<T extends SteinerInstance> extends
 	}
 
 	public String getInstancesPath() {
-		return instancesDirectoryName + "/" + instanceFiles[index].getName();
+		return instanceFiles[index].getPath();
 	}
 
 	public void setInstancesDirectoryName(String iDN) {
 		instancesDirectoryName = iDN;
-		instanceFiles = new File(instancesDirectoryName).listFiles();
+		instanceFiles = CompressedFiles.listFiles(instancesDirectoryName);
 		Arrays.sort(instanceFiles, new Comparator<File>() {
 
 			@Override
@@ -87,9 +99,75 @@ public abstract class STPGenerator<T extends SteinerInstance> extends
 		resultsFileName = rFN;
 	}
 
+	protected InstanceCache cache;
+
+	public InstanceCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * Tell the generator to read the translations of the instance files from
+	 * the cache, if possible, instead of parsing them. Only the directed and
+	 * the wind farm instances are cached.
+	 * 
+	 * @param cache
+	 *            : a cache, or null to parse every file.
+	 */
+	public void setCache(InstanceCache cache) {
+		this.cache = cache;
+	}
+
 	protected int index = 0;
 	protected File[] instanceFiles;
 
+	/**
+	 * Return the instance described by the file pointed by the index, and
+	 * tell the generator to point at the next file. If that file is not an
+	 * instance file (see {@link #isInstanceFile(int)}), return null and do not
+	 * move the index.
+	 */
+	@Override
+	public T generate() {
+		if (!isInstanceFile(index))
+			return null;
+		T instance = generate(index);
+		incrIndex();
+		return instance;
+	}
+
+	/**
+	 * Return the instance described by the file of index i, without modifying
+	 * the index of this generator. This method can be called by several
+	 * threads at the same time.
+	 * 
+	 * @param i
+	 * @return the instance, or null if the file cannot be translated.
+	 */
+	public abstract T generate(int i);
+
+	/**
+	 * @param i
+	 * @return true if the file of index i can be translated by this generator.
+	 */
+	public boolean isInstanceFile(int i) {
+		return INSTANCE_FILE_PATTERN.matcher(instanceFiles[i].getName())
+				.matches();
+	}
+
+	/**
+	 * @return the file of index i.
+	 */
+	public File getInstanceFile(int i) {
+		return instanceFiles[i];
+	}
+
+	/**
+	 * @return the index pointing at the next generated instance.
+	 */
+	public int getIndex() {
+		return index;
+	}
+
 	/**
 	 * 
 	 * @return the number of instances the directory contains 
@@ -8,6 +8,18 @@ package graphTheory.graph;
  */
 public class DirectedGraph extends Graph {
 
+	public DirectedGraph() {
+		super();
+	}
+
+	/**
+	 * Build an empty graph which can contain numberOfVertices nodes without
+	 * resizing its internal hash tables.
+	 */
+	public DirectedGraph(int numberOfVertices) {
+		super(numberOfVertices);
+	}
+
 	public Arc addUndirectedEdge(Integer input, Integer output) {
 		return null;
 	}
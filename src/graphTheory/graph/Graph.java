@@ -101,6 +101,24 @@ public class Graph implements Parametable {
 		this.arcColors = new HashMap<Arc, Color>();
 	}
 
+	/**
+	 * This constructor build an empty graph, which can contain
+	 * numberOfVertices nodes without resizing its internal hash tables.
+	 * <p>
+	 * The set of arcs is not pre-sized: many arcs may share the same hash
+	 * code, and the iteration order of the arcs of a pre-sized set may then
+	 * differ from the one of a graph built with {@link #Graph()}.
+	 *
+	 * @param numberOfVertices
+	 */
+	public Graph(int numberOfVertices) {
+		this();
+		vertices = new HashSet<Integer>(
+				Collections2.hashCapacity(numberOfVertices));
+		links = new HashMap<Integer, Triplet<Set<Arc>, Set<Arc>, Set<Arc>>>(
+				Collections2.hashCapacity(numberOfVertices));
+	}
+
 	/*
 	 * --------------------------------------------- Access to nodes and
 	 * vertices ---------------------------------------------
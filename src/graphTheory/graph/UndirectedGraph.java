@@ -7,6 +7,19 @@ package graphTheory.graph;
  *
  */
 public class UndirectedGraph extends Graph {
+
+	public UndirectedGraph() {
+		super();
+	}
+
+	/**
+	 * Build an empty graph which can contain numberOfVertices nodes without
+	 * resizing its internal hash tables.
+	 */
+	public UndirectedGraph(int numberOfVertices) {
+		super(numberOfVertices);
+	}
+
 	public Arc addDirectedEdge(Integer input, Integer output) {
 		return null;
 	}
@@ -3,6 +3,7 @@ package graphTheory.instances;
 import graphTheory.algorithms.Algorithm;
 import graphTheory.graph.Arc;
 import graphTheory.graph.Graph;
+import graphTheory.utils.Collections2;
 
 import java.util.HashMap;
 import java.util.Iterator;
@@ -142,6 +143,18 @@ public class ArcCostGraphInstance extends GraphInstance implements Cloneable {
 		costs.put(a, cost);
 	}
 
+	/**
+	 * Prepare this instance to receive the costs of numberOfArcs arcs without
+	 * resizing the map of the costs. Do nothing if a cost was already set.
+	 *
+	 * @param numberOfArcs
+	 */
+	public void initCosts(int numberOfArcs) {
+		if (costs == null)
+			costs = new HashMap<Arc, Number>(
+					Collections2.hashCapacity(numberOfArcs));
+	}
+
 	/**
 	 * Set the cost of the arc (n1,n2) to cost. If (n1,n2) does not belong to
 	 * the graph associated with this instance, do nothing.
@@ -0,0 +1,664 @@
+package graphTheory.steinLib;
+
+import graphTheory.events.InstanceLoadEvent;
+import graphTheory.generators.steinLib.STPGenerator;
+import graphTheory.graph.Arc;
+import graphTheory.graph.DirectedGraph;
+import graphTheory.instances.steiner.classic.SteinerDirectedInstance;
+import graphTheory.instances.steiner.classic.SteinerInstance;
+import graphTheory.instances.steiner.eoliennes.EolienneInstance;
+import graphTheory.utils.CompressedFiles;
+import graphTheory.utils.FileManager;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class contains static methods to translate a
+ * {@link SteinerDirectedInstance} or an {@link EolienneInstance} into a
+ * compact binary file, to translate such a file back into an instance, and to
+ * convert whole directories of .stp files into binary files.
+ * <p>
+ * Loading a binary file does not parse anything : the file is memory-mapped
+ * and its arrays are copied in bulk before the graph is built. The instance
+ * is identical to the one translated from the .stp file, including the
+ * iteration order of its nodes and arcs, so that the algorithms run exactly
+ * in the same way on both.
+ * <p>
+ * A binary file contains, in big-endian order:
+ * <ul>
+ * <li>a header : the int "SBIN", the version of the format, the kind of
+ * instance (0 for a {@link SteinerDirectedInstance}, 1 for an
+ * {@link EolienneInstance}), flags telling if the costs are doubles and if
+ * the name, the optimum value and an optimal solution are given, the number
+ * of nodes n, of arcs m and of terminals k, the index of the root (-1 if
+ * there is none), the optimum value (a double) and the name (an int length
+ * followed by UTF-8 bytes);</li>
+ * <li>the n ids of the nodes, in their insertion order, and the indexes of
+ * the k terminals;</li>
+ * <li>the arcs in a compressed sparse row layout : the n + 1 offsets of the
+ * output arcs of each node, the m indexes of the outputs of the arcs, and
+ * their m costs (ints or doubles);</li>
+ * <li>the m positions, in the previous arrays, of the arcs in their
+ * insertion order;</li>
+ * <li>the number of arcs in the optimal solution and their positions;</li>
+ * <li>for an {@link EolienneInstance}, its parameters, its capacity costs
+ * and the maximum output degree of its nodes.</li>
+ * </ul>
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class BinaryInstanceTranslator {
+
+	/**
+	 * Extension of the binary files written by the converter.
+	 */
+	public static final String EXTENSION = ".sbin";
+
+	/**
+	 * First int of a binary instance file : "SBIN".
+	 */
+	private static final int MAGIC = 0x5342494E;
+
+	/**
+	 * Version of the format of a binary instance file.
+	 */
+	static final int VERSION = 1;
+
+	private static final int STEINER_DIRECTED_INSTANCE = 0;
+	private static final int EOLIENNE_INSTANCE = 1;
+
+	private static final int DOUBLE_COSTS = 1;
+	private static final int NAME = 2;
+	private static final int OPTIMUM_VALUE = 4;
+	private static final int OPTIMUM = 8;
+
+	private static final int MAX_NB_SEC = 1;
+	private static final int DISTANCE_MIN = 2;
+	private static final int STATIC_STATIC_BRANCHING_NODE_COST = 4;
+	private static final int DYNAMIC_STATIC_BRANCHING_NODE_COST = 8;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * Translate the instance g into a binary file, which path is path. The
+	 * name, the optimum value and the optimal solution associated with the
+	 * graph of g with the parameters of {@link STPGenerator} are written if
+	 * they are defined.
+	 *
+	 * @param g
+	 * @param path
+	 * @throws IOException
+	 */
+	public static void translateInstance(SteinerDirectedInstance g,
+			String path) throws IOException {
+		ArrayList<Integer> nodes = new ArrayList<Integer>(g.getGraph()
+				.getNumberOfVertices());
+		Iterator<Integer> it = g.getGraph().getVerticesIterator();
+		while (it.hasNext())
+			nodes.add(it.next());
+
+		ArrayList<Arc> arcs = new ArrayList<Arc>(g.getGraph()
+				.getNumberOfEdges());
+		Iterator<Arc> it2 = g.getGraph().getEdgesIterator();
+		while (it2.hasNext())
+			arcs.add(it2.next());
+
+		Object name = g.getGraph().getParam(
+				STPGenerator.OUTPUT_NAME_PARAM_NAME);
+		Object optimumValue = g.getGraph().getParam(
+				STPGenerator.OUTPUT_OPTIMUM_VALUE_PARAM_NAME);
+		@SuppressWarnings("unchecked")
+		Collection<Arc> optimum = (Collection<Arc>) g.getGraph().getParam(
+				STPGenerator.OUTPUT_OPTIMUM_PARAM_NAME);
+
+		write(g, nodes, arcs, (name == null) ? null : name.toString(),
+				(Number) optimumValue, optimum, path);
+	}
+
+	/**
+	 * Write the instance g into a binary file which path is path.
+	 *
+	 * @param nodes
+	 *            the nodes of g, in the order they should be inserted in the
+	 *            graph when the file is read.
+	 * @param arcs
+	 *            the arcs of g, in the order they should be inserted in the
+	 *            graph when the file is read.
+	 * @param name
+	 *            the name of the instance, or null.
+	 * @param optimumValue
+	 *            the cost of an optimal solution, or null.
+	 * @param optimum
+	 *            the arcs of an optimal solution, or null.
+	 * @throws IOException
+	 */
+	static void write(SteinerDirectedInstance g, List<Integer> nodes,
+			List<Arc> arcs, String name, Number optimumValue,
+			Collection<Arc> optimum, String path) throws IOException {
+		int n = nodes.size();
+		int m = arcs.size();
+
+		HashMap<Integer, Integer> nodeIndexes = new HashMap<Integer, Integer>();
+		int[] ids = new int[n];
+		for (int i = 0; i < n; i++) {
+			ids[i] = nodes.get(i);
+			nodeIndexes.put(nodes.get(i), i);
+		}
+
+		// Sort the arcs by input with a counting sort
+		int[] tails = new int[m];
+		int[] outOffsets = new int[n + 1];
+		boolean hasDoubleCosts = false;
+		for (int r = 0; r < m; r++) {
+			Arc a = arcs.get(r);
+			tails[r] = nodeIndexes.get(a.getInput());
+			outOffsets[tails[r] + 1]++;
+			if (!(g.getCost(a) instanceof Integer))
+				hasDoubleCosts = true;
+		}
+		for (int i = 0; i < n; i++)
+			outOffsets[i + 1] += outOffsets[i];
+
+		int[] next = Arrays.copyOf(outOffsets, n);
+		int[] positions = new int[m];
+		int[] heads = new int[m];
+		int[] intCosts = hasDoubleCosts ? null : new int[m];
+		double[] doubleCosts = hasDoubleCosts ? new double[m] : null;
+		HashMap<Arc, Integer> arcPositions = new HashMap<Arc, Integer>();
+		for (int r = 0; r < m; r++) {
+			Arc a = arcs.get(r);
+			int p = next[tails[r]]++;
+			positions[r] = p;
+			heads[p] = nodeIndexes.get(a.getOutput());
+			if (hasDoubleCosts)
+				doubleCosts[p] = g.getDoubleCost(a);
+			else
+				intCosts[p] = g.getIntCost(a);
+			arcPositions.put(a, p);
+		}
+
+		int[] optimumPositions = null;
+		if (optimum != null) {
+			optimumPositions = new int[optimum.size()];
+			int i = 0;
+			for (Arc a : optimum) {
+				Integer p = arcPositions.get(a);
+				if (p == null)
+					throw new IllegalArgumentException("The optimal arc " + a
+							+ " is not an arc of the instance.");
+				optimumPositions[i++] = p;
+			}
+		}
+
+		boolean isEolienne = g instanceof EolienneInstance;
+		int flags = (hasDoubleCosts ? DOUBLE_COSTS : 0)
+				| (name != null ? NAME : 0)
+				| (optimumValue != null ? OPTIMUM_VALUE : 0)
+				| (optimum != null ? OPTIMUM : 0);
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				new FileOutputStream(path), 1 << 16));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(isEolienne ? EOLIENNE_INSTANCE
+					: STEINER_DIRECTED_INSTANCE);
+			out.writeInt(flags);
+			out.writeInt(n);
+			out.writeInt(m);
+			out.writeInt(g.getNumberOfRequiredVertices());
+			Integer root = g.getRoot();
+			out.writeInt((root == null) ? -1 : nodeIndexes.get(root));
+			out.writeDouble((optimumValue == null) ? 0D : optimumValue
+					.doubleValue());
+			byte[] nameBytes = (name == null) ? new byte[0] : name
+					.getBytes(UTF8);
+			out.writeInt(nameBytes.length);
+			out.write(nameBytes);
+
+			writeInts(out, ids);
+			Iterator<Integer> it = g.getRequiredVerticesIterator();
+			while (it.hasNext())
+				out.writeInt(nodeIndexes.get(it.next()));
+
+			writeInts(out, outOffsets);
+			writeInts(out, heads);
+			if (hasDoubleCosts)
+				for (double c : doubleCosts)
+					out.writeDouble(c);
+			else
+				writeInts(out, intCosts);
+			writeInts(out, positions);
+
+			if (optimum != null) {
+				out.writeInt(optimumPositions.length);
+				writeInts(out, optimumPositions);
+			}
+
+			if (isEolienne)
+				writeEolienneParameters(out, (EolienneInstance) g);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static void writeInts(DataOutputStream out, int[] values)
+			throws IOException {
+		for (int v : values)
+			out.writeInt(v);
+	}
+
+	private static void writeEolienneParameters(DataOutputStream out,
+			EolienneInstance g) throws IOException {
+		int flags = (g.getMaxNbSec() != null ? MAX_NB_SEC : 0)
+				| (g.getDistanceMin() != null ? DISTANCE_MIN : 0)
+				| (g.getStaticStaticBranchingNodeCost() != null ? STATIC_STATIC_BRANCHING_NODE_COST
+						: 0)
+				| (g.getDynamicStaticBranchingNodeCost() != null ? DYNAMIC_STATIC_BRANCHING_NODE_COST
+						: 0);
+		out.writeInt(flags);
+		out.writeInt((g.getMaxNbSec() == null) ? 0 : g.getMaxNbSec());
+		out.writeDouble((g.getDistanceMin() == null) ? 0D : g
+				.getDistanceMin());
+		out.writeDouble((g.getStaticStaticBranchingNodeCost() == null) ? 0D
+				: g.getStaticStaticBranchingNodeCost());
+		out.writeDouble((g.getDynamicStaticBranchingNodeCost() == null) ? 0D
+				: g.getDynamicStaticBranchingNodeCost());
+
+		out.writeInt(g.getStaticCapacities().size());
+		for (Integer capacity : g.getStaticCapacities()) {
+			out.writeInt(capacity);
+			out.writeDouble(g.getStaticCapacityCost(capacity));
+		}
+		out.writeInt(g.getDynamicCapacities().size());
+		for (Integer capacity : g.getDynamicCapacities()) {
+			out.writeInt(capacity);
+			out.writeDouble(g.getDynamicCapacityCost(capacity));
+		}
+
+		HashMap<Integer, Integer> degrees = g.getMaximumOutputDegree();
+		degrees.remove(null);
+		out.writeInt(degrees.size());
+		for (Integer node : degrees.keySet()) {
+			out.writeInt(node);
+			out.writeInt(degrees.get(node));
+		}
+	}
+
+	/**
+	 * Return the {@link SteinerDirectedInstance} or the
+	 * {@link EolienneInstance} written in the binary file path. The name, the
+	 * optimum value and the optimal solution, if they were written, are
+	 * associated with the graph with the parameters of {@link STPGenerator}.
+	 *
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 *             if the file cannot be read or was not written by this
+	 *             class.
+	 */
+	public static SteinerDirectedInstance translateFile(String path)
+			throws IOException {
+		InstanceLoadEvent event = new InstanceLoadEvent();
+		event.begin();
+		SteinerDirectedInstance g = parseFile(path);
+		event.end(path, "binary", g);
+		return g;
+	}
+
+	private static SteinerDirectedInstance parseFile(String path)
+			throws IOException {
+		ByteBuffer buffer;
+		RandomAccessFile file = new RandomAccessFile(path, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			if (channel.size() > Integer.MAX_VALUE)
+				throw new IOException(path + " is too large to be mapped");
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					channel.size());
+		} finally {
+			file.close();
+		}
+
+		try {
+			if (buffer.getInt() != MAGIC)
+				throw new IOException(path + " is not a binary instance file");
+			int version = buffer.getInt();
+			if (version != VERSION)
+				throw new IOException(path
+						+ " : unsupported binary instance version " + version);
+			return read(buffer);
+		} catch (RuntimeException e) {
+			// BufferUnderflowException, IndexOutOfBoundsException...
+			throw new IOException(path + " is corrupted", e);
+		}
+	}
+
+	private static SteinerDirectedInstance read(ByteBuffer buffer)
+			throws IOException {
+		int kind = buffer.getInt();
+		int flags = buffer.getInt();
+		int n = buffer.getInt();
+		int m = buffer.getInt();
+		int k = buffer.getInt();
+		int root = buffer.getInt();
+		double optimumValue = buffer.getDouble();
+		byte[] nameBytes = new byte[buffer.getInt()];
+		buffer.get(nameBytes);
+
+		int[] ids = readInts(buffer, n);
+		int[] terminals = readInts(buffer, k);
+		int[] outOffsets = readInts(buffer, n + 1);
+		int[] heads = readInts(buffer, m);
+		boolean hasDoubleCosts = (flags & DOUBLE_COSTS) != 0;
+		int[] intCosts = null;
+		double[] doubleCosts = null;
+		if (hasDoubleCosts) {
+			doubleCosts = new double[m];
+			buffer.asDoubleBuffer().get(doubleCosts);
+			buffer.position(buffer.position() + 8 * m);
+		} else
+			intCosts = readInts(buffer, m);
+		int[] positions = readInts(buffer, m);
+		int[] optimumPositions = null;
+		if ((flags & OPTIMUM) != 0)
+			optimumPositions = readInts(buffer, buffer.getInt());
+
+		// The same Integer objects are shared by all the arcs of a node
+		Integer[] nodes = new Integer[n];
+		for (int i = 0; i < n; i++)
+			nodes[i] = ids[i];
+		int[] tails = new int[m];
+		for (int i = 0; i < n; i++)
+			Arrays.fill(tails, outOffsets[i], outOffsets[i + 1], i);
+
+		DirectedGraph graph = new DirectedGraph(n);
+		SteinerDirectedInstance g;
+		if (kind == EOLIENNE_INSTANCE)
+			g = new EolienneInstance(graph);
+		else if (kind == STEINER_DIRECTED_INSTANCE)
+			g = new SteinerDirectedInstance(graph);
+		else
+			throw new IOException("Unknown kind of instance " + kind);
+		g.initCosts(m);
+
+		for (int i = 0; i < n; i++)
+			graph.addVertice(nodes[i]);
+		Arc[] arcs = new Arc[m];
+		for (int r = 0; r < m; r++) {
+			int p = positions[r];
+			Arc a = graph.addDirectedEdge(nodes[tails[p]], nodes[heads[p]]);
+			arcs[p] = a;
+			if (hasDoubleCosts)
+				g.setCost(a, doubleCosts[p]);
+			else
+				g.setCost(a, intCosts[p]);
+		}
+
+		if (root >= 0)
+			g.setRoot(nodes[root]);
+		for (int t : terminals)
+			g.setRequired(nodes[t], true);
+
+		if ((flags & NAME) != 0)
+			graph.defineParam(STPGenerator.OUTPUT_NAME_PARAM_NAME, new String(
+					nameBytes, UTF8));
+		if ((flags & OPTIMUM_VALUE) != 0) {
+			if (hasDoubleCosts)
+				graph.defineParam(STPGenerator.OUTPUT_OPTIMUM_VALUE_PARAM_NAME,
+						optimumValue);
+			else
+				graph.defineParam(STPGenerator.OUTPUT_OPTIMUM_VALUE_PARAM_NAME,
+						(int) optimumValue);
+		}
+		if (optimumPositions != null) {
+			HashSet<Arc> optimum = new HashSet<Arc>();
+			for (int p : optimumPositions)
+				optimum.add(arcs[p]);
+			graph.defineParam(STPGenerator.OUTPUT_OPTIMUM_PARAM_NAME, optimum);
+		}
+
+		if (kind == EOLIENNE_INSTANCE)
+			readEolienneParameters(buffer, (EolienneInstance) g);
+		return g;
+	}
+
+	private static int[] readInts(ByteBuffer buffer, int size) {
+		int[] values = new int[size];
+		buffer.asIntBuffer().get(values);
+		buffer.position(buffer.position() + 4 * size);
+		return values;
+	}
+
+	private static void readEolienneParameters(ByteBuffer buffer,
+			EolienneInstance g) {
+		int flags = buffer.getInt();
+		int maxNbSec = buffer.getInt();
+		double distanceMin = buffer.getDouble();
+		double ststCost = buffer.getDouble();
+		double stdynCost = buffer.getDouble();
+		if ((flags & MAX_NB_SEC) != 0)
+			g.setMaxNbSec(maxNbSec);
+		if ((flags & DISTANCE_MIN) != 0)
+			g.setDistanceMin(distanceMin);
+		if ((flags & STATIC_STATIC_BRANCHING_NODE_COST) != 0)
+			g.setStaticStaticBranchingNodeCost(ststCost);
+		if ((flags & DYNAMIC_STATIC_BRANCHING_NODE_COST) != 0)
+			g.setDynamicStaticBranchingNodeCost(stdynCost);
+
+		int size = buffer.getInt();
+		for (int i = 0; i < size; i++) {
+			int capacity = buffer.getInt();
+			g.setStaticCapacityCost(capacity, buffer.getDouble());
+		}
+		size = buffer.getInt();
+		for (int i = 0; i < size; i++) {
+			int capacity = buffer.getInt();
+			g.setDynamicCapacityCost(capacity, buffer.getDouble());
+		}
+		size = buffer.getInt();
+		HashMap<Integer, Integer> degrees = new HashMap<Integer, Integer>();
+		for (int i = 0; i < size; i++) {
+			int node = buffer.getInt();
+			degrees.put(node, buffer.getInt());
+		}
+		g.setMaximumOutputDegree(degrees);
+	}
+
+	/**
+	 * Translate the .stp file stpPath, describing a directed Steiner instance
+	 * or a wind farm instance, into the binary file binPath. The nodes and the
+	 * arcs are written in the order of the .stp file.
+	 *
+	 * @param name
+	 *            the name of the instance, or null.
+	 * @param optimumValue
+	 *            the cost of an optimal solution, or null.
+	 * @param optimum
+	 *            the description of an optimal solution, as written in the
+	 *            .results files : "[1 ---> 2, 2 ---> 3]", or null.
+	 * @return the number of arcs of the instance, or -1 if the .stp file
+	 *         describes an undirected instance, which cannot be translated.
+	 * @throws IOException
+	 * @throws STPTranslationException
+	 * @throws STPTranslationEolienneException
+	 */
+	public static int convertFile(String stpPath, String binPath, String name,
+			Integer optimumValue, String optimum) throws IOException,
+			STPTranslationException, STPTranslationEolienneException {
+		FileManager f = new FileManager();
+		f.openRead(stpPath);
+		String firstLine = f.readLine();
+		f.closeRead();
+
+		ArrayList<Arc> arcs = new ArrayList<Arc>();
+		SteinerInstance g;
+		if (firstLine != null && firstLine.toLowerCase().contains("33d32946"))
+			g = STPEolienneTranslator.translateFile(stpPath, arcs);
+		else
+			g = STPMappedTranslator.translateFile(stpPath, arcs);
+		if (!(g instanceof SteinerDirectedInstance))
+			return -1;
+
+		LinkedHashSet<Integer> nodes = new LinkedHashSet<Integer>();
+		for (Arc a : arcs) {
+			nodes.add(a.getInput());
+			nodes.add(a.getOutput());
+		}
+
+		HashSet<Arc> optimumArcs = null;
+		if (optimum != null && optimum.length() > 2) {
+			optimumArcs = new HashSet<Arc>();
+			for (String arc : optimum.substring(1, optimum.length() - 1)
+					.split(", "))
+				optimumArcs.add(Arc.valueOf(arc));
+		}
+
+		write((SteinerDirectedInstance) g, new ArrayList<Integer>(nodes),
+				arcs, name, optimumValue, optimumArcs, binPath);
+		return arcs.size();
+	}
+
+	/**
+	 * Translate every .stp file of the directory source and of its
+	 * subdirectories into a binary file in the directory target, with the
+	 * same name and the extension {@link #EXTENSION}. The subdirectories of
+	 * source are translated in the subdirectories of target with the same
+	 * names. The compressed .stp files and the ZIP archives are read as
+	 * described in {@link CompressedFiles} : a file X.stp.gz is translated as
+	 * X.stp, and an archive X.zip as a subdirectory X.
+	 * <p>
+	 * If resultsDirectory is not null and contains, for a directory named X, a
+	 * file X.results, the optimum values and solutions it contains are
+	 * written with the instances of X.
+	 *
+	 * @return the number of translated files.
+	 */
+	public static int convertDirectory(File source, File target,
+			File resultsDirectory) {
+		File[] files = CompressedFiles.listFiles(source.getPath());
+		if (files == null)
+			return 0;
+		Arrays.sort(files);
+		target.mkdirs();
+
+		HashMap<String, String[]> results = new HashMap<String, String[]>();
+		if (resultsDirectory != null) {
+			File resultsFile = new File(resultsDirectory,
+					getDirectoryName(source) + ".results");
+			if (resultsFile.isFile())
+				results = readResults(resultsFile.getPath());
+		}
+
+		Pattern p = Pattern.compile("((\\w|-)+)\\.stp");
+		int count = 0;
+		for (File f : files) {
+			if (f.isDirectory() || CompressedFiles.isZipArchive(f.getPath())) {
+				count += convertDirectory(f, new File(target,
+						getDirectoryName(f)), resultsDirectory);
+				continue;
+			}
+			Matcher m = p.matcher(CompressedFiles.getUncompressedName(f
+					.getPath()));
+			if (!m.matches())
+				continue;
+			String name = m.group(1);
+			String[] result = results.get(name);
+			File binFile = new File(target, name + EXTENSION);
+			try {
+				int arcs = convertFile(f.getPath(), binFile.getPath(), name,
+						(result == null) ? null : Integer.valueOf(result[0]),
+						(result == null) ? null : result[1]);
+				if (arcs < 0)
+					System.err.println(f.getPath()
+							+ " : undirected instance, skipped");
+				else {
+					System.out.println(f.getPath() + " -> " + binFile.getPath()
+							+ " (" + arcs + " arcs)");
+					count++;
+				}
+			} catch (IOException e) {
+				System.err.println(f.getPath() + " : " + e.getMessage());
+			} catch (STPTranslationException e) {
+				System.err.println(e.getMessage());
+			} catch (STPTranslationEolienneException e) {
+				System.err.println(e.getMessage());
+			} catch (IllegalArgumentException e) {
+				System.err.println(f.getPath() + " : " + e.getMessage());
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return the name of the directory or of the ZIP archive f, without the
+	 *         extension {@link CompressedFiles#ZIP_EXTENSION}.
+	 */
+	private static String getDirectoryName(File f) {
+		String name = f.getName();
+		if (CompressedFiles.isZipArchive(f.getPath()))
+			name = name.substring(0,
+					name.length() - CompressedFiles.ZIP_EXTENSION.length());
+		return name;
+	}
+
+	/**
+	 * @return for each instance name in the .results file resultsFileName,
+	 *         the cost of an optimal solution and the description of that
+	 *         solution (possibly empty).
+	 */
+	private static HashMap<String, String[]> readResults(String resultsFileName) {
+		HashMap<String, String[]> results = new HashMap<String, String[]>();
+		FileManager fm = new FileManager();
+		fm.openRead(resultsFileName);
+		Pattern p = Pattern.compile("((\\w|-)+) (\\d+)(.*)");
+		String line;
+		while ((line = fm.readLine()) != null) {
+			Matcher m = p.matcher(line);
+			if (m.matches())
+				results.put(m.group(1),
+						new String[] { m.group(3), m.group(4).trim() });
+		}
+		fm.closeRead();
+		return results;
+	}
+
+	/**
+	 * Convert a directory of .stp files into binary files.
+	 *
+	 * @param args
+	 *            the source directory, the target directory, and optionally
+	 *            a directory containing .results files.
+	 */
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.err.println("Usage : BinaryInstanceTranslator"
+					+ " <stp directory> <target directory> [<results directory>]");
+			System.exit(1);
+		}
+		long start = System.currentTimeMillis();
+		int count = convertDirectory(new File(args[0]), new File(args[1]),
+				(args.length > 2) ? new File(args[2]) : null);
+		System.out.println(count + " instances converted in "
+				+ (System.currentTimeMillis() - start) + " ms");
+	}
+}
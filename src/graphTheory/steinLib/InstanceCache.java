@@ -0,0 +1,299 @@
+package graphTheory.steinLib;
+
+import graphTheory.graph.Arc;
+import graphTheory.instances.steiner.classic.SteinerDirectedInstance;
+import graphTheory.instances.steiner.classic.SteinerInstance;
+import graphTheory.instances.steiner.eoliennes.EolienneInstance;
+import graphTheory.utils.CompressedFiles;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A directory containing the binary translation (see
+ * {@link BinaryInstanceTranslator}) of the .stp files already translated,
+ * so that the next translations of those files do not parse them.
+ * <p>
+ * An entry is identified by the SHA-1 hash of the decompressed content of
+ * the .stp file, the translator used and the version of the binary format.
+ * An entry is then not used anymore when its .stp file is modified, or when
+ * the format changes, whatever the path of the file. A compressed file, or a
+ * file of an archive, shares the entry of the same file uncompressed. The
+ * instances read from the cache are identical to the translated ones,
+ * including the iteration order of their nodes and arcs.
+ * <p>
+ * The total size of the entries is bounded by a quota : when a new entry
+ * exceeds the quota, the least recently used entries are deleted. The last
+ * use of an entry is its last modification date.
+ * <p>
+ * The cache can be used by several threads and several processes at the same
+ * time : an entry is written in a temporary file, and then renamed.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class InstanceCache {
+
+	/**
+	 * Default maximum size, in bytes, of the entries : 1GB.
+	 */
+	public static final long DEFAULT_QUOTA = 1L << 30;
+
+	private static final String DIRECTED = "d";
+	private static final String EOLIENNE = "e";
+
+	private File directory;
+	private long quota;
+
+	private AtomicInteger hits;
+	private AtomicInteger misses;
+	private AtomicInteger evictions;
+
+	public InstanceCache(String directory) {
+		this(directory, DEFAULT_QUOTA);
+	}
+
+	/**
+	 * @param directory
+	 *            : the directory containing the entries. It is created if it
+	 *            does not exist.
+	 * @param quota
+	 *            : maximum size, in bytes, of the entries.
+	 */
+	public InstanceCache(String directory, long quota) {
+		this.directory = new File(directory);
+		this.directory.mkdirs();
+		this.quota = quota;
+		this.hits = new AtomicInteger();
+		this.misses = new AtomicInteger();
+		this.evictions = new AtomicInteger();
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	public long getQuota() {
+		return quota;
+	}
+
+	/**
+	 * @return the number of translations read from the cache.
+	 */
+	public int getNumberOfHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of translations which parsed the .stp file.
+	 */
+	public int getNumberOfMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * @return the number of entries deleted to respect the quota.
+	 */
+	public int getNumberOfEvictions() {
+		return evictions.get();
+	}
+
+	/**
+	 * Same as {@link STPMappedTranslator#translateDirectedFile(String)}, but
+	 * read the instance from the cache if possible.
+	 *
+	 * @param nomFic
+	 * @return
+	 * @throws STPTranslationException
+	 */
+	public SteinerDirectedInstance translateDirectedFile(String nomFic)
+			throws STPTranslationException {
+		File entry = getEntry(nomFic, DIRECTED);
+		SteinerDirectedInstance g = read(entry);
+		if (g != null)
+			return g;
+
+		misses.incrementAndGet();
+		ArrayList<Arc> arcs = new ArrayList<Arc>();
+		SteinerInstance si = STPMappedTranslator.translateFile(nomFic, arcs);
+		if (!(si instanceof SteinerDirectedInstance))
+			return null;
+		g = (SteinerDirectedInstance) si;
+		write(entry, g, arcs);
+		return g;
+	}
+
+	/**
+	 * Same as {@link STPEolienneTranslator#translateFile(String)}, but read
+	 * the instance from the cache if possible.
+	 *
+	 * @param nomFic
+	 * @return
+	 * @throws STPTranslationException
+	 * @throws STPTranslationEolienneException
+	 */
+	public EolienneInstance translateEolienneFile(String nomFic)
+			throws STPTranslationException, STPTranslationEolienneException {
+		File entry = getEntry(nomFic, EOLIENNE);
+		SteinerDirectedInstance g = read(entry);
+		if (g instanceof EolienneInstance)
+			return (EolienneInstance) g;
+
+		misses.incrementAndGet();
+		ArrayList<Arc> arcs = new ArrayList<Arc>();
+		EolienneInstance eol = STPEolienneTranslator.translateFile(nomFic,
+				arcs);
+		write(entry, eol, arcs);
+		return eol;
+	}
+
+	/**
+	 * @return the file of the entry of the .stp file nomFic translated by the
+	 *         translator kind, or null if nomFic cannot be read.
+	 */
+	private File getEntry(String nomFic, String kind) {
+		String hash;
+		try {
+			hash = hash(nomFic);
+		} catch (IOException e) {
+			// The translator will report the error
+			return null;
+		}
+		return new File(directory, hash + "-" + kind + "-v"
+				+ BinaryInstanceTranslator.VERSION
+				+ BinaryInstanceTranslator.EXTENSION);
+	}
+
+	private static String hash(String nomFic) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+		// The decompressed content is hashed, so that a compressed file and
+		// an entry of an archive are hashed too.
+		InputStream is = CompressedFiles.open(nomFic);
+		try {
+			byte[] buffer = new byte[1 << 16];
+			int length;
+			while ((length = is.read(buffer)) >= 0)
+				digest.update(buffer, 0, length);
+		} finally {
+			is.close();
+		}
+
+		StringBuilder sb = new StringBuilder();
+		for (byte b : digest.digest())
+			sb.append(String.format("%02x", b));
+		return sb.toString();
+	}
+
+	/**
+	 * @return the instance of the entry, or null if there is no such entry.
+	 *         A corrupted entry is deleted.
+	 */
+	private SteinerDirectedInstance read(File entry) {
+		if (entry == null || !entry.isFile())
+			return null;
+		try {
+			SteinerDirectedInstance g = BinaryInstanceTranslator
+					.translateFile(entry.getPath());
+			entry.setLastModified(System.currentTimeMillis());
+			hits.incrementAndGet();
+			return g;
+		} catch (IOException e) {
+			System.err.println(e.getMessage());
+			entry.delete();
+			return null;
+		}
+	}
+
+	/**
+	 * Write the entry of g, which arcs, in the order of the .stp file, are
+	 * arcs. An entry which cannot be written is ignored.
+	 */
+	private void write(File entry, SteinerDirectedInstance g, ArrayList<Arc> arcs) {
+		if (entry == null)
+			return;
+		LinkedHashSet<Integer> nodes = new LinkedHashSet<Integer>();
+		for (Arc a : arcs) {
+			nodes.add(a.getInput());
+			nodes.add(a.getOutput());
+		}
+
+		File tmp = null;
+		try {
+			tmp = File.createTempFile(entry.getName(), ".tmp", directory);
+			BinaryInstanceTranslator.write(g, new ArrayList<Integer>(nodes),
+					arcs, null, null, null, tmp.getPath());
+			if (!tmp.renameTo(entry) && !entry.isFile())
+				throw new IOException("cannot rename " + tmp + " into " + entry);
+		} catch (IOException e) {
+			System.err.println("Instance cache : " + e.getMessage());
+		} finally {
+			if (tmp != null)
+				tmp.delete();
+		}
+		evict();
+	}
+
+	/**
+	 * Delete the least recently used entries until the total size of the
+	 * entries is lower than the quota.
+	 */
+	private synchronized void evict() {
+		File[] entries = directory.listFiles(new FileFilter() {
+			@Override
+			public boolean accept(File f) {
+				return f.isFile()
+						&& f.getName().endsWith(
+								BinaryInstanceTranslator.EXTENSION);
+			}
+		});
+		if (entries == null)
+			return;
+
+		long size = 0;
+		final long[] lastModified = new long[entries.length];
+		Integer[] order = new Integer[entries.length];
+		for (int i = 0; i < entries.length; i++) {
+			size += entries[i].length();
+			lastModified[i] = entries[i].lastModified();
+			order[i] = i;
+		}
+		if (size <= quota)
+			return;
+
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i, Integer j) {
+				return Long.compare(lastModified[i], lastModified[j]);
+			}
+		});
+		for (int i = 0; i < order.length && size > quota; i++) {
+			File f = entries[order[i]];
+			long length = f.length();
+			if (f.delete()) {
+				size -= length;
+				evictions.incrementAndGet();
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Instance cache " + directory.getPath() + " : "
+				+ getNumberOfHits() + " hits, " + getNumberOfMisses()
+				+ " misses, " + getNumberOfEvictions() + " evictions";
+	}
+}
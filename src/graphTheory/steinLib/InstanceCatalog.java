@@ -0,0 +1,536 @@
+package graphTheory.steinLib;
+
+import graphTheory.graph.Arc;
+import graphTheory.instances.steiner.classic.SteinerDirectedInstance;
+import graphTheory.instances.steiner.classic.SteinerInstance;
+import graphTheory.utils.CompressedFiles;
+import graphTheory.utils.FileManager;
+import graphTheory.utils.Foncteur;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A list of {@link InstanceDescription}s of the .stp files of a directory
+ * tree, so that instances can be selected by their size without reading them.
+ * The compressed .stp files and the .stp files of the ZIP archives of the
+ * tree are described too (see {@link CompressedFiles}).
+ * <p>
+ * The catalog is built in one pass by several threads, each one translating
+ * a file and describing it. It is stored in a text file : a comment line
+ * naming the fields, and then one line per instance (see
+ * {@link InstanceDescription#toLine()}), sorted by path.
+ * <p>
+ * The instances are selected with a {@link Foncteur} or with an expression
+ * (see {@link #getPredicate(String)}), for example
+ * "arcs &lt; 1e5 and terminals &gt; 50".
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class InstanceCatalog implements Iterable<InstanceDescription> {
+
+	private ArrayList<InstanceDescription> descriptions;
+	private HashMap<String, InstanceDescription> descriptionsByName;
+
+	public InstanceCatalog(List<InstanceDescription> descriptions) {
+		this.descriptions = new ArrayList<InstanceDescription>(descriptions);
+		this.descriptionsByName = new HashMap<String, InstanceDescription>();
+		for (InstanceDescription d : descriptions)
+			descriptionsByName.put(d.getName(), d);
+	}
+
+	public int size() {
+		return descriptions.size();
+	}
+
+	@Override
+	public Iterator<InstanceDescription> iterator() {
+		return Collections.unmodifiableList(descriptions).iterator();
+	}
+
+	/**
+	 * @param name
+	 * @return the description of the instance named name, or null if there
+	 *         is none. If several instances have the same name, the last one
+	 *         is returned.
+	 */
+	public InstanceDescription get(String name) {
+		return descriptionsByName.get(name);
+	}
+
+	/**
+	 * @param predicate
+	 * @return the descriptions satisfying predicate, in the order of the
+	 *         catalog.
+	 */
+	public List<InstanceDescription> select(
+			Foncteur<InstanceDescription, Boolean> predicate) {
+		ArrayList<InstanceDescription> selection = new ArrayList<InstanceDescription>();
+		for (InstanceDescription d : descriptions)
+			if (predicate.apply(d))
+				selection.add(d);
+		return selection;
+	}
+
+	/**
+	 * @param expression
+	 *            : see {@link #getPredicate(String)}
+	 * @return the descriptions satisfying the expression, in the order of the
+	 *         catalog.
+	 */
+	public List<InstanceDescription> select(String expression) {
+		return select(getPredicate(expression));
+	}
+
+	/*
+	 * --------------------------------------------- Build, read and write
+	 * ---------------------------------------------
+	 */
+
+	/**
+	 * Describe every .stp file of the directory root and of its
+	 * subdirectories.
+	 * <p>
+	 * The optimum value of an instance is read in the .results files of the
+	 * resultsDirectories, whose lines start with the name of an instance and
+	 * its optimum value, as read by
+	 * {@link graphTheory.generators.steinLib.STPGenerator} ; the group of an
+	 * instance is the name of the .results file containing it, or, if there is
+	 * none, the {@link SteinLibInstancesGroups} matching its name. A file
+	 * which cannot be translated is not described.
+	 *
+	 * @param root
+	 * @param resultsDirectories
+	 * @param numberOfThreads
+	 * @return
+	 */
+	public static InstanceCatalog build(String root,
+			List<String> resultsDirectories, int numberOfThreads) {
+		final HashMap<String, String[]> results = new HashMap<String, String[]>();
+		for (String dir : resultsDirectories)
+			readResults(new File(dir), results);
+
+		ArrayList<File> files = new ArrayList<File>();
+		listInstanceFiles(new File(root), files);
+
+		ExecutorService pool = Executors.newFixedThreadPool(
+				Math.max(1, numberOfThreads), new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread t = new Thread(r, "Instance catalog");
+						t.setDaemon(true);
+						return t;
+					}
+				});
+		try {
+			ArrayList<Future<InstanceDescription>> futures = new ArrayList<Future<InstanceDescription>>();
+			for (final File f : files)
+				futures.add(pool.submit(new Callable<InstanceDescription>() {
+					@Override
+					public InstanceDescription call() {
+						return describe(f, results);
+					}
+				}));
+
+			ArrayList<InstanceDescription> descriptions = new ArrayList<InstanceDescription>();
+			for (Future<InstanceDescription> future : futures) {
+				InstanceDescription d;
+				try {
+					d = future.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new RuntimeException(e);
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof RuntimeException)
+						throw (RuntimeException) cause;
+					if (cause instanceof Error)
+						throw (Error) cause;
+					throw new RuntimeException(cause);
+				}
+				if (d != null)
+					descriptions.add(d);
+			}
+			return new InstanceCatalog(descriptions);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static void listInstanceFiles(File dir, List<File> files) {
+		File[] children = CompressedFiles.listFiles(dir.getPath());
+		if (children == null)
+			return;
+		Arrays.sort(children);
+		for (File f : children) {
+			if (f.isDirectory() || CompressedFiles.isZipArchive(f.getPath()))
+				listInstanceFiles(f, files);
+			else if (CompressedFiles.getUncompressedName(f.getPath())
+					.endsWith(".stp"))
+				files.add(f);
+		}
+	}
+
+	/**
+	 * Add to results, for each instance of each .results file of dir, its
+	 * group (the name of the file) and its optimum value.
+	 */
+	private static void readResults(File dir, HashMap<String, String[]> results) {
+		File[] children = dir.listFiles();
+		if (children == null)
+			return;
+		Arrays.sort(children);
+		Pattern p = Pattern.compile("((\\w|-)+) (\\S+)(.*)");
+		for (File f : children) {
+			String fileName = f.getName();
+			if (!f.isFile() || !fileName.endsWith(".results"))
+				continue;
+			String group = fileName.substring(0, fileName.length() - 8);
+			FileManager fm = new FileManager();
+			fm.openRead(f.getPath());
+			String line;
+			while ((line = fm.readLine()) != null) {
+				Matcher m = p.matcher(line);
+				if (m.matches())
+					results.put(m.group(1), new String[] { group, m.group(3) });
+			}
+			fm.closeRead();
+		}
+	}
+
+	/**
+	 * @return the description of the .stp file f, or null if f cannot be
+	 *         translated.
+	 */
+	private static InstanceDescription describe(File f,
+			HashMap<String, String[]> results) {
+		String fileName = CompressedFiles.getUncompressedName(f.getPath());
+		String name = fileName.substring(0, fileName.length() - 4);
+		File stored = CompressedFiles.getStoredFile(f.getPath());
+		long size = stored.length();
+		long lastModified = stored.lastModified();
+
+		SteinerInstance g;
+		try {
+			FileManager fm = new FileManager();
+			fm.openRead(f.getPath());
+			String firstLine = fm.readLine();
+			fm.closeRead();
+			if (firstLine != null
+					&& firstLine.toLowerCase().contains("33d32946"))
+				g = STPEolienneTranslator.translateFile(f.getPath());
+			else
+				g = STPMappedTranslator.translateFile(f.getPath());
+		} catch (STPTranslationException e) {
+			System.err.println(e.getMessage());
+			return null;
+		} catch (STPTranslationEolienneException e) {
+			System.err.println(e.getMessage());
+			return null;
+		}
+
+		double minCost = Double.POSITIVE_INFINITY;
+		double maxCost = Double.NEGATIVE_INFINITY;
+		Iterator<Arc> it = g.getGraph().getEdgesIterator();
+		while (it.hasNext()) {
+			double c = g.getCost(it.next()).doubleValue();
+			minCost = Math.min(minCost, c);
+			maxCost = Math.max(maxCost, c);
+		}
+		if (g.getGraph().getNumberOfEdges() == 0)
+			minCost = maxCost = 0D;
+
+		String group = null;
+		Double optimumValue = null;
+		String[] result = results.get(name);
+		if (result != null) {
+			group = result[0];
+			try {
+				optimumValue = Double.valueOf(result[1]);
+			} catch (NumberFormatException e) {
+				// Unknown optimum
+			}
+		} else {
+			SteinLibInstancesGroups slig = SteinLibInstancesGroups
+					.getGroup(name);
+			if (slig != null)
+				group = slig.toString();
+		}
+
+		return new InstanceDescription(f.getPath(), name, group,
+				g instanceof SteinerDirectedInstance, g.getGraph()
+						.getNumberOfVertices(), g.getGraph()
+						.getNumberOfEdges(), g.getNumberOfRequiredVertices(),
+				minCost, maxCost, optimumValue, size, lastModified);
+	}
+
+	/**
+	 * Write this catalog in the file path.
+	 *
+	 * @param path
+	 */
+	public void write(String path) {
+		FileManager fm = new FileManager();
+		fm.openErase(path);
+		StringBuilder header = new StringBuilder("#");
+		for (String field : InstanceDescription.FIELDS)
+			header.append(' ').append(field);
+		fm.writeln(header.toString());
+		for (InstanceDescription d : descriptions)
+			fm.writeln(d.toLine());
+		fm.closeWrite();
+	}
+
+	/**
+	 * @param path
+	 * @return the catalog written in the file path.
+	 * @throws IllegalArgumentException
+	 *             if a line of the file is not a description.
+	 */
+	public static InstanceCatalog read(String path) {
+		ArrayList<InstanceDescription> descriptions = new ArrayList<InstanceDescription>();
+		FileManager fm = new FileManager();
+		fm.openRead(path);
+		String line;
+		while ((line = fm.readLine()) != null) {
+			if (line.startsWith("#") || line.trim().isEmpty())
+				continue;
+			descriptions.add(InstanceDescription.valueOf(line));
+		}
+		fm.closeRead();
+		return new InstanceCatalog(descriptions);
+	}
+
+	/*
+	 * --------------------------------------------- Predicates
+	 * ---------------------------------------------
+	 */
+
+	private static final Pattern TOKEN = Pattern
+			.compile("\\s*(<=|>=|!=|==|<|>|=|\\(|\\)|[^\\s<>=!()]+)");
+
+	/**
+	 * Return the predicate described by expression. An expression is a
+	 * comparison "field op value", where field is one of
+	 * {@link InstanceDescription#FIELDS} and op is one of &lt;, &lt;=, &gt;,
+	 * &gt;=, = (or ==) and !=, or a combination of expressions with "and",
+	 * "or", "not" and parentheses. "and" has priority over "or".
+	 * <p>
+	 * The numeric fields are compared with numbers, as "arcs &lt; 1e5", and
+	 * the other fields are compared with words, as "group = B", ignoring the
+	 * case. A comparison with an unknown value, as the optimum of an instance
+	 * which optimum is not known, is false.
+	 *
+	 * @param expression
+	 * @return
+	 * @throws IllegalArgumentException
+	 *             if the expression is malformed.
+	 */
+	public static Foncteur<InstanceDescription, Boolean> getPredicate(
+			String expression) {
+		ArrayList<String> tokens = new ArrayList<String>();
+		Matcher m = TOKEN.matcher(expression);
+		int end = 0;
+		while (m.lookingAt()) {
+			tokens.add(m.group(1));
+			end = m.end();
+			m.region(end, expression.length());
+		}
+		if (!expression.substring(end).trim().isEmpty())
+			throw new IllegalArgumentException("Unexpected character in "
+					+ expression + " at " + end);
+
+		int[] position = { 0 };
+		Foncteur<InstanceDescription, Boolean> predicate = parseOr(tokens,
+				position);
+		if (position[0] != tokens.size())
+			throw new IllegalArgumentException("Unexpected "
+					+ tokens.get(position[0]) + " in " + expression);
+		return predicate;
+	}
+
+	private static Foncteur<InstanceDescription, Boolean> parseOr(
+			List<String> tokens, int[] position) {
+		Foncteur<InstanceDescription, Boolean> left = parseAnd(tokens,
+				position);
+		while (position[0] < tokens.size()
+				&& tokens.get(position[0]).equalsIgnoreCase("or")) {
+			position[0]++;
+			final Foncteur<InstanceDescription, Boolean> l = left;
+			final Foncteur<InstanceDescription, Boolean> r = parseAnd(tokens,
+					position);
+			left = new Foncteur<InstanceDescription, Boolean>() {
+				@Override
+				public Boolean apply(InstanceDescription d) {
+					return l.apply(d) || r.apply(d);
+				}
+			};
+		}
+		return left;
+	}
+
+	private static Foncteur<InstanceDescription, Boolean> parseAnd(
+			List<String> tokens, int[] position) {
+		Foncteur<InstanceDescription, Boolean> left = parseNot(tokens,
+				position);
+		while (position[0] < tokens.size()
+				&& tokens.get(position[0]).equalsIgnoreCase("and")) {
+			position[0]++;
+			final Foncteur<InstanceDescription, Boolean> l = left;
+			final Foncteur<InstanceDescription, Boolean> r = parseNot(tokens,
+					position);
+			left = new Foncteur<InstanceDescription, Boolean>() {
+				@Override
+				public Boolean apply(InstanceDescription d) {
+					return l.apply(d) && r.apply(d);
+				}
+			};
+		}
+		return left;
+	}
+
+	private static Foncteur<InstanceDescription, Boolean> parseNot(
+			List<String> tokens, int[] position) {
+		String token = next(tokens, position);
+		if (token.equalsIgnoreCase("not")) {
+			final Foncteur<InstanceDescription, Boolean> p = parseNot(tokens,
+					position);
+			return new Foncteur<InstanceDescription, Boolean>() {
+				@Override
+				public Boolean apply(InstanceDescription d) {
+					return !p.apply(d);
+				}
+			};
+		}
+		if (token.equals("(")) {
+			Foncteur<InstanceDescription, Boolean> p = parseOr(tokens,
+					position);
+			if (!next(tokens, position).equals(")"))
+				throw new IllegalArgumentException("Missing )");
+			return p;
+		}
+		return parseComparison(token, next(tokens, position),
+				next(tokens, position));
+	}
+
+	private static String next(List<String> tokens, int[] position) {
+		if (position[0] >= tokens.size())
+			throw new IllegalArgumentException("Unexpected end of expression");
+		return tokens.get(position[0]++);
+	}
+
+	private static Foncteur<InstanceDescription, Boolean> parseComparison(
+			final String field, final String op, final String value) {
+		boolean known = false;
+		for (String f : InstanceDescription.FIELDS)
+			known |= f.equalsIgnoreCase(field);
+		if (!known)
+			throw new IllegalArgumentException("Unknown field " + field);
+		if (!Arrays.asList("<", "<=", ">", ">=", "=", "==", "!=").contains(op))
+			throw new IllegalArgumentException("Unknown operator " + op);
+
+		Double number = null;
+		try {
+			number = Double.valueOf(value);
+		} catch (NumberFormatException e) {
+			if (!(op.equals("=") || op.equals("==") || op.equals("!=")))
+				throw new IllegalArgumentException(value + " is not a number");
+		}
+		final Double numberValue = number;
+
+		return new Foncteur<InstanceDescription, Boolean>() {
+			@Override
+			public Boolean apply(InstanceDescription d) {
+				Object v = d.getValue(field);
+				if (v == null)
+					return false;
+				int c;
+				if (v instanceof Number && numberValue != null)
+					c = Double.compare(((Number) v).doubleValue(), numberValue);
+				else if (v instanceof Number)
+					return op.equals("!=");
+				else
+					c = v.toString().compareToIgnoreCase(value);
+				switch (op) {
+				case "<":
+					return c < 0;
+				case "<=":
+					return c <= 0;
+				case ">":
+					return c > 0;
+				case ">=":
+					return c >= 0;
+				case "!=":
+					return c != 0;
+				default:
+					return c == 0;
+				}
+			}
+		};
+	}
+
+	/**
+	 * Usage :
+	 * <ul>
+	 * <li>InstanceCatalog build [-threads k] &lt;root directory&gt; &lt;catalog
+	 * file&gt; [&lt;results directory&gt; ...] : describe the .stp files of
+	 * the root directory and write the catalog;</li>
+	 * <li>InstanceCatalog select &lt;catalog file&gt; &lt;expression&gt; :
+	 * print the path of the instances satisfying the expression.</li>
+	 * </ul>
+	 *
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		if (args.length >= 3 && args[0].equals("build")) {
+			int numberOfThreads = Runtime.getRuntime().availableProcessors();
+			int i = 1;
+			if (args[i].equals("-threads") && args.length >= 5) {
+				numberOfThreads = Integer.valueOf(args[i + 1]);
+				i += 2;
+			}
+			String root = args[i];
+			String catalogFile = args[i + 1];
+			List<String> resultsDirectories = Arrays.asList(args).subList(
+					i + 2, args.length);
+			long start = System.currentTimeMillis();
+			InstanceCatalog catalog = build(root, resultsDirectories,
+					numberOfThreads);
+			catalog.write(catalogFile);
+			System.out.println(catalog.size() + " instances described in "
+					+ (System.currentTimeMillis() - start) + " ms");
+		} else if (args.length == 3 && args[0].equals("select")) {
+			List<InstanceDescription> selection;
+			try {
+				selection = read(args[1]).select(args[2]);
+			} catch (IllegalArgumentException e) {
+				System.err.println(e.getMessage());
+				System.exit(1);
+				return;
+			}
+			for (InstanceDescription d : selection)
+				System.out.println(d.getPath());
+		} else {
+			System.err.println("Usage : InstanceCatalog build [-threads k]"
+					+ " <root directory> <catalog file>"
+					+ " [<results directory> ...]");
+			System.err.println("        InstanceCatalog select"
+					+ " <catalog file> <expression>");
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,227 @@
+package graphTheory.steinLib;
+
+import graphTheory.utils.CompressedFiles;
+
+import java.io.File;
+
+/**
+ * The description of an instance file in an {@link InstanceCatalog} : its
+ * name, its group, the size of its graph, the range of its costs and the cost
+ * of an optimal solution if it is known.
+ * <p>
+ * The fields of a description can be read by name with
+ * {@link #getValue(String)}, the names being those of {@link #FIELDS}.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class InstanceDescription {
+
+	/**
+	 * Names of the fields of a description, in the order of a line of a
+	 * catalog file.
+	 */
+	public static final String[] FIELDS = { "path", "name", "group",
+			"directed", "nodes", "arcs", "terminals", "mincost", "maxcost",
+			"optimum", "size", "lastmodified" };
+
+	private String path;
+	private String name;
+	private String group;
+	private boolean directed;
+	private int numberOfNodes;
+	private int numberOfArcs;
+	private int numberOfTerminals;
+	private double minCost;
+	private double maxCost;
+	private Double optimumValue;
+	private long size;
+	private long lastModified;
+
+	public InstanceDescription(String path, String name, String group,
+			boolean directed, int numberOfNodes, int numberOfArcs,
+			int numberOfTerminals, double minCost, double maxCost,
+			Double optimumValue, long size, long lastModified) {
+		this.path = path;
+		this.name = name;
+		this.group = group;
+		this.directed = directed;
+		this.numberOfNodes = numberOfNodes;
+		this.numberOfArcs = numberOfArcs;
+		this.numberOfTerminals = numberOfTerminals;
+		this.minCost = minCost;
+		this.maxCost = maxCost;
+		this.optimumValue = optimumValue;
+		this.size = size;
+		this.lastModified = lastModified;
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	public File getFile() {
+		return new File(path);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the name of the group of the instance, or null if it is unknown.
+	 */
+	public String getGroup() {
+		return group;
+	}
+
+	public boolean isDirected() {
+		return directed;
+	}
+
+	public int getNumberOfNodes() {
+		return numberOfNodes;
+	}
+
+	public int getNumberOfArcs() {
+		return numberOfArcs;
+	}
+
+	public int getNumberOfTerminals() {
+		return numberOfTerminals;
+	}
+
+	public double getMinCost() {
+		return minCost;
+	}
+
+	public double getMaxCost() {
+		return maxCost;
+	}
+
+	/**
+	 * @return the cost of an optimal solution, or null if it is unknown.
+	 */
+	public Double getOptimumValue() {
+		return optimumValue;
+	}
+
+	/**
+	 * @return the size of the file, in bytes, when it was described. The
+	 *         size of a file of a ZIP archive is the size of the archive.
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * @return the last modification date of the file when it was described,
+	 *         or of its archive.
+	 */
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	/**
+	 * @return true if the file was not modified since it was described.
+	 */
+	public boolean isUpToDate() {
+		File f = CompressedFiles.getStoredFile(path);
+		return f.isFile() && f.length() == size
+				&& f.lastModified() == lastModified;
+	}
+
+	/**
+	 * @param field
+	 *            : one of the names in {@link #FIELDS}, ignoring the case.
+	 * @return the value of the field : a String, a Boolean, a Number, or null
+	 *         if the value is unknown.
+	 * @throws IllegalArgumentException
+	 *             if there is no such field.
+	 */
+	public Object getValue(String field) {
+		switch (field.toLowerCase()) {
+		case "path":
+			return path;
+		case "name":
+			return name;
+		case "group":
+			return group;
+		case "directed":
+			return directed;
+		case "nodes":
+			return numberOfNodes;
+		case "arcs":
+			return numberOfArcs;
+		case "terminals":
+			return numberOfTerminals;
+		case "mincost":
+			return minCost;
+		case "maxcost":
+			return maxCost;
+		case "optimum":
+			return optimumValue;
+		case "size":
+			return size;
+		case "lastmodified":
+			return lastModified;
+		default:
+			throw new IllegalArgumentException("Unknown field " + field);
+		}
+	}
+
+	/**
+	 * @return the line describing this instance in a catalog file : the
+	 *         values of the {@link #FIELDS}, separated by tabulations, an
+	 *         unknown value being written "-".
+	 */
+	public String toLine() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < FIELDS.length; i++) {
+			if (i > 0)
+				sb.append('\t');
+			sb.append(format(getValue(FIELDS[i])));
+		}
+		return sb.toString();
+	}
+
+	private static String format(Object value) {
+		if (value == null)
+			return "-";
+		if (value instanceof Double) {
+			double d = (Double) value;
+			if (d == Math.rint(d) && Math.abs(d) < 1e15)
+				return Long.toString((long) d);
+		}
+		return value.toString();
+	}
+
+	/**
+	 * @param line
+	 *            : a line returned by {@link #toLine()}
+	 * @return the description written in line.
+	 * @throws IllegalArgumentException
+	 *             if line is not a description.
+	 */
+	public static InstanceDescription valueOf(String line) {
+		String[] values = line.split("\t");
+		if (values.length != FIELDS.length)
+			throw new IllegalArgumentException("Bad catalog line : " + line);
+		try {
+			return new InstanceDescription(values[0], values[1],
+					values[2].equals("-") ? null : values[2],
+					Boolean.valueOf(values[3]), Integer.valueOf(values[4]),
+					Integer.valueOf(values[5]), Integer.valueOf(values[6]),
+					Double.valueOf(values[7]), Double.valueOf(values[8]),
+					values[9].equals("-") ? null : Double.valueOf(values[9]),
+					Long.valueOf(values[10]), Long.valueOf(values[11]));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Bad catalog line : " + line, e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return toLine();
+	}
+}
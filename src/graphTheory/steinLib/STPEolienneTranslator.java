@@ -9,6 +9,7 @@ import graphTheory.instances.steiner.eoliennes.EolienneInstance;
 import graphTheory.utils.FileManager;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -36,6 +37,15 @@ public class STPEolienneTranslator {
 	 */
 	public static EolienneInstance translateFile(String nomFic)
 			throws STPTranslationException, STPTranslationEolienneException {
+		return translateFile(nomFic, null);
+	}
+
+	/**
+	 * Same as {@link #translateFile(String)}, and add to arcs, if it is not
+	 * null, every arc of the instance in the order of the file.
+	 */
+	static EolienneInstance translateFile(String nomFic, List<Arc> arcs)
+			throws STPTranslationException, STPTranslationEolienneException {
 		FileManager f = new FileManager();
 		f.openRead(nomFic);
 		String s;
@@ -176,6 +186,8 @@ public class STPEolienneTranslator {
 				else
 					a = g.getGraph().addUndirectedEdge(n1, n2);
 				g.setCost(a, cost);
+				if (arcs != null && a != null)
+					arcs.add(a);
 			} else {
 				throw new STPTranslationEolienneException(
 						STPTranslationEolienneExceptionEnum.EDGE_DESCRIPTION_BAD_FORMAT,
@@ -0,0 +1,593 @@
+package graphTheory.steinLib;
+
+import graphTheory.events.InstanceLoadEvent;
+import graphTheory.graph.Arc;
+import graphTheory.graph.DirectedGraph;
+import graphTheory.graph.Graph;
+import graphTheory.graph.UndirectedGraph;
+import graphTheory.instances.steiner.classic.SteinerDirectedInstance;
+import graphTheory.instances.steiner.classic.SteinerInstance;
+import graphTheory.instances.steiner.classic.SteinerUndirectedInstance;
+import graphTheory.utils.CompressedFiles;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ *
+ * This class contains static methods to translate .stp files into a
+ * {@link SteinerInstance}, directed or not. It reads the same files as
+ * {@link STPTranslator#translateFile(String)} and throws the same
+ * {@link STPTranslationException}s, with the same line numbers.
+ * <p>
+ * Contrary to {@link STPTranslator}, the file is memory-mapped and the bytes
+ * are scanned directly: the keywords are compared byte by byte, ignoring the
+ * case, and the integers are parsed in place. No String is built, except the
+ * content of the line in which an error occurs. The numbers of nodes and arcs
+ * given at the beginning of the graph section are used to allocate the nodes
+ * of the graph and the costs of the instance with their final size. The
+ * returned instance is identical to the one returned by {@link STPTranslator},
+ * including the iteration order of its nodes and arcs.
+ * <p>
+ * A compressed file (see {@link CompressedFiles}) cannot be mapped : it is
+ * decompressed on its own thread and its bytes are read by blocks in a buffer
+ * containing at least the current line.
+ * <p>
+ * Every line is trimmed before being read, including the lines of the
+ * terminals section.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class STPMappedTranslator {
+
+	private static final byte[] FORMAT_CODE = bytes("33d32945");
+	private static final byte[] SECTION_GRAPH = bytes("section graph");
+	private static final byte[] SECTION_TERMINALS = bytes("section terminals");
+	private static final byte[] NODES = bytes("nodes");
+	private static final byte[] EDGES = bytes("edges");
+	private static final byte[] ARCS = bytes("arcs");
+	private static final byte[] TERMINALS = bytes("terminals");
+	private static final byte[] ROOT = bytes("root");
+	private static final byte[] T = bytes("t");
+	private static final byte[] END = bytes("end");
+	private static final byte[] EOF = bytes("eof");
+
+	private static byte[] bytes(String s) {
+		return s.getBytes(Charset.forName("US-ASCII"));
+	}
+
+	/**
+	 * Initial size of the buffer of a compressed file.
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Path of the translated file.
+	 */
+	private String nomFic;
+
+	/**
+	 * Content of the translated file, or of its bytes read from in.
+	 */
+	private ByteBuffer buffer;
+	private int limit;
+
+	/**
+	 * Decompressed content of the translated file, or null if the file is
+	 * mapped in buffer.
+	 */
+	private InputStream in;
+	private boolean inEnded;
+
+	/**
+	 * Position of the first byte of the next line.
+	 */
+	private int next;
+
+	/**
+	 * Number of the current line (starting from 1), position of its first
+	 * byte and position following its last byte, line terminators excluded.
+	 */
+	private int lineNumber;
+	private int lineStart;
+	private int lineEnd;
+
+	/**
+	 * Position of the next byte to read in the current line.
+	 */
+	private int cursor;
+
+	/**
+	 * Last integer read by {@link #readInt()}.
+	 */
+	private int value;
+
+	private STPMappedTranslator(String nomFic, ByteBuffer buffer) {
+		this.nomFic = nomFic;
+		this.buffer = buffer;
+		this.limit = buffer.limit();
+		this.next = 0;
+		this.lineNumber = 0;
+	}
+
+	private STPMappedTranslator(String nomFic, InputStream in) {
+		this(nomFic, ByteBuffer.wrap(new byte[BUFFER_SIZE]));
+		this.limit = 0;
+		this.in = in;
+		this.inEnded = false;
+	}
+
+	/**
+	 * Return the {@link SteinerDirectedInstance} or the
+	 * {@link SteinerUndirectedInstance} conresponding to the .stp file in
+	 * input.
+	 *
+	 * @param nomFic
+	 *            path of the file describing the instance we want to build.
+	 * @return
+	 * @throws STPTranslationException
+	 */
+	public static SteinerInstance translateFile(String nomFic)
+			throws STPTranslationException {
+		return translateFile(nomFic, null);
+	}
+
+	/**
+	 * Same as {@link #translateFile(String)}, and add to arcs, if it is not
+	 * null, every arc of the instance in the order of the file.
+	 */
+	static SteinerInstance translateFile(String nomFic, List<Arc> arcs)
+			throws STPTranslationException {
+		InstanceLoadEvent event = new InstanceLoadEvent();
+		event.begin();
+		SteinerInstance g = parseFile(nomFic, arcs);
+		event.end(nomFic, "mapped stp", g);
+		return g;
+	}
+
+	private static SteinerInstance parseFile(String nomFic, List<Arc> arcs)
+			throws STPTranslationException {
+		if (CompressedFiles.isCompressed(nomFic))
+			return translateCompressedFile(nomFic, arcs);
+
+		ByteBuffer buffer;
+		try {
+			RandomAccessFile file = new RandomAccessFile(nomFic, "r");
+			try {
+				FileChannel channel = file.getChannel();
+				if (channel.size() > Integer.MAX_VALUE)
+					throw new IOException(nomFic + " is too large to be mapped");
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+						channel.size());
+			} finally {
+				file.close();
+			}
+		} catch (IOException e) {
+			throw new STPTranslationException(
+					STPTranslationExceptionEnum.UNREADABLE_FILE, nomFic, 0,
+					e.getMessage());
+		}
+		return new STPMappedTranslator(nomFic, buffer).translate(arcs);
+	}
+
+	private static SteinerInstance translateCompressedFile(String nomFic,
+			List<Arc> arcs) throws STPTranslationException {
+		InputStream in;
+		try {
+			in = CompressedFiles.open(nomFic);
+		} catch (IOException e) {
+			throw new STPTranslationException(
+					STPTranslationExceptionEnum.UNREADABLE_FILE, nomFic, 0,
+					e.getMessage());
+		}
+		try {
+			return new STPMappedTranslator(nomFic, in).translate(arcs);
+		} finally {
+			try {
+				in.close();
+			} catch (IOException e) {
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Return the {@link SteinerDirectedInstance} conresponding to the .stp file
+	 * in input. If the file describes a graph containing undirected edges, then
+	 * this method returns null.
+	 *
+	 * @param nomFic
+	 *            path of the file describing the instance we want to build.
+	 * @return
+	 * @throws STPTranslationException
+	 */
+	public static SteinerDirectedInstance translateDirectedFile(String nomFic)
+			throws STPTranslationException {
+		SteinerInstance g = translateFile(nomFic);
+		if (g == null || g instanceof SteinerUndirectedInstance)
+			return null;
+		else
+			return (SteinerDirectedInstance) g;
+	}
+
+	/**
+	 *
+	 * Return the {@link SteinerUndirectedInstance} conresponding to the .stp
+	 * file in input. If the file describes a graph containing directed arcs,
+	 * then this method returns null.
+	 *
+	 * @param nomFic
+	 *            path of the file describing the instance we want to build.
+	 * @return
+	 * @throws STPTranslationException
+	 */
+	public static SteinerUndirectedInstance translateUndirectedFile(
+			String nomFic) throws STPTranslationException {
+		SteinerInstance g = translateFile(nomFic);
+		if (g == null || g instanceof SteinerDirectedInstance)
+			return null;
+		else
+			return (SteinerUndirectedInstance) g;
+	}
+
+	private SteinerInstance translate(List<Arc> arcs)
+			throws STPTranslationException {
+		if (!readLine())
+			throw error(STPTranslationExceptionEnum.EMPTY_FILE, false);
+
+		// On vérifie que le fichier est au bon format
+		if (!lineContains(FORMAT_CODE))
+			throw error(STPTranslationExceptionEnum.BAD_FORMAT_CODE, true);
+
+		// On saute l'espace réservé aux commentaires.
+		while (!lineContains(SECTION_GRAPH))
+			if (!readLine())
+				throw error(STPTranslationExceptionEnum.NO_SECTION_GRAPH, false);
+
+		// On récupère le nombre de noeuds.
+		if (!readLine())
+			throw error(STPTranslationExceptionEnum.EMPTY_SECTION_GRAPH, false);
+		if (!(readKeyword(NODES) && readSpaces() && readInt() && lineEnded()))
+			throw error(STPTranslationExceptionEnum.NODE_NUMBER_BAD_FORMAT,
+					true);
+		int nov = value;
+
+		// On récupère le nombre d'arcs
+		if (!readLine())
+			throw error(STPTranslationExceptionEnum.EDGE_NUMBER_BAD_FORMAT,
+					false);
+		boolean isDirected = readKeyword(ARCS);
+		if (!((isDirected || readKeyword(EDGES)) && readSpaces() && readInt() && lineEnded()))
+			throw error(STPTranslationExceptionEnum.EDGE_NUMBER_BAD_FORMAT,
+					true);
+		int noe = value;
+
+		SteinerInstance g;
+		byte letter;
+		if (isDirected) {
+			g = new SteinerDirectedInstance(new DirectedGraph(nov));
+			letter = 'a';
+		} else {
+			g = new SteinerUndirectedInstance(new UndirectedGraph(nov));
+			letter = 'e';
+		}
+		g.initCosts(noe);
+		Graph graph = g.getGraph();
+
+		do {
+			if (!readLine())
+				throw error(
+						STPTranslationExceptionEnum.NO_SECTION_GRAPH_CONTENT,
+						false);
+		} while (lineStart == lineEnd);
+
+		int n1, n2, cost;
+		while (!lineEquals(END)) {
+			if (!(readLetter(letter) && readSpaces() && readInt()))
+				throw error(
+						STPTranslationExceptionEnum.EDGE_DESCRIPTION_BAD_FORMAT,
+						true);
+			n1 = value;
+			if (!(readSpaces() && readInt()))
+				throw error(
+						STPTranslationExceptionEnum.EDGE_DESCRIPTION_BAD_FORMAT,
+						true);
+			n2 = value;
+			if (!(readSpaces() && readInt() && lineEnded()))
+				throw error(
+						STPTranslationExceptionEnum.EDGE_DESCRIPTION_BAD_FORMAT,
+						true);
+			cost = value;
+
+			if (graph.addVertice(n1))
+				nov--;
+			if (graph.addVertice(n2))
+				nov--;
+
+			Arc a;
+			if (isDirected)
+				a = graph.addDirectedEdge(n1, n2);
+			else
+				a = graph.addUndirectedEdge(n1, n2);
+			g.setCost(a, cost);
+			if (arcs != null && a != null)
+				arcs.add(a);
+
+			if (!readLine())
+				throw error(
+						STPTranslationExceptionEnum.FILE_ENDED_BEFORE_EOF_SG,
+						false);
+			noe--;
+		}
+
+		if (nov != 0)
+			throw error(STPTranslationExceptionEnum.INCOHERENT_NB_NODES, true);
+		if (noe != 0)
+			throw error(STPTranslationExceptionEnum.INCOHERENT_NB_EDGES, true);
+
+		// On saute jusqu'aux terminaux
+		while (!lineContains(SECTION_TERMINALS))
+			if (!readLine())
+				throw error(STPTranslationExceptionEnum.NO_SECTION_TERM, false);
+
+		if (!readLine())
+			throw error(STPTranslationExceptionEnum.EMPTY_SECTION_TERM, false);
+		if (!(readKeyword(TERMINALS) && readSpaces() && readInt() && lineEnded()))
+			throw error(
+					STPTranslationExceptionEnum.TERMINALS_NUMBER_BAD_FORMAT,
+					true);
+		int not = value;
+		if (not > graph.getNumberOfVertices() || not <= 0)
+			throw error(STPTranslationExceptionEnum.STRANGE_NB_TERM, true);
+
+		boolean rootSet = false;
+		if (!readLine())
+			throw error(STPTranslationExceptionEnum.NO_SECTION_TERM_CONTENT,
+					false);
+		while (!lineEquals(END)) {
+			if (readKeyword(ROOT)) {
+				if (!(readSpaces() && readInt() && lineEnded()))
+					throw error(
+							STPTranslationExceptionEnum.TERMINALS_DESC_BAD_FORMAT,
+							true);
+				if (rootSet || !isDirected)
+					throw error(STPTranslationExceptionEnum.TOO_MUCH_ROOT_SET,
+							true);
+				rootSet = true;
+				((SteinerDirectedInstance) g).setRoot(value);
+			} else if (readKeyword(T) && readSpaces() && readInt()
+					&& lineEnded()) {
+				g.setRequired(value, true);
+				not--;
+			} else
+				throw error(
+						STPTranslationExceptionEnum.TERMINALS_DESC_BAD_FORMAT,
+						true);
+
+			if (!readLine())
+				throw error(
+						STPTranslationExceptionEnum.FILE_ENDED_BEFORE_EOF_ST,
+						false);
+		}
+		if (not != 0)
+			throw error(STPTranslationExceptionEnum.INCOHERENT_NB_TERMS, true);
+
+		// On saute l'espace reservé aux coordonnées
+		while (!lineContains(EOF))
+			if (!readLine())
+				throw error(STPTranslationExceptionEnum.FILE_ENDED_BEFORE_EOF,
+						false);
+		return g;
+	}
+
+	/**
+	 * Move to the next line of the file, and trim it: the bytes lower than or
+	 * equal to the space at the beginning and at the end of the line are
+	 * ignored.
+	 *
+	 * @return false if the file is ended.
+	 * @throws STPTranslationException
+	 *             if the compressed file cannot be read.
+	 */
+	private boolean readLine() throws STPTranslationException {
+		lineNumber++;
+		if (next >= limit && !fill())
+			return false;
+
+		int end = next;
+		byte b = 0;
+		while (true) {
+			while (end < limit && (b = buffer.get(end)) != '\n' && b != '\r')
+				end++;
+			// Stop if the line and its terminator are entirely in the buffer.
+			if (end < limit && (b == '\n' || end + 1 < limit))
+				break;
+			int previous = next;
+			boolean filled = fill();
+			end -= previous - next;
+			if (!filled)
+				break;
+		}
+		int start = next;
+		next = end + 1;
+		if (b == '\r' && next < limit && buffer.get(next) == '\n')
+			next++;
+
+		while (start < end && (buffer.get(start) & 0xFF) <= ' ')
+			start++;
+		while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ')
+			end--;
+		lineStart = start;
+		lineEnd = end;
+		cursor = start;
+		return true;
+	}
+
+	/**
+	 * Move the bytes of the buffer following {@link #next} at its beginning,
+	 * and read the next bytes of the compressed file after them. The buffer is
+	 * enlarged if it is full.
+	 *
+	 * @return false if the file is mapped or if every byte was read.
+	 * @throws STPTranslationException
+	 *             if the file cannot be read.
+	 */
+	private boolean fill() throws STPTranslationException {
+		if (in == null || inEnded)
+			return false;
+		byte[] array = buffer.array();
+		int remaining = limit - next;
+		if (remaining == array.length) {
+			array = Arrays.copyOf(array, 2 * array.length);
+			buffer = ByteBuffer.wrap(array);
+		}
+		System.arraycopy(array, next, array, 0, remaining);
+		next = 0;
+		limit = remaining;
+
+		int read;
+		try {
+			read = in.read(array, limit, array.length - limit);
+		} catch (IOException e) {
+			throw new STPTranslationException(
+					STPTranslationExceptionEnum.UNREADABLE_FILE, nomFic,
+					lineNumber, e.getMessage());
+		}
+		if (read < 0) {
+			inEnded = true;
+			return false;
+		}
+		limit += read;
+		return true;
+	}
+
+	/**
+	 * @return the lower case of the byte b if it is an ASCII upper case
+	 *         letter, and b otherwise.
+	 */
+	private static int lowerCase(byte b) {
+		return (b >= 'A' && b <= 'Z') ? b + ('a' - 'A') : b;
+	}
+
+	/**
+	 * @return true if the current line contains the lower case keyword,
+	 *         ignoring the case.
+	 */
+	private boolean lineContains(byte[] keyword) {
+		int last = lineEnd - keyword.length;
+		for (int i = lineStart; i <= last; i++) {
+			int j = 0;
+			while (j < keyword.length
+					&& lowerCase(buffer.get(i + j)) == keyword[j])
+				j++;
+			if (j == keyword.length)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return true if the current line is the lower case keyword, ignoring the
+	 *         case. The cursor is moved back to the beginning of the line if
+	 *         not.
+	 */
+	private boolean lineEquals(byte[] keyword) {
+		cursor = lineStart;
+		if (readKeyword(keyword) && lineEnded())
+			return true;
+		cursor = lineStart;
+		return false;
+	}
+
+	/**
+	 * If the bytes following the cursor are the lower case keyword, ignoring
+	 * the case, move the cursor after them.
+	 *
+	 * @return true if the keyword was read.
+	 */
+	private boolean readKeyword(byte[] keyword) {
+		if (lineEnd - cursor < keyword.length)
+			return false;
+		for (int j = 0; j < keyword.length; j++)
+			if (lowerCase(buffer.get(cursor + j)) != keyword[j])
+				return false;
+		cursor += keyword.length;
+		return true;
+	}
+
+	private boolean readLetter(byte letter) {
+		if (cursor < lineEnd && lowerCase(buffer.get(cursor)) == letter) {
+			cursor++;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Move the cursor after the spaces following it.
+	 *
+	 * @return true if at least one space was read.
+	 */
+	private boolean readSpaces() {
+		int start = cursor;
+		while (cursor < lineEnd && buffer.get(cursor) == ' ')
+			cursor++;
+		return cursor > start;
+	}
+
+	/**
+	 * Read the non negative integer following the cursor and store it in
+	 * {@link #value}.
+	 *
+	 * @return false if the cursor is not followed by a digit, or if the
+	 *         integer is too large to be stored in an int.
+	 */
+	private boolean readInt() {
+		int start = cursor;
+		long v = 0;
+		while (cursor < lineEnd) {
+			int d = buffer.get(cursor) - '0';
+			if (d < 0 || d > 9)
+				break;
+			v = 10 * v + d;
+			if (v > Integer.MAX_VALUE)
+				return false;
+			cursor++;
+		}
+		value = (int) v;
+		return cursor > start;
+	}
+
+	/**
+	 * @return true if the whole current line was read.
+	 */
+	private boolean lineEnded() {
+		return cursor == lineEnd;
+	}
+
+	/**
+	 * @param errorValue
+	 * @param lineRead
+	 *            true if the current line exists, false if the file is ended.
+	 * @return the exception describing the error errorValue at the current
+	 *         line. The lower case content of the line is built only here.
+	 */
+	private STPTranslationException error(
+			STPTranslationExceptionEnum errorValue, boolean lineRead) {
+		String s = null;
+		if (lineRead) {
+			byte[] line = new byte[lineEnd - lineStart];
+			for (int i = 0; i < line.length; i++)
+				line[i] = buffer.get(lineStart + i);
+			s = new String(line, Charset.defaultCharset()).toLowerCase();
+		}
+		return new STPTranslationException(errorValue, nomFic, lineNumber, s);
+	}
+}
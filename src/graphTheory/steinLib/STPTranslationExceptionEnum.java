@@ -13,7 +13,7 @@ public enum STPTranslationExceptionEnum {
 	NO_SECTION_GRAPH_CONTENT, EDGE_DESCRIPTION_BAD_FORMAT, FILE_ENDED_BEFORE_EOF_SG, INCOHERENT_NB_NODES,
 	INCOHERENT_NB_EDGES, NO_SECTION_TERM, EMPTY_SECTION_TERM, STRANGE_NB_TERM, TERMINALS_NUMBER_BAD_FORMAT,
 	NO_SECTION_TERM_CONTENT, TOO_MUCH_ROOT_SET, TERMINALS_DESC_BAD_FORMAT, FILE_ENDED_BEFORE_EOF_ST,
-	INCOHERENT_NB_TERMS, FILE_ENDED_BEFORE_EOF;
+	INCOHERENT_NB_TERMS, FILE_ENDED_BEFORE_EOF, UNREADABLE_FILE;
 
 	@Override
 	public String toString() {
@@ -70,6 +70,8 @@ public enum STPTranslationExceptionEnum {
 			return "The file is ended before closing the Terminals section and writing EOF at the end.";
 		case FILE_ENDED_BEFORE_EOF:
 			return "The file is ended before writing EOF at the end.";
+		case UNREADABLE_FILE:
+			return "The file does not exist or cannot be read.";
 		default:
 			return "";
 
@@ -1,5 +1,6 @@
 package graphTheory.steinLib;
 
+import graphTheory.events.InstanceLoadEvent;
 import graphTheory.graph.Arc;
 import graphTheory.graph.DirectedGraph;
 import graphTheory.graph.UndirectedGraph;
@@ -8,7 +9,7 @@ import graphTheory.instances.steiner.classic.SteinerInstance;
 import graphTheory.instances.steiner.classic.SteinerUndirectedInstance;
 import graphTheory.utils.FileManager;
 
-import java.util.Iterator;
+import java.io.IOException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -36,6 +37,18 @@ public class STPTranslator {
 	 */
 	public static SteinerInstance translateFile(String nomFic)
 			throws STPTranslationException {
+		InstanceLoadEvent event = new InstanceLoadEvent();
+		event.begin();
+		SteinerInstance g = parseFile(nomFic);
+		event.end(nomFic, "stp", g);
+		return g;
+	}
+
+	/**
+	 * Same as {@link #translateFile(String)}.
+	 */
+	private static SteinerInstance parseFile(String nomFic)
+			throws STPTranslationException {
 		FileManager f = new FileManager();
 		f.openRead(nomFic);
 		String s;
@@ -357,46 +370,10 @@ public class STPTranslator {
 	 */
 	public static void translateSteinerGraph(SteinerInstance g, String nomFic,
 			String name) {
-		boolean isDirected = g instanceof SteinerDirectedInstance;
-		FileManager f = new FileManager();
-		f.openErase(nomFic);
-
-		f.writeln("33d32945 STP File, STP Format Version 1.0");
-		f.writeln();
-		f.writeln("SECTION Comment");
-		f.writeln("Name    \"" + name + "\"");
-		f.writeln("Creator \"Dimitri Watel\"");
-		f.writeln("Remark  \"\"");
-		f.writeln("END");
-		f.writeln();
-		f.writeln("SECTION Graph");
-		f.writeln("Nodes " + g.getGraph().getNumberOfVertices());
-		f.writeln((isDirected ? "Arcs" : "Edges") + " "
-				+ g.getGraph().getNumberOfEdges());
-		Iterator<Arc> it = g.getGraph().getEdgesIterator();
-		Arc a;
-		while (it.hasNext()) {
-			a = it.next();
-			f.writeln((isDirected ? 'A' : 'E') + " " + a.getInput() + " "
-					+ a.getOutput() + " " + g.getIntCost(a));
-		}
-		f.writeln("END");
-		f.writeln();
-		f.writeln("SECTION Terminals");
-		f.writeln("Terminals " + g.getNumberOfRequiredVertices());
-		if (isDirected) {
-			f.writeln("Root " + ((SteinerDirectedInstance) g).getRoot());
+		try {
+			STPWriter.translateSteinerGraph(g, nomFic, name);
+		} catch (IOException e) {
+			e.printStackTrace();
 		}
-		Iterator<Integer> it2 = g.getRequiredVerticesIterator();
-		Integer n;
-		while (it2.hasNext()) {
-			n = it2.next();
-			f.writeln("T " + n);
-		}
-		f.writeln("END");
-		f.writeln();
-		f.writeln("EOF");
-
-		f.closeWrite();
 	}
 }
\ No newline at end of file
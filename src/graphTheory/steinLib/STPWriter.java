@@ -0,0 +1,344 @@
+package graphTheory.steinLib;
+
+import graphTheory.graph.Arc;
+import graphTheory.instances.steiner.classic.SteinerDirectedInstance;
+import graphTheory.instances.steiner.classic.SteinerInstance;
+import graphTheory.instances.steiner.eoliennes.EolienneInstance;
+import graphTheory.utils.CompressedFiles;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.TreeSet;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class contains static methods to write a {@link SteinerInstance} or an
+ * {@link EolienneInstance} into a .stp file, the counterparts of
+ * {@link STPTranslator} and {@link STPEolienneTranslator}.
+ * <p>
+ * The nodes, arcs and costs are read directly from the instance and their
+ * digits are written in a large byte buffer, which is flushed in the file
+ * when it is full, so that no String is built for each arc. The file can be
+ * compressed with gzip.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class STPWriter {
+
+	/**
+	 * Extension of the compressed files. The methods which are not told
+	 * whether to compress the file compress it if its path ends with this
+	 * extension.
+	 */
+	public static final String GZIP_EXTENSION = CompressedFiles.GZIP_EXTENSION;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private OutputStream out;
+	private byte[] buffer;
+	private int position;
+
+	private STPWriter(String path, boolean gzip) throws IOException {
+		OutputStream os = new FileOutputStream(path);
+		if (gzip) {
+			try {
+				os = new GZIPOutputStream(os, BUFFER_SIZE);
+			} catch (IOException e) {
+				os.close();
+				throw e;
+			}
+		}
+		this.out = os;
+		this.buffer = new byte[BUFFER_SIZE];
+		this.position = 0;
+	}
+
+	/**
+	 * Same as {@link #translateSteinerGraph(SteinerInstance, String, String, boolean)}
+	 * , the file being compressed if its path ends with {@link #GZIP_EXTENSION}.
+	 */
+	public static void translateSteinerGraph(SteinerInstance g, String path,
+			String name) throws IOException {
+		translateSteinerGraph(g, path, name, path.endsWith(GZIP_EXTENSION));
+	}
+
+	/**
+	 * Write the Steiner instance g into a .stp file, which path is path.
+	 * Associate the instance to the name given in parameter in the file. The
+	 * file is the same as the one written by
+	 * {@link STPTranslator#translateSteinerGraph(SteinerInstance, String, String)}
+	 * .
+	 *
+	 * @param g
+	 * @param path
+	 * @param name
+	 * @param gzip
+	 *            : true if the file should be compressed with gzip.
+	 * @throws IOException
+	 */
+	public static void translateSteinerGraph(SteinerInstance g, String path,
+			String name, boolean gzip) throws IOException {
+		STPWriter w = new STPWriter(path, gzip);
+		try {
+			boolean isDirected = g instanceof SteinerDirectedInstance;
+			w.header("33d32945 STP File, STP Format Version 1.0", name);
+
+			w.line("SECTION Graph");
+			w.ascii("Nodes ").integer(g.getGraph().getNumberOfVertices())
+					.newLine();
+			w.ascii(isDirected ? "Arcs " : "Edges ")
+					.integer(g.getGraph().getNumberOfEdges()).newLine();
+			byte letter = (byte) (isDirected ? 'A' : 'E');
+			Iterator<Arc> it = g.getGraph().getEdgesIterator();
+			Arc a;
+			while (it.hasNext()) {
+				a = it.next();
+				w.ascii(letter).space().integer(a.getInput()).space()
+						.integer(a.getOutput()).space()
+						.integer(g.getIntCost(a)).newLine();
+			}
+			w.line("END");
+			w.newLine();
+
+			w.terminals(g, isDirected);
+			w.line("EOF");
+		} finally {
+			w.close();
+		}
+	}
+
+	/**
+	 * Same as
+	 * {@link #translateEolienneInstance(EolienneInstance, String, String, boolean)}
+	 * , the file being compressed if its path ends with {@link #GZIP_EXTENSION}.
+	 */
+	public static void translateEolienneInstance(EolienneInstance g,
+			String path, String name) throws IOException {
+		translateEolienneInstance(g, path, name,
+				path.endsWith(GZIP_EXTENSION));
+	}
+
+	/**
+	 * Write the wind farm instance g into a .stp file, which path is path, and
+	 * which can be read by {@link STPEolienneTranslator}. Associate the
+	 * instance to the name given in parameter in the file.
+	 * <p>
+	 * As the translator needs every parameter, a parameter of g which is not
+	 * defined is written with a value which constrains nothing : the number of
+	 * output arcs of the root for DEGSS, the number of capacities for NBSEC,
+	 * and 0 for DMIN and the costs of the branching nodes.
+	 *
+	 * @param g
+	 * @param path
+	 * @param name
+	 * @param gzip
+	 *            : true if the file should be compressed with gzip.
+	 * @throws IOException
+	 */
+	public static void translateEolienneInstance(EolienneInstance g,
+			String path, String name, boolean gzip) throws IOException {
+		STPWriter w = new STPWriter(path, gzip);
+		try {
+			w.header("33d32946 STP File, STP Format Version 1.0", name);
+
+			w.line("SECTION Graph");
+			w.ascii("Nodes ").integer(g.getGraph().getNumberOfVertices())
+					.newLine();
+			w.ascii("Arcs ").integer(g.getGraph().getNumberOfEdges())
+					.newLine();
+			Iterator<Arc> it = g.getGraph().getEdgesIterator();
+			Arc a;
+			while (it.hasNext()) {
+				a = it.next();
+				w.ascii("A ").integer(a.getInput()).space()
+						.integer(a.getOutput()).space()
+						.decimal(g.getDoubleCost(a)).newLine();
+			}
+			w.line("END");
+			w.newLine();
+
+			w.terminals(g, true);
+
+			w.line("SECTION Parameters");
+			Integer degss = (g.getRoot() == null) ? null : g
+					.getMaximumOutputDegree(g.getRoot());
+			if (degss == null && g.getRoot() != null)
+				degss = g.getGraph().getOutputSize(g.getRoot());
+			w.ascii("DEGSS ").integer(degss).newLine();
+			Integer nbSec = g.getMaxNbSec();
+			if (nbSec == null) {
+				TreeSet<Integer> capacities = new TreeSet<Integer>(
+						g.getStaticCapacities());
+				capacities.addAll(g.getDynamicCapacities());
+				nbSec = capacities.size();
+			}
+			w.ascii("NBSEC ").integer(nbSec).newLine();
+			w.ascii("DMIN ").decimal(orZero(g.getDistanceMin())).newLine();
+			w.ascii("JONCTION STST ")
+					.decimal(orZero(g.getStaticStaticBranchingNodeCost()))
+					.newLine();
+			w.ascii("JONCTION STDYN ")
+					.decimal(orZero(g.getDynamicStaticBranchingNodeCost()))
+					.newLine();
+			w.line("END");
+			w.newLine();
+
+			w.line("SECTION Capacities");
+			for (Integer capacity : new TreeSet<Integer>(
+					g.getStaticCapacities()))
+				w.ascii("ST ").integer(capacity).space()
+						.decimal(g.getStaticCapacityCost(capacity)).newLine();
+			for (Integer capacity : new TreeSet<Integer>(
+					g.getDynamicCapacities()))
+				w.ascii("DY ").integer(capacity).space()
+						.decimal(g.getDynamicCapacityCost(capacity)).newLine();
+			w.line("END");
+			w.newLine();
+			w.line("EOF");
+		} finally {
+			w.close();
+		}
+	}
+
+	private static Double orZero(Double value) {
+		return (value == null) ? 0D : value;
+	}
+
+	private void header(String formatLine, String name) throws IOException {
+		line(formatLine);
+		newLine();
+		line("SECTION Comment");
+		ascii("Name    \"").ascii(String.valueOf(name)).ascii("\"").newLine();
+		line("Creator \"Dimitri Watel\"");
+		line("Remark  \"\"");
+		line("END");
+		newLine();
+	}
+
+	private void terminals(SteinerInstance g, boolean isDirected)
+			throws IOException {
+		line("SECTION Terminals");
+		ascii("Terminals ").integer(g.getNumberOfRequiredVertices()).newLine();
+		if (isDirected)
+			ascii("Root ").integer(((SteinerDirectedInstance) g).getRoot())
+					.newLine();
+		Iterator<Integer> it = g.getRequiredVerticesIterator();
+		while (it.hasNext())
+			ascii("T ").integer(it.next()).newLine();
+		line("END");
+		newLine();
+	}
+
+	/*
+	 * --------------------------------------------- Buffer
+	 * ---------------------------------------------
+	 */
+
+	private void ensure(int length) throws IOException {
+		if (position + length > buffer.length) {
+			out.write(buffer, 0, position);
+			position = 0;
+		}
+	}
+
+	private STPWriter ascii(byte b) throws IOException {
+		ensure(1);
+		buffer[position++] = b;
+		return this;
+	}
+
+	private STPWriter ascii(String s) throws IOException {
+		int length = s.length();
+		for (int i = 0; i < length; i++) {
+			char c = s.charAt(i);
+			if (c > 0x7F)
+				return text(s.substring(i));
+			ascii((byte) c);
+		}
+		return this;
+	}
+
+	/**
+	 * Write s, encoded with UTF-8.
+	 */
+	private STPWriter text(String s) throws IOException {
+		for (byte b : s.getBytes(UTF8))
+			ascii(b);
+		return this;
+	}
+
+	private STPWriter space() throws IOException {
+		return ascii((byte) ' ');
+	}
+
+	private STPWriter newLine() throws IOException {
+		return ascii((byte) '\n');
+	}
+
+	private STPWriter line(String s) throws IOException {
+		return ascii(s).newLine();
+	}
+
+	/**
+	 * Write the digits of value, or "null" if value is null.
+	 */
+	private STPWriter integer(Integer value) throws IOException {
+		if (value == null)
+			return ascii("null");
+		return integer(value.longValue());
+	}
+
+	private STPWriter integer(long value) throws IOException {
+		if (value == Long.MIN_VALUE)
+			return ascii(Long.toString(value));
+		// 19 digits and a sign at most
+		ensure(20);
+		if (value < 0) {
+			buffer[position++] = '-';
+			value = -value;
+		}
+		int start = position;
+		do {
+			buffer[position++] = (byte) ('0' + (value % 10));
+			value /= 10;
+		} while (value != 0);
+		// The digits were written from the last one
+		for (int i = start, j = position - 1; i < j; i++, j--) {
+			byte b = buffer[i];
+			buffer[i] = buffer[j];
+			buffer[j] = b;
+		}
+		return this;
+	}
+
+	/**
+	 * Write value without exponent, as an integer if it is one, or "null" if
+	 * value is null.
+	 */
+	private STPWriter decimal(Double value) throws IOException {
+		if (value == null)
+			return ascii("null");
+		double d = value;
+		if (d == Math.rint(d) && Math.abs(d) < 1e18)
+			return integer((long) d);
+		if (Double.isNaN(d) || Double.isInfinite(d))
+			return ascii(Double.toString(d));
+		return ascii(BigDecimal.valueOf(d).toPlainString());
+	}
+
+	private void close() throws IOException {
+		try {
+			out.write(buffer, 0, position);
+			position = 0;
+		} finally {
+			out.close();
+		}
+	}
+}
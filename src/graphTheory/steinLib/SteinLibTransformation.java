@@ -0,0 +1,124 @@
+package graphTheory.steinLib;
+
+import graphTheory.generators.steinLib.STPGenerator;
+import graphTheory.graph.Arc;
+import graphTheory.instances.steiner.classic.SteinerDirectedInstance;
+import graphTheory.instances.steiner.classic.SteinerUndirectedInstance;
+
+import java.util.HashSet;
+
+/**
+ *
+ * The transformations of an undirected SteinLib instance into a directed
+ * instance with the same optimal cost, used to build the directed benchmarks.
+ * Each transformation has a suffix, added to the name of the transformed
+ * instances, and a default directory name, in which the transformed
+ * benchmark is stored.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public enum SteinLibTransformation {
+
+	/**
+	 * See
+	 * {@link SteinerDirectedInstance#getSymetrizedGraphFromUndirectedInstance(SteinerUndirectedInstance)}
+	 */
+	BIDIRECTED("bd", "SteinLibBidir/") {
+		@Override
+		public SteinerDirectedInstance transform(SteinerUndirectedInstance sui) {
+			return SteinerDirectedInstance
+					.getSymetrizedGraphFromUndirectedInstance(sui);
+		}
+	},
+
+	/**
+	 * See
+	 * {@link SteinerDirectedInstance#getAcyclicGraphFromUndirectedInstance(SteinerUndirectedInstance, HashSet)}
+	 */
+	ACYCLIC("ac", "SteinLibAcyclic/") {
+		@Override
+		public SteinerDirectedInstance transform(SteinerUndirectedInstance sui) {
+			HashSet<Arc> arborescence = getOptimum(sui);
+			if (arborescence == null)
+				return null;
+			return SteinerDirectedInstance
+					.getAcyclicGraphFromUndirectedInstance(sui, arborescence);
+		}
+	},
+
+	/**
+	 * See
+	 * {@link SteinerDirectedInstance#getRandomGraphStronglyConnectedFromUndirectedInstance(SteinerUndirectedInstance, HashSet)}
+	 */
+	STRONGLY_CONNECTED("st", "SteinLibStrongly/") {
+		@Override
+		public SteinerDirectedInstance transform(SteinerUndirectedInstance sui) {
+			HashSet<Arc> arborescence = getOptimum(sui);
+			if (arborescence == null)
+				return null;
+			return SteinerDirectedInstance
+					.getRandomGraphStronglyConnectedFromUndirectedInstance(
+							sui, arborescence);
+		}
+	};
+
+	private String suffix;
+	private String directoryName;
+
+	private SteinLibTransformation(String suffix, String directoryName) {
+		this.suffix = suffix;
+		this.directoryName = directoryName;
+	}
+
+	/**
+	 * @return the suffix added to the name of a transformed instance: if the
+	 *         original instance name is ABC01, the transformed instance name is
+	 *         ABC01 followed by this suffix.
+	 */
+	public String getSuffix() {
+		return suffix;
+	}
+
+	/**
+	 * @return the name of the directory in which the transformed benchmark is
+	 *         stored by default.
+	 */
+	public String getDirectoryName() {
+		return directoryName;
+	}
+
+	/**
+	 * Transform sui into a directed instance with the same optimal cost. The
+	 * random choices of the transformation are drawn with the methods of
+	 * {@link graphTheory.utils.Math2}, and can then be seeded with
+	 * {@link graphTheory.utils.Math2#setSeed(long)}.
+	 *
+	 * @param sui
+	 *            : an instance returned by an
+	 *            {@link graphTheory.generators.steinLib.STPUndirectedGenerator}
+	 * @return the transformed instance, or null if the transformation needs
+	 *         an optimal solution of sui and no such solution is known.
+	 */
+	public abstract SteinerDirectedInstance transform(
+			SteinerUndirectedInstance sui);
+
+	/**
+	 * @param name
+	 * @return the transformation which name or suffix is name, ignoring the
+	 *         case, or null if there is no such transformation.
+	 */
+	public static SteinLibTransformation getTransformation(String name) {
+		for (SteinLibTransformation t : values())
+			if (t.name().equalsIgnoreCase(name)
+					|| t.suffix.equalsIgnoreCase(name))
+				return t;
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static HashSet<Arc> getOptimum(SteinerUndirectedInstance sui) {
+		return (HashSet<Arc>) sui.getGraph().getParam(
+				STPGenerator.OUTPUT_OPTIMUM_PARAM_NAME);
+	}
+}
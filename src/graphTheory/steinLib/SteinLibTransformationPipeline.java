@@ -0,0 +1,367 @@
+package graphTheory.steinLib;
+
+import graphTheory.generators.steinLib.STPGenerator;
+import graphTheory.generators.steinLib.STPUndirectedGenerator;
+import graphTheory.instances.steiner.classic.SteinerDirectedInstance;
+import graphTheory.instances.steiner.classic.SteinerUndirectedInstance;
+import graphTheory.utils.FileManager;
+import graphTheory.utils.Math2;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ *
+ * Build directed benchmarks from undirected SteinLib instances with the
+ * {@link SteinLibTransformation}s, using several threads.
+ * <p>
+ * Each thread loads an undirected instance, applies every requested
+ * transformation to it and writes the transformed instances with
+ * {@link STPTranslator#translateSteinerGraph(graphTheory.instances.steiner.classic.SteinerInstance, String)}
+ * . The optimal costs are then written in the results file of each target
+ * directory, in the order of the instance files, whatever the order in which
+ * the instances were transformed.
+ * <p>
+ * Before each transformation, the random methods of {@link Math2} are seeded
+ * with a value depending only on the seed of the pipeline, the transformation
+ * and the name of the instance (see {@link #getSeed(SteinLibTransformation, String)}).
+ * The transformed instances then do not depend on the number of threads, as
+ * long as the iteration order of the arcs of the undirected instances does not
+ * change from one run to another.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class SteinLibTransformationPipeline {
+
+	public static final long DEFAULT_SEED = 0L;
+
+	private int numberOfThreads;
+	private long seed;
+
+	/**
+	 * Create a pipeline using one thread per available processor and the
+	 * seed {@link #DEFAULT_SEED}.
+	 */
+	public SteinLibTransformationPipeline() {
+		this(Runtime.getRuntime().availableProcessors(), DEFAULT_SEED);
+	}
+
+	public SteinLibTransformationPipeline(int numberOfThreads, long seed) {
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+		this.seed = seed;
+	}
+
+	public int getNumberOfThreads() {
+		return numberOfThreads;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @param t
+	 * @param instanceName
+	 * @return the seed used to transform the instance instanceName with t.
+	 */
+	public long getSeed(SteinLibTransformation t, String instanceName) {
+		long h = seed * 0x9E3779B97F4A7C15L + t.ordinal();
+		h = h * 0x9E3779B97F4A7C15L + instanceName.hashCode();
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	/**
+	 * From undirected instances in "steinLibMainDir/steinLibSubDir", create
+	 * directed instances with the transformation t, and store them with the
+	 * STP format in the directory "steinLibTargetMainDir/steinLibSubDir".
+	 *
+	 * @param steinLibMainDir
+	 * @param steinLibSubDir
+	 * @param steinLibTargetMainDir
+	 * @param t
+	 * @return the number of transformed instances.
+	 */
+	public int transform(String steinLibMainDir, String steinLibSubDir,
+			String steinLibTargetMainDir, SteinLibTransformation t) {
+		Map<SteinLibTransformation, String> targets = new LinkedHashMap<SteinLibTransformation, String>();
+		targets.put(t, steinLibTargetMainDir);
+		return transform(steinLibMainDir, Collections.singletonList(steinLibSubDir),
+				targets);
+	}
+
+	/**
+	 * From undirected instances in "steinLibMainDir/s", for each subdirectory
+	 * s in steinLibSubDirs, create directed instances with each transformation
+	 * t of targets, and store them with the STP format in the directory
+	 * "targets.get(t)/s". The optimal costs are stored in the file
+	 * "targets.get(t)/Results/G.results", where G is the group of the
+	 * instances in s (see {@link SteinLibInstancesGroups}). The results file of
+	 * the undirected instances must be "steinLibMainDir/Results/G.results".
+	 * <p>
+	 * The instances of all the subdirectories are transformed at the same time.
+	 *
+	 * @param steinLibMainDir
+	 * @param steinLibSubDirs
+	 * @param targets
+	 *            : associate each transformation with the main directory of
+	 *            the transformed benchmark.
+	 * @return the number of transformed instances.
+	 */
+	public int transform(String steinLibMainDir, List<String> steinLibSubDirs,
+			Map<SteinLibTransformation, String> targets) {
+		final SteinLibTransformation[] transformations = targets.keySet()
+				.toArray(new SteinLibTransformation[0]);
+
+		ExecutorService pool = Executors.newFixedThreadPool(numberOfThreads,
+				new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread t = new Thread(r,
+								"SteinLib transformation pipeline");
+						t.setDaemon(true);
+						return t;
+					}
+				});
+
+		// Submit every instance of every subdirectory before waiting, so that
+		// no thread is idle between two subdirectories.
+		ArrayList<String> resultFilePaths = new ArrayList<String>();
+		ArrayList<List<Future<String[]>>> results = new ArrayList<List<Future<String[]>>>();
+		try {
+			for (String steinLibSubDir : steinLibSubDirs) {
+				String resultFilePath = getResultFileName(new File(
+						steinLibMainDir, steinLibSubDir));
+				resultFilePaths.add(resultFilePath);
+				if (resultFilePath == null) {
+					results.add(new ArrayList<Future<String[]>>());
+					continue;
+				}
+
+				final String[] targetDirs = new String[transformations.length];
+				for (int k = 0; k < transformations.length; k++) {
+					String target = targets.get(transformations[k]);
+					targetDirs[k] = new File(target, steinLibSubDir).getPath();
+					new File(targetDirs[k]).mkdirs();
+					new File(target, "Results").mkdirs();
+				}
+
+				final STPUndirectedGenerator gen = new STPUndirectedGenerator(
+						new File(steinLibMainDir, steinLibSubDir).getPath(),
+						new File(steinLibMainDir, resultFilePath).getPath());
+
+				List<Future<String[]>> futures = new ArrayList<Future<String[]>>();
+				for (int i = 0; i < gen.getNumberOfInstances(); i++) {
+					if (!gen.isInstanceFile(i))
+						continue;
+					final int index = i;
+					futures.add(pool.submit(new Callable<String[]>() {
+						@Override
+						public String[] call() {
+							SteinerUndirectedInstance sui = gen.generate(index);
+							if (sui == null) {
+								System.err.println("Cannot translate "
+										+ gen.getInstanceFile(index)
+										+ ", skipped");
+								return new String[transformations.length];
+							}
+							return transform(sui, transformations, targetDirs);
+						}
+					}));
+				}
+				results.add(futures);
+			}
+
+			int count = 0;
+			for (int j = 0; j < results.size(); j++) {
+				String resultFilePath = resultFilePaths.get(j);
+				if (resultFilePath == null)
+					continue;
+				FileManager[] writeOptimalSolutionsValues = new FileManager[transformations.length];
+				for (int k = 0; k < transformations.length; k++) {
+					writeOptimalSolutionsValues[k] = new FileManager();
+					writeOptimalSolutionsValues[k].openErase(new File(targets
+							.get(transformations[k]), resultFilePath).getPath());
+				}
+				for (Future<String[]> future : results.get(j)) {
+					String[] lines = get(future);
+					for (int k = 0; k < transformations.length; k++)
+						if (lines[k] != null) {
+							writeOptimalSolutionsValues[k].writeln(lines[k]);
+							count++;
+						}
+				}
+				for (FileManager fm : writeOptimalSolutionsValues)
+					fm.closeWrite();
+			}
+			return count;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Transform sui with each transformation and write the transformed
+	 * instances in the corresponding target directory.
+	 *
+	 * @return for each transformation, the line of the results file
+	 *         describing the transformed instance, or null if sui could not be
+	 *         transformed.
+	 */
+	private String[] transform(SteinerUndirectedInstance sui,
+			SteinLibTransformation[] transformations, String[] targetDirs) {
+		String[] lines = new String[transformations.length];
+		String name = (String) sui.getGraph().getParam(
+				STPGenerator.OUTPUT_NAME_PARAM_NAME);
+		Integer instanceOptimumValue = sui.getGraph().getParamInteger(
+				STPGenerator.OUTPUT_OPTIMUM_VALUE_PARAM_NAME);
+
+		for (int k = 0; k < transformations.length; k++) {
+			SteinLibTransformation t = transformations[k];
+			SteinerDirectedInstance sdi;
+			Math2.setSeed(getSeed(t, name));
+			try {
+				sdi = t.transform(sui);
+			} finally {
+				Math2.clearSeed();
+			}
+			if (sdi == null)
+				continue;
+
+			String instanceName = name + t.getSuffix();
+			STPTranslator.translateSteinerGraph(sdi, new File(targetDirs[k],
+					instanceName + ".stp").getPath());
+			lines[k] = instanceName + " " + instanceOptimumValue;
+		}
+		return lines;
+	}
+
+	private static String[] get(Future<String[]> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new RuntimeException(cause);
+		}
+	}
+
+	/**
+	 * @param dir
+	 * @return the path, relative to the SteinLib main directory, of the results
+	 *         file of the group of the instances in dir, or null if dir
+	 *         contains no instance of a known group.
+	 */
+	private static String getResultFileName(File dir) {
+		File[] files = dir.listFiles();
+		if (files == null)
+			return null;
+		Arrays.sort(files);
+		for (File f : files) {
+			String name = f.getName();
+			if (!name.endsWith(".stp"))
+				continue;
+			SteinLibInstancesGroups slig = SteinLibInstancesGroups
+					.getGroup(name.substring(0, name.length() - 4));
+			if (slig != null)
+				return slig.getResultFileName();
+		}
+		return null;
+	}
+
+	/**
+	 * Transform the SteinLib benchmark into the directed benchmarks.
+	 * <p>
+	 * Usage : SteinLibTransformationPipeline [-threads k] [-seed s]
+	 * [-transformations t1,t2,...] &lt;SteinLib main directory&gt; &lt;target
+	 * directory&gt; [&lt;subdirectory&gt; ...]
+	 * <p>
+	 * The transformations are given by name or by suffix (bd, ac, st), and are
+	 * all applied by default. The benchmark built with a transformation t is
+	 * stored in the directory "target directory/t.getDirectoryName()". If no
+	 * subdirectory is given, every subdirectory of the main directory except
+	 * Results is transformed.
+	 *
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		int numberOfThreads = Runtime.getRuntime().availableProcessors();
+		long seed = DEFAULT_SEED;
+		List<SteinLibTransformation> transformations = Arrays
+				.asList(SteinLibTransformation.values());
+		ArrayList<String> positional = new ArrayList<String>();
+		try {
+			for (int i = 0; i < args.length; i++) {
+				if (args[i].equals("-threads"))
+					numberOfThreads = Integer.valueOf(args[++i]);
+				else if (args[i].equals("-seed"))
+					seed = Long.valueOf(args[++i]);
+				else if (args[i].equals("-transformations")) {
+					transformations = new ArrayList<SteinLibTransformation>();
+					for (String name : args[++i].split(",")) {
+						SteinLibTransformation t = SteinLibTransformation
+								.getTransformation(name);
+						if (t == null)
+							throw new IllegalArgumentException(
+									"Unknown transformation " + name);
+						transformations.add(t);
+					}
+				} else
+					positional.add(args[i]);
+			}
+		} catch (RuntimeException e) {
+			positional.clear();
+			System.err.println(e.getMessage());
+		}
+		if (positional.size() < 2) {
+			System.err.println("Usage : SteinLibTransformationPipeline"
+					+ " [-threads k] [-seed s] [-transformations t1,t2,...]"
+					+ " <SteinLib main directory> <target directory>"
+					+ " [<subdirectory> ...]");
+			System.exit(1);
+		}
+
+		String steinLibMainDir = positional.get(0);
+		List<String> subDirs = positional.subList(2, positional.size());
+		if (subDirs.isEmpty()) {
+			subDirs = new ArrayList<String>();
+			File[] files = new File(steinLibMainDir).listFiles();
+			if (files != null) {
+				Arrays.sort(files);
+				for (File f : files)
+					if (f.isDirectory() && !f.getName().equals("Results"))
+						subDirs.add(f.getName());
+			}
+		}
+		Map<SteinLibTransformation, String> targets = new LinkedHashMap<SteinLibTransformation, String>();
+		for (SteinLibTransformation t : transformations)
+			targets.put(t, new File(positional.get(1), t.getDirectoryName())
+					.getPath());
+
+		long start = System.currentTimeMillis();
+		int count = new SteinLibTransformationPipeline(numberOfThreads, seed)
+				.transform(steinLibMainDir, subDirs, targets);
+		System.out.println(count + " instances transformed in "
+				+ (System.currentTimeMillis() - start) + " ms");
+	}
+}
@@ -33,7 +33,7 @@ public class Collections2 {
 			Iterator<T> it = col.iterator();
 			T item;
 
-			HighQualityRandom rand = new HighQualityRandom();
+			Random rand = Math2.getRandom();
 
 			while (size > 0) {
 				item = it.next();
@@ -67,7 +67,7 @@ public class Collections2 {
 			HashSet<T> res = new HashSet<T>();
 			T item;
 
-			HighQualityRandom rand = new HighQualityRandom();
+			Random rand = Math2.getRandom();
 
 			for (int i = dif; i < s; i++) {
 				item = col.get(rand.nextInt(i + 1));
@@ -103,6 +103,21 @@ public class Collections2 {
 		return ar;
 	}
 
+	/**
+	 * @param expectedSize
+	 * @return the initial capacity of a HashMap or a HashSet which can contain
+	 *         expectedSize elements without being resized. It is the capacity
+	 *         a map with the default capacity would reach after the insertion
+	 *         of these elements, so that the iteration order of the elements
+	 *         is the same in both maps.
+	 */
+	public static int hashCapacity(int expectedSize) {
+		int capacity = 16;
+		while (capacity < (1 << 30) && expectedSize > capacity * 3 / 4)
+			capacity <<= 1;
+		return capacity;
+	}
+
 	public static <T extends Comparable<T>> T max(Iterator<T> it){
 		T max = null;
 		while(it.hasNext()){
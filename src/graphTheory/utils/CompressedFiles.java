@@ -0,0 +1,221 @@
+package graphTheory.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * This class contains static methods to read compressed files as if they were
+ * not compressed, without unpacking them on the disk. Two kinds of compressed
+ * files are read :
+ * <ul>
+ * <li>a file which path ends with {@link #GZIP_EXTENSION}, compressed with
+ * gzip;</li>
+ * <li>a file of a ZIP archive, which path is the path of the archive, followed
+ * by {@link #ZIP_SEPARATOR} and the name of the file in the archive, as in
+ * "SteinLib/B.zip!/b01.stp". Such a file can also be compressed with gzip.</li>
+ * </ul>
+ * A ZIP archive, which path ends with {@link #ZIP_EXTENSION}, can be listed
+ * as a directory with {@link #listFiles(String)}.
+ * <p>
+ * The compressed files are decompressed on their own thread, ahead of the
+ * reader (see {@link ReadAheadInputStream}).
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class CompressedFiles {
+
+	public static final String GZIP_EXTENSION = ".gz";
+	public static final String ZIP_EXTENSION = ".zip";
+	public static final String ZIP_SEPARATOR = "!/";
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * @param path
+	 * @return true if path is a gzip file or a file of a ZIP archive.
+	 */
+	public static boolean isCompressed(String path) {
+		return path.endsWith(GZIP_EXTENSION) || path.contains(ZIP_SEPARATOR);
+	}
+
+	/**
+	 * @param path
+	 * @return true if path is a ZIP archive, which can be listed with
+	 *         {@link #listFiles(String)}.
+	 */
+	public static boolean isZipArchive(String path) {
+		return path.endsWith(ZIP_EXTENSION) && new File(path).isFile();
+	}
+
+	/**
+	 * @param path
+	 * @return the name of the file path, without its last extension if it is
+	 *         {@link #GZIP_EXTENSION}.
+	 */
+	public static String getUncompressedName(String path) {
+		String name = new File(path).getName();
+		if (name.endsWith(GZIP_EXTENSION))
+			name = name.substring(0, name.length() - GZIP_EXTENSION.length());
+		return name;
+	}
+
+	/**
+	 * @param path
+	 * @return the file of the disk containing the file path : the archive if
+	 *         path is a file of a ZIP archive, and path otherwise.
+	 */
+	public static File getStoredFile(String path) {
+		int separator = path.indexOf(ZIP_SEPARATOR);
+		if (separator >= 0)
+			return new File(path.substring(0, separator));
+		return new File(path);
+	}
+
+	/**
+	 * Open the file path in order to read its decompressed content. A file
+	 * which is not compressed (see {@link #isCompressed(String)}) is read as
+	 * is, on the current thread.
+	 *
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 */
+	public static InputStream open(String path) throws IOException {
+		if (!isCompressed(path))
+			return new FileInputStream(path);
+
+		InputStream is;
+		int separator = path.indexOf(ZIP_SEPARATOR);
+		if (separator >= 0)
+			is = openZipEntry(path.substring(0, separator),
+					path.substring(separator + ZIP_SEPARATOR.length()));
+		else
+			is = new FileInputStream(path);
+		if (path.endsWith(GZIP_EXTENSION)) {
+			try {
+				is = new GZIPInputStream(is, BUFFER_SIZE);
+			} catch (IOException e) {
+				is.close();
+				throw e;
+			}
+		}
+		return new ReadAheadInputStream(is, "Decompression "
+				+ new File(path).getName());
+	}
+
+	/**
+	 * @return the content of the file name of the ZIP archive archive. The
+	 *         archive is closed with the returned stream.
+	 */
+	private static InputStream openZipEntry(String archive, String name)
+			throws IOException {
+		final ZipFile zip = new ZipFile(archive);
+		try {
+			ZipEntry entry = zip.getEntry(name);
+			if (entry == null || entry.isDirectory())
+				throw new IOException(archive + " contains no file " + name);
+			return new FilterInputStream(zip.getInputStream(entry)) {
+				@Override
+				public void close() throws IOException {
+					try {
+						super.close();
+					} finally {
+						zip.close();
+					}
+				}
+			};
+		} catch (IOException e) {
+			zip.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Same as {@link File#listFiles()}, a ZIP archive (see
+	 * {@link #isZipArchive(String)}) being listed as a directory : the
+	 * returned files are those of the archive, which paths are described in
+	 * {@link CompressedFiles}. The directories of the archive are not
+	 * returned.
+	 *
+	 * @param path
+	 * @return the files of the directory or the archive path, or null if path
+	 *         cannot be listed.
+	 */
+	public static File[] listFiles(String path) {
+		if (!isZipArchive(path))
+			return new File(path).listFiles();
+
+		ArrayList<File> files = new ArrayList<File>();
+		try {
+			ZipFile zip = new ZipFile(path);
+			try {
+				Enumeration<? extends ZipEntry> entries = zip.entries();
+				while (entries.hasMoreElements()) {
+					ZipEntry entry = entries.nextElement();
+					if (!entry.isDirectory())
+						files.add(new File(path + ZIP_SEPARATOR
+								+ entry.getName()));
+				}
+			} finally {
+				zip.close();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+		return files.toArray(new File[files.size()]);
+	}
+
+	/**
+	 * @param f
+	 * @return the size, in bytes, of the decompressed content of f, or 0 if it
+	 *         is unknown. The size of a gzip file is read in its last bytes, it
+	 *         is wrong if the size is greater than 4GB.
+	 */
+	public static long length(File f) {
+		String path = f.getPath();
+		if (!isCompressed(path))
+			return f.length();
+
+		try {
+			int separator = path.indexOf(ZIP_SEPARATOR);
+			if (separator >= 0) {
+				// The size of a gzip file in an archive is not read.
+				ZipFile zip = new ZipFile(path.substring(0, separator));
+				try {
+					ZipEntry entry = zip.getEntry(path.substring(separator
+							+ ZIP_SEPARATOR.length()));
+					return (entry == null) ? 0 : Math.max(entry.getSize(), 0);
+				} finally {
+					zip.close();
+				}
+			}
+
+			// The gzip trailer ends with the size, modulo 2^32, little-endian.
+			RandomAccessFile file = new RandomAccessFile(path, "r");
+			try {
+				if (file.length() < 4)
+					return 0;
+				file.seek(file.length() - 4);
+				long size = 0;
+				for (int i = 0; i < 4; i++)
+					size |= ((long) file.read()) << (8 * i);
+				return size;
+			} finally {
+				file.close();
+			}
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package graphTheory.utils;
+
+/**
+ * The work counters of the algorithms, incremented with {@link Counters}.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public enum Counter {
+
+	/**
+	 * Arcs saturated by a FLAC round, conflicting or not.
+	 */
+	SATURATIONS("saturations"),
+
+	/**
+	 * Saturations of a FLAC round ignored because of a conflict.
+	 */
+	CONFLICTS("conflicts"),
+
+	/**
+	 * Nodes visited while searching for a conflict in a FLAC round.
+	 */
+	CONFLICT_NODES_VISITED("conflict nodes visited"),
+
+	HEAP_INSERTS("heap inserts"),
+
+	HEAP_DECREASE_KEYS("heap decrease keys"),
+
+	HEAP_REMOVE_MINS("heap remove mins"),
+
+	/**
+	 * Arcs examined by a Dijkstra algorithm from a settled node.
+	 */
+	DIJKSTRA_RELAXATIONS("dijkstra relaxations"),
+
+	/**
+	 * Nodes settled by a Dijkstra algorithm, at a finite distance.
+	 */
+	DIJKSTRA_SETTLED("dijkstra settled nodes"),
+
+	/**
+	 * Nodes of which the minimum density tree is evaluated by the CH2 step of
+	 * the Roos algorithm.
+	 */
+	CH2_CANDIDATES("CH2 candidates"),
+
+	/**
+	 * Iterations of the dual ascent of the Wong algorithm.
+	 */
+	DUAL_ASCENT_ITERATIONS("dual ascent iterations"),
+
+	/**
+	 * Cycles contracted by the Edmond Chu Liu algorithm.
+	 */
+	CONTRACTIONS("contractions");
+
+	private String name;
+
+	private Counter(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
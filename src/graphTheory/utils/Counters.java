@@ -0,0 +1,79 @@
+package graphTheory.utils;
+
+/**
+ * This class contains static methods to count the work of the algorithms, with
+ * the {@link Counter}s.
+ * <p>
+ * The counters are enabled if the JVM is started with the system property
+ * {@link #PROPERTY} set to true, as in "-DgraphTheory.counters=true".
+ * Otherwise, as {@link #ENABLED} is a constant, the JIT compiler removes the
+ * calls to {@link #increment(Counter)} and {@link #add(Counter, long)}, and
+ * counting costs nothing.
+ * <p>
+ * Each thread has its own counters, so that counting needs no synchronization
+ * and the counters of an algorithm are not modified by the algorithms run by
+ * other threads at the same time. The work an algorithm gives to other
+ * threads is not counted in the counters of its thread.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class Counters {
+
+	public static final String PROPERTY = "graphTheory.counters";
+
+	public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+	private static final Counter[] COUNTERS = Counter.values();
+
+	private static final ThreadLocal<long[]> values = new ThreadLocal<long[]>() {
+		@Override
+		protected long[] initialValue() {
+			return new long[COUNTERS.length];
+		}
+	};
+
+	/**
+	 * Add 1 to the counter c of the current thread.
+	 *
+	 * @param c
+	 */
+	public static void increment(Counter c) {
+		if (ENABLED)
+			values.get()[c.ordinal()]++;
+	}
+
+	/**
+	 * Add n to the counter c of the current thread.
+	 *
+	 * @param c
+	 * @param n
+	 */
+	public static void add(Counter c, long n) {
+		if (ENABLED)
+			values.get()[c.ordinal()] += n;
+	}
+
+	/**
+	 * @param c
+	 * @return the value of the counter c of the current thread, 0 if the
+	 *         counters are disabled.
+	 */
+	public static long get(Counter c) {
+		if (!ENABLED)
+			return 0;
+		return values.get()[c.ordinal()];
+	}
+
+	/**
+	 * @return the values of the counters of the current thread, indexed by
+	 *         the ordinals of the counters, or null if the counters are
+	 *         disabled. The counters are never reset : the work done between
+	 *         two calls is the difference of the returned values.
+	 */
+	public static long[] snapshot() {
+		if (!ENABLED)
+			return null;
+		return values.get().clone();
+	}
+}
@@ -116,6 +116,7 @@ public class CustomFibonacciHeap<Data, Key extends Comparable2<Key>> {
 			throw new IllegalArgumentException(
 					"decreaseKey() got larger key value");
 		}
+		Counters.increment(Counter.HEAP_DECREASE_KEYS);
 
 		x.key = k;
 
@@ -171,6 +172,7 @@ public class CustomFibonacciHeap<Data, Key extends Comparable2<Key>> {
 	 *            key value associated with data object
 	 */
 	public CustomFibonacciHeapNode<Data, Key> insert(Data data, Key key) {
+		Counters.increment(Counter.HEAP_INSERTS);
 		CustomFibonacciHeapNode<Data, Key> node = new CustomFibonacciHeapNode<Data, Key>(
 				data, key);
 
@@ -221,6 +223,7 @@ public class CustomFibonacciHeap<Data, Key extends Comparable2<Key>> {
 	 * @return node with the smallest key
 	 */
 	public CustomFibonacciHeapNode<Data, Key> removeMin() {
+		Counters.increment(Counter.HEAP_REMOVE_MINS);
 		CustomFibonacciHeapNode<Data, Key> z = minNode;
 
 		if (z != null) {
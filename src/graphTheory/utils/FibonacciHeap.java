@@ -133,6 +133,7 @@ public class FibonacciHeap<T> {
 			throw new IllegalArgumentException(
 					"decreaseKey() got larger key value");
 		}
+		Counters.increment(Counter.HEAP_DECREASE_KEYS);
 
 		x.key = k;
 
@@ -188,6 +189,7 @@ public class FibonacciHeap<T> {
 	 *            key value associated with data object
 	 */
 	public FibonacciHeapNode<T> insert(T data, double key) {
+		Counters.increment(Counter.HEAP_INSERTS);
 		FibonacciHeapNode<T> node = new FibonacciHeapNode<T>(data, key);
 
 		// concatenate node into min list
@@ -237,6 +239,7 @@ public class FibonacciHeap<T> {
 	 * @return node with the smallest key
 	 */
 	public FibonacciHeapNode<T> removeMin() {
+		Counters.increment(Counter.HEAP_REMOVE_MINS);
 		FibonacciHeapNode<T> z = minNode;
 
 		if (z != null) {
@@ -5,6 +5,7 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
 
 /**
  * Simplified methods to manage reading, erasing and writing text in files.
@@ -36,15 +37,24 @@ public class FileManager {
 	 * the {@link #readLine()} method to read the file line by line. The file
 	 * should be closed when the reading is finished.
 	 * 
+	 * If the file is compressed with gzip or in a ZIP archive (see
+	 * {@link CompressedFiles}), its decompressed content is read.
+	 * 
 	 * @param path
 	 * @see #readLine()
 	 * @see #closeRead()
 	 */
 	public void openRead(String path) {
 		try {
-			br = new BufferedReader(new FileReader(path));
+			if (CompressedFiles.isCompressed(path))
+				br = new BufferedReader(new InputStreamReader(
+						CompressedFiles.open(path)));
+			else
+				br = new BufferedReader(new FileReader(path));
 		} catch (FileNotFoundException e) {
 			e.printStackTrace();
+		} catch (IOException e) {
+			e.printStackTrace();
 		}
 	}
 
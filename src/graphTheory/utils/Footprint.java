@@ -0,0 +1,224 @@
+package graphTheory.utils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The estimated memory footprint of an object, divided into the structures it
+ * references with its fields : for an instance, its graph, its costs and its
+ * terminals; for an algorithm, each of the maps, heaps or arrays it keeps
+ * during a run. The sizes are estimated with {@link ObjectSizes}.
+ * <p>
+ * An object referenced by several structures is counted once, in the first
+ * structure referencing it, in the order of the fields (the fields of the
+ * superclasses first). The objects reachable from the excluded objects given
+ * to {@link #of(String, Object, int, Object...)}, such as the instance of an
+ * algorithm, are not counted : the footprint of an algorithm is the memory it
+ * adds to its instance.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class Footprint {
+
+	/**
+	 * Name of the structure containing the fields of the object itself.
+	 */
+	public static final String SELF = "(self)";
+
+	private String label;
+	private LinkedHashMap<String, Long> structures;
+	private long total;
+
+	private Footprint(String label) {
+		this.label = label;
+		this.structures = new LinkedHashMap<String, Long>();
+		this.total = 0;
+	}
+
+	/**
+	 * @return the description of the moment when the footprint was measured.
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * @return the number of bytes of each structure, in the order of the
+	 *         fields. The structures of 0 bytes are not given.
+	 */
+	public Map<String, Long> getStructures() {
+		return Collections.unmodifiableMap(structures);
+	}
+
+	/**
+	 * @param name
+	 * @return the number of bytes of the structure with that name, or 0.
+	 */
+	public long getStructure(String name) {
+		Long size = structures.get(name);
+		return (size == null) ? 0 : size;
+	}
+
+	/**
+	 * @return the number of bytes of every structure.
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	private void add(String name, long size) {
+		if (size == 0)
+			return;
+		Long previous = structures.get(name);
+		structures.put(name, (previous == null) ? size : previous + size);
+		total += size;
+	}
+
+	/**
+	 * Measure the footprint of root. Each field of root is a structure, named
+	 * by the field. If depth is greater than 1, the fields of the objects of
+	 * this project referenced by root are divided the same way, as
+	 * "graph.edges", up to depth levels.
+	 *
+	 * @param label
+	 *            : description of the moment of the measure.
+	 * @param root
+	 * @param depth
+	 *            : at least 1.
+	 * @param excluded
+	 *            : objects which, with the objects they reference, are not
+	 *            counted.
+	 * @return the footprint of root.
+	 */
+	public static Footprint of(String label, Object root, int depth,
+			Object... excluded) {
+		return of(label, root, depth, ObjectSizes.newVisitedSet(), excluded);
+	}
+
+	/**
+	 * Measure the footprint of root, as {@link #of(String, Object, int, Object...)},
+	 * without the objects of excludedObjects. As excludedObjects is not
+	 * modified, it can be computed once with {@link #excluded(Object...)} and
+	 * used for several measures, without walking the objects it contains
+	 * again.
+	 *
+	 * @param label
+	 *            : description of the moment of the measure.
+	 * @param root
+	 * @param depth
+	 *            : at least 1.
+	 * @param excludedObjects
+	 *            : objects which are not counted.
+	 * @param excluded
+	 *            : other objects which, with the objects they reference, are
+	 *            not counted.
+	 * @return the footprint of root.
+	 */
+	public static Footprint of(String label, Object root, int depth,
+			Set<Object> excludedObjects, Object... excluded) {
+		Footprint footprint = new Footprint(label);
+		Set<Object> visited = ObjectSizes.newVisitedSet();
+		visited.addAll(excludedObjects);
+		for (Object o : excluded)
+			ObjectSizes.deepSize(o, visited);
+		footprint.divide("", root, depth, visited);
+		return footprint;
+	}
+
+	/**
+	 * @param excluded
+	 * @return the objects of excluded and the objects they reference, to be
+	 *         excluded from several measures.
+	 * @see #of(String, Object, int, Set, Object...)
+	 */
+	public static Set<Object> excluded(Object... excluded) {
+		Set<Object> visited = ObjectSizes.newVisitedSet();
+		for (Object o : excluded)
+			ObjectSizes.deepSize(o, visited);
+		return visited;
+	}
+
+	private void divide(String prefix, Object o, int depth, Set<Object> visited) {
+		if (!visited.add(o))
+			return;
+		add(prefix + SELF, ObjectSizes.shallowSize(o));
+		for (Field f : getFields(o.getClass())) {
+			Object value;
+			try {
+				value = f.get(o);
+			} catch (IllegalAccessException e) {
+				continue;
+			}
+			if (value == null)
+				continue;
+			String name = prefix + f.getName();
+			if (depth > 1 && isDivisible(value))
+				divide(name + ".", value, depth - 1, visited);
+			else
+				add(name, ObjectSizes.deepSize(value, visited));
+		}
+	}
+
+	/**
+	 * @return true if o is an object of this project, which fields can be
+	 *         divided into structures.
+	 */
+	private static boolean isDivisible(Object o) {
+		Class<?> c = o.getClass();
+		return !c.isArray() && c.getName().startsWith("graphTheory.")
+				&& !(o instanceof Collection<?>) && !(o instanceof Map<?, ?>)
+				&& !(o instanceof Enum<?>);
+	}
+
+	/**
+	 * @return the reference fields of c, those of the superclasses first.
+	 */
+	private static List<Field> getFields(Class<?> c) {
+		List<Class<?>> hierarchy = new ArrayList<Class<?>>();
+		for (Class<?> k = c; k != null && k != Object.class; k = k
+				.getSuperclass())
+			hierarchy.add(0, k);
+		List<Field> fields = new ArrayList<Field>();
+		for (Class<?> k : hierarchy)
+			for (Field f : k.getDeclaredFields())
+				if (!Modifier.isStatic(f.getModifiers())
+						&& !f.getType().isPrimitive())
+					try {
+						f.setAccessible(true);
+						fields.add(f);
+					} catch (RuntimeException e) {
+					}
+		return fields;
+	}
+
+	/**
+	 * @param a
+	 * @param b
+	 * @return the footprint with the greatest total among a and b, a if they
+	 *         are equal, or the one which is not null.
+	 */
+	public static Footprint max(Footprint a, Footprint b) {
+		if (a == null)
+			return b;
+		if (b == null)
+			return a;
+		return (b.total > a.total) ? b : a;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(label + " : " + total + " B");
+		for (Map.Entry<String, Long> e : structures.entrySet())
+			sb.append("\n  ").append(e.getKey()).append(" = ")
+					.append(e.getValue()).append(" B");
+		return sb.toString();
+	}
+}
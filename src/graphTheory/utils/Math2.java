@@ -1,6 +1,7 @@
 package graphTheory.utils;
 
 import java.util.Arrays;
+import java.util.Random;
 
 /**
  * 
@@ -12,6 +13,53 @@ import java.util.Arrays;
  */
 public class Math2 {
 
+	/**
+	 * Random generator of each thread, if it was seeded with
+	 * {@link #setSeed(long)}. Otherwise the random methods of this class use
+	 * {@link Math#random()} and unseeded {@link HighQualityRandom}s.
+	 */
+	private static final ThreadLocal<Random> seededRandom = new ThreadLocal<Random>();
+
+	/**
+	 * Seed the random methods of this class, and of the classes using them,
+	 * for the current thread only. Two threads seeded with the same value
+	 * draw the same sequence of random values.
+	 * 
+	 * @param seed
+	 */
+	public static void setSeed(long seed) {
+		seededRandom.set(new HighQualityRandom(seed));
+	}
+
+	/**
+	 * Cancel {@link #setSeed(long)} for the current thread.
+	 */
+	public static void clearSeed() {
+		seededRandom.remove();
+	}
+
+	/**
+	 * @return the random generator of the current thread if it was seeded,
+	 *         and a new unseeded generator otherwise.
+	 */
+	public static Random getRandom() {
+		Random r = seededRandom.get();
+		if (r == null)
+			return new HighQualityRandom();
+		return r;
+	}
+
+	/**
+	 * @return a random double between 0 included and 1 excluded, drawn with
+	 *         the random generator of the current thread if it was seeded.
+	 */
+	public static double random() {
+		Random r = seededRandom.get();
+		if (r == null)
+			return Math.random();
+		return r.nextDouble();
+	}
+
 	/**
 	 * Return a random boolean.
 	 * 
@@ -30,7 +78,7 @@ public class Math2 {
 	public static int randomInt(int a, int b) {
 		if (a > b)
 			return randomInt(b, a);
-		return (int) (Math.random() * (b - a) + a);
+		return (int) (random() * (b - a) + a);
 	}
 
 	/**
@@ -55,7 +103,7 @@ public class Math2 {
 	 * @return uniformly any double between a included and b excluded.
 	 */
 	public static double uniform(double a, double b) {
-		return Math.random() * (b - a) + a;
+		return random() * (b - a) + a;
 	}
 
 	/**
@@ -65,7 +113,7 @@ public class Math2 {
 	 * @return a random double using normal law of parameters mu and sigma 2.
 	 */
 	public static double norm(double mu, double sigma2) {
-		double u1 = Math.random(), u2 = Math.random();
+		double u1 = random(), u2 = random();
 		return mu + Math.sqrt(sigma2) * Math.sqrt(-2 * Math.log(u1))
 				* Math.cos(2 * Math.PI * u2);
 	}
@@ -76,7 +124,7 @@ public class Math2 {
 	 * @return a random double using exponential law of parameter lambda
 	 */
 	public static double exp(double lambda) {
-		double u1 = Math.random();
+		double u1 = random();
 		return -1 / lambda * Math.log(u1);
 	}
 
@@ -164,7 +212,7 @@ public class Math2 {
 		for (int i = 0; i < k; i++)
 			perm[i] = i;
 		int swap, r;
-		HighQualityRandom hqr = new HighQualityRandom();
+		Random hqr = getRandom();
 		for (int i = 1; i < k - 1; i++) {
 			r = hqr.nextInt(i);
 			swap = perm[i];
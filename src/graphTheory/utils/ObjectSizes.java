@@ -0,0 +1,319 @@
+package graphTheory.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class contains static methods estimating the number of bytes of the
+ * objects in the heap of a 64 bits HotSpot JVM : the object header, the
+ * fields, and the padding to 8 bytes, with compressed references if the JVM
+ * uses them.
+ * <p>
+ * The deep size of an object is the sum of the sizes of the objects it
+ * references, directly or not, each object being counted once. The fields of
+ * the classes of this project are read by reflection. As the fields of the
+ * classes of the JDK cannot be read, their collections are accounted for
+ * explicitly : the internal arrays and nodes of the hash maps, tree maps,
+ * linked lists, array lists, array deques and bit sets are estimated from
+ * their sizes, and their elements are visited through their public methods.
+ * The other objects of the JDK are counted without the objects they
+ * reference, except the characters of the strings. The classes and the enum
+ * constants, which are shared, are not counted.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class ObjectSizes {
+
+	/**
+	 * True if the references take 4 bytes.
+	 */
+	private static final boolean COMPRESSED_OOPS = isCompressedOops();
+
+	public static final int REFERENCE_SIZE = COMPRESSED_OOPS ? 4 : 8;
+	public static final int HEADER_SIZE = COMPRESSED_OOPS ? 12 : 16;
+	public static final int ARRAY_HEADER_SIZE = HEADER_SIZE + 4;
+
+	/**
+	 * Shallow size of the objects of each class, and reference fields of the
+	 * classes of this project.
+	 */
+	private static final ConcurrentHashMap<Class<?>, Long> shallowSizes = new ConcurrentHashMap<Class<?>, Long>();
+	private static final ConcurrentHashMap<Class<?>, Field[]> referenceFields = new ConcurrentHashMap<Class<?>, Field[]>();
+
+	private static boolean isCompressedOops() {
+		try {
+			com.sun.management.HotSpotDiagnosticMXBean bean = ManagementFactory
+					.getPlatformMXBean(com.sun.management.HotSpotDiagnosticMXBean.class);
+			return bean == null
+					|| Boolean.parseBoolean(bean.getVMOption(
+							"UseCompressedOops").getValue());
+		} catch (RuntimeException e) {
+			return true;
+		} catch (LinkageError e) {
+			return true;
+		}
+	}
+
+	private static long align(long size) {
+		return (size + 7) & ~7L;
+	}
+
+	private static int primitiveSize(Class<?> c) {
+		if (c == long.class || c == double.class)
+			return 8;
+		if (c == int.class || c == float.class)
+			return 4;
+		if (c == short.class || c == char.class)
+			return 2;
+		return 1;
+	}
+
+	/**
+	 * @param componentType
+	 * @param length
+	 * @return the size of an array.
+	 */
+	public static long arraySize(Class<?> componentType, long length) {
+		int elementSize = componentType.isPrimitive() ? primitiveSize(componentType)
+				: REFERENCE_SIZE;
+		return align(ARRAY_HEADER_SIZE + elementSize * length);
+	}
+
+	/**
+	 * @param c
+	 * @return the size of an object of the class c, without the objects it
+	 *         references.
+	 */
+	public static long shallowSize(Class<?> c) {
+		Long size = shallowSizes.get(c);
+		if (size != null)
+			return size;
+		long s = HEADER_SIZE;
+		for (Class<?> k = c; k != null; k = k.getSuperclass())
+			for (Field f : k.getDeclaredFields())
+				if (!Modifier.isStatic(f.getModifiers()))
+					s += f.getType().isPrimitive() ? primitiveSize(f.getType())
+							: REFERENCE_SIZE;
+		size = align(s);
+		shallowSizes.put(c, size);
+		return size;
+	}
+
+	/**
+	 * @param o
+	 * @return the size of o, without the objects it references, or 0 if o is
+	 *         null.
+	 */
+	public static long shallowSize(Object o) {
+		if (o == null)
+			return 0;
+		Class<?> c = o.getClass();
+		if (c.isArray())
+			return arraySize(c.getComponentType(), java.lang.reflect.Array
+					.getLength(o));
+		return shallowSize(c);
+	}
+
+	/**
+	 * @param o
+	 * @return the deep size of o, or 0 if o is null.
+	 */
+	public static long deepSize(Object o) {
+		return deepSize(o, newVisitedSet());
+	}
+
+	/**
+	 * @return an empty set of objects compared by identity, for
+	 *         {@link #deepSize(Object, Set)}.
+	 */
+	public static Set<Object> newVisitedSet() {
+		return Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+	}
+
+	/**
+	 * Compute the deep size of o, without the objects of visited, and add the
+	 * visited objects to visited. Several calls with the same set count each
+	 * object once.
+	 *
+	 * @param o
+	 * @param visited
+	 * @return the deep size of o, without the objects of visited.
+	 */
+	public static long deepSize(Object o, Set<Object> visited) {
+		long size = 0;
+		ArrayDeque<Object> stack = new ArrayDeque<Object>();
+		if (o != null)
+			stack.push(o);
+		while (!stack.isEmpty()) {
+			Object current = stack.pop();
+			Class<?> c = current.getClass();
+			if (c == Class.class || current instanceof Enum<?>
+					|| !visited.add(current))
+				continue;
+			size += shallowSize(current);
+			if (c.isArray()) {
+				if (!c.getComponentType().isPrimitive())
+					for (Object element : (Object[]) current)
+						if (element != null)
+							stack.push(element);
+				continue;
+			}
+			for (Field f : getReferenceFields(c))
+				try {
+					Object value = f.get(current);
+					if (value != null)
+						stack.push(value);
+				} catch (IllegalAccessException e) {
+				}
+			size += jdkSize(current, stack);
+		}
+		return size;
+	}
+
+	private static boolean isJdk(Class<?> c) {
+		String name = c.getName();
+		return name.startsWith("java.") || name.startsWith("javax.")
+				|| name.startsWith("jdk.") || name.startsWith("sun.")
+				|| name.startsWith("com.sun.");
+	}
+
+	/**
+	 * @return the reference fields of c and its superclasses which do not
+	 *         belong to the JDK.
+	 */
+	private static Field[] getReferenceFields(Class<?> c) {
+		Field[] fields = referenceFields.get(c);
+		if (fields != null)
+			return fields;
+		List<Field> list = new ArrayList<Field>();
+		for (Class<?> k = c; k != null && !isJdk(k); k = k.getSuperclass())
+			for (Field f : k.getDeclaredFields())
+				if (!Modifier.isStatic(f.getModifiers())
+						&& !f.getType().isPrimitive())
+					try {
+						f.setAccessible(true);
+						list.add(f);
+					} catch (RuntimeException e) {
+					}
+		fields = list.toArray(new Field[list.size()]);
+		referenceFields.put(c, fields);
+		return fields;
+	}
+
+	/**
+	 * @return the first class of the JDK among c and its superclasses.
+	 */
+	private static Class<?> getJdkClass(Class<?> c) {
+		while (!isJdk(c))
+			c = c.getSuperclass();
+		return c;
+	}
+
+	/**
+	 * @return the number of buckets of a hash table containing size elements.
+	 */
+	private static long hashCapacity(int size) {
+		if (size == 0)
+			return 0;
+		long capacity = 16;
+		while (capacity * 3 / 4 < size)
+			capacity *= 2;
+		return capacity;
+	}
+
+	/**
+	 * @return the size of a hash table of the JDK containing size entries,
+	 *         without its shallow size, linkedNodes being true if the entries
+	 *         are in a linked list.
+	 */
+	private static long hashTableSize(int size, boolean linkedNodes) {
+		long node = align(HEADER_SIZE + 4 + (linkedNodes ? 5 : 3)
+				* REFERENCE_SIZE);
+		return ((size == 0) ? 0 : arraySize(Object.class, hashCapacity(size)))
+				+ size * node;
+	}
+
+	private static long treeSize(int size) {
+		return size * align(HEADER_SIZE + 5 * REFERENCE_SIZE + 1);
+	}
+
+	/**
+	 * Estimate the internal objects of the objects of the JDK, which fields
+	 * cannot be read, and push the objects they contain in the stack.
+	 *
+	 * @return the size of the internal objects of o.
+	 */
+	private static long jdkSize(Object o, ArrayDeque<Object> stack) {
+		Class<?> c = getJdkClass(o.getClass());
+		if (c == String.class)
+			return arraySize(byte.class, ((String) o).length());
+		if (c == BitSet.class)
+			return arraySize(long.class, ((BitSet) o).size() / 64);
+
+		long size = 0;
+		if (o instanceof Map<?, ?>) {
+			Map<?, ?> map = (Map<?, ?>) o;
+			if (c == HashMap.class || c == ConcurrentHashMap.class)
+				size = hashTableSize(map.size(), false);
+			else if (c == LinkedHashMap.class)
+				size = hashTableSize(map.size(), true);
+			else if (c == IdentityHashMap.class)
+				size = arraySize(Object.class, 2 * hashCapacity(map.size()));
+			else if (c == TreeMap.class)
+				size = treeSize(map.size());
+			try {
+				for (Map.Entry<?, ?> e : map.entrySet()) {
+					if (e.getKey() != null)
+						stack.push(e.getKey());
+					if (e.getValue() != null)
+						stack.push(e.getValue());
+				}
+			} catch (RuntimeException e) {
+				// Modified concurrently : the elements are partially counted.
+			}
+		} else if (o instanceof Collection<?>) {
+			Collection<?> collection = (Collection<?>) o;
+			int n = collection.size();
+			if (c == HashSet.class)
+				size = shallowSize(HashMap.class) + hashTableSize(n, false);
+			else if (c == LinkedHashSet.class)
+				size = shallowSize(LinkedHashMap.class)
+						+ hashTableSize(n, true);
+			else if (c == TreeSet.class)
+				size = shallowSize(TreeMap.class) + treeSize(n);
+			else if (c == LinkedList.class)
+				size = n * align(HEADER_SIZE + 3 * REFERENCE_SIZE);
+			else if (c == ArrayList.class || c == ArrayDeque.class
+					|| c == java.util.PriorityQueue.class
+					|| c == java.util.Vector.class)
+				size = arraySize(Object.class, n);
+			try {
+				for (Object element : collection)
+					if (element != null)
+						stack.push(element);
+			} catch (RuntimeException e) {
+				// Modified concurrently : the elements are partially counted.
+			}
+		}
+		return size;
+	}
+}
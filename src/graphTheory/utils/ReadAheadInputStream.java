@@ -0,0 +1,203 @@
+package graphTheory.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An input stream reading another input stream, the source, on its own
+ * thread. The bytes of the source are read by chunks, ahead of the reader of
+ * this stream, and are stored in a bounded queue. It is typically used to
+ * decompress a file on a thread while another thread parses it.
+ * <p>
+ * An exception thrown by the source is thrown by the next read of this stream
+ * after the bytes read before it. The source is closed when it is ended or
+ * when this stream is closed.
+ *
+ * @author Watel Dimitri
+ *
+ */
+public class ReadAheadInputStream extends InputStream {
+
+	/**
+	 * Default size of a chunk, in bytes : 64kB.
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+	/**
+	 * Default maximum number of chunks read ahead.
+	 */
+	public static final int DEFAULT_NUMBER_OF_CHUNKS = 16;
+
+	/**
+	 * Chunk put in the queue after the last chunk of the source.
+	 */
+	private static final byte[] END = new byte[0];
+
+	private InputStream source;
+	private BlockingQueue<byte[]> chunks;
+	private Thread reader;
+
+	/**
+	 * Exception thrown by the source, if any.
+	 */
+	private volatile IOException exception;
+	private volatile boolean closed;
+
+	/**
+	 * Current chunk and position of the next byte to read in it.
+	 */
+	private byte[] chunk;
+	private int position;
+
+	public ReadAheadInputStream(InputStream source, String threadName) {
+		this(source, threadName, DEFAULT_CHUNK_SIZE, DEFAULT_NUMBER_OF_CHUNKS);
+	}
+
+	/**
+	 * Create the stream and start reading the source.
+	 *
+	 * @param source
+	 * @param threadName
+	 *            : name of the thread reading the source.
+	 * @param chunkSize
+	 *            : maximum number of bytes of a chunk.
+	 * @param numberOfChunks
+	 *            : maximum number of chunks read ahead.
+	 */
+	public ReadAheadInputStream(InputStream source, String threadName,
+			final int chunkSize, int numberOfChunks) {
+		this.source = source;
+		this.chunks = new ArrayBlockingQueue<byte[]>(numberOfChunks);
+		this.chunk = null;
+		this.position = 0;
+
+		reader = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				readSource(chunkSize);
+			}
+		}, threadName);
+		reader.setDaemon(true);
+		reader.start();
+	}
+
+	/**
+	 * Read the source until it is ended or this stream is closed.
+	 */
+	private void readSource(int chunkSize) {
+		try {
+			while (!closed) {
+				byte[] buffer = new byte[chunkSize];
+				int length = 0;
+				int read = 0;
+				// Fill the chunk, the source may return few bytes at a time.
+				while (length < chunkSize
+						&& (read = source.read(buffer, length, chunkSize
+								- length)) >= 0)
+					length += read;
+				if (length > 0) {
+					if (length < chunkSize) {
+						byte[] b = new byte[length];
+						System.arraycopy(buffer, 0, b, 0, length);
+						buffer = b;
+					}
+					put(buffer);
+				}
+				if (read < 0)
+					break;
+			}
+		} catch (IOException e) {
+			exception = e;
+		} catch (InterruptedException e) {
+			// The stream was closed
+		} finally {
+			try {
+				source.close();
+			} catch (IOException e) {
+				if (exception == null)
+					exception = e;
+			}
+			try {
+				put(END);
+			} catch (InterruptedException e) {
+			}
+		}
+	}
+
+	/**
+	 * Put the chunk in the queue, waiting until there is room for it or this
+	 * stream is closed.
+	 */
+	private void put(byte[] chunk) throws InterruptedException {
+		while (!closed)
+			if (chunks.offer(chunk, 100, TimeUnit.MILLISECONDS))
+				return;
+	}
+
+	/**
+	 * @return false if the source is ended.
+	 */
+	private boolean nextChunk() throws IOException {
+		if (closed)
+			throw new IOException("Stream closed");
+		if (chunk == END)
+			return false;
+		if (chunk != null && position < chunk.length)
+			return true;
+		try {
+			chunk = chunks.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for "
+					+ reader.getName(), e);
+		}
+		position = 0;
+		if (chunk == END) {
+			if (exception != null)
+				throw exception;
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!nextChunk())
+			return -1;
+		return chunk[position++] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0)
+			return 0;
+		if (!nextChunk())
+			return -1;
+		int length = Math.min(len, chunk.length - position);
+		System.arraycopy(chunk, position, b, off, length);
+		position += length;
+		return length;
+	}
+
+	@Override
+	public int available() throws IOException {
+		if (closed || chunk == null || chunk == END)
+			return 0;
+		return chunk.length - position;
+	}
+
+	/**
+	 * Close this stream and stop reading the source.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed)
+			return;
+		closed = true;
+		reader.interrupt();
+		chunks.clear();
+	}
+}
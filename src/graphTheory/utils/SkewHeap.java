@@ -0,0 +1,178 @@
+package graphTheory.utils;
+
+/**
+ * Implementation of a mergeable min heap: the skew heap, from D. Sleator and
+ * R. Tarjan, "Self-adjusting heaps".
+ * <p>
+ * Every operation runs in O(log n) amortized time. Two heaps can be merged in
+ * O(log n) amortized time with {@link #meld(SkewHeap)} and the same value can
+ * be added to all the keys of a heap in O(1) with {@link #addToAllKeys(double)}
+ * : the value is stored in the root and pushed lazily down to the children.
+ *
+ * @author Watel Dimitri
+ *
+ * @param <T>
+ *            type of the data associated with each key.
+ */
+public class SkewHeap<T> {
+
+	/**
+	 * Node of a skew heap.
+	 */
+	public static class SkewHeapNode<T> {
+		private T data;
+		private double key;
+
+		/**
+		 * Value to add to the keys of every node in the subtrees of this node.
+		 */
+		private double add;
+
+		private SkewHeapNode<T> left, right;
+
+		private SkewHeapNode(T data, double key) {
+			this.data = data;
+			this.key = key;
+		}
+
+		public T getData() {
+			return data;
+		}
+
+		public double getKey() {
+			return key;
+		}
+
+		/**
+		 * Push the lazy value {@link #add} down to the children.
+		 */
+		private void push() {
+			if (add == 0)
+				return;
+			if (left != null) {
+				left.key += add;
+				left.add += add;
+			}
+			if (right != null) {
+				right.key += add;
+				right.add += add;
+			}
+			add = 0;
+		}
+	}
+
+	private SkewHeapNode<T> root;
+
+	private int size;
+
+	/**
+	 * Create an empty heap.
+	 */
+	public SkewHeap() {
+		root = null;
+		size = 0;
+	}
+
+	public boolean isEmpty() {
+		return root == null;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Insert data with the key key in this heap.
+	 */
+	public void insert(T data, double key) {
+		root = meld(root, new SkewHeapNode<T>(data, key));
+		size++;
+	}
+
+	/**
+	 * @return the node of minimum key, or null if this heap is empty.
+	 */
+	public SkewHeapNode<T> min() {
+		return root;
+	}
+
+	/**
+	 * Remove and return the node of minimum key, or null if this heap is
+	 * empty.
+	 */
+	public SkewHeapNode<T> removeMin() {
+		SkewHeapNode<T> min = root;
+		if (min == null)
+			return null;
+		min.push();
+		root = meld(min.left, min.right);
+		min.left = min.right = null;
+		size--;
+		return min;
+	}
+
+	/**
+	 * Add value to the key of every node in this heap.
+	 */
+	public void addToAllKeys(double value) {
+		if (root == null)
+			return;
+		root.key += value;
+		root.add += value;
+	}
+
+	/**
+	 * Move every node of other into this heap. other is empty after this
+	 * operation.
+	 */
+	public void meld(SkewHeap<T> other) {
+		if (other == this)
+			return;
+		root = meld(root, other.root);
+		size += other.size;
+		other.root = null;
+		other.size = 0;
+	}
+
+	/**
+	 * Remove every node of this heap.
+	 */
+	public void clear() {
+		root = null;
+		size = 0;
+	}
+
+	/**
+	 * Top-down iterative merge of two skew heaps: the right paths of a and b
+	 * are merged, and the children of every node on the merged path are
+	 * swapped.
+	 *
+	 * @return the root of the merged heap.
+	 */
+	private static <T> SkewHeapNode<T> meld(SkewHeapNode<T> a,
+			SkewHeapNode<T> b) {
+		SkewHeapNode<T> root = null, last = null;
+		while (a != null && b != null) {
+			if (b.key < a.key) {
+				SkewHeapNode<T> c = a;
+				a = b;
+				b = c;
+			}
+			a.push();
+			SkewHeapNode<T> next = a.right;
+			a.right = a.left;
+			a.left = null;
+			if (last == null)
+				root = a;
+			else
+				last.left = a;
+			last = a;
+			a = next;
+		}
+		SkewHeapNode<T> rest = (a != null) ? a : b;
+		if (last == null)
+			return rest;
+		last.left = rest;
+		return root;
+	}
+}
@@ -1,5 +1,7 @@
 package graphTheory.utils.probabilities;
 
+import graphTheory.utils.Math2;
+
 /**
  * A Bernouilli Law which has a probability of p to return true
  * 
@@ -32,7 +34,7 @@ public class BBernouilliLaw extends BooleanProbabilityLaw {
 
 	@Override
 	public boolean simulate() {
-		double x = Math.random();
+		double x = Math2.random();
 		return x < p;
 	}
 
@@ -1,5 +1,7 @@
 package graphTheory.utils.probabilities;
 
+import graphTheory.utils.Math2;
+
 /**
  * This class simulate a discrete bernouilli law which returns
  * 1 with a probability of p
@@ -32,7 +34,7 @@ public class DBernouilliLaw extends DiscreteProbabilityLaw {
 
 	@Override
 	public int simulate() {
-		double x = Math.random();
+		double x = Math2.random();
 		if (x < p)
 			return 1;
 		else